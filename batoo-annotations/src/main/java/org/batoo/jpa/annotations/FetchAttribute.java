@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.annotations;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Defines how an association is fetched within a {@link FetchProfile}.
+ * 
+ * @since 2.0.0
+ * @author hceylan
+ */
+@Target({})
+@Retention(RUNTIME)
+public @interface FetchAttribute {
+
+	/**
+	 * Returns the dot separated path of the association relative to the entity, e.g. <code>orders.items</code>.
+	 * 
+	 * @return the path of the association
+	 * 
+	 * @since 2.0.0
+	 */
+	String path();
+
+	/**
+	 * Returns the fetch strategy of the association.
+	 * <p>
+	 * {@link FetchStrategyType#JOIN} joins the association into the select where possible, {@link FetchStrategyType#BATCH} and
+	 * {@link FetchStrategyType#SUBSELECT} load the association for all the results with follow-up queries, and
+	 * {@link FetchStrategyType#SELECT} leaves the association lazy even if it is mapped eager. Singular associations are left lazy only if
+	 * they own a foreign key.
+	 * 
+	 * @return the fetch strategy of the association
+	 * 
+	 * @since 2.0.0
+	 */
+	FetchStrategyType strategy() default FetchStrategyType.JOIN;
+}
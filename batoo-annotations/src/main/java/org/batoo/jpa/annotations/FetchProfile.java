@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Defines a named fetch profile for an entity.
+ * <p>
+ * A fetch profile is activated per query or find operation with the <code>org.batoo.jpa.fetch_profile</code> hint and overrides
+ * which associations are loaded together with the entity and how.
+ * 
+ * @since 2.0.0
+ * @author hceylan
+ */
+@Target({ TYPE })
+@Retention(RUNTIME)
+public @interface FetchProfile {
+
+	/**
+	 * Returns the attributes of the fetch profile.
+	 * 
+	 * @return the attributes of the fetch profile
+	 * 
+	 * @since 2.0.0
+	 */
+	FetchAttribute[] attributes() default {};
+
+	/**
+	 * Returns the maximum depth of the eager fetch joins while the profile is active, <code>-1</code> to use the default.
+	 * 
+	 * @return the maximum depth of the eager fetch joins
+	 * 
+	 * @since 2.0.0
+	 */
+	int maxDepth() default -1;
+
+	/**
+	 * Returns the name of the fetch profile.
+	 * 
+	 * @return the name of the fetch profile
+	 * 
+	 * @since 2.0.0
+	 */
+	String name();
+}
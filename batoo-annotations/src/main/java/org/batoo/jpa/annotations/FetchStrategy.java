@@ -50,10 +50,23 @@ public @interface FetchStrategy {
 	 * SELECT for a seperate query
 	 * <p>
 	 * JOIN for a left join query
+	 * <p>
+	 * BATCH for a seperate query that loads the association for up to {@link #batchSize()} owners at once
+	 * <p>
+	 * SUBSELECT for a seperate query that loads the association for all the owners returned by the original query
 	 * 
 	 * @return the preferred strategy for the annotated association
 	 * 
 	 * @since 2.0.0
 	 */
 	FetchStrategyType strategy() default FetchStrategyType.AUTO;
+
+	/**
+	 * Returns the number of owners to load the association for at once when the strategy is {@link FetchStrategyType#BATCH}.
+	 * 
+	 * @return the number of owners to load the association for at once
+	 * 
+	 * @since 2.0.0
+	 */
+	int batchSize() default 10;
 }
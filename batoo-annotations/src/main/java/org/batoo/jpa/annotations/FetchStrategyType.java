@@ -36,6 +36,17 @@ public enum FetchStrategyType {
 	 */
 	JOIN, //
 
+	/**
+	 * query infers a separate select query that loads the association for a batch of uninitialized owners in the session
+	 */
+	BATCH, //
+
+	/**
+	 * query infers a separate select query that loads the association for all the owners returned by the original query, inlined as a
+	 * subselect
+	 */
+	SUBSELECT, //
+
 	/**
 	 * maxDepth is used to decise on the type
 	 */
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.annotations;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a lazy basic attribute to a named group.
+ * <p>
+ * The attributes declared with <code>@Basic(fetch = FetchType.LAZY)</code> are not selected when the entity is loaded. The first time an
+ * attribute of a group is accessed, all the attributes in the same group are loaded with a single query. The lazy attributes without a
+ * group belong to the default group.
+ * 
+ * @since 2.0.0
+ * @author hceylan
+ */
+@Target({ FIELD, METHOD })
+@Retention(RUNTIME)
+public @interface LazyGroup {
+
+	/**
+	 * Returns the name of the lazy group.
+	 * 
+	 * @return the name of the lazy group
+	 * 
+	 * @since 2.0.0
+	 */
+	String value();
+}
@@ -20,24 +20,23 @@ package org.batoo.jpa.jdbc;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.CharArrayWriter;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.io.StringWriter;
+import java.io.Reader;
+import java.io.StringReader;
 import java.lang.reflect.Method;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Calendar;
 import java.util.Date;
 
 import javax.persistence.EnumType;
 import javax.persistence.PersistenceException;
 import javax.persistence.TemporalType;
-import javax.sql.rowset.serial.SerialBlob;
-import javax.sql.rowset.serial.SerialClob;
 
-import org.apache.commons.io.IOUtils;
 import org.batoo.common.reflect.ReflectHelper;
 import org.batoo.jpa.jdbc.mapping.Mapping;
 import org.batoo.jpa.parser.AbstractLocator;
@@ -62,6 +61,8 @@ public abstract class AbstractColumn implements Column {
 	private final Enum<?>[] values;
 	private final Method method;
 
+	private ParameterBinder binder;
+
 	/**
 	 * @param locator
 	 *            the locator
@@ -196,28 +197,23 @@ public abstract class AbstractColumn implements Column {
 		}
 
 		if (this.lob) {
+			// character, binary and stream values are streamed to the statement by the binder without copying
+			if ((value instanceof String) || (value instanceof char[]) || (value instanceof byte[]) //
+				|| (value instanceof InputStream) || (value instanceof Reader)) {
+				return value;
+			}
+
 			try {
-				if (this.javaType == String.class) {
-					return new SerialClob(((String) value).toCharArray());
-				}
-				else if (this.javaType == char[].class) {
-					return new SerialClob((char[]) value);
+				final ByteArrayOutputStream os = new ByteArrayOutputStream();
+				final ObjectOutputStream oos = new ObjectOutputStream(os);
+				try {
+					oos.writeObject(value);
 				}
-				else if (this.javaType == byte[].class) {
-					return new SerialBlob((byte[]) value);
+				finally {
+					oos.close();
 				}
-				else {
-					final ByteArrayOutputStream os = new ByteArrayOutputStream();
-					final ObjectOutputStream oos = new ObjectOutputStream(os);
-					try {
-						oos.writeObject(value);
-					}
-					finally {
-						oos.close();
-					}
 
-					return new SerialBlob(os.toByteArray());
-				}
+				return os.toByteArray();
 			}
 			catch (final Exception e) {
 				throw new PersistenceException("Cannot set parameter", e);
@@ -261,6 +257,21 @@ public abstract class AbstractColumn implements Column {
 		return value;
 	}
 
+	/**
+	 * Returns the binder to bind the values of the column to the statements.
+	 * 
+	 * @return the binder to bind the values of the column to the statements
+	 * 
+	 * @since 2.0.0
+	 */
+	public ParameterBinder getBinder() {
+		if (this.binder == null) {
+			this.binder = ParameterBinder.forSqlType(this.getSqlType());
+		}
+
+		return this.binder;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -395,6 +406,18 @@ public abstract class AbstractColumn implements Column {
 	@Override
 	public abstract boolean isUpdatable();
 
+	/**
+	 * Returns if the column is an {@link InputStream} or {@link Reader} typed lob column.
+	 * 
+	 * @return <code>true</code> if the column is a stream column, <code>false</code> otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isStream() {
+		return this.lob && (this.javaType != null)
+			&& (InputStream.class.isAssignableFrom(this.javaType) || Reader.class.isAssignableFrom(this.javaType));
+	}
+
 	/**
 	 * Returns if the column is a version column.
 	 * 
@@ -406,80 +429,103 @@ public abstract class AbstractColumn implements Column {
 		return false;
 	}
 
+	private int lengthOf(long length) {
+		// String, char[] and byte[] values cannot be longer than Integer.MAX_VALUE
+		if (length > Integer.MAX_VALUE) {
+			throw new PersistenceException("Lob of length " + length + " cannot be read into the memory, map the attribute as stream and "
+				+ "read it within a transaction: " + this.locator);
+		}
+
+		return (int) length;
+	}
+
+	/**
+	 * Reads the lob value into the java type of the column.
+	 * <p>
+	 * The values are read at once with the length of the lob, without intermediate buffers. {@link InputStream} and {@link Reader} typed
+	 * columns read outside of a transaction receive a stream over the value read, as the stream of the lob itself becomes invalid once the
+	 * connection is released. Within a transaction they receive the stream of the lob, see {@link #setStream(Object, Object)}.
+	 */
 	private Object readLob(Object value) {
 		try {
 			if (value instanceof Clob) {
 				final Clob clob = (Clob) value;
 
-				if (this.javaType == String.class) {
-					final StringWriter w = new StringWriter();
-					IOUtils.copy(clob.getAsciiStream(), w);
-					value = w.toString();
+				final String string = clob.getSubString(1, this.lengthOf(clob.length()));
+
+				if (Reader.class.isAssignableFrom(this.javaType)) {
+					return new StringReader(string);
 				}
-				else {
-					final CharArrayWriter w = new CharArrayWriter((int) clob.length());
-					IOUtils.copy(clob.getCharacterStream(), w);
-					value = w.toCharArray();
+
+				return this.javaType == String.class ? string : string.toCharArray();
+			}
+
+			if (value instanceof Blob) {
+				final Blob blob = (Blob) value;
+
+				if (InputStream.class.isAssignableFrom(this.javaType)) {
+					return new ByteArrayInputStream(blob.getBytes(1, this.lengthOf(blob.length())));
 				}
+
+				if (this.javaType == byte[].class) {
+					return blob.getBytes(1, this.lengthOf(blob.length()));
+				}
+
+				return this.readObject(blob.getBinaryStream());
 			}
-			else if (value instanceof byte[]) {
+
+			if (value instanceof byte[]) {
+				final byte[] byteArray = (byte[]) value;
+
+				if (InputStream.class.isAssignableFrom(this.javaType)) {
+					return new ByteArrayInputStream(byteArray);
+				}
+
 				if (this.javaType == String.class) {
-					final StringWriter w = new StringWriter();
-					IOUtils.copy(new ByteArrayInputStream((byte[]) value), w);
-					value = w.toString();
+					return new String(byteArray);
 				}
-				else if (this.javaType == char[].class) {
-					final byte[] byteArray = (byte[]) value;
 
+				if (this.javaType == char[].class) {
 					final char[] charArray = new char[byteArray.length];
 
 					for (int i = 0; i < charArray.length; i++) {
 						charArray[i] = (char) byteArray[i];
 					}
 
-					value = charArray;
+					return charArray;
 				}
-				else if (this.javaType != byte[].class) {
-					final ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream((byte[]) value));
-					try {
-						return is.readObject();
-					}
-					finally {
-						is.close();
-					}
+
+				if (this.javaType != byte[].class) {
+					return this.readObject(new ByteArrayInputStream(byteArray));
 				}
-			}
-			else if (value instanceof String) {
+
 				return value;
 			}
-			else {
-				final Blob blob = (Blob) value;
-
-				if (this.javaType == byte[].class) {
-					final ByteArrayOutputStream os = new ByteArrayOutputStream();
 
-					IOUtils.copy(blob.getBinaryStream(), os);
-
-					value = os.toByteArray();
-				}
-				else {
-
-					final ObjectInputStream is = new ObjectInputStream(blob.getBinaryStream());
-					try {
-						value = is.readObject();
-					}
-					finally {
-						is.close();
-					}
-				}
+			if ((value instanceof String) && Reader.class.isAssignableFrom(this.javaType)) {
+				return new StringReader((String) value);
 			}
+
 			return value;
 		}
+		catch (final PersistenceException e) {
+			throw e;
+		}
 		catch (final Exception e) {
 			throw new PersistenceException("Cannot read sql data", e);
 		}
 	}
 
+	private Object readObject(InputStream stream) throws Exception {
+		final ObjectInputStream is = new ObjectInputStream(stream);
+		try {
+			return is.readObject();
+		}
+		finally {
+			is.close();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -489,6 +535,40 @@ public abstract class AbstractColumn implements Column {
 		this.idType = IdType.MANUAL;
 	}
 
+	/**
+	 * Sets the value of the stream column for the instance to the stream of the lob.
+	 * <p>
+	 * The stream of the lob is valid only while the connection that read the lob is held, so the caller must hold the connection, such as
+	 * within a transaction. The lob is then read as the stream is consumed instead of being read into the memory at once.
+	 * 
+	 * @param instance
+	 *            the instance of which to set value
+	 * @param value
+	 *            the lob value read
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setStream(Object instance, Object value) {
+		try {
+			if (value instanceof Clob) {
+				this.getMapping().set(instance, ((Clob) value).getCharacterStream());
+
+				return;
+			}
+
+			if (value instanceof Blob) {
+				this.getMapping().set(instance, ((Blob) value).getBinaryStream());
+
+				return;
+			}
+		}
+		catch (final SQLException e) {
+			throw new PersistenceException("Cannot read sql data", e);
+		}
+
+		this.setValue(instance, value);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -20,6 +20,7 @@ package org.batoo.jpa.jdbc;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -55,6 +56,24 @@ public abstract class AbstractDataSource implements DataSource {
 
 	public abstract void open(String persistanceUnitName, String hintName);
 
+	/**
+	 * initialize the underlining implementation with the properties of the persistence unit.
+	 * <p>
+	 * The default implementation ignores the properties and delegates to {@link #open(String, String)}.
+	 * 
+	 * @param persistanceUnitName
+	 *            the name of the persistence unit
+	 * @param hintName
+	 *            the hint name
+	 * @param properties
+	 *            the properties of the persistence unit
+	 * 
+	 * @since 2.0.0
+	 */
+	public void open(String persistanceUnitName, String hintName, Map<String, Object> properties) {
+		this.open(persistanceUnitName, hintName);
+	}
+
 	/**
 	 * release the connection
 	 * 
@@ -397,6 +397,21 @@ public abstract class AbstractTable {
 		return this.insertColumnsMap.get(entity != null ? entity.getName() + size : "" + size);
 	}
 
+	/**
+	 * Returns the number of columns inserted per row.
+	 * 
+	 * @param entity
+	 *            the entity to returns the number of columns for or null for generic columns
+	 * @return the number of columns inserted per row
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getInsertColumnCount(EntityTypeDescriptor entity) {
+		this.getInsertSql(entity, 1);
+
+		return this.getInsertColumns(entity, 1).length;
+	}
+
 	/**
 	 * Returns the insert statement for the table specifically.
 	 * 
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.batoo.common.log.BLogger;
+import org.batoo.common.log.BLoggerFactory;
+
+/**
+ * SQL logger that writes the executions to a file asynchronously.
+ * <p>
+ * The executions are written into a preallocated ring buffer by the executing threads without locking and drained to the file by a
+ * background thread. If the buffer is full the execution is dropped and counted instead of blocking the executing thread.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class AsyncSqlLogger {
+
+	private static final class Entry {
+
+		private volatile long sequence = -1;
+
+		private long time;
+		private long statementNo;
+		private long executionNo;
+		private String operation;
+		private String sql;
+		private Object[] parameters;
+		private int parameterCount;
+		private long nanos;
+	}
+
+	private static final BLogger LOG = BLoggerFactory.getLogger(AsyncSqlLogger.class);
+
+	private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final String fileName;
+	private final Entry[] entries;
+	private final int mask;
+	private final long slowSqlThreshold;
+
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+
+	private final Writer writer;
+	private final Thread drainer;
+	private volatile boolean running = true;
+
+	/**
+	 * @param fileName
+	 *            the name of the file to append the log to
+	 * @param bufferSize
+	 *            the number of the executions to buffer, rounded up to a power of two
+	 * @param slowSqlThreshold
+	 *            the time to decide if SQL is deemed as slow
+	 * @throws IOException
+	 *             thrown if the file cannot be opened
+	 * 
+	 * @since 2.0.0
+	 */
+	public AsyncSqlLogger(String fileName, int bufferSize, long slowSqlThreshold) throws IOException {
+		super();
+
+		this.fileName = fileName;
+		this.slowSqlThreshold = slowSqlThreshold;
+
+		int capacity = 1;
+		while (capacity < bufferSize) {
+			capacity <<= 1;
+		}
+
+		this.entries = new Entry[capacity];
+		for (int i = 0; i < capacity; i++) {
+			this.entries[i] = new Entry();
+		}
+
+		this.mask = capacity - 1;
+
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName, true), "UTF-8"));
+
+		this.drainer = new Thread("Batoo SQL Logger") {
+
+			@Override
+			public void run() {
+				AsyncSqlLogger.this.drain();
+			}
+		};
+
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+
+		AsyncSqlLogger.LOG.info("SQL executions are logged to {0}", fileName);
+	}
+
+	/**
+	 * Stops the logger after draining the buffer and closes the file.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void close() {
+		this.running = false;
+
+		LockSupport.unpark(this.drainer);
+
+		try {
+			this.drainer.join(TimeUnit.SECONDS.toMillis(10));
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (this.dropped.get() > 0) {
+			AsyncSqlLogger.LOG.warn("{0} SQL executions have been dropped from {1} as the buffer was full", this.dropped.get(), this.fileName);
+		}
+	}
+
+	private void drain() {
+		final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		final StringBuilder line = new StringBuilder(256);
+
+		boolean dirty = false;
+		long sequence = this.tail.get();
+
+		try {
+			while (true) {
+				final Entry entry = this.entries[(int) (sequence & this.mask)];
+
+				if (entry.sequence != sequence) {
+					if (dirty) {
+						this.writer.flush();
+						dirty = false;
+					}
+
+					// stop once the buffer is drained
+					if (!this.running && (this.head.get() == sequence)) {
+						break;
+					}
+
+					LockSupport.parkNanos(AsyncSqlLogger.IDLE_PARK);
+
+					continue;
+				}
+
+				line.setLength(0);
+				this.format(line, dateFormat, entry);
+				this.writer.write(line.toString());
+
+				// release the references held by the entry
+				entry.sql = null;
+				entry.operation = null;
+				for (int i = 0; i < entry.parameterCount; i++) {
+					entry.parameters[i] = null;
+				}
+
+				this.tail.lazySet(++sequence);
+				this.written.incrementAndGet();
+
+				dirty = true;
+			}
+		}
+		catch (final IOException e) {
+			AsyncSqlLogger.LOG.error(e, "Unable to write to the SQL log {0}, SQL logging is stopped", this.fileName);
+		}
+		finally {
+			try {
+				this.writer.close();
+			}
+			catch (final IOException e) {}
+		}
+	}
+
+	private void format(StringBuilder line, SimpleDateFormat dateFormat, Entry entry) {
+		final long micros = TimeUnit.NANOSECONDS.toMicros(entry.nanos);
+
+		line.append(dateFormat.format(new Date(entry.time))) //
+			.append(' ').append(entry.statementNo).append(':').append(entry.executionNo) //
+			.append(' ').append(entry.operation) //
+			.append(' ').append(micros).append(" usecs");
+
+		if (TimeUnit.MICROSECONDS.toMillis(micros) > this.slowSqlThreshold) {
+			line.append(" SLOW");
+		}
+
+		line.append('\n').append(entry.sql);
+
+		if (entry.parameterCount > 0) {
+			line.append("\n[");
+
+			for (int i = 0; i < entry.parameterCount; i++) {
+				if (i > 0) {
+					line.append(", ");
+				}
+
+				final Object parameter = entry.parameters[i];
+				if (parameter instanceof String) {
+					line.append('\'').append(parameter).append('\'');
+				}
+				else {
+					line.append(parameter);
+				}
+			}
+
+			line.append(']');
+		}
+
+		line.append('\n');
+	}
+
+	/**
+	 * Returns the number of executions dropped as the buffer was full.
+	 * 
+	 * @return the number of executions dropped
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getDroppedCount() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Returns the number of executions written to the file.
+	 * 
+	 * @return the number of executions written
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getWrittenCount() {
+		return this.written.get();
+	}
+
+	/**
+	 * Logs the execution.
+	 * <p>
+	 * The parameters are copied into the buffer so the array can be reused by the caller.
+	 * 
+	 * @param statementNo
+	 *            the number of the statement
+	 * @param executionNo
+	 *            the number of the execution of the statement
+	 * @param operation
+	 *            the operation
+	 * @param sql
+	 *            the SQL
+	 * @param parameters
+	 *            the parameters, may be null
+	 * @param nanos
+	 *            the time the execution took in nanoseconds
+	 * 
+	 * @since 2.0.0
+	 */
+	public void log(long statementNo, long executionNo, String operation, String sql, Object[] parameters, long nanos) {
+		if (!this.running) {
+			return;
+		}
+
+		// claim a slot, drop the execution if the buffer is full
+		long sequence;
+		do {
+			sequence = this.head.get();
+
+			if ((sequence - this.tail.get()) >= this.entries.length) {
+				this.dropped.incrementAndGet();
+
+				return;
+			}
+		}
+		while (!this.head.compareAndSet(sequence, sequence + 1));
+
+		final Entry entry = this.entries[(int) (sequence & this.mask)];
+
+		entry.time = System.currentTimeMillis();
+		entry.statementNo = statementNo;
+		entry.executionNo = executionNo;
+		entry.operation = operation;
+		entry.sql = sql;
+		entry.nanos = nanos;
+
+		if (parameters != null) {
+			if ((entry.parameters == null) || (entry.parameters.length < parameters.length)) {
+				entry.parameters = new Object[parameters.length];
+			}
+
+			System.arraycopy(parameters, 0, entry.parameters, 0, parameters.length);
+			entry.parameterCount = parameters.length;
+		}
+		else {
+			entry.parameterCount = 0;
+		}
+
+		// publish the entry to the drainer
+		entry.sequence = sequence;
+	}
+}
@@ -33,11 +33,17 @@ import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 
 import org.batoo.jpa.jdbc.PreparedStatementProxy.SqlLoggingType;
+import org.batoo.jpa.jdbc.statistics.SqlStatistics;
+import org.batoo.jpa.jdbc.statistics.StatementStatistics;
 
 /**
  * Proxy class to proxy connections. Main purpose is to cache and wrap the prepared statements.
@@ -47,7 +53,145 @@ import org.batoo.jpa.jdbc.PreparedStatementProxy.SqlLoggingType;
  */
 public class ConnectionProxy implements Connection {
 
+	static final class StatementCache extends LinkedHashMap<StatementKey, PreparedStatementProxy> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int size;
+
+		StatementCache(int size) {
+			super(16, 0.75f, true);
+
+			this.size = size;
+		}
+
+		void close() {
+			for (final PreparedStatementProxy statement : this.values()) {
+				try {
+					statement.closeCached();
+				}
+				catch (final SQLException e) {
+					// noop
+				}
+			}
+
+			this.clear();
+		}
+
+		private void release() {
+			// the statements left open are dropped from the cache and closed physically when they are closed
+			final Iterator<PreparedStatementProxy> i = this.values().iterator();
+			while (i.hasNext()) {
+				final PreparedStatementProxy statement = i.next();
+				if (statement.isInUse()) {
+					try {
+						statement.closeCached();
+					}
+					catch (final SQLException e) {
+						// noop
+					}
+
+					i.remove();
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 */
+		@Override
+		protected boolean removeEldestEntry(Entry<StatementKey, PreparedStatementProxy> eldest) {
+			if (this.size() <= this.size) {
+				return false;
+			}
+
+			try {
+				eldest.getValue().closeCached();
+			}
+			catch (final SQLException e) {
+				// noop
+			}
+
+			return true;
+		}
+	}
+
+	private static final class StatementKey {
+
+		private final String sql;
+		private final int resultSetType;
+		private final int resultSetConcurrency;
+		private final int resultSetHoldability;
+		private final int autoGeneratedKeys;
+		private final int[] columnIndexes;
+		private final String[] columnNames;
+		private final int h;
+
+		private StatementKey(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability, int autoGeneratedKeys,
+			int[] columnIndexes, String[] columnNames) {
+			super();
+
+			this.sql = sql;
+			this.resultSetType = resultSetType;
+			this.resultSetConcurrency = resultSetConcurrency;
+			this.resultSetHoldability = resultSetHoldability;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+			this.columnIndexes = columnIndexes;
+			this.columnNames = columnNames;
+
+			final int prime = 31;
+			int result = sql.hashCode();
+			result = (prime * result) + resultSetType;
+			result = (prime * result) + resultSetConcurrency;
+			result = (prime * result) + resultSetHoldability;
+			result = (prime * result) + autoGeneratedKeys;
+			result = (prime * result) + Arrays.hashCode(columnIndexes);
+			result = (prime * result) + Arrays.hashCode(columnNames);
+
+			this.h = result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof StatementKey)) {
+				return false;
+			}
+
+			final StatementKey other = (StatementKey) obj;
+
+			return (this.h == other.h) //
+				&& (this.resultSetType == other.resultSetType) //
+				&& (this.resultSetConcurrency == other.resultSetConcurrency) //
+				&& (this.resultSetHoldability == other.resultSetHoldability) //
+				&& (this.autoGeneratedKeys == other.autoGeneratedKeys) //
+				&& this.sql.equals(other.sql) //
+				&& Arrays.equals(this.columnIndexes, other.columnIndexes) //
+				&& Arrays.equals(this.columnNames, other.columnNames);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * 
+		 */
+		@Override
+		public int hashCode() {
+			return this.h;
+		}
+	}
+
+	private static final int NONE = -1;
+
 	private final Connection connection;
+	private final Connection statementConnection;
 
 	private final AbstractDataSource dataSourcePool;
 
@@ -55,35 +199,101 @@ public class ConnectionProxy implements Connection {
 	private final SqlLoggingType sqlLogging;
 	private final int jdbcFetchSize;
 
-	public ConnectionProxy(AbstractDataSource dataSourcePool, Connection connection, long slowSqlThreshold, SqlLoggingType sqlLogging, int jdbcFetchSize) {
-		super();
-		this.dataSourcePool = dataSourcePool;
-		this.connection = connection;
-		this.slowSqlThreshold = slowSqlThreshold;
-		this.sqlLogging = sqlLogging;
-		this.jdbcFetchSize = jdbcFetchSize;
+	private final StatementCache statements;
+	private final boolean sharedStatements;
+	private final SqlStatistics statistics;
+	private final AsyncSqlLogger sqlLogger;
+
+	private boolean closed;
+
+	/**
+	 * @param dataSourcePool
+	 *            the pool to release the connection to
+	 * @param connection
+	 *            the connection
+	 * @param slowSqlThreshold
+	 *            the time to decide if SQL is deemed as slow
+	 * @param sqlLogging
+	 *            the sql logging type
+	 * @param jdbcFetchSize
+	 *            the size of the jdbc fetch
+	 * @param statementCacheSize
+	 *            the max number of prepared statements to keep open, 0 disables the statement cache
+	 * @param statistics
+	 *            the SQL statistics, may be null
+	 * @param sqlLogger
+	 *            the asynchronous SQL logger, may be null
+	 * 
+	 * @since 2.0.0
+	 */
+	public ConnectionProxy(AbstractDataSource dataSourcePool, Connection connection, long slowSqlThreshold, SqlLoggingType sqlLogging, int jdbcFetchSize,
+		int statementCacheSize, SqlStatistics statistics, AsyncSqlLogger sqlLogger) {
+		this(dataSourcePool, connection, connection, slowSqlThreshold, sqlLogging, jdbcFetchSize,
+			statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null, false, statistics, sqlLogger);
 	}
 
 	/**
+	 * @param dataSourcePool
+	 *            the pool to release the connection to
 	 * @param connection
 	 *            the connection
+	 * @param statementConnection
+	 *            the connection to prepare the statements on, the physical connection behind the connection if the statements are shared
 	 * @param slowSqlThreshold
 	 *            the time to decide if SQL is deemed as slow
 	 * @param sqlLogging
 	 *            the sql logging type
 	 * @param jdbcFetchSize
 	 *            the size of the jdbc fetch
+	 * @param statements
+	 *            the statement cache, may be null
+	 * @param sharedStatements
+	 *            if the statement cache outlives the proxy and is kept open when the proxy is closed
+	 * @param statistics
+	 *            the SQL statistics, may be null
+	 * @param sqlLogger
+	 *            the asynchronous SQL logger, may be null
 	 * 
 	 * @since 2.0.0
 	 */
-	public ConnectionProxy(Connection connection, long slowSqlThreshold, SqlLoggingType sqlLogging, int jdbcFetchSize) {
+	ConnectionProxy(AbstractDataSource dataSourcePool, Connection connection, Connection statementConnection, long slowSqlThreshold,
+		SqlLoggingType sqlLogging, int jdbcFetchSize, StatementCache statements, boolean sharedStatements, SqlStatistics statistics,
+		AsyncSqlLogger sqlLogger) {
 		super();
 
-		this.dataSourcePool = null;
+		this.dataSourcePool = dataSourcePool;
 		this.connection = connection;
+		this.statementConnection = statementConnection;
 		this.slowSqlThreshold = slowSqlThreshold;
 		this.sqlLogging = sqlLogging;
 		this.jdbcFetchSize = jdbcFetchSize;
+		this.statements = statements;
+		this.sharedStatements = sharedStatements;
+		this.statistics = statistics;
+		this.sqlLogger = sqlLogger;
+	}
+
+	/**
+	 * @param connection
+	 *            the connection
+	 * @param slowSqlThreshold
+	 *            the time to decide if SQL is deemed as slow
+	 * @param sqlLogging
+	 *            the sql logging type
+	 * @param jdbcFetchSize
+	 *            the size of the jdbc fetch
+	 * @param statementCacheSize
+	 *            the max number of prepared statements to keep open, 0 disables the statement cache
+	 * @param statistics
+	 *            the SQL statistics, may be null
+	 * @param sqlLogger
+	 *            the asynchronous SQL logger, may be null
+	 * 
+	 * @since 2.0.0
+	 */
+	public ConnectionProxy(Connection connection, long slowSqlThreshold, SqlLoggingType sqlLogging, int jdbcFetchSize, int statementCacheSize,
+		SqlStatistics statistics, AsyncSqlLogger sqlLogger) {
+		this(null, connection, slowSqlThreshold, sqlLogging, jdbcFetchSize, statementCacheSize, statistics, sqlLogger);
 	}
 
 	/**
@@ -110,6 +320,22 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public void close() throws SQLException {
+		// the connection may already be borrowed by someone else once released
+		if (this.closed) {
+			return;
+		}
+
+		this.closed = true;
+
+		if (this.statements != null) {
+			if (this.sharedStatements) {
+				this.statements.release();
+			}
+			else {
+				this.statements.close();
+			}
+		}
+
 		if (this.dataSourcePool != null) {
 			this.dataSourcePool.releaseConnection(this.connection);
 		}
@@ -221,6 +447,21 @@ public class ConnectionProxy implements Connection {
 		return this.connection.getAutoCommit();
 	}
 
+	private PreparedStatementProxy getCachedStatement(StatementKey key) {
+		if (this.statements == null) {
+			return null;
+		}
+
+		final PreparedStatementProxy statement = this.statements.get(key);
+		if ((statement == null) || statement.isInUse()) {
+			return null;
+		}
+
+		statement.reset();
+
+		return statement;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -317,7 +558,7 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public boolean isClosed() throws SQLException {
-		return this.connection.isClosed();
+		return this.closed || this.connection.isClosed();
 	}
 
 	/**
@@ -389,11 +630,14 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public PreparedStatement prepareStatement(String sql) throws SQLException {
-		final PreparedStatementProxy statement = new PreparedStatementProxy(sql, this.connection.prepareStatement(sql), this.slowSqlThreshold, this.sqlLogging);
+		final StatementKey key = new StatementKey(sql, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, null, null);
 
-		statement.setFetchSize(this.jdbcFetchSize);
+		final PreparedStatementProxy statement = this.getCachedStatement(key);
+		if (statement != null) {
+			return statement;
+		}
 
-		return statement;
+		return this.wrapStatement(key, this.statementConnection.prepareStatement(sql));
 	}
 
 	/**
@@ -402,12 +646,14 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-		final PreparedStatementProxy statement = new PreparedStatementProxy(sql, this.connection.prepareStatement(sql, autoGeneratedKeys),
-			this.slowSqlThreshold, this.sqlLogging);
+		final StatementKey key = new StatementKey(sql, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, autoGeneratedKeys, null, null);
 
-		statement.setFetchSize(this.jdbcFetchSize);
+		final PreparedStatementProxy statement = this.getCachedStatement(key);
+		if (statement != null) {
+			return statement;
+		}
 
-		return statement;
+		return this.wrapStatement(key, this.statementConnection.prepareStatement(sql, autoGeneratedKeys));
 	}
 
 	/**
@@ -416,12 +662,14 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-		final PreparedStatementProxy statement = new PreparedStatementProxy(sql, this.connection.prepareStatement(sql, resultSetType, resultSetConcurrency),
-			this.slowSqlThreshold, this.sqlLogging);
+		final StatementKey key = new StatementKey(sql, resultSetType, resultSetConcurrency, ConnectionProxy.NONE, ConnectionProxy.NONE, null, null);
 
-		statement.setFetchSize(this.jdbcFetchSize);
+		final PreparedStatementProxy statement = this.getCachedStatement(key);
+		if (statement != null) {
+			return statement;
+		}
 
-		return statement;
+		return this.wrapStatement(key, this.statementConnection.prepareStatement(sql, resultSetType, resultSetConcurrency));
 	}
 
 	/**
@@ -430,12 +678,14 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-		final PreparedStatementProxy statement = new PreparedStatementProxy(sql, this.connection.prepareStatement(sql, resultSetType, resultSetConcurrency,
-			resultSetHoldability), this.slowSqlThreshold, this.sqlLogging);
+		final StatementKey key = new StatementKey(sql, resultSetType, resultSetConcurrency, resultSetHoldability, ConnectionProxy.NONE, null, null);
 
-		statement.setFetchSize(this.jdbcFetchSize);
+		final PreparedStatementProxy statement = this.getCachedStatement(key);
+		if (statement != null) {
+			return statement;
+		}
 
-		return statement;
+		return this.wrapStatement(key, this.statementConnection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
 	}
 
 	/**
@@ -444,12 +694,15 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-		final PreparedStatementProxy statement = new PreparedStatementProxy(sql, this.connection.prepareStatement(sql, columnIndexes), this.slowSqlThreshold,
-			this.sqlLogging);
+		final StatementKey key = new StatementKey(sql, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, //
+			columnIndexes.clone(), null);
 
-		statement.setFetchSize(this.jdbcFetchSize);
+		final PreparedStatementProxy statement = this.getCachedStatement(key);
+		if (statement != null) {
+			return statement;
+		}
 
-		return statement;
+		return this.wrapStatement(key, this.statementConnection.prepareStatement(sql, columnIndexes));
 	}
 
 	/**
@@ -458,12 +711,15 @@ public class ConnectionProxy implements Connection {
 	 */
 	@Override
 	public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
-		final PreparedStatementProxy statement = new PreparedStatementProxy(sql, this.connection.prepareStatement(sql, columnNames), this.slowSqlThreshold,
-			this.sqlLogging);
+		final StatementKey key = new StatementKey(sql, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, ConnectionProxy.NONE, //
+			null, columnNames.clone());
 
-		statement.setFetchSize(this.jdbcFetchSize);
+		final PreparedStatementProxy statement = this.getCachedStatement(key);
+		if (statement != null) {
+			return statement;
+		}
 
-		return statement;
+		return this.wrapStatement(key, this.statementConnection.prepareStatement(sql, columnNames));
 	}
 
 	/**
@@ -610,4 +866,25 @@ public class ConnectionProxy implements Connection {
 		return this.connection.unwrap(iface);
 	}
 
+	private PreparedStatement wrapStatement(StatementKey key, PreparedStatement delegate) throws SQLException {
+		final StatementStatistics statementStatistics = this.statistics != null ? this.statistics.getStatistics(key.sql) : null;
+		if (statementStatistics != null) {
+			statementStatistics.recordPrepare();
+		}
+
+		final PreparedStatementProxy statement = new PreparedStatementProxy(key.sql, delegate, this.slowSqlThreshold, this.sqlLogging, //
+			statementStatistics, this.sqlLogger);
+
+		statement.setFetchSize(this.jdbcFetchSize);
+
+		// if the cached statement is in use the new statement is not cached and closed physically
+		if ((this.statements != null) && !this.statements.containsKey(key)) {
+			statement.setCache(this);
+
+			this.statements.put(key, statement);
+		}
+
+		return statement;
+	}
+
 }
@@ -23,13 +23,19 @@ import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
 
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.jdbc.ConnectionProxy.StatementCache;
 import org.batoo.jpa.jdbc.PreparedStatementProxy.SqlLoggingType;
+import org.batoo.jpa.jdbc.statistics.SqlStatistics;
 
 /**
  * Proxy class to proxy datasources. Main purpose is to cache and wrap the prepared statements.
@@ -46,7 +52,12 @@ public class DataSourceProxy implements DataSource {
 	private final SqlLoggingType sqlLogging;
 	private final long slowSqlThreshold;
 	private final int jdbcFetchSize;
+	private final int statementCacheSize;
 	private final boolean externalPoolDS;
+	private final SqlStatistics statistics;
+	private final AsyncSqlLogger sqlLogger;
+
+	private final Map<Connection, StatementCache> statementCaches = new IdentityHashMap<Connection, StatementCache>();
 
 	/**
 	 * @param datasource
@@ -59,10 +70,17 @@ public class DataSourceProxy implements DataSource {
 	 *            the sql logging type
 	 * @param jdbcFetchSize
 	 *            the size of the jdbc fetch
+	 * @param statementCacheSize
+	 *            the max number of prepared statements to keep open per connection, 0 disables the statement cache
+	 * @param statistics
+	 *            the SQL statistics, may be null
+	 * @param sqlLogger
+	 *            the asynchronous SQL logger, may be null
 	 * 
 	 * @since 2.0.0
 	 */
-	public DataSourceProxy(AbstractDataSource datasource, boolean external, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize) {
+	public DataSourceProxy(AbstractDataSource datasource, boolean external, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize,
+		int statementCacheSize, SqlStatistics statistics, AsyncSqlLogger sqlLogger) {
 		super();
 
 		this.datasource = datasource;
@@ -70,6 +88,9 @@ public class DataSourceProxy implements DataSource {
 		this.sqlLogging = sqlLogging;
 		this.slowSqlThreshold = slowSqlThreshold;
 		this.jdbcFetchSize = jdbcFetchSize;
+		this.statementCacheSize = statementCacheSize;
+		this.statistics = statistics;
+		this.sqlLogger = sqlLogger;
 		this.externalPoolDS = true;
 	}
 
@@ -84,10 +105,17 @@ public class DataSourceProxy implements DataSource {
 	 *            the sql logging type
 	 * @param jdbcFetchSize
 	 *            the size of the jdbc fetch
+	 * @param statementCacheSize
+	 *            the max number of prepared statements to keep open per connection, 0 disables the statement cache
+	 * @param statistics
+	 *            the SQL statistics, may be null
+	 * @param sqlLogger
+	 *            the asynchronous SQL logger, may be null
 	 * 
 	 * @since 2.0.0
 	 */
-	public DataSourceProxy(DataSource datasource, boolean external, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize) {
+	public DataSourceProxy(DataSource datasource, boolean external, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize,
+		int statementCacheSize, SqlStatistics statistics, AsyncSqlLogger sqlLogger) {
 		super();
 
 		this.datasource = datasource;
@@ -95,6 +123,9 @@ public class DataSourceProxy implements DataSource {
 		this.sqlLogging = sqlLogging;
 		this.slowSqlThreshold = slowSqlThreshold;
 		this.jdbcFetchSize = jdbcFetchSize;
+		this.statementCacheSize = statementCacheSize;
+		this.statistics = statistics;
+		this.sqlLogger = sqlLogger;
 		this.externalPoolDS = false;
 	}
 
@@ -118,6 +149,10 @@ public class DataSourceProxy implements DataSource {
 		else if (this.externalPoolDS) {
 			((AbstractDataSource) this.datasource).close();
 		}
+
+		synchronized (this.statementCaches) {
+			this.statementCaches.clear();
+		}
 	}
 
 	/**
@@ -126,7 +161,27 @@ public class DataSourceProxy implements DataSource {
 	 */
 	@Override
 	public Connection getConnection() throws SQLException {
-		return new ConnectionProxy(this.datasource.getConnection(), this.slowSqlThreshold, this.sqlLogging, this.jdbcFetchSize);
+		if (this.externalPoolDS) {
+			// closing the connection must release it back to the pool
+			final AbstractDataSource dataSourcePool = (AbstractDataSource) this.datasource;
+			final Connection connection = dataSourcePool.getConnection();
+
+			// pooled connections stay open, so the statements are cached per physical connection across the borrowers
+			return new ConnectionProxy(dataSourcePool, connection, connection, this.slowSqlThreshold, this.sqlLogging, this.jdbcFetchSize,
+				this.getStatementCache(connection), true, this.statistics, this.sqlLogger);
+		}
+
+		final Connection connection = this.datasource.getConnection();
+		if (this.statementCacheSize <= 0) {
+			return new ConnectionProxy(connection, this.slowSqlThreshold, this.sqlLogging, this.jdbcFetchSize, 0, this.statistics, this.sqlLogger);
+		}
+
+		// the connections of the external datasources are handles closed on every release, so the statements are prepared on and cached per
+		// the physical connection behind the handle
+		final Connection physicalConnection = DataSourceProxy.getPhysicalConnection(connection);
+
+		return new ConnectionProxy(null, connection, physicalConnection, this.slowSqlThreshold, this.sqlLogging, this.jdbcFetchSize,
+			this.getStatementCache(physicalConnection), true, this.statistics, this.sqlLogger);
 	}
 
 	/**
@@ -176,6 +231,59 @@ public class DataSourceProxy implements DataSource {
 		return this.datasource.getParentLogger();
 	}
 
+	private static Connection getPhysicalConnection(Connection connection) {
+		try {
+			if (connection.isWrapperFor(Connection.class)) {
+				final Connection physicalConnection = connection.unwrap(Connection.class);
+				if (physicalConnection != null) {
+					return physicalConnection;
+				}
+			}
+		}
+		catch (final SQLException e) {
+			DataSourceProxy.LOG.debug(e, "Cannot unwrap the physical connection, statements are cached per connection handle");
+		}
+
+		return connection;
+	}
+
+	private StatementCache getStatementCache(Connection connection) {
+		if (this.statementCacheSize <= 0) {
+			return null;
+		}
+
+		synchronized (this.statementCaches) {
+			StatementCache statementCache = this.statementCaches.get(connection);
+			if (statementCache != null) {
+				return statementCache;
+			}
+
+			// a new physical connection, drop the caches of the connections closed since
+			final Iterator<Entry<Connection, StatementCache>> i = this.statementCaches.entrySet().iterator();
+			while (i.hasNext()) {
+				final Entry<Connection, StatementCache> entry = i.next();
+
+				boolean closed;
+				try {
+					closed = entry.getKey().isClosed();
+				}
+				catch (final SQLException e) {
+					closed = true;
+				}
+
+				if (closed) {
+					entry.getValue().close();
+
+					i.remove();
+				}
+			}
+
+			this.statementCaches.put(connection, statementCache = new StatementCache(this.statementCacheSize));
+
+			return statementCache;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
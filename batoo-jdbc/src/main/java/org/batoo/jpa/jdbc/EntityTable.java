@@ -19,23 +19,30 @@
 package org.batoo.jpa.jdbc;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.lang.StringUtils;
 import org.batoo.common.util.FinalWrapper;
 import org.batoo.jpa.jdbc.adapter.JdbcAdaptor;
 import org.batoo.jpa.jdbc.dbutils.QueryRunner;
 import org.batoo.jpa.jdbc.dbutils.SingleValueHandler;
+import org.batoo.jpa.jdbc.mapping.BasicMapping;
+import org.batoo.jpa.parser.metadata.ColumnTransformerMetadata;
 import org.batoo.jpa.jdbc.model.EntityTypeDescriptor;
 import org.batoo.jpa.parser.metadata.TableMetadata;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -54,6 +61,8 @@ public class EntityTable extends AbstractTable {
 	private final Map<String, BasicColumn[]> indexes = Maps.newHashMap();
 
 	private final HashMap<Integer, String> removeSqlMap = Maps.newHashMap();
+	private final HashMap<List<AbstractColumn>, String> selectSqlMap = Maps.newHashMap();
+	private final HashMap<List<AbstractColumn>, String> partialUpdateSqlMap = Maps.newHashMap();
 	private FinalWrapper<HashMap<AbstractColumn, String>> idColumns;
 
 	/**
@@ -178,6 +187,38 @@ public class EntityTable extends AbstractTable {
 		return this.jdbcAdaptor;
 	}
 
+	private String getPartialUpdateSql(AbstractColumn[] columns) {
+		final List<AbstractColumn> key = Arrays.asList(columns);
+
+		String sql = this.partialUpdateSqlMap.get(key);
+		if (sql != null) {
+			return sql;
+		}
+
+		synchronized (this) {
+			sql = this.partialUpdateSqlMap.get(key);
+			if (sql != null) {
+				return sql;
+			}
+
+			final String columnNamesStr = Joiner.on(", ").join(Collections2.transform(key, new Function<AbstractColumn, String>() {
+
+				@Override
+				public String apply(AbstractColumn input) {
+					return input.getName() + " = ?";
+				}
+			}));
+
+			sql = "UPDATE " + this.getQName() + " SET"//
+				+ "\n" + columnNamesStr //
+				+ "\nWHERE " + this.getRestrictionSql(this.pkColumns);
+
+			this.partialUpdateSqlMap.put(key, sql);
+
+			return sql;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -225,6 +266,50 @@ public class EntityTable extends AbstractTable {
 		}
 	}
 
+	private String getSelectSql(AbstractColumn[] columns) {
+		final List<AbstractColumn> key = Arrays.asList(columns);
+
+		String sql = this.selectSqlMap.get(key);
+		if (sql != null) {
+			return sql;
+		}
+
+		synchronized (this) {
+			sql = this.selectSqlMap.get(key);
+			if (sql != null) {
+				return sql;
+			}
+
+			final String fields = Joiner.on(", ").join(Collections2.transform(key, new Function<AbstractColumn, String>() {
+
+				@Override
+				public String apply(AbstractColumn input) {
+					if (input.getMapping() instanceof BasicMapping) {
+						final ColumnTransformerMetadata columnTransformer = ((BasicMapping<?, ?>) input.getMapping()).getColumnTransformer();
+						if ((columnTransformer != null) && StringUtils.isNotBlank(columnTransformer.getRead())) {
+							return columnTransformer.getRead();
+						}
+					}
+
+					return input.getName();
+				}
+			}));
+
+			final String restriction = Joiner.on(" AND ").join(Collections2.transform(this.pkColumns.values(), new Function<AbstractColumn, String>() {
+
+				@Override
+				public String apply(AbstractColumn input) {
+					return input.getName() + " = ?";
+				}
+			}));
+
+			sql = "SELECT " + fields + " FROM " + this.getQName() + " WHERE " + restriction;
+			this.selectSqlMap.put(key, sql);
+
+			return sql;
+		}
+	}
+
 	/**
 	 * Performs inserts to the table for the managed instance or joins.
 	 * 
@@ -248,6 +333,11 @@ public class EntityTable extends AbstractTable {
 
 		// prepare the parameters
 		final Object[] params = new Object[insertColumns.length * size];
+		final ParameterBinder[] binders = new ParameterBinder[insertColumns.length];
+
+		for (int j = 0; j < insertColumns.length; j++) {
+			binders[j] = insertColumns[j].getBinder();
+		}
 
 		boolean hasLob = false;
 		for (int i = 0; i < size; i++) {
@@ -267,7 +357,7 @@ public class EntityTable extends AbstractTable {
 			}
 		}
 
-		new QueryRunner(this.jdbcAdaptor, hasLob).update(connection, insertSql, params);
+		new QueryRunner(this.jdbcAdaptor, hasLob).update(connection, insertSql, binders, params);
 
 		// if there is an identity column, extract the identity and set it back to the instance
 		if (this.identityColumn != null) {
@@ -298,6 +388,12 @@ public class EntityTable extends AbstractTable {
 		// prepare the parameters
 		final AbstractColumn[] restrictionColumns = this.getRestrictionColumns();
 		final Object[] params = new Object[size * restrictionColumns.length];
+		final ParameterBinder[] binders = new ParameterBinder[restrictionColumns.length];
+
+		for (int j = 0; j < restrictionColumns.length; j++) {
+			binders[j] = restrictionColumns[j].getBinder();
+		}
+
 		for (int i = 0; i < size; i++) {
 			final Object instance = instances[i];
 
@@ -308,11 +404,57 @@ public class EntityTable extends AbstractTable {
 		}
 
 		final QueryRunner runner = new QueryRunner(this.jdbcAdaptor, false);
-		if (size != runner.update(connection, removeSql, params)) {
+		if (size != runner.update(connection, removeSql, binders, params)) {
 			throw new OptimisticLockFailedException();
 		}
 	}
 
+	/**
+	 * Performs select of the columns from the table for the instance and sets the values back to the instance.
+	 * <p>
+	 * Used to load the columns that have been left out of the original select, such as the lazy basic attributes.
+	 * 
+	 * @param connection
+	 *            the connection to use
+	 * @param instance
+	 *            the instance to perform select for
+	 * @param columns
+	 *            the columns to select
+	 * @return true if the row is found, false otherwise
+	 * @throws SQLException
+	 *             thrown in case of underlying SQLException
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean performSelect(Connection connection, final Object instance, final AbstractColumn[] columns) throws SQLException {
+		final String selectSql = this.getSelectSql(columns);
+
+		// prepare the parameters
+		final Object[] params = new Object[this.pkColumns.size()];
+
+		int i = 0;
+		for (final AbstractColumn column : this.pkColumns.values()) {
+			params[i++] = column.getValue(connection, instance);
+		}
+
+		final QueryRunner runner = new QueryRunner(this.jdbcAdaptor, false);
+		return runner.query(connection, selectSql, new ResultSetHandler<Boolean>() {
+
+			@Override
+			public Boolean handle(ResultSet rs) throws SQLException {
+				if (!rs.next()) {
+					return false;
+				}
+
+				for (int j = 0; j < columns.length; j++) {
+					columns[j].setValue(instance, rs.getObject(j + 1));
+				}
+
+				return true;
+			}
+		}, params);
+	}
+
 	/**
 	 * Performs update to the table for the managed instance or joins.
 	 * 
@@ -324,29 +466,45 @@ public class EntityTable extends AbstractTable {
 	 *            the instance to perform update for
 	 * @param oldVersion
 	 *            the old version value
+	 * @param skippedColumns
+	 *            the columns to leave out of the update or null
 	 * @throws SQLException
 	 *             thrown in case of underlying SQLException
 	 * 
 	 * @since 2.0.0
 	 */
-	public void performUpdate(Connection connection, EntityTypeDescriptor type, Object instance, Object oldVersion) throws SQLException {
+	public void performUpdate(Connection connection, EntityTypeDescriptor type, Object instance, Object oldVersion, Set<AbstractColumn> skippedColumns)
+		throws SQLException {
 		// Do not inline, generation of the update SQL will initialize the insertColumns!
-		final String updateSql = this.getUpdateSql(type, this.pkColumns);
-		final AbstractColumn[] updateColumns = this.getUpdateColumns(type);
+		String updateSql = this.getUpdateSql(type, this.pkColumns);
+		AbstractColumn[] updateColumns = this.getUpdateColumns(type);
 		final AbstractColumn[] restrictionColumns = this.getRestrictionColumns();
 
+		if ((skippedColumns != null) && !skippedColumns.isEmpty()) {
+			updateColumns = this.skipColumns(updateColumns, skippedColumns);
+			if (updateColumns.length == 0) {
+				return;
+			}
+
+			updateSql = this.getPartialUpdateSql(updateColumns);
+		}
+
 		boolean hasLob = false;
 		int nextParamNo = 0;
 
 		// prepare the parameters
 		final Object[] params = new Object[updateColumns.length + restrictionColumns.length];
+		final ParameterBinder[] binders = new ParameterBinder[params.length];
 		for (final AbstractColumn column : updateColumns) {
+			binders[nextParamNo] = column.getBinder();
 			params[nextParamNo++] = column.getValue(connection, instance);
 
 			hasLob |= column.isLob();
 		}
 
 		for (final AbstractColumn column : restrictionColumns) {
+			binders[nextParamNo] = column.getBinder();
+
 			if (column.isVersion()) {
 				params[nextParamNo++] = oldVersion;
 			}
@@ -357,7 +515,7 @@ public class EntityTable extends AbstractTable {
 
 		// execute the insert
 		final QueryRunner runner = new QueryRunner(this.jdbcAdaptor, hasLob);
-		if (1 != runner.update(connection, updateSql, params)) {
+		if (1 != runner.update(connection, updateSql, binders, params)) {
 			throw new OptimisticLockFailedException();
 		}
 	}
@@ -373,34 +531,50 @@ public class EntityTable extends AbstractTable {
 	 *            the instance to perform update for
 	 * @param oldVersion
 	 *            the old version value
+	 * @param skippedColumns
+	 *            the columns to leave out of the update or null
 	 * @return returns true if the table is updatable
 	 * @throws SQLException
 	 *             thrown in case of underlying SQLException
 	 * 
 	 * @since 2.0.0
 	 */
-	public boolean performUpdateWithUpdatability(Connection connection, EntityTypeDescriptor type, Object instance, Object oldVersion) throws SQLException {
+	public boolean performUpdateWithUpdatability(Connection connection, EntityTypeDescriptor type, Object instance, Object oldVersion,
+		Set<AbstractColumn> skippedColumns) throws SQLException {
 		// Do not inline, generation of the update SQL will initialize the insertColumns!
-		final String updateSql = this.getUpdateSql(type, this.pkColumns);
-		final AbstractColumn[] updateColumns = this.getUpdateColumns(type);
+		String updateSql = this.getUpdateSql(type, this.pkColumns);
+		AbstractColumn[] updateColumns = this.getUpdateColumns(type);
 		final AbstractColumn[] restrictionColumns = this.getRestrictionColumns();
 
 		if (updateColumns.length == 0) {
 			return false;
 		}
 
+		if ((skippedColumns != null) && !skippedColumns.isEmpty()) {
+			updateColumns = this.skipColumns(updateColumns, skippedColumns);
+			if (updateColumns.length == 0) {
+				return true;
+			}
+
+			updateSql = this.getPartialUpdateSql(updateColumns);
+		}
+
 		int nextParam = 0;
 		boolean hasLob = false;
 
 		// prepare the parameters
 		final Object[] params = new Object[updateColumns.length + restrictionColumns.length];
+		final ParameterBinder[] binders = new ParameterBinder[params.length];
 		for (final AbstractColumn column : updateColumns) {
+			binders[nextParam] = column.getBinder();
 			params[nextParam++] = column.getValue(connection, instance);
 
 			hasLob |= column.isLob();
 		}
 
 		for (final AbstractColumn column : restrictionColumns) {
+			binders[nextParam] = column.getBinder();
+
 			if (column.isVersion()) {
 				params[nextParam++] = oldVersion;
 			}
@@ -411,7 +585,7 @@ public class EntityTable extends AbstractTable {
 
 		// execute the insert
 		final QueryRunner runner = new QueryRunner(this.jdbcAdaptor, hasLob);
-		if (1 != runner.update(connection, updateSql, params)) {
+		if (1 != runner.update(connection, updateSql, binders, params)) {
 			throw new OptimisticLockFailedException();
 		}
 
@@ -482,4 +656,15 @@ public class EntityTable extends AbstractTable {
 			+ ", name=" + this.getQName() //
 			+ ", columns=[" + columns + "]]";
 	}
+
+	private AbstractColumn[] skipColumns(AbstractColumn[] columns, Set<AbstractColumn> skippedColumns) {
+		final List<AbstractColumn> filtered = Lists.newArrayList();
+		for (final AbstractColumn column : columns) {
+			if (!skippedColumns.contains(column)) {
+				filtered.add(column);
+			}
+		}
+
+		return filtered.toArray(new AbstractColumn[filtered.size()]);
+	}
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc;
+
+/**
+ * Tunes the size of the multi-row insert batches from the observed latency per row.
+ * <p>
+ * The latency of the full batches are averaged over a window of batches, after each window the batch size is doubled or halved within the
+ * bounds. If a step makes the latency per row worse, the tuner steps back and holds the previous size for a number of windows before
+ * probing in the other direction.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class InsertBatchTuner {
+
+	private static final int WINDOW = 8;
+	private static final int HOLD_WINDOWS = 16;
+	private static final double TOLERANCE = 0.1;
+
+	private final int min;
+	private final int max;
+	private volatile int batchSize;
+
+	private int previousBatchSize;
+	private boolean stepped;
+	private boolean growing = true;
+	private int hold;
+
+	private int batches;
+	private long rows;
+	private long nanos;
+	private double lastLatency;
+
+	/**
+	 * @param min
+	 *            the minimum batch size
+	 * @param initial
+	 *            the initial batch size
+	 * @param max
+	 *            the maximum batch size
+	 * 
+	 * @since 2.0.0
+	 */
+	public InsertBatchTuner(int min, int initial, int max) {
+		super();
+
+		this.max = Math.max(1, max);
+		this.min = Math.max(1, Math.min(min, this.max));
+		this.batchSize = Math.max(this.min, Math.min(initial, this.max));
+	}
+
+	/**
+	 * Returns the current batch size.
+	 * 
+	 * @return the current batch size
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Returns the maximum batch size.
+	 * 
+	 * @return the maximum batch size
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Returns the minimum batch size.
+	 * 
+	 * @return the minimum batch size
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getMin() {
+		return this.min;
+	}
+
+	/**
+	 * Records the time taken by an insert batch.
+	 * <p>
+	 * Only the batches of the current batch size are taken into account as the partial batches spread the cost of the statement over less
+	 * rows.
+	 * 
+	 * @param size
+	 *            the size of the batch
+	 * @param nanos
+	 *            the time taken in nanoseconds
+	 * 
+	 * @since 2.0.0
+	 */
+	public synchronized void record(int size, long nanos) {
+		if ((size != this.batchSize) || (this.min == this.max)) {
+			return;
+		}
+
+		this.batches++;
+		this.rows += size;
+		this.nanos += nanos;
+
+		if (this.batches < InsertBatchTuner.WINDOW) {
+			return;
+		}
+
+		final double latency = (double) this.nanos / this.rows;
+		final double lastLatency = this.lastLatency;
+		final boolean stepped = this.stepped;
+
+		this.batches = 0;
+		this.rows = 0;
+		this.nanos = 0;
+		this.lastLatency = latency;
+		this.stepped = false;
+
+		// the last step made things worse, step back and settle there for a while
+		if (stepped && (latency > (lastLatency * (1 + InsertBatchTuner.TOLERANCE)))) {
+			this.growing = !this.growing;
+			this.hold = InsertBatchTuner.HOLD_WINDOWS;
+			this.batchSize = this.previousBatchSize;
+
+			return;
+		}
+
+		if (this.hold > 0) {
+			this.hold--;
+
+			return;
+		}
+
+		final int next = Math.max(this.min, Math.min(this.max, this.growing ? this.batchSize * 2 : this.batchSize / 2));
+
+		// hit the bounds, settle and then probe in the other direction
+		if (next == this.batchSize) {
+			this.growing = !this.growing;
+			this.hold = InsertBatchTuner.HOLD_WINDOWS;
+
+			return;
+		}
+
+		this.previousBatchSize = this.batchSize;
+		this.batchSize = next;
+		this.stepped = true;
+	}
+}
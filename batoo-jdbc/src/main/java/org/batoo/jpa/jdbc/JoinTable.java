@@ -250,6 +250,11 @@ public class JoinTable extends AbstractTable implements JoinableTable {
 
 		// prepare the parameters
 		final Object[] params = new Object[insertColumns.length * size];
+		final ParameterBinder[] binders = new ParameterBinder[insertColumns.length];
+
+		for (int i = 0; i < insertColumns.length; i++) {
+			binders[i] = insertColumns[i].getBinder();
+		}
 
 		int paramIndex = 0;
 		for (int i = 0; i < size; i++) {
@@ -268,7 +273,7 @@ public class JoinTable extends AbstractTable implements JoinableTable {
 			}
 		}
 
-		new QueryRunner(this.jdbcAdaptor, false).update(connection, insertSql, params);
+		new QueryRunner(this.jdbcAdaptor, false).update(connection, insertSql, binders, params);
 	}
 
 	/**
@@ -280,17 +285,20 @@ public class JoinTable extends AbstractTable implements JoinableTable {
 		final String removeSql = this.getRemoveSql();
 
 		final Object[] params = new Object[this.sourceKey.getJoinColumns().size() + this.destinationKey.getJoinColumns().size()];
+		final ParameterBinder[] binders = new ParameterBinder[params.length];
 
 		int i = 0;
 		for (final JoinColumn sourceRemoveColumn : this.sourceRemoveColumns) {
+			binders[i] = sourceRemoveColumn.getBinder();
 			params[i++] = sourceRemoveColumn.getValue(connection, source);
 		}
 
 		for (final JoinColumn destinationRemoveColumn : this.destinationRemoveColumns) {
+			binders[i] = destinationRemoveColumn.getBinder();
 			params[i++] = destinationRemoveColumn.getValue(connection, destination);
 		}
 
-		new QueryRunner(this.jdbcAdaptor, false).update(connection, removeSql, params);
+		new QueryRunner(this.jdbcAdaptor, false).update(connection, removeSql, binders, params);
 	}
 
 	/**
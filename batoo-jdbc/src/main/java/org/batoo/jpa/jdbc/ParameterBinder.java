@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+
+/**
+ * Strategies to bind the parameter values to the statements with the typed setters.
+ * <p>
+ * The binder of a column is resolved once from its SQL type and spares the driver the inspection of the runtime type of the values that
+ * {@link PreparedStatement#setObject(int, Object)} requires. The values that are not of the expected type of the binder are bound with
+ * {@link PreparedStatement#setObject(int, Object)}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public enum ParameterBinder {
+
+	/**
+	 * Binds the {@link BigDecimal} values.
+	 */
+	BIG_DECIMAL(Types.DECIMAL, BigDecimal.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setBigDecimal(index, (BigDecimal) value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Blob} values, <code>byte[]</code> and {@link InputStream} values are streamed to the statement. Nulls are bound with
+	 * the type resolved by the statement.
+	 */
+	BLOB(Types.NULL, Blob.class) {
+
+		@Override
+		public void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+			if (value instanceof byte[]) {
+				final byte[] bytes = (byte[]) value;
+
+				statement.setBinaryStream(index, new ByteArrayInputStream(bytes), bytes.length);
+			}
+			else if (value instanceof InputStream) {
+				statement.setBinaryStream(index, (InputStream) value);
+			}
+			else {
+				super.bind(statement, index, value);
+			}
+		}
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setBlob(index, (Blob) value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Boolean} values.
+	 */
+	BOOLEAN(Types.BOOLEAN, Boolean.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setBoolean(index, ((Boolean) value).booleanValue());
+		}
+	},
+
+	/**
+	 * Binds the {@link Byte} values.
+	 */
+	BYTE(Types.TINYINT, Byte.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setByte(index, ((Byte) value).byteValue());
+		}
+	},
+
+	/**
+	 * Binds the {@link Character} values as strings.
+	 */
+	CHAR(Types.CHAR, Character.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setString(index, value.toString());
+		}
+	},
+
+	/**
+	 * Binds the {@link Clob} values, {@link String}, <code>char[]</code> and {@link Reader} values are streamed to the statement. Nulls are
+	 * bound with the type resolved by the statement.
+	 */
+	CLOB(Types.NULL, Clob.class) {
+
+		@Override
+		public void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+			if (value instanceof String) {
+				final String string = (String) value;
+
+				statement.setCharacterStream(index, new StringReader(string), string.length());
+			}
+			else if (value instanceof char[]) {
+				final char[] chars = (char[]) value;
+
+				statement.setCharacterStream(index, new CharArrayReader(chars), chars.length);
+			}
+			else if (value instanceof Reader) {
+				statement.setCharacterStream(index, (Reader) value);
+			}
+			else {
+				super.bind(statement, index, value);
+			}
+		}
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setClob(index, (Clob) value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Date} values.
+	 */
+	DATE(Types.DATE, Date.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setDate(index, (Date) value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Double} values.
+	 */
+	DOUBLE(Types.DOUBLE, Double.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setDouble(index, ((Double) value).doubleValue());
+		}
+	},
+
+	/**
+	 * Binds the {@link Float} values.
+	 */
+	FLOAT(Types.FLOAT, Float.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setFloat(index, ((Float) value).floatValue());
+		}
+	},
+
+	/**
+	 * Binds the {@link Integer} values.
+	 */
+	INTEGER(Types.INTEGER, Integer.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setInt(index, ((Integer) value).intValue());
+		}
+	},
+
+	/**
+	 * Binds the {@link Long} values.
+	 */
+	LONG(Types.BIGINT, Long.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setLong(index, ((Long) value).longValue());
+		}
+	},
+
+	/**
+	 * Binds the values with {@link PreparedStatement#setObject(int, Object)}, nulls are bound with the type resolved by the statement.
+	 */
+	OBJECT(Types.NULL, Object.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setObject(index, value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Short} values.
+	 */
+	SHORT(Types.SMALLINT, Short.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setShort(index, ((Short) value).shortValue());
+		}
+	},
+
+	/**
+	 * Binds the {@link String} values.
+	 */
+	STRING(Types.VARCHAR, String.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setString(index, (String) value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Time} values.
+	 */
+	TIME(Types.TIME, Time.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setTime(index, (Time) value);
+		}
+	},
+
+	/**
+	 * Binds the {@link Timestamp} values.
+	 */
+	TIMESTAMP(Types.TIMESTAMP, Timestamp.class) {
+
+		@Override
+		protected void bindValue(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setTimestamp(index, (Timestamp) value);
+		}
+	};
+
+	private static final HashMap<Class<?>, ParameterBinder> BINDERS = new HashMap<Class<?>, ParameterBinder>();
+
+	static {
+		for (final ParameterBinder binder : ParameterBinder.values()) {
+			if ((binder.valueType != Object.class) && !binder.valueType.isInterface()) {
+				ParameterBinder.BINDERS.put(binder.valueType, binder);
+			}
+		}
+	}
+
+	/**
+	 * Returns the binder for the SQL type.
+	 * 
+	 * @param sqlType
+	 *            the SQL type
+	 * @return the binder for the SQL type, {@link #OBJECT} if the SQL type does not have a typed binder
+	 * 
+	 * @since 2.0.0
+	 */
+	public static ParameterBinder forSqlType(int sqlType) {
+		switch (sqlType) {
+			case Types.BIGINT:
+				return LONG;
+			case Types.BLOB:
+				return BLOB;
+			case Types.BOOLEAN:
+				return BOOLEAN;
+			case Types.CHAR:
+				return CHAR;
+			case Types.CLOB:
+				return CLOB;
+			case Types.DATE:
+				return DATE;
+			case Types.DECIMAL:
+				return BIG_DECIMAL;
+			case Types.DOUBLE:
+				return DOUBLE;
+			case Types.FLOAT:
+				return FLOAT;
+			case Types.INTEGER:
+				return INTEGER;
+			case Types.SMALLINT:
+				return SHORT;
+			case Types.TIME:
+				return TIME;
+			case Types.TIMESTAMP:
+				return TIMESTAMP;
+			case Types.TINYINT:
+				return BYTE;
+			case Types.VARCHAR:
+				return STRING;
+			default:
+				return OBJECT;
+		}
+	}
+
+	/**
+	 * Returns the binder for the runtime type of the value.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the binder for the value, {@link #OBJECT} if the value is null or the type of the value does not have a typed binder
+	 * 
+	 * @since 2.0.0
+	 */
+	public static ParameterBinder forValue(Object value) {
+		if (value == null) {
+			return OBJECT;
+		}
+
+		final ParameterBinder binder = ParameterBinder.BINDERS.get(value.getClass());
+		if (binder != null) {
+			return binder;
+		}
+
+		if ((value instanceof Blob) || (value instanceof InputStream)) {
+			return BLOB;
+		}
+
+		if ((value instanceof Clob) || (value instanceof Reader)) {
+			return CLOB;
+		}
+
+		return OBJECT;
+	}
+
+	private final int nullType;
+	private final Class<?> valueType;
+
+	ParameterBinder(int nullType, Class<?> valueType) {
+		this.nullType = nullType;
+		this.valueType = valueType;
+	}
+
+	/**
+	 * Binds the value to the statement.
+	 * 
+	 * @param statement
+	 *            the statement
+	 * @param index
+	 *            the index of the parameter
+	 * @param value
+	 *            the value
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	public void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+		if (this.valueType.isInstance(value)) {
+			this.bindValue(statement, index, value);
+		}
+		else {
+			statement.setObject(index, value);
+		}
+	}
+
+	/**
+	 * Binds the value known to be of the value type of the binder to the statement.
+	 * 
+	 * @param statement
+	 *            the statement
+	 * @param index
+	 *            the index of the parameter
+	 * @param value
+	 *            the value
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	protected abstract void bindValue(PreparedStatement statement, int index, Object value) throws SQLException;
+
+	/**
+	 * Returns the SQL type to bind the null values with.
+	 * 
+	 * @return the SQL type to bind the null values with or {@link Types#NULL} if the type should be resolved by the statement
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getNullType() {
+		return this.nullType;
+	}
+}
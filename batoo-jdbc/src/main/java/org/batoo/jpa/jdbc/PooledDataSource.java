@@ -0,0 +1,731 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc;
+
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+import org.batoo.common.log.BLogger;
+import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.JPASettings;
+
+/**
+ * Built-in connection pool.
+ * <p>
+ * Connections are borrowed without locking: the connection last used by the borrowing thread is tried first, then the idle connections
+ * are claimed with a compare and set on their state. When the pool is exhausted the borrower waits for a released connection up to
+ * {@link BJPASettings#POOL_MAX_WAIT} milliseconds. Idle connections are validated in the background every
+ * {@link BJPASettings#POOL_VALIDATION_INTERVAL} milliseconds.
+ * <p>
+ * The pool is enabled by setting {@link BJPASettings#DATASOURCE_POOL} to <code>org.batoo.jpa.jdbc.PooledDataSource</code>.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class PooledDataSource extends AbstractDataSource {
+
+	private static final class PooledConnection {
+
+		private final Connection connection;
+		private final AtomicInteger state;
+
+		private PooledConnection(Connection connection, int state) {
+			super();
+
+			this.connection = connection;
+			this.state = new AtomicInteger(state);
+		}
+	}
+
+	private static final BLogger LOG = BLoggerFactory.getLogger(PooledDataSource.class);
+
+	private static final int STATE_IDLE = 0;
+	private static final int STATE_IN_USE = 1;
+	private static final int STATE_RESERVED = 2;
+
+	private static final int VALIDATION_TIMEOUT = 5;
+
+	private final CopyOnWriteArrayList<PooledConnection> connections = new CopyOnWriteArrayList<PooledConnection>();
+	private final ThreadLocal<WeakReference<PooledConnection>> affinity = new ThreadLocal<WeakReference<PooledConnection>>();
+	private final SynchronousQueue<PooledConnection> handoff = new SynchronousQueue<PooledConnection>(true);
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong affinityHitCount = new AtomicLong();
+	private final AtomicLong createCount = new AtomicLong();
+	private final AtomicLong destroyCount = new AtomicLong();
+	private final AtomicLong waitCount = new AtomicLong();
+	private final AtomicLong waitTime = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong validationFailureCount = new AtomicLong();
+
+	private String name;
+	private String jdbcUrl;
+	private String jdbcUser;
+	private String jdbcPassword;
+	private int minConnections;
+	private int maxConnections;
+	private long maxWait;
+
+	private ScheduledExecutorService validator;
+	private PrintWriter logWriter;
+	private int loginTimeout;
+	private volatile boolean closed = true;
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	public PooledDataSource() {
+		super();
+	}
+
+	private PooledConnection await(long start) throws SQLException {
+		this.waitCount.incrementAndGet();
+		this.waiters.incrementAndGet();
+
+		try {
+			final long deadline = start + this.maxWait;
+
+			while (!this.closed) {
+				// a connection may have been released before the waiter was registered
+				PooledConnection pooledConnection = this.claim();
+				if (pooledConnection == null) {
+					pooledConnection = this.create(PooledDataSource.STATE_IN_USE);
+				}
+
+				if (pooledConnection != null) {
+					return pooledConnection;
+				}
+
+				final long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					break;
+				}
+
+				pooledConnection = this.handoff.poll(remaining, TimeUnit.NANOSECONDS);
+				if ((pooledConnection != null) && pooledConnection.state.compareAndSet(PooledDataSource.STATE_IDLE, PooledDataSource.STATE_IN_USE)) {
+					return pooledConnection;
+				}
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new SQLException("Interrupted while waiting for a connection from the pool " + this.name);
+		}
+		finally {
+			this.waiters.decrementAndGet();
+			this.waitTime.addAndGet(System.nanoTime() - start);
+		}
+
+		this.timeoutCount.incrementAndGet();
+
+		throw new SQLException("Timed out after " + TimeUnit.NANOSECONDS.toMillis(this.maxWait) + " msecs waiting for a connection from the pool "
+			+ this.name + ", active: " + this.getActiveConnections() + ", max: " + this.maxConnections);
+	}
+
+	private PooledConnection claim() {
+		for (final PooledConnection pooledConnection : this.connections) {
+			if (pooledConnection.state.compareAndSet(PooledDataSource.STATE_IDLE, PooledDataSource.STATE_IN_USE)) {
+				return pooledConnection;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+
+		this.closed = true;
+
+		if (this.validator != null) {
+			this.validator.shutdownNow();
+			this.validator = null;
+		}
+
+		// connections in use are destroyed when they are released
+		for (final PooledConnection pooledConnection : this.connections) {
+			if (pooledConnection.state.compareAndSet(PooledDataSource.STATE_IDLE, PooledDataSource.STATE_RESERVED)) {
+				this.destroy(pooledConnection);
+			}
+		}
+
+		PooledDataSource.LOG.info("Pool {0} closed, borrowed: {1}, created: {2}, waited: {3}, timed out: {4}", this.name, this.borrowCount.get(),
+			this.createCount.get(), this.waitCount.get(), this.timeoutCount.get());
+	}
+
+	private PooledConnection create(int state) throws SQLException {
+		while (true) {
+			final int current = this.size.get();
+			if (current >= this.maxConnections) {
+				return null;
+			}
+
+			if (this.size.compareAndSet(current, current + 1)) {
+				break;
+			}
+		}
+
+		final Connection connection;
+		try {
+			connection = DriverManager.getConnection(this.jdbcUrl, this.jdbcUser, this.jdbcPassword);
+		}
+		catch (final SQLException e) {
+			this.size.decrementAndGet();
+
+			throw e;
+		}
+
+		final PooledConnection pooledConnection = new PooledConnection(connection, state);
+		this.connections.add(pooledConnection);
+		this.createCount.incrementAndGet();
+
+		return pooledConnection;
+	}
+
+	private void destroy(PooledConnection pooledConnection) {
+		if (this.connections.remove(pooledConnection)) {
+			this.size.decrementAndGet();
+			this.destroyCount.incrementAndGet();
+		}
+
+		try {
+			pooledConnection.connection.close();
+		}
+		catch (final SQLException e) {
+			PooledDataSource.LOG.debug("Cannot close the connection: {0}", e.getMessage());
+		}
+	}
+
+	private PooledConnection find(Connection connection) {
+		final WeakReference<PooledConnection> reference = this.affinity.get();
+		if (reference != null) {
+			final PooledConnection pooledConnection = reference.get();
+			if ((pooledConnection != null) && (pooledConnection.connection == connection)) {
+				return pooledConnection;
+			}
+		}
+
+		for (final PooledConnection pooledConnection : this.connections) {
+			if (pooledConnection.connection == connection) {
+				return pooledConnection;
+			}
+		}
+
+		return null;
+	}
+
+	private void fill() {
+		try {
+			while (!this.closed && (this.size.get() < this.minConnections)) {
+				final PooledConnection pooledConnection = this.create(PooledDataSource.STATE_IDLE);
+				if (pooledConnection == null) {
+					break;
+				}
+
+				this.offer(pooledConnection);
+			}
+		}
+		catch (final SQLException e) {
+			PooledDataSource.LOG.warn(e, "Cannot create the minimum number of connections for the pool {0}", this.name);
+		}
+	}
+
+	/**
+	 * Returns the number of connections currently borrowed from the pool.
+	 * 
+	 * @return the number of connections currently borrowed from the pool
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getActiveConnections() {
+		int active = 0;
+		for (final PooledConnection pooledConnection : this.connections) {
+			if (pooledConnection.state.get() == PooledDataSource.STATE_IN_USE) {
+				active++;
+			}
+		}
+
+		return active;
+	}
+
+	/**
+	 * Returns the number of borrows that reused the connection last used by the same thread.
+	 * 
+	 * @return the number of borrows that reused the connection last used by the same thread
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getAffinityHitCount() {
+		return this.affinityHitCount.get();
+	}
+
+	/**
+	 * Returns the total number of borrows.
+	 * 
+	 * @return the total number of borrows
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getBorrowCount() {
+		return this.borrowCount.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (this.closed) {
+			throw new SQLException("Pool " + this.name + " is closed");
+		}
+
+		this.borrowCount.incrementAndGet();
+
+		// fast path, reuse the connection last used by this thread
+		final WeakReference<PooledConnection> reference = this.affinity.get();
+		PooledConnection pooledConnection = reference != null ? reference.get() : null;
+		if ((pooledConnection != null) && pooledConnection.state.compareAndSet(PooledDataSource.STATE_IDLE, PooledDataSource.STATE_IN_USE)) {
+			this.affinityHitCount.incrementAndGet();
+
+			return pooledConnection.connection;
+		}
+
+		pooledConnection = this.claim();
+		if (pooledConnection == null) {
+			pooledConnection = this.create(PooledDataSource.STATE_IN_USE);
+		}
+
+		if (pooledConnection == null) {
+			pooledConnection = this.await(System.nanoTime());
+		}
+
+		this.affinity.set(new WeakReference<PooledConnection>(pooledConnection));
+
+		return pooledConnection.connection;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new UnsupportedOperationException("not supported");
+	}
+
+	/**
+	 * Returns the total number of physical connections created.
+	 * 
+	 * @return the total number of physical connections created
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getCreateCount() {
+		return this.createCount.get();
+	}
+
+	/**
+	 * Returns the total number of physical connections closed by the pool.
+	 * 
+	 * @return the total number of physical connections closed by the pool
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getDestroyCount() {
+		return this.destroyCount.get();
+	}
+
+	/**
+	 * Returns the number of idle connections in the pool.
+	 * 
+	 * @return the number of idle connections in the pool
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getIdleConnections() {
+		int idle = 0;
+		for (final PooledConnection pooledConnection : this.connections) {
+			if (pooledConnection.state.get() == PooledDataSource.STATE_IDLE) {
+				idle++;
+			}
+		}
+
+		return idle;
+	}
+
+	private long getLong(Map<String, Object> properties, String key, long defaultValue) {
+		final Object value = properties.get(key);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(((String) value).trim());
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + value + " for " + key);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return this.loginTimeout;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return this.logWriter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException("not supported");
+	}
+
+	/**
+	 * Returns the number of borrows that timed out waiting for a connection.
+	 * 
+	 * @return the number of borrows that timed out waiting for a connection
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getTimeoutCount() {
+		return this.timeoutCount.get();
+	}
+
+	/**
+	 * Returns the number of physical connections in the pool.
+	 * 
+	 * @return the number of physical connections in the pool
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getTotalConnections() {
+		return this.size.get();
+	}
+
+	/**
+	 * Returns the number of idle connections found invalid by the background validation.
+	 * 
+	 * @return the number of idle connections found invalid by the background validation
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getValidationFailureCount() {
+		return this.validationFailureCount.get();
+	}
+
+	/**
+	 * Returns the number of borrows that had to wait for a connection.
+	 * 
+	 * @return the number of borrows that had to wait for a connection
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getWaitCount() {
+		return this.waitCount.get();
+	}
+
+	/**
+	 * Returns the total time in milliseconds the borrowers waited for a connection.
+	 * 
+	 * @return the total time in milliseconds the borrowers waited for a connection
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getWaitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(this.waitTime.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+
+	private void offer(PooledConnection pooledConnection) {
+		// hand the connection directly to a waiting borrower if there is any
+		for (int i = 0; this.waiters.get() > 0; i++) {
+			if ((pooledConnection.state.get() != PooledDataSource.STATE_IDLE) || this.handoff.offer(pooledConnection)) {
+				return;
+			}
+
+			if ((i & 0xff) == 0xff) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+			}
+			else {
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void open(String persistanceUnitName, String hintName) {
+		this.open(persistanceUnitName, hintName, Collections.<String, Object> emptyMap());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void open(String persistanceUnitName, String hintName, Map<String, Object> properties) {
+		this.name = StringUtils.isNotBlank(hintName) ? hintName : persistanceUnitName;
+
+		final String jdbcDriver = (String) properties.get(JPASettings.JDBC_DRIVER);
+		this.jdbcUrl = (String) properties.get(JPASettings.JDBC_URL);
+		this.jdbcUser = (String) properties.get(JPASettings.JDBC_USER);
+		this.jdbcPassword = (String) properties.get(JPASettings.JDBC_PASSWORD);
+
+		if (StringUtils.isBlank(this.jdbcUrl)) {
+			throw new IllegalArgumentException("No value for " + JPASettings.JDBC_URL + " for the pool " + this.name);
+		}
+
+		if (StringUtils.isNotBlank(jdbcDriver)) {
+			try {
+				Class.forName(jdbcDriver, true, Thread.currentThread().getContextClassLoader());
+			}
+			catch (final ClassNotFoundException e) {
+				throw new IllegalArgumentException("Class not found: " + jdbcDriver);
+			}
+		}
+
+		this.maxConnections = (int) this.getLong(properties, BJPASettings.MAX_CONNECTIONS, BJPASettings.DEFAULT_MAX_CONNECTIONS);
+		this.minConnections = Math.min(this.maxConnections,
+			(int) this.getLong(properties, BJPASettings.MIN_CONNECTIONS, BJPASettings.DEFAULT_MIN_CONNECTIONS));
+		this.maxWait = TimeUnit.MILLISECONDS.toNanos(this.getLong(properties, BJPASettings.POOL_MAX_WAIT, BJPASettings.DEFAULT_POOL_MAX_WAIT));
+
+		if (this.maxConnections < 1) {
+			throw new IllegalArgumentException("Illegal value " + this.maxConnections + " for " + BJPASettings.MAX_CONNECTIONS);
+		}
+
+		this.closed = false;
+
+		this.fill();
+
+		final long validationInterval = this.getLong(properties, BJPASettings.POOL_VALIDATION_INTERVAL, BJPASettings.DEFAULT_POOL_VALIDATION_INTERVAL);
+		if (validationInterval > 0) {
+			this.validator = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					final Thread thread = new Thread(runnable, "BatooPool-" + PooledDataSource.this.name + "-validator");
+					thread.setDaemon(true);
+
+					return thread;
+				}
+			});
+
+			this.validator.scheduleWithFixedDelay(new Runnable() {
+
+				@Override
+				public void run() {
+					PooledDataSource.this.validate();
+				}
+			}, validationInterval, validationInterval, TimeUnit.MILLISECONDS);
+		}
+
+		PooledDataSource.LOG.info("Pool {0} opened, min: {1}, max: {2}", this.name, this.minConnections, this.maxConnections);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void releaseConnection(Connection connection) {
+		final PooledConnection pooledConnection = this.find(connection);
+		if (pooledConnection == null) {
+			try {
+				connection.close();
+			}
+			catch (final SQLException e) {
+				PooledDataSource.LOG.debug("Cannot close the connection: {0}", e.getMessage());
+			}
+
+			return;
+		}
+
+		// guard against the connections released more than once, they may already be borrowed by another thread
+		if (!pooledConnection.state.compareAndSet(PooledDataSource.STATE_IN_USE, PooledDataSource.STATE_RESERVED)) {
+			PooledDataSource.LOG.warn("Connection released to the pool {0} is not in use", this.name);
+
+			return;
+		}
+
+		if (this.closed || !this.reset(pooledConnection.connection)) {
+			this.destroy(pooledConnection);
+
+			return;
+		}
+
+		pooledConnection.state.set(PooledDataSource.STATE_IDLE);
+
+		this.offer(pooledConnection);
+	}
+
+	private boolean reset(Connection connection) {
+		// roll back the work left open so that it does not leak into the next borrower
+		try {
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+
+			if (connection.isReadOnly()) {
+				connection.setReadOnly(false);
+			}
+
+			connection.clearWarnings();
+
+			return true;
+		}
+		catch (final SQLException e) {
+			PooledDataSource.LOG.debug("Cannot reset the connection, destroying: {0}", e.getMessage());
+
+			return false;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		this.loginTimeout = seconds;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		this.logWriter = out;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String toString() {
+		return "PooledDataSource [name=" + this.name + ", total=" + this.getTotalConnections() + ", active=" + this.getActiveConnections()
+			+ ", borrowed=" + this.borrowCount.get() + ", waited=" + this.waitCount.get() + ", timedOut=" + this.timeoutCount.get() + "]";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+
+		throw new SQLException("Not a wrapper for " + iface.getName());
+	}
+
+	private void validate() {
+		for (final PooledConnection pooledConnection : this.connections) {
+			if (this.closed) {
+				return;
+			}
+
+			if (!pooledConnection.state.compareAndSet(PooledDataSource.STATE_IDLE, PooledDataSource.STATE_RESERVED)) {
+				continue;
+			}
+
+			boolean valid;
+			try {
+				valid = pooledConnection.connection.isValid(PooledDataSource.VALIDATION_TIMEOUT);
+			}
+			catch (final SQLException e) {
+				valid = false;
+			}
+
+			if (valid && !this.closed) {
+				pooledConnection.state.set(PooledDataSource.STATE_IDLE);
+
+				this.offer(pooledConnection);
+			}
+			else {
+				if (!valid) {
+					this.validationFailureCount.incrementAndGet();
+				}
+
+				this.destroy(pooledConnection);
+			}
+		}
+
+		this.fill();
+	}
+}
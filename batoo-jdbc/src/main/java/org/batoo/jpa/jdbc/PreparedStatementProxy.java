@@ -41,12 +41,14 @@ import java.sql.SQLXML;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang.NotImplementedException;
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.jdbc.statistics.StatementStatistics;
 
 /**
  * 
@@ -75,7 +77,12 @@ public class PreparedStatementProxy implements PreparedStatement {
 		/**
 		 * SQLs are printed to the standard output.
 		 */
-		STDOUT
+		STDOUT, //
+
+		/**
+		 * SQLs are written to a file asynchronously by the {@link AsyncSqlLogger}.
+		 */
+		ASYNC
 	}
 
 	private static final BLogger LOG = BLoggerFactory.getLogger("org.batoo.jpa.core.SQL");
@@ -94,6 +101,14 @@ public class PreparedStatementProxy implements PreparedStatement {
 	private boolean debug;
 	private final PrintStream sqlStream;
 
+	private ConnectionProxy cache;
+	private boolean inUse = true;
+
+	private final StatementStatistics statistics;
+	private int batchSize;
+
+	private final AsyncSqlLogger sqlLogger;
+
 	/**
 	 * @param sql
 	 *            the SQL
@@ -103,15 +118,22 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 *            the time to decide if SQL is deemed as slow
 	 * @param sqlLoggingType
 	 *            the type of the sql logging
+	 * @param statistics
+	 *            the statistics to record the executions to, may be null
+	 * @param sqlLogger
+	 *            the asynchronous SQL logger, may be null
 	 * 
 	 * @since 2.0.0
 	 */
-	public PreparedStatementProxy(String sql, PreparedStatement statement, long slowSqlThreshold, SqlLoggingType sqlLoggingType) {
+	public PreparedStatementProxy(String sql, PreparedStatement statement, long slowSqlThreshold, SqlLoggingType sqlLoggingType,
+		StatementStatistics statistics, AsyncSqlLogger sqlLogger) {
 		super();
 
 		this.sql = sql;
 		this.statement = statement;
 		this.slowSqlThreshold = slowSqlThreshold;
+		this.statistics = statistics;
+		this.sqlLogger = sqlLoggingType == SqlLoggingType.ASYNC ? sqlLogger : null;
 
 		switch (sqlLoggingType) {
 			case STDERR:
@@ -134,6 +156,8 @@ public class PreparedStatementProxy implements PreparedStatement {
 	@Override
 	public void addBatch() throws SQLException {
 		this.statement.addBatch();
+
+		this.batchSize++;
 	}
 
 	/**
@@ -161,6 +185,8 @@ public class PreparedStatementProxy implements PreparedStatement {
 	@Override
 	public void clearBatch() throws SQLException {
 		this.statement.clearBatch();
+
+		this.batchSize = 0;
 	}
 
 	/**
@@ -187,9 +213,41 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void close() throws SQLException {
+		if (this.cache != null) {
+			// logical close, the statement stays open in the statement cache of the connection
+			this.statement.clearParameters();
+
+			if (this.parameters != null) {
+				Arrays.fill(this.parameters, null);
+			}
+
+			this.inUse = false;
+
+			return;
+		}
+
+		this.inUse = false;
+
 		this.statement.close();
 	}
 
+	/**
+	 * Closes the delegate statement if the statement is not in use, otherwise the delegate statement is closed when the statement is
+	 * closed.
+	 * 
+	 * @throws SQLException
+	 *             thrown if the delegate statement cannot be closed
+	 * 
+	 * @since 2.0.0
+	 */
+	void closeCached() throws SQLException {
+		this.cache = null;
+
+		if (!this.inUse) {
+			this.statement.close();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -205,7 +263,17 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public boolean execute() throws SQLException {
-		return this.statement.execute();
+		if (this.sqlLogger == null) {
+			return this.execute0();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			return this.execute0();
+		}
+		finally {
+			this.logAsync("execute()", start);
+		}
 	}
 
 	/**
@@ -244,13 +312,73 @@ public class PreparedStatementProxy implements PreparedStatement {
 		return this.statement.execute(sql, columnNames);
 	}
 
+	private boolean execute0() throws SQLException {
+		if (this.statistics == null) {
+			return this.statement.execute();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			final boolean result = this.statement.execute();
+
+			this.statistics.record(System.nanoTime() - start, 0);
+
+			return result;
+		}
+		catch (final SQLException e) {
+			this.statistics.recordError(System.nanoTime() - start);
+
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
 	 */
 	@Override
 	public int[] executeBatch() throws SQLException {
-		return this.statement.executeBatch();
+		if (this.sqlLogger == null) {
+			return this.executeBatch0();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			return this.executeBatch0();
+		}
+		finally {
+			this.logAsync("executeBatch()", start);
+		}
+	}
+
+	private int[] executeBatch0() throws SQLException {
+		final int batchSize = this.batchSize;
+		this.batchSize = 0;
+
+		if (this.statistics == null) {
+			return this.statement.executeBatch();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			final int[] result = this.statement.executeBatch();
+
+			long rows = 0;
+			for (final int count : result) {
+				if (count > 0) {
+					rows += count;
+				}
+			}
+
+			this.statistics.recordBatch(System.nanoTime() - start, batchSize, rows);
+
+			return result;
+		}
+		catch (final SQLException e) {
+			this.statistics.recordError(System.nanoTime() - start);
+
+			throw e;
+		}
 	}
 
 	/**
@@ -259,8 +387,18 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public ResultSet executeQuery() throws SQLException {
+		if (this.sqlLogger != null) {
+			final long start = System.nanoTime();
+			try {
+				return this.executeQuery0();
+			}
+			finally {
+				this.logAsync("executeQuery()", start);
+			}
+		}
+
 		if ((this.sqlStream == null) && !this.debug) {
-			return this.statement.executeQuery();
+			return this.executeQuery0();
 		}
 
 		if (this.statementNo == -1) {
@@ -279,7 +417,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 
 		final long start = System.currentTimeMillis();
 		try {
-			return this.statement.executeQuery();
+			return this.executeQuery0();
 		}
 		finally {
 			final long time = System.currentTimeMillis() - start;
@@ -314,14 +452,45 @@ public class PreparedStatementProxy implements PreparedStatement {
 		return null;
 	}
 
+	private ResultSet executeQuery0() throws SQLException {
+		if (this.statistics == null) {
+			return this.statement.executeQuery();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			final ResultSet resultSet = this.statement.executeQuery();
+
+			// the rows are recorded as the result set is read
+			this.statistics.record(System.nanoTime() - start, 0);
+
+			return new ResultSetProxy(this, resultSet, this.statistics);
+		}
+		catch (final SQLException e) {
+			this.statistics.recordError(System.nanoTime() - start);
+
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
 	 */
 	@Override
 	public int executeUpdate() throws SQLException {
+		if (this.sqlLogger != null) {
+			final long start = System.nanoTime();
+			try {
+				return this.executeUpdate0();
+			}
+			finally {
+				this.logAsync("executeUpdate()", start);
+			}
+		}
+
 		if ((this.sqlStream == null) && !this.debug) {
-			return this.statement.executeUpdate();
+			return this.executeUpdate0();
 		}
 
 		if (this.statementNo == -1) {
@@ -340,7 +509,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 
 		final long start = System.currentTimeMillis();
 		try {
-			return this.statement.executeUpdate();
+			return this.executeUpdate0();
 		}
 		finally {
 			final long time = System.currentTimeMillis() - start;
@@ -404,6 +573,26 @@ public class PreparedStatementProxy implements PreparedStatement {
 		return 0;
 	}
 
+	private int executeUpdate0() throws SQLException {
+		if (this.statistics == null) {
+			return this.statement.executeUpdate();
+		}
+
+		final long start = System.nanoTime();
+		try {
+			final int result = this.statement.executeUpdate();
+
+			this.statistics.record(System.nanoTime() - start, result);
+
+			return result;
+		}
+		catch (final SQLException e) {
+			this.statistics.recordError(System.nanoTime() - start);
+
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -623,6 +812,32 @@ public class PreparedStatementProxy implements PreparedStatement {
 		return false;
 	}
 
+	/**
+	 * Returns if the statement is in use, that is it has not been closed since it was last prepared.
+	 * 
+	 * @return true if the statement is in use, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	boolean isInUse() {
+		return this.inUse;
+	}
+
+	private boolean isTrackingParameters() {
+		// checked by the setters of the primitives before boxing them
+		return (this.debug || (this.sqlStream != null) || (this.sqlLogger != null)) && (this.parameters != null);
+	}
+
+	private void logAsync(String operation, long start) {
+		if (this.statementNo == -1) {
+			this.statementNo = PreparedStatementProxy.no.incrementAndGet();
+		}
+
+		this.executionNo++;
+
+		this.sqlLogger.log(this.statementNo, this.executionNo, operation, this.sql, this.parameters, System.nanoTime() - start);
+	}
+
 	/**
 	 * Resets the prepared statement and returns itself
 	 * 
@@ -632,6 +847,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	public PreparedStatement reset() {
 		this.debug = PreparedStatementProxy.LOG.isDebugEnabled();
+		this.inUse = true;
 
 		return this;
 	}
@@ -678,7 +894,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, x);
+
+		this.statement.setBigDecimal(parameterIndex, x);
 	}
 
 	/**
@@ -687,7 +905,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, "[BLOB]");
+
+		this.statement.setBinaryStream(parameterIndex, x);
 	}
 
 	/**
@@ -696,7 +916,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, "[BLOB]");
+
+		this.statement.setBinaryStream(parameterIndex, x, length);
 	}
 
 	/**
@@ -705,7 +927,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, "[BLOB]");
+
+		this.statement.setBinaryStream(parameterIndex, x, length);
 	}
 
 	/**
@@ -714,7 +938,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBlob(int parameterIndex, Blob x) throws SQLException {
-		if ((this.debug || (this.sqlStream != null)) && (this.parameters != null)) {
+		if (this.isTrackingParameters()) {
 			this.parameters[parameterIndex - 1] = "[BLOB]";
 		}
 
@@ -745,7 +969,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setBoolean(parameterIndex, x);
 	}
 
 	/**
@@ -754,7 +982,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setByte(int parameterIndex, byte x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setByte(parameterIndex, x);
 	}
 
 	/**
@@ -763,7 +995,21 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, x);
+
+		this.statement.setBytes(parameterIndex, x);
+	}
+
+	/**
+	 * Sets the connection that caches the statement, once set the statement is only logically closed.
+	 * 
+	 * @param cache
+	 *            the connection that caches the statement
+	 * 
+	 * @since 2.0.0
+	 */
+	void setCache(ConnectionProxy cache) {
+		this.cache = cache;
 	}
 
 	/**
@@ -772,7 +1018,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, "[CLOB]");
+
+		this.statement.setCharacterStream(parameterIndex, reader);
 	}
 
 	/**
@@ -781,7 +1029,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, "[CLOB]");
+
+		this.statement.setCharacterStream(parameterIndex, reader, length);
 	}
 
 	/**
@@ -790,7 +1040,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, "[CLOB]");
+
+		this.statement.setCharacterStream(parameterIndex, reader, length);
 	}
 
 	/**
@@ -799,7 +1051,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setClob(int parameterIndex, Clob x) throws SQLException {
-		if ((this.debug || (this.sqlStream != null)) && (this.parameters != null)) {
+		if (this.isTrackingParameters()) {
 			this.parameters[parameterIndex - 1] = "[CLOB]";
 		}
 
@@ -839,7 +1091,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setDate(int parameterIndex, Date x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, x);
+
+		this.statement.setDate(parameterIndex, x);
 	}
 
 	/**
@@ -857,7 +1111,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setDouble(int parameterIndex, double x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setDouble(parameterIndex, x);
 	}
 
 	/**
@@ -893,7 +1151,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setFloat(int parameterIndex, float x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setFloat(parameterIndex, x);
 	}
 
 	/**
@@ -902,7 +1164,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setInt(int parameterIndex, int x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setInt(parameterIndex, x);
 	}
 
 	/**
@@ -911,7 +1177,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setLong(int parameterIndex, long x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setLong(parameterIndex, x);
 	}
 
 	/**
@@ -992,7 +1262,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setNull(int parameterIndex, int sqlType) throws SQLException {
-		if ((this.debug || (this.sqlStream != null)) && (this.parameters != null)) {
+		if (this.isTrackingParameters()) {
 			this.parameters[parameterIndex - 1] = null;
 		}
 
@@ -1014,7 +1284,7 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setObject(int parameterIndex, Object x) throws SQLException {
-		if ((this.debug || (this.sqlStream != null)) && (this.parameters != null)) {
+		if (this.isTrackingParameters()) {
 			this.parameters[parameterIndex - 1] = x;
 		}
 
@@ -1098,7 +1368,11 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setShort(int parameterIndex, short x) throws SQLException {
-		this.throwNotImplemented();
+		if (this.isTrackingParameters()) {
+			this.trackParameter(parameterIndex, x);
+		}
+
+		this.statement.setShort(parameterIndex, x);
 	}
 
 	/**
@@ -1116,7 +1390,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setString(int parameterIndex, String x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, x);
+
+		this.statement.setString(parameterIndex, x);
 	}
 
 	/**
@@ -1125,7 +1401,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setTime(int parameterIndex, Time x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, x);
+
+		this.statement.setTime(parameterIndex, x);
 	}
 
 	/**
@@ -1143,7 +1421,9 @@ public class PreparedStatementProxy implements PreparedStatement {
 	 */
 	@Override
 	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
-		this.throwNotImplemented();
+		this.trackParameter(parameterIndex, x);
+
+		this.statement.setTimestamp(parameterIndex, x);
 	}
 
 	/**
@@ -1177,6 +1457,12 @@ public class PreparedStatementProxy implements PreparedStatement {
 		throw new NotImplementedException();
 	}
 
+	private void trackParameter(int parameterIndex, Object x) {
+		if (this.isTrackingParameters()) {
+			this.parameters[parameterIndex - 1] = x;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
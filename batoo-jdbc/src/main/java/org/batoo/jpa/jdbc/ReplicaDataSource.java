@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.batoo.common.log.BLogger;
+import org.batoo.common.log.BLoggerFactory;
+
+/**
+ * Datasource that balances the connections over the read replicas of the database.
+ * <p>
+ * The replicas are used in round robin order, if a replica fails to provide a connection the next replica is tried.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ReplicaDataSource implements DataSource {
+
+	private static final BLogger LOG = BLoggerFactory.getLogger(ReplicaDataSource.class);
+
+	private final DataSource[] replicas;
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * @param replicas
+	 *            the datasources of the replicas
+	 * 
+	 * @since 2.0.0
+	 */
+	public ReplicaDataSource(List<DataSource> replicas) {
+		super();
+
+		if (replicas.isEmpty()) {
+			throw new IllegalArgumentException("No replicas");
+		}
+
+		this.replicas = replicas.toArray(new DataSource[replicas.size()]);
+	}
+
+	/**
+	 * Closes the datasources of the replicas.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void close() {
+		for (final DataSource replica : this.replicas) {
+			try {
+				if (replica instanceof AbstractDataSource) {
+					((AbstractDataSource) replica).close();
+				}
+				else {
+					// close the datasource via reflection
+					final Method closeMethod = replica.getClass().getMethod("close");
+					closeMethod.invoke(replica);
+				}
+			}
+			catch (final Exception e) {
+				ReplicaDataSource.LOG.error(e, "Cannot close() the replica datasource");
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		final int start = (this.next.getAndIncrement() & Integer.MAX_VALUE) % this.replicas.length;
+
+		SQLException failure = null;
+		for (int i = 0; i < this.replicas.length; i++) {
+			final DataSource replica = this.replicas[(start + i) % this.replicas.length];
+
+			try {
+				return replica.getConnection();
+			}
+			catch (final SQLException e) {
+				ReplicaDataSource.LOG.warn(e, "Cannot obtain connection from the replica datasource, trying the next replica");
+
+				failure = e;
+			}
+		}
+
+		throw failure;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new UnsupportedOperationException("not supported");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return this.replicas[0].getLoginTimeout();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return this.replicas[0].getLogWriter();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException("not supported");
+	}
+
+	/**
+	 * Returns the datasources of the replicas.
+	 * 
+	 * @return the datasources of the replicas
+	 * 
+	 * @since 2.0.0
+	 */
+	public DataSource[] getReplicas() {
+		return this.replicas.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		for (final DataSource replica : this.replicas) {
+			replica.setLoginTimeout(seconds);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		for (final DataSource replica : this.replicas) {
+			replica.setLogWriter(out);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+
+		throw new SQLException("Not a wrapper for " + iface.getName());
+	}
+}
@@ -0,0 +1,1815 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+import org.batoo.jpa.jdbc.statistics.StatementStatistics;
+
+/**
+ * Proxy class to count the rows read from the result sets for the SQL statistics.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ResultSetProxy implements ResultSet {
+
+	private final PreparedStatementProxy statement;
+	private final ResultSet resultSet;
+	private final StatementStatistics statistics;
+
+	private long rows;
+	private boolean recorded;
+
+	/**
+	 * @param statement
+	 *            the statement that produced the result set
+	 * @param resultSet
+	 *            the delegate result set
+	 * @param statistics
+	 *            the statistics of the statement
+	 * 
+	 * @since 2.0.0
+	 */
+	public ResultSetProxy(PreparedStatementProxy statement, ResultSet resultSet, StatementStatistics statistics) {
+		super();
+
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean absolute(int row) throws SQLException {
+		return this.resultSet.absolute(row);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void afterLast() throws SQLException {
+		this.resultSet.afterLast();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void beforeFirst() throws SQLException {
+		this.resultSet.beforeFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void cancelRowUpdates() throws SQLException {
+		this.resultSet.cancelRowUpdates();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void clearWarnings() throws SQLException {
+		this.resultSet.clearWarnings();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void close() throws SQLException {
+		this.recordRows();
+
+		this.resultSet.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void deleteRow() throws SQLException {
+		this.resultSet.deleteRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int findColumn(String columnLabel) throws SQLException {
+		return this.resultSet.findColumn(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean first() throws SQLException {
+		return this.resultSet.first();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Array getArray(int columnIndex) throws SQLException {
+		return this.resultSet.getArray(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Array getArray(String columnLabel) throws SQLException {
+		return this.resultSet.getArray(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public InputStream getAsciiStream(int columnIndex) throws SQLException {
+		return this.resultSet.getAsciiStream(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public InputStream getAsciiStream(String columnLabel) throws SQLException {
+		return this.resultSet.getAsciiStream(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+		return this.resultSet.getBigDecimal(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+		return this.resultSet.getBigDecimal(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+		return this.resultSet.getBigDecimal(columnIndex, scale);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+		return this.resultSet.getBigDecimal(columnLabel, scale);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public InputStream getBinaryStream(int columnIndex) throws SQLException {
+		return this.resultSet.getBinaryStream(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public InputStream getBinaryStream(String columnLabel) throws SQLException {
+		return this.resultSet.getBinaryStream(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Blob getBlob(int columnIndex) throws SQLException {
+		return this.resultSet.getBlob(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Blob getBlob(String columnLabel) throws SQLException {
+		return this.resultSet.getBlob(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean getBoolean(int columnIndex) throws SQLException {
+		return this.resultSet.getBoolean(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean getBoolean(String columnLabel) throws SQLException {
+		return this.resultSet.getBoolean(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public byte getByte(int columnIndex) throws SQLException {
+		return this.resultSet.getByte(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public byte getByte(String columnLabel) throws SQLException {
+		return this.resultSet.getByte(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public byte[] getBytes(int columnIndex) throws SQLException {
+		return this.resultSet.getBytes(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public byte[] getBytes(String columnLabel) throws SQLException {
+		return this.resultSet.getBytes(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Reader getCharacterStream(int columnIndex) throws SQLException {
+		return this.resultSet.getCharacterStream(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Reader getCharacterStream(String columnLabel) throws SQLException {
+		return this.resultSet.getCharacterStream(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Clob getClob(int columnIndex) throws SQLException {
+		return this.resultSet.getClob(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Clob getClob(String columnLabel) throws SQLException {
+		return this.resultSet.getClob(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getConcurrency() throws SQLException {
+		return this.resultSet.getConcurrency();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getCursorName() throws SQLException {
+		return this.resultSet.getCursorName();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Date getDate(int columnIndex) throws SQLException {
+		return this.resultSet.getDate(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Date getDate(String columnLabel) throws SQLException {
+		return this.resultSet.getDate(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+		return this.resultSet.getDate(columnIndex, cal);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+		return this.resultSet.getDate(columnLabel, cal);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public double getDouble(int columnIndex) throws SQLException {
+		return this.resultSet.getDouble(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public double getDouble(String columnLabel) throws SQLException {
+		return this.resultSet.getDouble(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return this.resultSet.getFetchDirection();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getFetchSize() throws SQLException {
+		return this.resultSet.getFetchSize();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public float getFloat(int columnIndex) throws SQLException {
+		return this.resultSet.getFloat(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public float getFloat(String columnLabel) throws SQLException {
+		return this.resultSet.getFloat(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getHoldability() throws SQLException {
+		return this.resultSet.getHoldability();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getInt(int columnIndex) throws SQLException {
+		return this.resultSet.getInt(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getInt(String columnLabel) throws SQLException {
+		return this.resultSet.getInt(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public long getLong(int columnIndex) throws SQLException {
+		return this.resultSet.getLong(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public long getLong(String columnLabel) throws SQLException {
+		return this.resultSet.getLong(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return this.resultSet.getMetaData();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Reader getNCharacterStream(int columnIndex) throws SQLException {
+		return this.resultSet.getNCharacterStream(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Reader getNCharacterStream(String columnLabel) throws SQLException {
+		return this.resultSet.getNCharacterStream(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public NClob getNClob(int columnIndex) throws SQLException {
+		return this.resultSet.getNClob(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public NClob getNClob(String columnLabel) throws SQLException {
+		return this.resultSet.getNClob(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getNString(int columnIndex) throws SQLException {
+		return this.resultSet.getNString(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getNString(String columnLabel) throws SQLException {
+		return this.resultSet.getNString(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Object getObject(int columnIndex) throws SQLException {
+		return this.resultSet.getObject(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Object getObject(String columnLabel) throws SQLException {
+		return this.resultSet.getObject(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+		return this.resultSet.getObject(columnIndex, type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+		return this.resultSet.getObject(columnIndex, map);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+		return this.resultSet.getObject(columnLabel, type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+		return this.resultSet.getObject(columnLabel, map);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Ref getRef(int columnIndex) throws SQLException {
+		return this.resultSet.getRef(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Ref getRef(String columnLabel) throws SQLException {
+		return this.resultSet.getRef(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getRow() throws SQLException {
+		return this.resultSet.getRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public RowId getRowId(int columnIndex) throws SQLException {
+		return this.resultSet.getRowId(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public RowId getRowId(String columnLabel) throws SQLException {
+		return this.resultSet.getRowId(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public SQLXML getSQLXML(int columnIndex) throws SQLException {
+		return this.resultSet.getSQLXML(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public SQLXML getSQLXML(String columnLabel) throws SQLException {
+		return this.resultSet.getSQLXML(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public short getShort(int columnIndex) throws SQLException {
+		return this.resultSet.getShort(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public short getShort(String columnLabel) throws SQLException {
+		return this.resultSet.getShort(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Statement getStatement() throws SQLException {
+		return this.statement;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getString(int columnIndex) throws SQLException {
+		return this.resultSet.getString(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getString(String columnLabel) throws SQLException {
+		return this.resultSet.getString(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Time getTime(int columnIndex) throws SQLException {
+		return this.resultSet.getTime(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Time getTime(String columnLabel) throws SQLException {
+		return this.resultSet.getTime(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+		return this.resultSet.getTime(columnIndex, cal);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+		return this.resultSet.getTime(columnLabel, cal);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Timestamp getTimestamp(int columnIndex) throws SQLException {
+		return this.resultSet.getTimestamp(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Timestamp getTimestamp(String columnLabel) throws SQLException {
+		return this.resultSet.getTimestamp(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+		return this.resultSet.getTimestamp(columnIndex, cal);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+		return this.resultSet.getTimestamp(columnLabel, cal);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getType() throws SQLException {
+		return this.resultSet.getType();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public URL getURL(int columnIndex) throws SQLException {
+		return this.resultSet.getURL(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public URL getURL(String columnLabel) throws SQLException {
+		return this.resultSet.getURL(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+		return this.resultSet.getUnicodeStream(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+		return this.resultSet.getUnicodeStream(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return this.resultSet.getWarnings();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void insertRow() throws SQLException {
+		this.resultSet.insertRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isAfterLast() throws SQLException {
+		return this.resultSet.isAfterLast();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isBeforeFirst() throws SQLException {
+		return this.resultSet.isBeforeFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isClosed() throws SQLException {
+		return this.resultSet.isClosed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isFirst() throws SQLException {
+		return this.resultSet.isFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isLast() throws SQLException {
+		return this.resultSet.isLast();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return this.resultSet.isWrapperFor(iface);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean last() throws SQLException {
+		return this.resultSet.last();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void moveToCurrentRow() throws SQLException {
+		this.resultSet.moveToCurrentRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void moveToInsertRow() throws SQLException {
+		this.resultSet.moveToInsertRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean next() throws SQLException {
+		final boolean next = this.resultSet.next();
+
+		if (next) {
+			this.rows++;
+		}
+		else {
+			this.recordRows();
+		}
+
+		return next;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean previous() throws SQLException {
+		return this.resultSet.previous();
+	}
+
+	private void recordRows() {
+		if (!this.recorded) {
+			this.recorded = true;
+
+			this.statistics.recordRows(this.rows);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void refreshRow() throws SQLException {
+		this.resultSet.refreshRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean relative(int rows) throws SQLException {
+		return this.resultSet.relative(rows);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean rowDeleted() throws SQLException {
+		return this.resultSet.rowDeleted();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean rowInserted() throws SQLException {
+		return this.resultSet.rowInserted();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean rowUpdated() throws SQLException {
+		return this.resultSet.rowUpdated();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		this.resultSet.setFetchDirection(direction);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		this.resultSet.setFetchSize(rows);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return this.resultSet.unwrap(iface);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateArray(int columnIndex, Array x) throws SQLException {
+		this.resultSet.updateArray(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateArray(String columnLabel, Array x) throws SQLException {
+		this.resultSet.updateArray(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+		this.resultSet.updateAsciiStream(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+		this.resultSet.updateAsciiStream(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+		this.resultSet.updateAsciiStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+		this.resultSet.updateAsciiStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+		this.resultSet.updateAsciiStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+		this.resultSet.updateAsciiStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+		this.resultSet.updateBigDecimal(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+		this.resultSet.updateBigDecimal(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+		this.resultSet.updateBinaryStream(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+		this.resultSet.updateBinaryStream(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+		this.resultSet.updateBinaryStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+		this.resultSet.updateBinaryStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+		this.resultSet.updateBinaryStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+		this.resultSet.updateBinaryStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBlob(int columnIndex, Blob x) throws SQLException {
+		this.resultSet.updateBlob(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+		this.resultSet.updateBlob(columnIndex, inputStream);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBlob(String columnLabel, Blob x) throws SQLException {
+		this.resultSet.updateBlob(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+		this.resultSet.updateBlob(columnLabel, inputStream);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+		this.resultSet.updateBlob(columnIndex, inputStream, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+		this.resultSet.updateBlob(columnLabel, inputStream, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+		this.resultSet.updateBoolean(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+		this.resultSet.updateBoolean(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateByte(int columnIndex, byte x) throws SQLException {
+		this.resultSet.updateByte(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateByte(String columnLabel, byte x) throws SQLException {
+		this.resultSet.updateByte(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+		this.resultSet.updateBytes(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+		this.resultSet.updateBytes(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+		this.resultSet.updateCharacterStream(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateCharacterStream(String columnLabel, Reader x) throws SQLException {
+		this.resultSet.updateCharacterStream(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+		this.resultSet.updateCharacterStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+		this.resultSet.updateCharacterStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateCharacterStream(String columnLabel, Reader x, int length) throws SQLException {
+		this.resultSet.updateCharacterStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateCharacterStream(String columnLabel, Reader x, long length) throws SQLException {
+		this.resultSet.updateCharacterStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateClob(int columnIndex, Clob x) throws SQLException {
+		this.resultSet.updateClob(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateClob(int columnIndex, Reader reader) throws SQLException {
+		this.resultSet.updateClob(columnIndex, reader);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateClob(String columnLabel, Clob x) throws SQLException {
+		this.resultSet.updateClob(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateClob(String columnLabel, Reader reader) throws SQLException {
+		this.resultSet.updateClob(columnLabel, reader);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+		this.resultSet.updateClob(columnIndex, reader, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+		this.resultSet.updateClob(columnLabel, reader, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateDate(int columnIndex, Date x) throws SQLException {
+		this.resultSet.updateDate(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateDate(String columnLabel, Date x) throws SQLException {
+		this.resultSet.updateDate(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateDouble(int columnIndex, double x) throws SQLException {
+		this.resultSet.updateDouble(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateDouble(String columnLabel, double x) throws SQLException {
+		this.resultSet.updateDouble(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateFloat(int columnIndex, float x) throws SQLException {
+		this.resultSet.updateFloat(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateFloat(String columnLabel, float x) throws SQLException {
+		this.resultSet.updateFloat(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateInt(int columnIndex, int x) throws SQLException {
+		this.resultSet.updateInt(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateInt(String columnLabel, int x) throws SQLException {
+		this.resultSet.updateInt(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateLong(int columnIndex, long x) throws SQLException {
+		this.resultSet.updateLong(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateLong(String columnLabel, long x) throws SQLException {
+		this.resultSet.updateLong(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+		this.resultSet.updateNCharacterStream(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNCharacterStream(String columnLabel, Reader x) throws SQLException {
+		this.resultSet.updateNCharacterStream(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+		this.resultSet.updateNCharacterStream(columnIndex, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNCharacterStream(String columnLabel, Reader x, long length) throws SQLException {
+		this.resultSet.updateNCharacterStream(columnLabel, x, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNClob(int columnIndex, NClob x) throws SQLException {
+		this.resultSet.updateNClob(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+		this.resultSet.updateNClob(columnIndex, reader);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNClob(String columnLabel, NClob x) throws SQLException {
+		this.resultSet.updateNClob(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+		this.resultSet.updateNClob(columnLabel, reader);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+		this.resultSet.updateNClob(columnIndex, reader, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+		this.resultSet.updateNClob(columnLabel, reader, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNString(int columnIndex, String nString) throws SQLException {
+		this.resultSet.updateNString(columnIndex, nString);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNString(String columnLabel, String nString) throws SQLException {
+		this.resultSet.updateNString(columnLabel, nString);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNull(int columnIndex) throws SQLException {
+		this.resultSet.updateNull(columnIndex);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateNull(String columnLabel) throws SQLException {
+		this.resultSet.updateNull(columnLabel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateObject(int columnIndex, Object x) throws SQLException {
+		this.resultSet.updateObject(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateObject(String columnLabel, Object x) throws SQLException {
+		this.resultSet.updateObject(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+		this.resultSet.updateObject(columnIndex, x, scaleOrLength);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+		this.resultSet.updateObject(columnLabel, x, scaleOrLength);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateRef(int columnIndex, Ref x) throws SQLException {
+		this.resultSet.updateRef(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateRef(String columnLabel, Ref x) throws SQLException {
+		this.resultSet.updateRef(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateRow() throws SQLException {
+		this.resultSet.updateRow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateRowId(int columnIndex, RowId x) throws SQLException {
+		this.resultSet.updateRowId(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateRowId(String columnLabel, RowId x) throws SQLException {
+		this.resultSet.updateRowId(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+		this.resultSet.updateSQLXML(columnIndex, xmlObject);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+		this.resultSet.updateSQLXML(columnLabel, xmlObject);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateShort(int columnIndex, short x) throws SQLException {
+		this.resultSet.updateShort(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateShort(String columnLabel, short x) throws SQLException {
+		this.resultSet.updateShort(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateString(int columnIndex, String x) throws SQLException {
+		this.resultSet.updateString(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateString(String columnLabel, String x) throws SQLException {
+		this.resultSet.updateString(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateTime(int columnIndex, Time x) throws SQLException {
+		this.resultSet.updateTime(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateTime(String columnLabel, Time x) throws SQLException {
+		this.resultSet.updateTime(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+		this.resultSet.updateTimestamp(columnIndex, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+		this.resultSet.updateTimestamp(columnLabel, x);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean wasNull() throws SQLException {
+		return this.resultSet.wasNull();
+	}
+}
@@ -18,6 +18,7 @@
  */
 package org.batoo.jpa.jdbc;
 
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Types;
@@ -53,6 +54,7 @@ public class TypeFactory {
 		if (isLob) {
 			if (Character.class.isAssignableFrom(javaType) //
 				|| String.class.isAssignableFrom(javaType) //
+				|| Reader.class.isAssignableFrom(javaType) //
 				|| (javaType.isArray() && char.class.isAssignableFrom(javaType.getComponentType()))) {
 				return Types.CLOB;
 			}
@@ -325,6 +325,15 @@ public class H2Adaptor extends JdbcAdaptor {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -349,6 +349,15 @@ public class HsqlAdaptor extends JdbcAdaptor {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -134,6 +134,8 @@ public abstract class JdbcAdaptor extends AbstractJdbcAdaptor {
 	private final Map<AbstractTable, JdbcTable> tables = Maps.newHashMap();
 
 	private int insertBatchSize;
+	private int insertBatchSizeMin;
+	private int insertBatchSizeMax;
 	private int removeBatchSize;
 
 	/**
@@ -826,6 +828,65 @@ public abstract class JdbcAdaptor extends AbstractJdbcAdaptor {
 		return this.insertBatchSize;
 	}
 
+	/**
+	 * Returns the insertBatchSizeMax of the JdbcAdaptor.
+	 * 
+	 * @return the insertBatchSizeMax of the JdbcAdaptor
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getInsertBatchSizeMax() {
+		return this.insertBatchSizeMax;
+	}
+
+	/**
+	 * Returns the insertBatchSizeMin of the JdbcAdaptor.
+	 * 
+	 * @return the insertBatchSizeMin of the JdbcAdaptor
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getInsertBatchSizeMin() {
+		return this.insertBatchSizeMin;
+	}
+
+	/**
+	 * Returns the max number of bind parameters the database allows in a single statement.
+	 * 
+	 * @return the max number of bind parameters
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getMaxBindParameters() {
+		return Short.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the max size of the insert batch for a table with the number of parameters per row.
+	 * <p>
+	 * The size is bounded by the max insert batch size and the max number of bind parameters of the database. If the database does not
+	 * support the multi-row inserts or the insert batching is disabled the size is 1.
+	 * 
+	 * @param parameters
+	 *            the number of parameters per row
+	 * @return the max size of the insert batch
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getMaxInsertBatchSize(int parameters) {
+		final int insertBatchSize = this.getInsertBatchSize();
+		if (insertBatchSize <= 1) {
+			return 1;
+		}
+
+		final int max = Math.max(insertBatchSize, this.insertBatchSizeMax);
+		if (parameters == 0) {
+			return max;
+		}
+
+		return Math.max(1, Math.min(max, this.getMaxBindParameters() / parameters));
+	}
+
 	/**
 	 * Returns next sequence number from the database.
 	 * 
@@ -1228,6 +1289,30 @@ public abstract class JdbcAdaptor extends AbstractJdbcAdaptor {
 		this.insertBatchSize = insertBatchSize;
 	}
 
+	/**
+	 * Sets the insertBatchSizeMax of the JdbcAdaptor.
+	 * 
+	 * @param insertBatchSizeMax
+	 *            the insertBatchSizeMax to set for JdbcAdaptor
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setInsertBatchSizeMax(int insertBatchSizeMax) {
+		this.insertBatchSizeMax = insertBatchSizeMax;
+	}
+
+	/**
+	 * Sets the insertBatchSizeMin of the JdbcAdaptor.
+	 * 
+	 * @param insertBatchSizeMin
+	 *            the insertBatchSizeMin to set for JdbcAdaptor
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setInsertBatchSizeMin(int insertBatchSizeMin) {
+		this.insertBatchSizeMin = insertBatchSizeMin;
+	}
+
 	/**
 	 * Sets the removeBatchSize of the JdbcAdaptor.
 	 * 
@@ -1278,6 +1363,17 @@ public abstract class JdbcAdaptor extends AbstractJdbcAdaptor {
 		return true;
 	}
 
+	/**
+	 * Returns if the database supports row value comparisons i.e.: <code>select * from mytable where (a, b) > (?, ?)</code>.
+	 * 
+	 * @return true if the database supports row value comparisons, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean supportsRowValueComparison() {
+		return false;
+	}
+
 	private void updateTable(DataSource datasource, AbstractTable table) {
 		final QueryRunner runner = new QueryRunner(datasource, this.isPmdBroken());
 
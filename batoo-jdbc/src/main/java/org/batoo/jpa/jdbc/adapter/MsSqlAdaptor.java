@@ -271,6 +271,16 @@ public class MsSqlAdaptor extends JdbcAdaptor {
 		return "MsSql";
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getMaxBindParameters() {
+		// the limit is 2100 including the parameters the driver adds for the prepared statements
+		return 2000;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -178,6 +178,15 @@ public class MySqlAdaptor extends JdbcAdaptor {
 		return "MySql";
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getMaxBindParameters() {
+		return 65535;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -244,4 +253,13 @@ public class MySqlAdaptor extends JdbcAdaptor {
 
 		return IdType.TABLE;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
 }
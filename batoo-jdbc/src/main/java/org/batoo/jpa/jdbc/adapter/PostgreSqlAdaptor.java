@@ -305,4 +305,13 @@ public class PostgreSqlAdaptor extends JdbcAdaptor {
 				return IdType.SEQUENCE;
 		}
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
 }
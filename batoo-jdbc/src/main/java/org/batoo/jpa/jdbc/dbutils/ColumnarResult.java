@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.dbutils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * The columnar result of a query with the values held in primitive buffers instead of the boxed values of the rows.
+ * <p>
+ * The integral and floating point columns are held in <code>long</code>, <code>int</code> and <code>double</code> buffers, the character
+ * columns are dictionary encoded into <code>int</code> buffers and the remaining columns are held as objects. The buffers grow in fixed
+ * size chunks so that large results are not copied as they grow.
+ * <p>
+ * The rows and the columns are indexed starting from 0.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ColumnarResult {
+
+	/**
+	 * The type of the buffer of a column.
+	 * 
+	 * @author hceylan
+	 * @since 2.0.0
+	 */
+	public enum ColumnType {
+		/**
+		 * The column is held in a <code>long</code> buffer.
+		 */
+		LONG,
+
+		/**
+		 * The column is held in an <code>int</code> buffer.
+		 */
+		INT,
+
+		/**
+		 * The column is held in a <code>double</code> buffer.
+		 */
+		DOUBLE,
+
+		/**
+		 * The column is dictionary encoded into an <code>int</code> buffer.
+		 */
+		STRING,
+
+		/**
+		 * The column is held as objects.
+		 */
+		OBJECT
+	}
+
+	private static abstract class Column {
+
+		private final String label;
+		private final ColumnType type;
+		private final BitSet nulls = new BitSet();
+
+		public Column(String label, ColumnType type) {
+			super();
+
+			this.label = label;
+			this.type = type;
+		}
+
+		public double getDouble(int row) {
+			throw new IllegalArgumentException("Column " + this.label + " of type " + this.type + " cannot be read as double");
+		}
+
+		public int getInt(int row) {
+			throw new IllegalArgumentException("Column " + this.label + " of type " + this.type + " cannot be read as int");
+		}
+
+		public long getLong(int row) {
+			throw new IllegalArgumentException("Column " + this.label + " of type " + this.type + " cannot be read as long");
+		}
+
+		public abstract Object getObject(int row);
+
+		public boolean isNull(int row) {
+			return this.nulls.get(row);
+		}
+
+		public abstract void read(ResultSet rs, int index, int row) throws SQLException;
+
+		protected void readNull(ResultSet rs, int row) throws SQLException {
+			if (rs.wasNull()) {
+				this.setNull(row);
+			}
+		}
+
+		protected void setNull(int row) {
+			this.nulls.set(row);
+		}
+	}
+
+	private static class DoubleColumn extends Column {
+
+		private final List<double[]> chunks = Lists.newArrayList();
+
+		public DoubleColumn(String label) {
+			super(label, ColumnType.DOUBLE);
+		}
+
+		@Override
+		public double getDouble(int row) {
+			return this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK];
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.isNull(row) ? null : this.getDouble(row);
+		}
+
+		@Override
+		public void read(ResultSet rs, int index, int row) throws SQLException {
+			if ((row & ColumnarResult.CHUNK_MASK) == 0) {
+				this.chunks.add(new double[ColumnarResult.CHUNK_SIZE]);
+			}
+
+			this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK] = rs.getDouble(index);
+
+			this.readNull(rs, row);
+		}
+	}
+
+	private static class IntColumn extends Column {
+
+		private final List<int[]> chunks = Lists.newArrayList();
+
+		public IntColumn(String label) {
+			super(label, ColumnType.INT);
+		}
+
+		@Override
+		public double getDouble(int row) {
+			return this.getInt(row);
+		}
+
+		@Override
+		public int getInt(int row) {
+			return this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK];
+		}
+
+		@Override
+		public long getLong(int row) {
+			return this.getInt(row);
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.isNull(row) ? null : this.getInt(row);
+		}
+
+		@Override
+		public void read(ResultSet rs, int index, int row) throws SQLException {
+			if ((row & ColumnarResult.CHUNK_MASK) == 0) {
+				this.chunks.add(new int[ColumnarResult.CHUNK_SIZE]);
+			}
+
+			this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK] = rs.getInt(index);
+
+			this.readNull(rs, row);
+		}
+	}
+
+	private static class LongColumn extends Column {
+
+		private final List<long[]> chunks = Lists.newArrayList();
+
+		public LongColumn(String label) {
+			super(label, ColumnType.LONG);
+		}
+
+		@Override
+		public double getDouble(int row) {
+			return this.getLong(row);
+		}
+
+		@Override
+		public long getLong(int row) {
+			return this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK];
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.isNull(row) ? null : this.getLong(row);
+		}
+
+		@Override
+		public void read(ResultSet rs, int index, int row) throws SQLException {
+			if ((row & ColumnarResult.CHUNK_MASK) == 0) {
+				this.chunks.add(new long[ColumnarResult.CHUNK_SIZE]);
+			}
+
+			this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK] = rs.getLong(index);
+
+			this.readNull(rs, row);
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+
+		private final List<Object[]> chunks = Lists.newArrayList();
+
+		public ObjectColumn(String label) {
+			super(label, ColumnType.OBJECT);
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK];
+		}
+
+		@Override
+		public void read(ResultSet rs, int index, int row) throws SQLException {
+			if ((row & ColumnarResult.CHUNK_MASK) == 0) {
+				this.chunks.add(new Object[ColumnarResult.CHUNK_SIZE]);
+			}
+
+			this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK] = rs.getObject(index);
+
+			this.readNull(rs, row);
+		}
+	}
+
+	private static class StringColumn extends Column {
+
+		private final List<int[]> chunks = Lists.newArrayList();
+		private final Map<String, Integer> codes = Maps.newHashMap();
+		private final List<String> dictionary = Lists.newArrayList();
+
+		public StringColumn(String label) {
+			super(label, ColumnType.STRING);
+		}
+
+		public int getCode(int row) {
+			return this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK];
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.isNull(row) ? null : this.dictionary.get(this.getCode(row));
+		}
+
+		@Override
+		public void read(ResultSet rs, int index, int row) throws SQLException {
+			if ((row & ColumnarResult.CHUNK_MASK) == 0) {
+				this.chunks.add(new int[ColumnarResult.CHUNK_SIZE]);
+			}
+
+			final String value = rs.getString(index);
+
+			int code = -1;
+			if (value != null) {
+				final Integer existing = this.codes.get(value);
+				if (existing != null) {
+					code = existing;
+				}
+				else {
+					code = this.dictionary.size();
+
+					this.codes.put(value, code);
+					this.dictionary.add(value);
+				}
+			}
+			else {
+				this.setNull(row);
+			}
+
+			this.chunks.get(row >>> ColumnarResult.CHUNK_SHIFT)[row & ColumnarResult.CHUNK_MASK] = code;
+		}
+	}
+
+	private static final int CHUNK_SHIFT = 12;
+	private static final int CHUNK_SIZE = 1 << ColumnarResult.CHUNK_SHIFT;
+	private static final int CHUNK_MASK = ColumnarResult.CHUNK_SIZE - 1;
+
+	private final Column[] columns;
+	private int rowCount;
+
+	/**
+	 * @param md
+	 *            the metadata of the result set
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	public ColumnarResult(ResultSetMetaData md) throws SQLException {
+		super();
+
+		this.columns = new Column[md.getColumnCount()];
+
+		for (int i = 0; i < this.columns.length; i++) {
+			this.columns[i] = ColumnarResult.createColumn(md, i + 1);
+		}
+	}
+
+	private static Column createColumn(ResultSetMetaData md, int index) throws SQLException {
+		final String label = md.getColumnLabel(index);
+
+		switch (md.getColumnType(index)) {
+			case Types.BIGINT:
+				return new LongColumn(label);
+			case Types.INTEGER:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				return new IntColumn(label);
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.REAL:
+				return new DoubleColumn(label);
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				// exact integral decimals fit into long, the others are kept exact as objects
+				if ((md.getScale(index) == 0) && (md.getPrecision(index) > 0) && (md.getPrecision(index) <= 18)) {
+					return new LongColumn(label);
+				}
+
+				return new ObjectColumn(label);
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				return new StringColumn(label);
+			default:
+				return new ObjectColumn(label);
+		}
+	}
+
+	/**
+	 * Returns the number of columns.
+	 * 
+	 * @return the number of columns
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getColumnCount() {
+		return this.columns.length;
+	}
+
+	/**
+	 * Returns the index of the column with the label.
+	 * 
+	 * @param label
+	 *            the label of the column
+	 * @return the index of the column
+	 * @throws IllegalArgumentException
+	 *             thrown if there is no column with the label
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getColumnIndex(String label) {
+		for (int i = 0; i < this.columns.length; i++) {
+			if (this.columns[i].label.equalsIgnoreCase(label)) {
+				return i;
+			}
+		}
+
+		throw new IllegalArgumentException("Column with the label " + label + " does not exist");
+	}
+
+	/**
+	 * Returns the label of the column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the label of the column
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getColumnLabel(int column) {
+		return this.columns[column].label;
+	}
+
+	/**
+	 * Returns the type of the buffer of the column.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the type of the buffer of the column
+	 * 
+	 * @since 2.0.0
+	 */
+	public ColumnType getColumnType(int column) {
+		return this.columns[column].type;
+	}
+
+	/**
+	 * Returns the dictionary of a {@link ColumnType#STRING} column, indexed by the codes returned by {@link #getStringCode(int, int)}.
+	 * 
+	 * @param column
+	 *            the index of the column
+	 * @return the dictionary of the column
+	 * @throws IllegalArgumentException
+	 *             thrown if the column is not dictionary encoded
+	 * 
+	 * @since 2.0.0
+	 */
+	public String[] getDictionary(int column) {
+		final List<String> dictionary = this.getStringColumn(column).dictionary;
+
+		return dictionary.toArray(new String[dictionary.size()]);
+	}
+
+	/**
+	 * Returns the value of the column as double. Integral columns are widened.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return the value, <code>0</code> if the value is null
+	 * @throws IllegalArgumentException
+	 *             thrown if the column cannot be read as double
+	 * 
+	 * @since 2.0.0
+	 */
+	public double getDouble(int row, int column) {
+		return this.columns[column].getDouble(row);
+	}
+
+	/**
+	 * Returns the value of an {@link ColumnType#INT} column.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return the value, <code>0</code> if the value is null
+	 * @throws IllegalArgumentException
+	 *             thrown if the column cannot be read as int
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getInt(int row, int column) {
+		return this.columns[column].getInt(row);
+	}
+
+	/**
+	 * Returns the value of the column as long. Int columns are widened.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return the value, <code>0</code> if the value is null
+	 * @throws IllegalArgumentException
+	 *             thrown if the column cannot be read as long
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getLong(int row, int column) {
+		return this.columns[column].getLong(row);
+	}
+
+	/**
+	 * Returns the value of the column boxed.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return the value or <code>null</code>
+	 * 
+	 * @since 2.0.0
+	 */
+	public Object getObject(int row, int column) {
+		return this.columns[column].getObject(row);
+	}
+
+	/**
+	 * Returns the number of rows.
+	 * 
+	 * @return the number of rows
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Returns the value of a {@link ColumnType#STRING} column.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return the value or <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             thrown if the column is not dictionary encoded
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getString(int row, int column) {
+		return (String) this.getStringColumn(column).getObject(row);
+	}
+
+	private StringColumn getStringColumn(int column) {
+		if (!(this.columns[column] instanceof StringColumn)) {
+			throw new IllegalArgumentException("Column " + this.columns[column].label + " of type " + this.columns[column].type
+				+ " is not dictionary encoded");
+		}
+
+		return (StringColumn) this.columns[column];
+	}
+
+	/**
+	 * Returns the dictionary code of the value of a {@link ColumnType#STRING} column.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return the code of the value in the dictionary of the column, <code>-1</code> if the value is null
+	 * @throws IllegalArgumentException
+	 *             thrown if the column is not dictionary encoded
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getStringCode(int row, int column) {
+		return this.getStringColumn(column).getCode(row);
+	}
+
+	/**
+	 * Returns if the value of the column is null.
+	 * 
+	 * @param row
+	 *            the index of the row
+	 * @param column
+	 *            the index of the column
+	 * @return true if the value is null, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isNull(int row, int column) {
+		return this.columns[column].isNull(row);
+	}
+
+	/**
+	 * Reads the current row of the result set into the buffers.
+	 * 
+	 * @param rs
+	 *            the result set positioned on the row
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	public void read(ResultSet rs) throws SQLException {
+		for (int i = 0; i < this.columns.length; i++) {
+			this.columns[i].read(rs, i + 1, this.rowCount);
+		}
+
+		this.rowCount++;
+	}
+}
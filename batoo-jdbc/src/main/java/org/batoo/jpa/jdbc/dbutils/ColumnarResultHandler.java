@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.dbutils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+
+/**
+ * A Handler to read the result sets into {@link ColumnarResult}s.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ColumnarResultHandler implements ResultSetHandler<ColumnarResult> {
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	public ColumnarResultHandler() {
+		super();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public ColumnarResult handle(ResultSet rs) throws SQLException {
+		final ColumnarResult result = new ColumnarResult(rs.getMetaData());
+
+		while (rs.next()) {
+			result.read(rs);
+		}
+
+		return result;
+	}
+}
@@ -18,8 +18,6 @@
  */
 package org.batoo.jpa.jdbc.dbutils;
 
-import java.sql.Blob;
-import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
@@ -32,6 +30,7 @@ import javax.sql.DataSource;
 
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.dbutils.ResultSetHandler;
+import org.batoo.jpa.jdbc.ParameterBinder;
 import org.batoo.jpa.jdbc.PreparedStatementProxy;
 import org.batoo.jpa.jdbc.adapter.JdbcAdaptor;
 
@@ -169,12 +168,15 @@ public class QueryRunner {
 	 * 
 	 * @param statement
 	 *            PreparedStatement to fill
+	 * @param binders
+	 *            the binders of the parameters repeated for each row of the parameters or <code>null</code> to bind with
+	 *            {@link PreparedStatement#setObject(int, Object)}
 	 * @param params
 	 *            Query replacement parameters; <code>null</code> is a valid value to pass in.
 	 * @throws SQLException
 	 *             if a database access error occurs
 	 */
-	private void fillStatement(PreparedStatement statement, Object... params) throws SQLException {
+	private void fillStatement(PreparedStatement statement, ParameterBinder[] binders, Object... params) throws SQLException {
 		// use local variable for performance
 		boolean pmdKnownBroken = this.pmdKnownBroken;
 		ParameterMetaData pmd = this.pmd;
@@ -197,17 +199,22 @@ public class QueryRunner {
 
 		for (int i = 0; i < params.length; i++) {
 			final Object param = params[i];
+			final ParameterBinder binder = binders != null ? binders[i % binders.length] : null;
+
 			if (param != null) {
-				if (hasLob && (param instanceof Clob)) {
-					statement.setClob(i + 1, (Clob) param);
+				if (binder != null) {
+					binder.bind(statement, i + 1, param);
 				}
-				else if (hasLob && (param instanceof Blob)) {
-					statement.setBlob(i + 1, (Blob) param);
+				else if (hasLob) {
+					ParameterBinder.forValue(param).bind(statement, i + 1, param);
 				}
 				else {
 					statement.setObject(i + 1, param);
 				}
 			}
+			else if ((binder != null) && (binder.getNullType() != Types.NULL)) {
+				statement.setNull(i + 1, binder.getNullType());
+			}
 			else {
 				if (!pmdKnownBroken && (pmd == null)) {
 					pmd = this.pmd = statement.getParameterMetaData();
@@ -252,7 +259,7 @@ public class QueryRunner {
 		try {
 			statement = conn.prepareStatement(sql);
 			if (params != null) {
-				this.fillStatement(statement, params);
+				this.fillStatement(statement, null, params);
 			}
 
 			resultSet = statement.executeQuery();
@@ -364,13 +371,15 @@ public class QueryRunner {
 	 *            True if the connection should be closed, false otherwise.
 	 * @param sql
 	 *            The SQL statement to execute.
+	 * @param binders
+	 *            the binders of the parameters or <code>null</code>
 	 * @param params
 	 *            An array of update replacement parameters. Each row in this array is one set of update replacement values.
 	 * @return The number of rows updated.
 	 * @throws SQLException
 	 *             If there are database or parameter errors.
 	 */
-	private int update(Connection connection, boolean closeConn, String sql, Object... params) throws SQLException {
+	private int update(Connection connection, boolean closeConn, String sql, ParameterBinder[] binders, Object... params) throws SQLException {
 		if (connection == null) {
 			throw new SQLException("Null connection");
 		}
@@ -386,7 +395,7 @@ public class QueryRunner {
 		try {
 			statement = connection.prepareStatement(sql);
 			if (params != null) {
-				this.fillStatement(statement, params);
+				this.fillStatement(statement, binders, params);
 			}
 
 			return statement.executeUpdate();
@@ -415,7 +424,7 @@ public class QueryRunner {
 	 *             if a database access error occurs
 	 */
 	public int update(Connection connection, String sql) throws SQLException {
-		return this.update(connection, false, sql, (Object[]) null);
+		return this.update(connection, false, sql, null, (Object[]) null);
 	}
 
 	/**
@@ -432,7 +441,26 @@ public class QueryRunner {
 	 *             if a database access error occurs
 	 */
 	public int update(Connection connection, String sql, Object... params) throws SQLException {
-		return this.update(connection, false, sql, params);
+		return this.update(connection, false, sql, null, params);
+	}
+
+	/**
+	 * Execute an SQL INSERT, UPDATE, or DELETE query binding the parameters with the typed binders.
+	 * 
+	 * @param connection
+	 *            The connection to use to run the query.
+	 * @param sql
+	 *            The SQL to execute.
+	 * @param binders
+	 *            The binders of the parameters, repeated for each row of the parameters.
+	 * @param params
+	 *            The query replacement parameters.
+	 * @return The number of rows updated.
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public int update(Connection connection, String sql, ParameterBinder[] binders, Object... params) throws SQLException {
+		return this.update(connection, false, sql, binders, params);
 	}
 
 	/**
@@ -447,7 +475,7 @@ public class QueryRunner {
 	 * @return The number of rows updated.
 	 */
 	public int update(String sql) throws SQLException {
-		return this.update(this.datasource.getConnection(), true, sql, (Object[]) null);
+		return this.update(this.datasource.getConnection(), true, sql, null, (Object[]) null);
 	}
 
 	/**
@@ -463,6 +491,6 @@ public class QueryRunner {
 	 * @return The number of rows updated.
 	 */
 	public int update(String sql, Object... params) throws SQLException {
-		return this.update(this.datasource.getConnection(), true, sql, params);
+		return this.update(this.datasource.getConnection(), true, sql, null, params);
 	}
 }
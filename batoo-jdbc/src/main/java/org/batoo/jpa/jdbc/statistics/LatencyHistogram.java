@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with log-linear buckets in the style of the HDR histograms.
+ * <p>
+ * The values are recorded in microseconds. Values below 16 are counted exactly, larger values are counted in 16 linear sub buckets of each
+ * power of two, keeping the relative error of the reported values under 6.25%. Values larger than 2^36 microseconds are counted in the
+ * last bucket.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+	private static final int MAX_MAGNITUDE = 36;
+	private static final int BUCKETS = ((LatencyHistogram.MAX_MAGNITUDE - LatencyHistogram.SUB_BUCKET_BITS) + 2) * LatencyHistogram.SUB_BUCKETS;
+
+	/**
+	 * Returns the index of the bucket for the value.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the index of the bucket
+	 * 
+	 * @since 2.0.0
+	 */
+	private static int indexOf(long value) {
+		if (value < LatencyHistogram.SUB_BUCKETS) {
+			return value < 0 ? 0 : (int) value;
+		}
+
+		final int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), LatencyHistogram.MAX_MAGNITUDE);
+		if (magnitude == LatencyHistogram.MAX_MAGNITUDE) {
+			return LatencyHistogram.BUCKETS - 1;
+		}
+
+		final int shift = magnitude - LatencyHistogram.SUB_BUCKET_BITS;
+		final int subBucket = (int) (value >>> shift) & (LatencyHistogram.SUB_BUCKETS - 1);
+
+		return ((shift + 1) * LatencyHistogram.SUB_BUCKETS) + subBucket;
+	}
+
+	/**
+	 * Returns the highest value that is counted in the bucket.
+	 * 
+	 * @param index
+	 *            the index of the bucket
+	 * @return the highest value of the bucket
+	 * 
+	 * @since 2.0.0
+	 */
+	private static long valueOf(int index) {
+		if (index < LatencyHistogram.SUB_BUCKETS) {
+			return index;
+		}
+
+		final int shift = (index / LatencyHistogram.SUB_BUCKETS) - 1;
+		final long subBucket = index % LatencyHistogram.SUB_BUCKETS;
+
+		return (((LatencyHistogram.SUB_BUCKETS + subBucket + 1) << shift) - 1);
+	}
+
+	/**
+	 * Returns the value at the percentile of the counts.
+	 * 
+	 * @param counts
+	 *            the counts obtained with {@link #getCounts()}
+	 * @param percentile
+	 *            the percentile between 0 and 100
+	 * @return the value at the percentile or 0 if there are no counts
+	 * 
+	 * @since 2.0.0
+	 */
+	public static long getValueAtPercentile(long[] counts, double percentile) {
+		long total = 0;
+		for (final long count : counts) {
+			total += count;
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil((Math.min(percentile, 100) / 100) * total));
+
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+
+			if (cumulative >= rank) {
+				return LatencyHistogram.valueOf(i);
+			}
+		}
+
+		return LatencyHistogram.valueOf(counts.length - 1);
+	}
+
+	private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	public LatencyHistogram() {
+		super();
+	}
+
+	/**
+	 * Returns a copy of the bucket counts.
+	 * 
+	 * @return the copy of the bucket counts
+	 * 
+	 * @since 2.0.0
+	 */
+	public long[] getCounts() {
+		final long[] counts = new long[LatencyHistogram.BUCKETS];
+
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.buckets.get(i);
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Records the value.
+	 * 
+	 * @param micros
+	 *            the value in microseconds
+	 * 
+	 * @since 2.0.0
+	 */
+	public void record(long micros) {
+		this.buckets.incrementAndGet(LatencyHistogram.indexOf(micros));
+	}
+
+	/**
+	 * Resets the counts of the histogram.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void reset() {
+		for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+			this.buckets.set(i, 0);
+		}
+	}
+}
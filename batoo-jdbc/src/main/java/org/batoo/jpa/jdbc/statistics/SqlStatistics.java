@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.management.ObjectName;
+
+import org.batoo.common.log.BLogger;
+import org.batoo.common.log.BLoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * The execution statistics of the SQL statements of a persistence unit.
+ * <p>
+ * The statements are grouped by their normalized SQL, that is with the literals replaced by parameters, the parameter lists collapsed and
+ * the whitespace compacted. At most {@value #MAX_STATEMENTS} distinct statements are tracked, the executions of the statements beyond are
+ * accumulated under {@value #OTHER}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class SqlStatistics implements SqlStatisticsMBean {
+
+	private static final BLogger LOG = BLoggerFactory.getLogger(SqlStatistics.class);
+
+	/**
+	 * The max number of distinct statements tracked.
+	 */
+	public static final int MAX_STATEMENTS = 1000;
+
+	/**
+	 * The normalized SQL the executions of the untracked statements are accumulated under.
+	 */
+	public static final String OTHER = "<other>";
+
+	private static final int TOP_STATEMENTS = 20;
+
+	private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+	private static final Comparator<StatementStatisticsSnapshot> BY_TOTAL_TIME = new Comparator<StatementStatisticsSnapshot>() {
+
+		@Override
+		public int compare(StatementStatisticsSnapshot o1, StatementStatisticsSnapshot o2) {
+			return o1.getTotalTime() < o2.getTotalTime() ? 1 : o1.getTotalTime() > o2.getTotalTime() ? -1 : 0;
+		}
+	};
+
+	private static final Comparator<StatementStatisticsSnapshot> BY_P99_TIME = new Comparator<StatementStatisticsSnapshot>() {
+
+		@Override
+		public int compare(StatementStatisticsSnapshot o1, StatementStatisticsSnapshot o2) {
+			return o1.getP99Time() < o2.getP99Time() ? 1 : o1.getP99Time() > o2.getP99Time() ? -1 : 0;
+		}
+	};
+
+	private static boolean isIdentifierPart(StringBuilder sql) {
+		if (sql.length() == 0) {
+			return false;
+		}
+
+		final char c = sql.charAt(sql.length() - 1);
+
+		return Character.isLetterOrDigit(c) || (c == '_') || (c == '$');
+	}
+
+	/**
+	 * Returns the normalized form of the SQL.
+	 * 
+	 * @param sql
+	 *            the SQL
+	 * @return the normalized SQL
+	 * 
+	 * @since 2.0.0
+	 */
+	public static String normalize(String sql) {
+		final StringBuilder normalized = new StringBuilder(sql.length());
+
+		boolean whitespace = false;
+		for (int i = 0; i < sql.length(); i++) {
+			final char c = sql.charAt(i);
+
+			if (Character.isWhitespace(c)) {
+				whitespace = true;
+
+				continue;
+			}
+
+			if (whitespace && (normalized.length() > 0)) {
+				normalized.append(' ');
+			}
+
+			whitespace = false;
+
+			if (c == '\'') {
+				// skip the string literal, the quotes in the literal are escaped by doubling
+				i++;
+				while (i < sql.length()) {
+					if (sql.charAt(i) == '\'') {
+						if (((i + 1) < sql.length()) && (sql.charAt(i + 1) == '\'')) {
+							i += 2;
+
+							continue;
+						}
+
+						break;
+					}
+
+					i++;
+				}
+
+				normalized.append('?');
+			}
+			else if (Character.isDigit(c) && !SqlStatistics.isIdentifierPart(normalized)) {
+				// skip the numeric literal
+				while (((i + 1) < sql.length()) && (Character.isDigit(sql.charAt(i + 1)) || (sql.charAt(i + 1) == '.'))) {
+					i++;
+				}
+
+				normalized.append('?');
+			}
+			else {
+				normalized.append(c);
+			}
+		}
+
+		return SqlStatistics.PARAMETER_LIST.matcher(normalized).replaceAll("?, ...");
+	}
+
+	private final ConcurrentMap<String, StatementStatistics> statements = Maps.newConcurrentMap();
+	private final ConcurrentMap<String, StatementStatistics> lookup = Maps.newConcurrentMap();
+	private final StatementStatistics other = new StatementStatistics(SqlStatistics.OTHER);
+
+	private ObjectName objectName;
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	public SqlStatistics() {
+		super();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public long getErrorCount() {
+		long errors = 0;
+
+		for (final StatementStatisticsSnapshot snapshot : this.getSnapshot()) {
+			errors += snapshot.getErrors();
+		}
+
+		return errors;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public long getExecutionCount() {
+		long executions = 0;
+
+		for (final StatementStatisticsSnapshot snapshot : this.getSnapshot()) {
+			executions += snapshot.getExecutions();
+		}
+
+		return executions;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String[] getHotStatements() {
+		return this.toStrings(this.getSnapshot());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public long getPrepareCount() {
+		long prepares = 0;
+
+		for (final StatementStatisticsSnapshot snapshot : this.getSnapshot()) {
+			prepares += snapshot.getPrepares();
+		}
+
+		return prepares;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String[] getSlowStatements() {
+		final List<StatementStatisticsSnapshot> snapshot = this.getSnapshot();
+
+		Collections.sort(snapshot, SqlStatistics.BY_P99_TIME);
+
+		return this.toStrings(snapshot);
+	}
+
+	/**
+	 * Returns the snapshots of the statistics of the statements that have been executed, ordered by the total time of the executions, the
+	 * hottest first.
+	 * 
+	 * @return the list of snapshots
+	 * 
+	 * @since 2.0.0
+	 */
+	public List<StatementStatisticsSnapshot> getSnapshot() {
+		final List<StatementStatisticsSnapshot> snapshot = Lists.newArrayList();
+
+		for (final StatementStatistics statistics : this.statements.values()) {
+			final StatementStatisticsSnapshot statementSnapshot = statistics.snapshot();
+			if (statementSnapshot.getExecutions() > 0) {
+				snapshot.add(statementSnapshot);
+			}
+		}
+
+		final StatementStatisticsSnapshot otherSnapshot = this.other.snapshot();
+		if (otherSnapshot.getExecutions() > 0) {
+			snapshot.add(otherSnapshot);
+		}
+
+		Collections.sort(snapshot, SqlStatistics.BY_TOTAL_TIME);
+
+		return snapshot;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getStatementCount() {
+		return this.statements.size();
+	}
+
+	/**
+	 * Returns the statistics for the SQL.
+	 * 
+	 * @param sql
+	 *            the SQL
+	 * @return the statistics for the SQL
+	 * 
+	 * @since 2.0.0
+	 */
+	public StatementStatistics getStatistics(String sql) {
+		StatementStatistics statistics = this.lookup.get(sql);
+		if (statistics != null) {
+			return statistics;
+		}
+
+		final String normalized = SqlStatistics.normalize(sql);
+
+		statistics = this.statements.get(normalized);
+		if (statistics == null) {
+			if (this.statements.size() >= SqlStatistics.MAX_STATEMENTS) {
+				statistics = this.other;
+			}
+			else {
+				final StatementStatistics newStatistics = new StatementStatistics(normalized);
+
+				statistics = this.statements.putIfAbsent(normalized, newStatistics);
+				if (statistics == null) {
+					statistics = newStatistics;
+				}
+			}
+		}
+
+		// the literals in the native queries may produce a distinct SQL per execution
+		if (this.lookup.size() < (SqlStatistics.MAX_STATEMENTS * 4)) {
+			this.lookup.put(sql, statistics);
+		}
+
+		return statistics;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public long getTotalTime() {
+		long time = 0;
+
+		for (final StatementStatisticsSnapshot snapshot : this.getSnapshot()) {
+			time += snapshot.getTotalTime();
+		}
+
+		return time / 1000;
+	}
+
+	/**
+	 * Registers the statistics to the platform MBean server.
+	 * 
+	 * @param name
+	 *            the name of the persistence unit
+	 * 
+	 * @since 2.0.0
+	 */
+	public void register(String name) {
+		try {
+			final ObjectName objectName = new ObjectName("org.batoo.jpa:type=SqlStatistics,name=" + ObjectName.quote(name));
+
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+
+			this.objectName = objectName;
+		}
+		catch (final Exception e) {
+			SqlStatistics.LOG.warn(e, "Unable to register the SQL statistics of {0} to the MBean server", name);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void reset() {
+		for (final StatementStatistics statistics : this.statements.values()) {
+			statistics.reset();
+		}
+
+		this.other.reset();
+	}
+
+	private String[] toStrings(List<StatementStatisticsSnapshot> snapshot) {
+		final int size = Math.min(snapshot.size(), SqlStatistics.TOP_STATEMENTS);
+
+		final String[] statements = new String[size];
+		for (int i = 0; i < size; i++) {
+			statements[i] = snapshot.get(i).toString();
+		}
+
+		return statements;
+	}
+
+	/**
+	 * Unregisters the statistics from the platform MBean server.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void unregister() {
+		if (this.objectName == null) {
+			return;
+		}
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+		}
+		catch (final Exception e) {
+			SqlStatistics.LOG.warn(e, "Unable to unregister the SQL statistics {0} from the MBean server", this.objectName);
+		}
+
+		this.objectName = null;
+	}
+}
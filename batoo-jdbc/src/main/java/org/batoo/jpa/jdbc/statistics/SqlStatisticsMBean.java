@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.statistics;
+
+/**
+ * Management interface of the SQL statistics.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public interface SqlStatisticsMBean {
+
+	/**
+	 * Returns the total number of failed executions.
+	 * 
+	 * @return the total number of failed executions
+	 * 
+	 * @since 2.0.0
+	 */
+	long getErrorCount();
+
+	/**
+	 * Returns the total number of executions.
+	 * 
+	 * @return the total number of executions
+	 * 
+	 * @since 2.0.0
+	 */
+	long getExecutionCount();
+
+	/**
+	 * Returns the statistics of the statements that took the most time in total, the hottest first.
+	 * 
+	 * @return the statistics of the hot statements
+	 * 
+	 * @since 2.0.0
+	 */
+	String[] getHotStatements();
+
+	/**
+	 * Returns the total number of physical statement preparations.
+	 * 
+	 * @return the total number of physical statement preparations
+	 * 
+	 * @since 2.0.0
+	 */
+	long getPrepareCount();
+
+	/**
+	 * Returns the statistics of the statements with the highest 99th percentile execution time, the slowest first.
+	 * 
+	 * @return the statistics of the slow statements
+	 * 
+	 * @since 2.0.0
+	 */
+	String[] getSlowStatements();
+
+	/**
+	 * Returns the number of distinct normalized statements tracked.
+	 * 
+	 * @return the number of distinct normalized statements tracked
+	 * 
+	 * @since 2.0.0
+	 */
+	int getStatementCount();
+
+	/**
+	 * Returns the total time of the executions in milliseconds.
+	 * 
+	 * @return the total time of the executions in milliseconds
+	 * 
+	 * @since 2.0.0
+	 */
+	long getTotalTime();
+
+	/**
+	 * Resets the statistics.
+	 * 
+	 * @since 2.0.0
+	 */
+	void reset();
+}
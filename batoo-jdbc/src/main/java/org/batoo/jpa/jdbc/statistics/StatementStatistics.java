@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The execution statistics of a normalized SQL statement.
+ * <p>
+ * The counters are striped and the latency histogram is lock-free so that the statistics can be recorded for every execution.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class StatementStatistics {
+
+	private final String sql;
+
+	private final StripedCounter executions = new StripedCounter();
+	private final StripedCounter errors = new StripedCounter();
+	private final StripedCounter time = new StripedCounter();
+	private final StripedCounter rows = new StripedCounter();
+	private final StripedCounter batches = new StripedCounter();
+	private final StripedCounter batchedStatements = new StripedCounter();
+	private final StripedCounter prepares = new StripedCounter();
+	private final AtomicLong maxTime = new AtomicLong();
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	/**
+	 * @param sql
+	 *            the normalized SQL
+	 * 
+	 * @since 2.0.0
+	 */
+	public StatementStatistics(String sql) {
+		super();
+
+		this.sql = sql;
+	}
+
+	/**
+	 * Returns the normalized SQL of the statistics.
+	 * 
+	 * @return the normalized SQL of the statistics
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Records an execution of the statement.
+	 * 
+	 * @param nanos
+	 *            the time the execution took in nanoseconds
+	 * @param rows
+	 *            the number of rows affected by the execution
+	 * 
+	 * @since 2.0.0
+	 */
+	public void record(long nanos, long rows) {
+		final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+
+		this.executions.increment();
+		this.time.add(micros);
+		this.histogram.record(micros);
+
+		if (rows > 0) {
+			this.rows.add(rows);
+		}
+
+		long max = this.maxTime.get();
+		while ((micros > max) && !this.maxTime.compareAndSet(max, micros)) {
+			max = this.maxTime.get();
+		}
+	}
+
+	/**
+	 * Records a batch execution of the statement.
+	 * 
+	 * @param nanos
+	 *            the time the execution took in nanoseconds
+	 * @param batchSize
+	 *            the number of statements in the batch
+	 * @param rows
+	 *            the number of rows affected by the execution
+	 * 
+	 * @since 2.0.0
+	 */
+	public void recordBatch(long nanos, int batchSize, long rows) {
+		this.batches.increment();
+		this.batchedStatements.add(batchSize);
+
+		this.record(nanos, rows);
+	}
+
+	/**
+	 * Records a failed execution of the statement.
+	 * 
+	 * @param nanos
+	 *            the time the execution took in nanoseconds
+	 * 
+	 * @since 2.0.0
+	 */
+	public void recordError(long nanos) {
+		this.errors.increment();
+
+		this.record(nanos, 0);
+	}
+
+	/**
+	 * Records a physical preparation of the statement.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void recordPrepare() {
+		this.prepares.increment();
+	}
+
+	/**
+	 * Records the number of rows read from the results of an execution.
+	 * 
+	 * @param rows
+	 *            the number of rows
+	 * 
+	 * @since 2.0.0
+	 */
+	public void recordRows(long rows) {
+		if (rows > 0) {
+			this.rows.add(rows);
+		}
+	}
+
+	/**
+	 * Resets the statistics.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void reset() {
+		this.executions.reset();
+		this.errors.reset();
+		this.time.reset();
+		this.rows.reset();
+		this.batches.reset();
+		this.batchedStatements.reset();
+		this.prepares.reset();
+		this.maxTime.set(0);
+		this.histogram.reset();
+	}
+
+	/**
+	 * Returns a point in time copy of the statistics.
+	 * <p>
+	 * The statistics are not locked while the copy is taken, so the values of a snapshot taken during executions may be off by the
+	 * executions in progress.
+	 * 
+	 * @return the snapshot of the statistics
+	 * 
+	 * @since 2.0.0
+	 */
+	public StatementStatisticsSnapshot snapshot() {
+		final long[] counts = this.histogram.getCounts();
+		final long max = this.maxTime.get();
+
+		// the histogram reports the upper bounds of the buckets, which may be above the max
+		return new StatementStatisticsSnapshot(this.sql, //
+			this.executions.get(), //
+			this.errors.get(), //
+			this.time.get(), //
+			max, //
+			Math.min(max, LatencyHistogram.getValueAtPercentile(counts, 50)), //
+			Math.min(max, LatencyHistogram.getValueAtPercentile(counts, 90)), //
+			Math.min(max, LatencyHistogram.getValueAtPercentile(counts, 99)), //
+			Math.min(max, LatencyHistogram.getValueAtPercentile(counts, 99.9)), //
+			this.rows.get(), //
+			this.batches.get(), //
+			this.batchedStatements.get(), //
+			this.prepares.get());
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.statistics;
+
+import java.text.MessageFormat;
+
+/**
+ * Point in time copy of the execution statistics of a normalized SQL statement.
+ * <p>
+ * The times are in microseconds.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class StatementStatisticsSnapshot {
+
+	private final String sql;
+	private final long executions;
+	private final long errors;
+	private final long totalTime;
+	private final long maxTime;
+	private final long medianTime;
+	private final long p90Time;
+	private final long p99Time;
+	private final long p999Time;
+	private final long rows;
+	private final long batches;
+	private final long batchedStatements;
+	private final long prepares;
+
+	/**
+	 * @param sql
+	 *            the normalized SQL
+	 * @param executions
+	 *            the number of executions
+	 * @param errors
+	 *            the number of failed executions
+	 * @param totalTime
+	 *            the total time of the executions
+	 * @param maxTime
+	 *            the time of the slowest execution
+	 * @param medianTime
+	 *            the median time of the executions
+	 * @param p90Time
+	 *            the 90th percentile time of the executions
+	 * @param p99Time
+	 *            the 99th percentile time of the executions
+	 * @param p999Time
+	 *            the 99.9th percentile time of the executions
+	 * @param rows
+	 *            the number of rows returned or affected
+	 * @param batches
+	 *            the number of batch executions
+	 * @param batchedStatements
+	 *            the number of statements executed in batches
+	 * @param prepares
+	 *            the number of physical preparations of the statement
+	 * 
+	 * @since 2.0.0
+	 */
+	public StatementStatisticsSnapshot(String sql, long executions, long errors, long totalTime, long maxTime, long medianTime, long p90Time,
+		long p99Time, long p999Time, long rows, long batches, long batchedStatements,
+		long prepares) {
+		super();
+
+		this.sql = sql;
+		this.executions = executions;
+		this.errors = errors;
+		this.totalTime = totalTime;
+		this.maxTime = maxTime;
+		this.medianTime = medianTime;
+		this.p90Time = p90Time;
+		this.p99Time = p99Time;
+		this.p999Time = p999Time;
+		this.rows = rows;
+		this.batches = batches;
+		this.batchedStatements = batchedStatements;
+		this.prepares = prepares;
+	}
+
+	/**
+	 * Returns the average number of statements per batch execution.
+	 * 
+	 * @return the average number of statements per batch execution
+	 * 
+	 * @since 2.0.0
+	 */
+	public double getAverageBatchSize() {
+		return this.batches == 0 ? 0 : (double) this.batchedStatements / this.batches;
+	}
+
+	/**
+	 * Returns the average time of the executions.
+	 * 
+	 * @return the average time of the executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getAverageTime() {
+		return this.executions == 0 ? 0 : this.totalTime / this.executions;
+	}
+
+	/**
+	 * Returns the number of statements executed in batches.
+	 * 
+	 * @return the number of statements executed in batches
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getBatchedStatements() {
+		return this.batchedStatements;
+	}
+
+	/**
+	 * Returns the number of batch executions.
+	 * 
+	 * @return the number of batch executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getBatches() {
+		return this.batches;
+	}
+
+	/**
+	 * Returns the number of failed executions.
+	 * 
+	 * @return the number of failed executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getErrors() {
+		return this.errors;
+	}
+
+	/**
+	 * Returns the number of executions.
+	 * 
+	 * @return the number of executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getExecutions() {
+		return this.executions;
+	}
+
+	/**
+	 * Returns the time of the slowest execution.
+	 * 
+	 * @return the time of the slowest execution
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getMaxTime() {
+		return this.maxTime;
+	}
+
+	/**
+	 * Returns the median time of the executions.
+	 * 
+	 * @return the median time of the executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getMedianTime() {
+		return this.medianTime;
+	}
+
+	/**
+	 * Returns the 90th percentile time of the executions.
+	 * 
+	 * @return the 90th percentile time of the executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getP90Time() {
+		return this.p90Time;
+	}
+
+	/**
+	 * Returns the 99.9th percentile time of the executions.
+	 * 
+	 * @return the 99.9th percentile time of the executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getP999Time() {
+		return this.p999Time;
+	}
+
+	/**
+	 * Returns the 99th percentile time of the executions.
+	 * 
+	 * @return the 99th percentile time of the executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getP99Time() {
+		return this.p99Time;
+	}
+
+	/**
+	 * Returns the number of physical preparations of the statement.
+	 * 
+	 * @return the number of physical preparations of the statement
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getPrepares() {
+		return this.prepares;
+	}
+
+	/**
+	 * Returns the number of rows returned by the queries or affected by the updates.
+	 * 
+	 * @return the number of rows
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * Returns the normalized SQL.
+	 * 
+	 * @return the normalized SQL
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Returns the total time of the executions.
+	 * 
+	 * @return the total time of the executions
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getTotalTime() {
+		return this.totalTime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String toString() {
+		return MessageFormat.format(
+			"executions={0,number,#}, errors={1,number,#}, total={2,number,#}us, avg={3,number,#}us, p50={4,number,#}us, p90={5,number,#}us, "
+				+ "p99={6,number,#}us, p99.9={7,number,#}us, max={8,number,#}us, rows={9,number,#}, batches={10,number,#}, "
+				+ "avgBatch={11,number,#.#}, prepares={12,number,#}: {13}", //
+			this.executions, this.errors, this.totalTime, this.getAverageTime(), this.medianTime, this.p90Time, this.p99Time, this.p999Time,
+			this.maxTime, this.rows, this.batches, this.getAverageBatchSize(), this.prepares, this.sql);
+	}
+}
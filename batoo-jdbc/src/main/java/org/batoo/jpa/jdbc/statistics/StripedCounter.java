@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.jdbc.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter striped over a number of cells to avoid the contention of the threads updating the counter concurrently.
+ * <p>
+ * The cells are spread over separate cache lines and the threads are assigned to the cells by their ids, reading the counter sums up the
+ * cells.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class StripedCounter {
+
+	private static final int PADDING = 8;
+	private static final int STRIPES = StripedCounter.stripes();
+
+	private static int stripes() {
+		final int processors = Runtime.getRuntime().availableProcessors();
+
+		int stripes = 1;
+		while ((stripes < processors) && (stripes < 64)) {
+			stripes <<= 1;
+		}
+
+		return stripes;
+	}
+
+	private final AtomicLongArray cells = new AtomicLongArray(StripedCounter.STRIPES * StripedCounter.PADDING);
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	public StripedCounter() {
+		super();
+	}
+
+	/**
+	 * Adds the value to the counter.
+	 * 
+	 * @param value
+	 *            the value to add
+	 * 
+	 * @since 2.0.0
+	 */
+	public void add(long value) {
+		final int cell = (int) (Thread.currentThread().getId() & (StripedCounter.STRIPES - 1)) * StripedCounter.PADDING;
+
+		this.cells.addAndGet(cell, value);
+	}
+
+	/**
+	 * Returns the value of the counter.
+	 * 
+	 * @return the value of the counter
+	 * 
+	 * @since 2.0.0
+	 */
+	public long get() {
+		long value = 0;
+
+		for (int i = 0; i < StripedCounter.STRIPES; i++) {
+			value += this.cells.get(i * StripedCounter.PADDING);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Increments the counter by one.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void increment() {
+		this.add(1);
+	}
+
+	/**
+	 * Resets the counter to zero.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void reset() {
+		for (int i = 0; i < StripedCounter.STRIPES; i++) {
+			this.cells.set(i * StripedCounter.PADDING, 0);
+		}
+	}
+}
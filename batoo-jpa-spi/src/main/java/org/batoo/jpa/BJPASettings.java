@@ -36,12 +36,25 @@ public interface BJPASettings {
 	String DROP_ON_CLOSE = "org.batoo.jpa.dropOnClose";
 
 	/**
-	 * Boolean value, indicating how the sql statements should be printed, NONE | STDOUT | STDERR.
+	 * Boolean value, indicating how the sql statements should be printed, NONE | STDOUT | STDERR | ASYNC.
 	 * <p>
 	 * If you have a logging infrastructor, prefer org.batoo.jpa.SQL for logging.
+	 * <p>
+	 * ASYNC writes the statements with their parameters and timings to {@link #SQL_LOGGING_FILE} from a background thread, dropping the
+	 * statements if the buffer of {@link #SQL_LOGGING_BUFFER_SIZE} is full.
 	 */
 	String SQL_LOGGING = "org.batoo.jpa.sql_logging";
 
+	/**
+	 * The name of the file the statements are appended to when {@link #SQL_LOGGING} is ASYNC.
+	 */
+	String SQL_LOGGING_FILE = "org.batoo.jpa.sql_logging_file";
+
+	/**
+	 * The number of statements buffered when {@link #SQL_LOGGING} is ASYNC, rounded up to a power of two.
+	 */
+	String SQL_LOGGING_BUFFER_SIZE = "org.batoo.jpa.sql_logging_buffer_size";
+
 	/**
 	 * Long value indicating that the number of milliseconds to deem an SQL execution as slow.
 	 * <p>
@@ -49,11 +62,50 @@ public interface BJPASettings {
 	 */
 	String SLOW_SQL_THRESHOLD = "org.batoo.jpa.slow_sql_threshold";
 
+	/**
+	 * Boolean value, indicating if the execution statistics of the SQL statements should be collected, defaults to true.
+	 * <p>
+	 * The statistics are available through <code>BatooEntityManager.getSqlStatistics()</code> and the
+	 * <code>org.batoo.jpa:type=SqlStatistics</code> MBean.
+	 */
+	String SQL_STATISTICS = "org.batoo.jpa.sql_statistics";
+
+	/**
+	 * Boolean query hint, indicating that the results of the query should be kept in the query cache.
+	 * <p>
+	 * The results are invalidated once any of the tables read by the query is modified.
+	 */
+	String QUERY_CACHE = "org.batoo.jpa.query_cache";
+
+	/**
+	 * String query and find hint, naming the fetch profile of the entity to load the results with.
+	 * <p>
+	 * The fetch profiles are defined with the <code>org.batoo.jpa.annotations.FetchProfile</code> annotation.
+	 */
+	String FETCH_PROFILE = "org.batoo.jpa.fetch_profile";
+
+	/**
+	 * Boolean query hint, indicating that the query may be served by a replica datasource even within a transaction.
+	 * <p>
+	 * Has no effect unless {@link #REPLICA_URLS} is set.
+	 */
+	String READ_ONLY = "org.batoo.jpa.read_only";
+
 	/**
 	 * Default value for {@link #SLOW_SQL_THRESHOLD} that is 2500.
 	 */
 	Long DEFAULT_SLOW_SQL_THRESHOLD = 2500l;
 
+	/**
+	 * The default for {@link #SQL_LOGGING_FILE} that is batoo-sql.log.
+	 */
+	String DEFAULT_SQL_LOGGING_FILE = "batoo-sql.log";
+
+	/**
+	 * The default for {@link #SQL_LOGGING_BUFFER_SIZE} that is 8192.
+	 */
+	Integer DEFAULT_SQL_LOGGING_BUFFER_SIZE = 8192;
+
 	/**
 	 * The default for {@link #MAX_CONNECTIONS} that is 50.
 	 */
@@ -74,6 +126,16 @@ public interface BJPASettings {
 	 */
 	Integer DEFAULT_INSERT_BATCH_SIZE = 10;
 
+	/**
+	 * The default for {@link #INSERT_BATCH_SIZE_MIN} that is 1.
+	 */
+	Integer DEFAULT_INSERT_BATCH_SIZE_MIN = 1;
+
+	/**
+	 * The default for {@link #INSERT_BATCH_SIZE_MAX} that is 100.
+	 */
+	Integer DEFAULT_INSERT_BATCH_SIZE_MAX = 100;
+
 	/**
 	 * The default for {@link #REMOVE_BATCH_SIZE}
 	 */
@@ -84,13 +146,62 @@ public interface BJPASettings {
 	 */
 	Integer DEFAULT_STATEMENT_CACHE_SIZE = 50;
 
+	/**
+	 * The default for {@link #CACHE_OFF_HEAP_SIZE} that is 0, keeping the cached state on the heap.
+	 */
+	Long DEFAULT_CACHE_OFF_HEAP_SIZE = 0l;
+
+	/**
+	 * The default for {@link #CACHE_MAX_SIZE} that is 10000.
+	 */
+	Integer DEFAULT_CACHE_MAX_SIZE = 10000;
+
+	/**
+	 * The default for {@link #QUERY_CACHE_MAX_SIZE} that is 1000.
+	 */
+	Integer DEFAULT_QUERY_CACHE_MAX_SIZE = 1000;
+
 	/**
 	 * The default for {@value #MAX_FETCH_JOIN_DEPTH} that is 1.
 	 */
 	Integer DEFAULT_MAX_FETCH_JOIN_DEPTH = 2;
 
 	/**
-	 * The size of the datasource statement cache size
+	 * The default for {@link #POOL_MAX_WAIT} that is 30000.
+	 */
+	Long DEFAULT_POOL_MAX_WAIT = 30000l;
+
+	/**
+	 * The default for {@link #POOL_VALIDATION_INTERVAL} that is 30000.
+	 */
+	Long DEFAULT_POOL_VALIDATION_INTERVAL = 30000l;
+
+	/**
+	 * Long value indicating the number of bytes of direct memory to keep the state of the cached entities off the heap.
+	 * <p>
+	 * The least recently used entities are evicted once the memory is full.
+	 */
+	String CACHE_OFF_HEAP_SIZE = "org.batoo.jpa.cache.off_heap_size";
+
+	/**
+	 * Integer value indicating the max number of entities the cache keeps on the heap, and the max number of collections per collection
+	 * mapping.
+	 * <p>
+	 * The least recently used entities and collections are evicted once the limit is reached.
+	 */
+	String CACHE_MAX_SIZE = "org.batoo.jpa.cache.max_size";
+
+	/**
+	 * Integer value indicating the max number of query results the query cache keeps.
+	 * <p>
+	 * The least recently used results are evicted once the limit is reached.
+	 */
+	String QUERY_CACHE_MAX_SIZE = "org.batoo.jpa.cache.query_max_size";
+
+	/**
+	 * The size of the datasource statement cache size.
+	 * <p>
+	 * For the external datasources and the pluggable pools the statements are cached per connection.
 	 */
 	String STATEMENT_CACHE_SIZE = "org.batoo.jdbc.statement_cache_size";
 
@@ -105,10 +216,23 @@ public interface BJPASettings {
 	String FETCH_SIZE = "org.batoo.jdbc.fetch_size";
 
 	/**
-	 * The size of the insert statements batch
+	 * The initial size of the insert statements batch.
+	 * <p>
+	 * The size is tuned per entity at runtime from the observed latency per row between {@link #INSERT_BATCH_SIZE_MIN} and
+	 * {@link #INSERT_BATCH_SIZE_MAX}, and is capped by the max number of bind parameters of the database. 1 disables the insert batching.
 	 */
 	String INSERT_BATCH_SIZE = "org.batoo.jdbc.insert_batch_size";
 
+	/**
+	 * The min size the insert statements batch is tuned down to.
+	 */
+	String INSERT_BATCH_SIZE_MIN = "org.batoo.jdbc.insert_batch_size_min";
+
+	/**
+	 * The max size the insert statements batch is tuned up to.
+	 */
+	String INSERT_BATCH_SIZE_MAX = "org.batoo.jdbc.insert_batch_size_max";
+
 	/**
 	 * The size of the remove statements batch
 	 */
@@ -138,4 +262,24 @@ public interface BJPASettings {
 	 * Hint for the the pluggable data source
 	 */
 	String DATASOURCE_NAME = "org.batoo.jdbc.datasource.name";
+
+	/**
+	 * Long value indicating the number of milliseconds to wait for a connection when the built-in pool is exhausted.
+	 */
+	String POOL_MAX_WAIT = "org.batoo.jdbc.pool.max_wait";
+
+	/**
+	 * Long value indicating the number of milliseconds between the validations of the idle connections in the built-in pool, 0 disables
+	 * the validation.
+	 */
+	String POOL_VALIDATION_INTERVAL = "org.batoo.jdbc.pool.validation_interval";
+
+	/**
+	 * Comma separated JDBC urls of the read replicas of the database. The replicas are accessed with the JDBC driver, user and password of
+	 * the primary database.
+	 * <p>
+	 * The reads outside the transactions, the reads in read-only transactions and the queries hinted with {@link #READ_ONLY} are balanced
+	 * over the replicas until the entity manager writes to the primary database.
+	 */
+	String REPLICA_URLS = "org.batoo.jdbc.replica_urls";
 }
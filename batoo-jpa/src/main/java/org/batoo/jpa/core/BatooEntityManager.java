@@ -18,14 +18,29 @@
  */
 package org.batoo.jpa.core;
 
+import java.util.List;
+
 import javax.persistence.EntityManager;
 
+import org.batoo.jpa.jdbc.statistics.StatementStatisticsSnapshot;
+
 /**
+ * Batoo specific extensions of the {@link EntityManager}.
  * 
- *
  * @author hceylan
  * @since $version
  */
 public interface BatooEntityManager extends EntityManager {
 
+	/**
+	 * Returns the snapshots of the execution statistics of the SQL statements of the persistence unit, ordered by the total time of the
+	 * executions, the hottest first.
+	 * <p>
+	 * The statements are grouped by their normalized SQL. The times are in microseconds and the query times exclude reading the results.
+	 * 
+	 * @return the list of snapshots, empty if the statistics are disabled
+	 * 
+	 * @since 2.0.0
+	 */
+	List<StatementStatisticsSnapshot> getSqlStatistics();
 }
@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.impl.model.mapping.BasicMappingImpl;
+
+/**
+ * The binary codec of the dehydrated state of the instances of an entity type.
+ * <p>
+ * The encoding of the values of the basic mappings is derived from the java types of the mappings, the values that do not match the
+ * declared types and the ids of the associates are encoded along with their kind. The values that are neither of a known type nor serializable cannot be
+ * encoded.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class CacheCodec {
+
+	private static final byte NULL = 0;
+	private static final byte TYPED = 1;
+	private static final byte TAGGED = 2;
+
+	private static final byte OBJECT = 0;
+	private static final byte BOOLEAN = 1;
+	private static final byte BYTE = 2;
+	private static final byte SHORT = 3;
+	private static final byte INTEGER = 4;
+	private static final byte LONG = 5;
+	private static final byte FLOAT = 6;
+	private static final byte DOUBLE = 7;
+	private static final byte CHARACTER = 8;
+	private static final byte STRING = 9;
+	private static final byte BIG_DECIMAL = 10;
+	private static final byte BIG_INTEGER = 11;
+	private static final byte DATE = 12;
+	private static final byte SQL_DATE = 13;
+	private static final byte TIME = 14;
+	private static final byte TIMESTAMP = 15;
+	private static final byte BYTES = 16;
+	private static final byte CHARS = 17;
+	private static final byte ENUM = 18;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static byte kindOf(Class<?> javaType) {
+		if ((javaType == Boolean.class) || (javaType == Boolean.TYPE)) {
+			return CacheCodec.BOOLEAN;
+		}
+
+		if ((javaType == Byte.class) || (javaType == Byte.TYPE)) {
+			return CacheCodec.BYTE;
+		}
+
+		if ((javaType == Short.class) || (javaType == Short.TYPE)) {
+			return CacheCodec.SHORT;
+		}
+
+		if ((javaType == Integer.class) || (javaType == Integer.TYPE)) {
+			return CacheCodec.INTEGER;
+		}
+
+		if ((javaType == Long.class) || (javaType == Long.TYPE)) {
+			return CacheCodec.LONG;
+		}
+
+		if ((javaType == Float.class) || (javaType == Float.TYPE)) {
+			return CacheCodec.FLOAT;
+		}
+
+		if ((javaType == Double.class) || (javaType == Double.TYPE)) {
+			return CacheCodec.DOUBLE;
+		}
+
+		if ((javaType == Character.class) || (javaType == Character.TYPE)) {
+			return CacheCodec.CHARACTER;
+		}
+
+		if (javaType == String.class) {
+			return CacheCodec.STRING;
+		}
+
+		if (javaType == BigDecimal.class) {
+			return CacheCodec.BIG_DECIMAL;
+		}
+
+		if (javaType == BigInteger.class) {
+			return CacheCodec.BIG_INTEGER;
+		}
+
+		if (javaType == Date.class) {
+			return CacheCodec.DATE;
+		}
+
+		if (javaType == java.sql.Date.class) {
+			return CacheCodec.SQL_DATE;
+		}
+
+		if (javaType == Time.class) {
+			return CacheCodec.TIME;
+		}
+
+		if (javaType == Timestamp.class) {
+			return CacheCodec.TIMESTAMP;
+		}
+
+		if (javaType == byte[].class) {
+			return CacheCodec.BYTES;
+		}
+
+		if (javaType == char[].class) {
+			return CacheCodec.CHARS;
+		}
+
+		if (javaType.isEnum()) {
+			return CacheCodec.ENUM;
+		}
+
+		return CacheCodec.OBJECT;
+	}
+
+	// DataInput.readUTF is limited to 65535 bytes, the strings are written as length prefixed UTF-8 bytes instead
+	private static String readString(DataInputStream is) throws IOException {
+		final byte[] bytes = new byte[is.readInt()];
+		is.readFully(bytes);
+
+		return new String(bytes, CacheCodec.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream os, String value) throws IOException {
+		final byte[] bytes = value.getBytes(CacheCodec.UTF_8);
+
+		os.writeInt(bytes.length);
+		os.write(bytes);
+	}
+
+	private final EntityTypeImpl<?> type;
+	private final byte[] kinds;
+	private final Class<?>[] javaTypes;
+	private final int associates;
+
+	/**
+	 * @param type
+	 *            the entity type
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheCodec(EntityTypeImpl<?> type) {
+		super();
+
+		this.type = type;
+
+		final BasicMappingImpl<?, ?>[] basicMappings = type.getBasicMappings();
+
+		this.kinds = new byte[basicMappings.length];
+		this.javaTypes = new Class<?>[basicMappings.length];
+
+		for (int i = 0; i < basicMappings.length; i++) {
+			this.javaTypes[i] = basicMappings[i].getAttribute().getJavaType();
+			this.kinds[i] = CacheCodec.kindOf(this.javaTypes[i]);
+		}
+
+		this.associates = type.getAssociationsSingular().length;
+	}
+
+	/**
+	 * Decodes the state of the instance.
+	 * 
+	 * @param data
+	 *            the encoded state
+	 * @return the state of the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheInstance decode(byte[] data) {
+		try {
+			final DataInputStream is = new DataInputStream(new ByteArrayInputStream(data));
+
+			final Object[] values = new Object[this.kinds.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = this.read(is, this.kinds[i], this.javaTypes[i]);
+			}
+
+			final Object[] associateIds = new Object[this.associates];
+			for (int i = 0; i < associateIds.length; i++) {
+				associateIds[i] = this.read(is, CacheCodec.OBJECT, null);
+			}
+
+			return new CacheInstance(this.type, values, associateIds);
+		}
+		catch (final Exception e) {
+			throw new IllegalStateException("Cannot decode the cached state of " + this.type.getName(), e);
+		}
+	}
+
+	/**
+	 * Encodes the state of the instance.
+	 * 
+	 * @param cacheInstance
+	 *            the state of the instance
+	 * @return the encoded state or <code>null</code> if the state cannot be encoded
+	 * 
+	 * @since 2.0.0
+	 */
+	public byte[] encode(CacheInstance cacheInstance) {
+		try {
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			final DataOutputStream os = new DataOutputStream(bos);
+
+			final Object[] values = cacheInstance.getValues();
+			for (int i = 0; i < values.length; i++) {
+				this.write(os, this.kinds[i], values[i]);
+			}
+
+			for (final Object associateId : cacheInstance.getAssociates()) {
+				this.write(os, CacheCodec.OBJECT, associateId);
+			}
+
+			os.flush();
+
+			return bos.toByteArray();
+		}
+		catch (final NotSerializableException e) {
+			return null;
+		}
+		catch (final IOException e) {
+			throw new IllegalStateException("Cannot encode the cached state of " + this.type.getName(), e);
+		}
+	}
+
+	/**
+	 * Encodes the id of an instance.
+	 * <p>
+	 * Equal ids are encoded into equal bytes, so the encoded ids can be compared in place of the ids.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @return the encoded id or <code>null</code> if the id cannot be encoded
+	 * 
+	 * @since 2.0.0
+	 */
+	public byte[] encodeId(Object id) {
+		try {
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			final DataOutputStream os = new DataOutputStream(bos);
+
+			this.write(os, CacheCodec.OBJECT, id);
+
+			os.flush();
+
+			return bos.toByteArray();
+		}
+		catch (final NotSerializableException e) {
+			return null;
+		}
+		catch (final IOException e) {
+			throw new IllegalStateException("Cannot encode the id of " + this.type.getName(), e);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object read(DataInputStream is, byte kind, Class<?> javaType) throws IOException, ClassNotFoundException {
+		final byte flag = is.readByte();
+		if (flag == CacheCodec.NULL) {
+			return null;
+		}
+
+		if (flag == CacheCodec.TAGGED) {
+			kind = is.readByte();
+		}
+
+		switch (kind) {
+			case BOOLEAN:
+				return is.readBoolean();
+			case BYTE:
+				return is.readByte();
+			case SHORT:
+				return is.readShort();
+			case INTEGER:
+				return is.readInt();
+			case LONG:
+				return is.readLong();
+			case FLOAT:
+				return is.readFloat();
+			case DOUBLE:
+				return is.readDouble();
+			case CHARACTER:
+				return is.readChar();
+			case STRING:
+				return CacheCodec.readString(is);
+			case BIG_DECIMAL:
+				return new BigDecimal(CacheCodec.readString(is));
+			case BIG_INTEGER:
+				return new BigInteger(CacheCodec.readString(is));
+			case DATE:
+				return new Date(is.readLong());
+			case SQL_DATE:
+				return new java.sql.Date(is.readLong());
+			case TIME:
+				return new Time(is.readLong());
+			case TIMESTAMP:
+				final Timestamp timestamp = new Timestamp(is.readLong());
+				timestamp.setNanos(is.readInt());
+
+				return timestamp;
+			case BYTES:
+				final byte[] bytes = new byte[is.readInt()];
+				is.readFully(bytes);
+
+				return bytes;
+			case CHARS:
+				final char[] chars = new char[is.readInt()];
+				for (int i = 0; i < chars.length; i++) {
+					chars[i] = is.readChar();
+				}
+
+				return chars;
+			case ENUM:
+				return ((Class<? extends Enum>) javaType).getEnumConstants()[is.readInt()];
+			default:
+				final byte[] serialized = new byte[is.readInt()];
+				is.readFully(serialized);
+
+				return new ObjectInputStream(new ByteArrayInputStream(serialized)).readObject();
+		}
+	}
+
+	private void write(DataOutputStream os, byte kind, Object value) throws IOException {
+		if (value == null) {
+			os.writeByte(CacheCodec.NULL);
+
+			return;
+		}
+
+		// the enums of unknown type are serialized
+		final byte valueKind = value instanceof Enum ? (kind == CacheCodec.ENUM ? CacheCodec.ENUM : CacheCodec.OBJECT) : CacheCodec.kindOf(value.getClass());
+
+		// the kind of the values that do not match the declared type are encoded along with the value
+		if ((valueKind == kind) && (kind != CacheCodec.OBJECT)) {
+			os.writeByte(CacheCodec.TYPED);
+		}
+		else {
+			os.writeByte(CacheCodec.TAGGED);
+			os.writeByte(valueKind);
+
+			kind = valueKind;
+		}
+
+		switch (kind) {
+			case BOOLEAN:
+				os.writeBoolean((Boolean) value);
+				break;
+			case BYTE:
+				os.writeByte((Byte) value);
+				break;
+			case SHORT:
+				os.writeShort((Short) value);
+				break;
+			case INTEGER:
+				os.writeInt((Integer) value);
+				break;
+			case LONG:
+				os.writeLong((Long) value);
+				break;
+			case FLOAT:
+				os.writeFloat((Float) value);
+				break;
+			case DOUBLE:
+				os.writeDouble((Double) value);
+				break;
+			case CHARACTER:
+				os.writeChar((Character) value);
+				break;
+			case STRING:
+			case BIG_DECIMAL:
+			case BIG_INTEGER:
+				CacheCodec.writeString(os, value.toString());
+				break;
+			case DATE:
+			case SQL_DATE:
+			case TIME:
+				os.writeLong(((Date) value).getTime());
+				break;
+			case TIMESTAMP:
+				os.writeLong(((Timestamp) value).getTime());
+				os.writeInt(((Timestamp) value).getNanos());
+				break;
+			case BYTES:
+				os.writeInt(((byte[]) value).length);
+				os.write((byte[]) value);
+				break;
+			case CHARS:
+				os.writeInt(((char[]) value).length);
+				for (final char c : (char[]) value) {
+					os.writeChar(c);
+				}
+				break;
+			case ENUM:
+				os.writeInt(((Enum<?>) value).ordinal());
+				break;
+			default:
+				if (!(value instanceof Serializable)) {
+					throw new NotSerializableException(value.getClass().getName());
+				}
+
+				final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+				final ObjectOutputStream oos = new ObjectOutputStream(bos);
+				oos.writeObject(value);
+				oos.close();
+
+				os.writeInt(bos.size());
+				bos.writeTo(os);
+		}
+	}
+}
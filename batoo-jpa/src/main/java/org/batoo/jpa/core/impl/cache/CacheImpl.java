@@ -0,0 +1,660 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.cache;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.Cache;
+import javax.persistence.SharedCacheMode;
+
+import org.batoo.common.log.BLogger;
+import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.core.impl.instance.EnhancedInstance;
+import org.batoo.jpa.core.impl.instance.ManagedId;
+import org.batoo.jpa.core.impl.instance.ManagedInstance;
+import org.batoo.jpa.core.impl.manager.EntityManagerFactoryImpl;
+import org.batoo.jpa.core.impl.manager.SessionImpl;
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.impl.model.mapping.PluralAssociationMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.PluralMappingEx;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Implementation of {@link Cache}.
+ * <p>
+ * The cache is shared by the entity managers of the entity manager factory and keeps the dehydrated state of the cachable entities keyed
+ * by their type and id. The entities kept on the heap and the collections of each collection mapping are bounded, the least recently used
+ * ones are evicted once the bound is reached.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class CacheImpl implements Cache {
+
+	private static final BLogger LOG = BLoggerFactory.getLogger(CacheImpl.class);
+
+	private final EntityManagerFactoryImpl entityManagerFactory;
+	private final SharedCacheMode sharedCacheMode;
+
+	private final int maxSize;
+	private final CacheStats stats = new CacheStats();
+	private final RemovalListener<Object, Object> evictionListener = new RemovalListener<Object, Object>() {
+
+		@Override
+		public void onRemoval(RemovalNotification<Object, Object> notification) {
+			if (notification.wasEvicted()) {
+				CacheImpl.this.stats.evict(1);
+			}
+		}
+	};
+
+	private final ConcurrentMap<ManagedId<?>, CacheInstance> entities;
+	private final ConcurrentMap<PluralMappingEx<?, ?, ?>, ConcurrentMap<ManagedId<?>, Object[]>> collections = Maps.newConcurrentMap();
+	private final QueryCache queryCache;
+	private final OffHeapStore offHeap;
+
+	/**
+	 * @param entityManagerFactory
+	 *            the entity manager factory
+	 * @param sharedCacheMode
+	 *            the shared cache mode
+	 * @param offHeapSize
+	 *            the size of the off-heap tier in bytes, 0 to keep the cached state on the heap
+	 * @param maxSize
+	 *            the max number of entities kept on the heap and the max number of collections kept per collection mapping
+	 * @param queryCacheMaxSize
+	 *            the max number of query results kept
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheImpl(EntityManagerFactoryImpl entityManagerFactory, SharedCacheMode sharedCacheMode, long offHeapSize, int maxSize,
+		int queryCacheMaxSize) {
+		super();
+
+		this.entityManagerFactory = entityManagerFactory;
+		this.sharedCacheMode = sharedCacheMode;
+		this.maxSize = maxSize;
+		this.entities = this.newRegion();
+		this.queryCache = new QueryCache(queryCacheMaxSize);
+
+		if (offHeapSize > 0) {
+			CacheImpl.LOG.info("Allocating {0} bytes of off-heap memory for the cache", offHeapSize);
+
+			this.offHeap = new OffHeapStore(offHeapSize, this.stats);
+		}
+		else {
+			this.offHeap = null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Class<?> clazz, Object primaryKey) {
+		final EntityTypeImpl<?> type = this.entityManagerFactory.getMetamodel().getEntity(clazz);
+		if ((type == null) || (primaryKey == null)) {
+			return false;
+		}
+
+		final EntityTypeImpl<?> cachedType = this.getType(new ManagedId<Object>(primaryKey, (EntityTypeImpl<Object>) type));
+
+		return (cachedType != null) && cachedType.extendz(type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void evict(Class<?> clazz) {
+		final EntityTypeImpl<?> type = this.entityManagerFactory.getMetamodel().getEntity(clazz);
+		if (type != null) {
+			this.evict(type);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void evict(Class<?> clazz, Object primaryKey) {
+		final EntityTypeImpl<?> type = this.entityManagerFactory.getMetamodel().getEntity(clazz);
+		if ((type == null) || (primaryKey == null)) {
+			return;
+		}
+
+		final ManagedId<Object> managedId = new ManagedId<Object>(primaryKey, (EntityTypeImpl<Object>) type);
+
+		final CacheInstance cacheInstance = this.entities.get(managedId);
+		if ((cacheInstance != null) && cacheInstance.getType().extendz(type) && this.entities.remove(managedId, cacheInstance)) {
+			this.stats.evict(1);
+		}
+
+		if (this.offHeap != null) {
+			final EntityTypeImpl<?> cachedType = this.offHeap.getType(managedId);
+			if ((cachedType != null) && cachedType.extendz(type) && this.offHeap.remove(managedId)) {
+				this.stats.evict(1);
+			}
+		}
+	}
+
+	/**
+	 * Evicts the instances of the type and its subtypes from the cache.
+	 * 
+	 * @param type
+	 *            the type
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evict(EntityTypeImpl<?> type) {
+		int evicted = 0;
+
+		final Iterator<Entry<ManagedId<?>, CacheInstance>> i = this.entities.entrySet().iterator();
+		while (i.hasNext()) {
+			if (i.next().getValue().getType().extendz(type)) {
+				i.remove();
+
+				evicted++;
+			}
+		}
+
+		if (this.offHeap != null) {
+			evicted += this.offHeap.removeAll(type);
+		}
+
+		CacheImpl.LOG.debug("Evicted {0} instances of type {1}", evicted, type.getName());
+
+		this.stats.evict(evicted);
+
+		this.evictCollections(type);
+	}
+
+	/**
+	 * Evicts the instance from the cache.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evict(ManagedInstance<?> managedInstance) {
+		if (this.entities.remove(managedInstance.getId()) != null) {
+			this.stats.evict(1);
+		}
+
+		if ((this.offHeap != null) && this.offHeap.remove(managedInstance.getId())) {
+			this.stats.evict(1);
+		}
+
+		for (final ConcurrentMap<ManagedId<?>, Object[]> region : this.collections.values()) {
+			if (region.remove(managedInstance.getId()) != null) {
+				this.stats.evict(1);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void evictAll() {
+		int evicted = 0;
+
+		final Iterator<ManagedId<?>> i = this.entities.keySet().iterator();
+		while (i.hasNext()) {
+			i.next();
+			i.remove();
+
+			evicted++;
+		}
+
+		if (this.offHeap != null) {
+			evicted += this.offHeap.removeAll();
+		}
+
+		for (final ConcurrentMap<ManagedId<?>, Object[]> region : this.collections.values()) {
+			final Iterator<ManagedId<?>> j = region.keySet().iterator();
+			while (j.hasNext()) {
+				j.next();
+				j.remove();
+
+				evicted++;
+			}
+		}
+
+		this.stats.evict(evicted);
+
+		this.queryCache.evictAll();
+	}
+
+	/**
+	 * Evicts the contents of the collection of the owner from the cache.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param owner
+	 *            the owner of the collection
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evictCollection(PluralMappingEx<?, ?, ?> mapping, ManagedInstance<?> owner) {
+		final ConcurrentMap<ManagedId<?>, Object[]> region = this.collections.get(mapping);
+
+		if ((region != null) && (region.remove(owner.getId()) != null)) {
+			this.stats.evict(1);
+		}
+	}
+
+	/**
+	 * Evicts the contents of the collections that may contain the instances of the type from the cache.
+	 * 
+	 * @param type
+	 *            the type of the children
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evictCollections(EntityTypeImpl<?> type) {
+		for (final Entry<PluralMappingEx<?, ?, ?>, ConcurrentMap<ManagedId<?>, Object[]>> entry : this.collections.entrySet()) {
+			if (!(entry.getKey() instanceof PluralAssociationMappingImpl)) {
+				continue;
+			}
+
+			final EntityTypeImpl<?> childType = ((PluralAssociationMappingImpl<?, ?, ?>) entry.getKey()).getType();
+			if (!childType.extendz(type) && !type.extendz(childType)) {
+				continue;
+			}
+
+			final Iterator<ManagedId<?>> i = entry.getValue().keySet().iterator();
+			while (i.hasNext()) {
+				i.next();
+				i.remove();
+
+				this.stats.evict(1);
+			}
+		}
+	}
+
+	/**
+	 * Returns the instance from the cache.
+	 * <p>
+	 * If the cache has the state of the instance then the instance is hydrated and put into the session. If the <code>lazyInstance</code>
+	 * is provided then the lazy instance is hydrated instead.
+	 * 
+	 * @param session
+	 *            the session
+	 * @param type
+	 *            the type of the instance
+	 * @param primaryKey
+	 *            the primary key of the instance
+	 * @param lazyInstance
+	 *            the lazy instance in the session or <code>null</code>
+	 * @param <X>
+	 *            the type of the instance
+	 * @return the instance or <code>null</code> if the cache cannot serve the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	public <X> X find(SessionImpl session, EntityTypeImpl<X> type, Object primaryKey, ManagedInstance<? extends X> lazyInstance) {
+		final CacheInstance cacheInstance = this.getEntity(new ManagedId<X>(primaryKey, type));
+
+		// a lazy instance can only be hydrated with the state of its own type
+		if ((cacheInstance == null) || !cacheInstance.getType().extendz(type)
+			|| ((lazyInstance != null) && (lazyInstance.getType() != cacheInstance.getType()))) {
+			this.stats.miss();
+
+			return null;
+		}
+
+		this.stats.hit();
+
+		if (lazyInstance != null) {
+			cacheInstance.hydrate(session, lazyInstance);
+
+			session.lazyInstanceLoading(lazyInstance);
+			((EnhancedInstance) lazyInstance.getInstance()).__enhanced__$$__setInitialized();
+
+			return lazyInstance.getInstance();
+		}
+
+		return this.hydrate(session, (EntityTypeImpl<? extends X>) cacheInstance.getType(), primaryKey, cacheInstance);
+	}
+
+	/**
+	 * Returns the instances with the ids.
+	 * <p>
+	 * The instances are returned only if all of them can be served from either the session or the cache.
+	 * 
+	 * @param session
+	 *            the session
+	 * @param type
+	 *            the type of the instances
+	 * @param ids
+	 *            the ids of the instances, may contain <code>null</code>s
+	 * @param <X>
+	 *            the type of the instances
+	 * @return the list of instances or <code>null</code> if the instances cannot be served from the session or the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	public <X> List<X> findAll(SessionImpl session, EntityTypeImpl<X> type, Object[] ids) {
+		for (final Object id : ids) {
+			if (id == null) {
+				continue;
+			}
+
+			final ManagedInstance<? extends X> instance = session.get(new ManagedId<X>(id, type));
+			if ((instance != null) && (!(instance.getInstance() instanceof EnhancedInstance) //
+				|| ((EnhancedInstance) instance.getInstance()).__enhanced__$$__isInitialized())) {
+				continue;
+			}
+
+			if (!this.contains(type.getJavaType(), id)) {
+				return null;
+			}
+		}
+
+		final List<X> instances = Lists.newArrayListWithCapacity(ids.length);
+		for (final Object id : ids) {
+			if (id == null) {
+				instances.add(null);
+
+				continue;
+			}
+
+			final X instance = session.getEntityManager().find(type.getJavaType(), id);
+			if (instance == null) {
+				return null;
+			}
+
+			instances.add(instance);
+		}
+
+		return instances;
+	}
+
+	/**
+	 * Returns the cached contents of the collection of the owner.
+	 * <p>
+	 * For associations the contents are the ids of the children, for element collections the elements themselves.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param owner
+	 *            the owner of the collection
+	 * @return the contents of the collection or <code>null</code> if the cache does not have the collection
+	 * 
+	 * @since 2.0.0
+	 */
+	public Object[] getCollection(PluralMappingEx<?, ?, ?> mapping, ManagedInstance<?> owner) {
+		final ConcurrentMap<ManagedId<?>, Object[]> region = this.collections.get(mapping);
+		final Object[] contents = region != null ? region.get(owner.getId()) : null;
+
+		if (contents == null) {
+			this.stats.miss();
+
+			return null;
+		}
+
+		this.stats.hit();
+
+		final Object[] copy = new Object[contents.length];
+		for (int i = 0; i < contents.length; i++) {
+			copy[i] = CacheInstance.copy(contents[i]);
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Returns the state of the instance from either tier of the cache.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @return the state of the instance or <code>null</code> if the cache does not have the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	private CacheInstance getEntity(ManagedId<?> id) {
+		final CacheInstance cacheInstance = this.entities.get(id);
+		if ((cacheInstance == null) && (this.offHeap != null)) {
+			return this.offHeap.get(id);
+		}
+
+		return cacheInstance;
+	}
+
+	/**
+	 * Returns the query cache.
+	 * 
+	 * @return the query cache
+	 * 
+	 * @since 2.0.0
+	 */
+	public QueryCache getQueryCache() {
+		return this.queryCache;
+	}
+
+	/**
+	 * Returns the statistics of the cache.
+	 * 
+	 * @return the statistics of the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheStats getStats() {
+		return this.stats;
+	}
+
+	/**
+	 * Returns the type of the cached instance.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @return the type of the instance or <code>null</code> if the cache does not have the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	private EntityTypeImpl<?> getType(ManagedId<?> id) {
+		final CacheInstance cacheInstance = this.entities.get(id);
+		if (cacheInstance != null) {
+			return cacheInstance.getType();
+		}
+
+		return this.offHeap != null ? this.offHeap.getType(id) : null;
+	}
+
+	/**
+	 * Returns if the instances of the type are kept in the cache.
+	 * 
+	 * @param cacheable
+	 *            the value of the {@link javax.persistence.Cacheable} for the type or <code>null</code> if not specified
+	 * @return true if the instances of the type are kept in the cache, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isCachable(Boolean cacheable) {
+		switch (this.sharedCacheMode) {
+			case ALL:
+				return true;
+			case DISABLE_SELECTIVE:
+				return !Boolean.FALSE.equals(cacheable);
+			case ENABLE_SELECTIVE:
+			case UNSPECIFIED:
+				return Boolean.TRUE.equals(cacheable);
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Creates a new managed instance hydrated from the cache and puts it into the session.
+	 * 
+	 * @param session
+	 *            the session
+	 * @param type
+	 *            the effective type of the instance
+	 * @param primaryKey
+	 *            the primary key
+	 * @param cacheInstance
+	 *            the cached state
+	 * @param <Y>
+	 *            the type of the instance
+	 * @return the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	private <Y> Y hydrate(SessionImpl session, EntityTypeImpl<Y> type, Object primaryKey, CacheInstance cacheInstance) {
+		final ManagedInstance<Y> managedInstance = type.getManagedInstanceById(session, new ManagedId<Y>(primaryKey, type), false);
+
+		cacheInstance.hydrate(session, managedInstance);
+		session.put(managedInstance);
+
+		return managedInstance.getInstance();
+	}
+
+	private <V> ConcurrentMap<ManagedId<?>, V> newRegion() {
+		return CacheBuilder.newBuilder().maximumSize(this.maxSize).removalListener(this.evictionListener).<ManagedId<?>, V> build().asMap();
+	}
+
+	/**
+	 * Puts the contents of the collection of the owner into the cache.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param owner
+	 *            the owner of the collection
+	 * @param contents
+	 *            the ids of the children for associations, the elements for element collections
+	 * 
+	 * @since 2.0.0
+	 */
+	public void putCollection(PluralMappingEx<?, ?, ?> mapping, ManagedInstance<?> owner, Object[] contents) {
+		ConcurrentMap<ManagedId<?>, Object[]> region = this.collections.get(mapping);
+		if (region == null) {
+			final ConcurrentMap<ManagedId<?>, Object[]> newRegion = this.newRegion();
+
+			region = this.collections.putIfAbsent(mapping, newRegion);
+			if (region == null) {
+				region = newRegion;
+			}
+		}
+
+		for (int i = 0; i < contents.length; i++) {
+			contents[i] = CacheInstance.copy(contents[i]);
+		}
+
+		region.put(owner.getId(), contents);
+
+		this.stats.put();
+	}
+
+	/**
+	 * Puts the state of the instance into the cache.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public void put(ManagedInstance<?> managedInstance) {
+		if (!managedInstance.getType().isCachable()) {
+			return;
+		}
+
+		this.putEntity(managedInstance.getId(), new CacheInstance(managedInstance));
+
+		this.stats.put();
+	}
+
+	/**
+	 * Puts the state of the loaded instance into the cache unless the cache already has the state of the instance.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public void putIfAbsent(ManagedInstance<?> managedInstance) {
+		if (!managedInstance.getType().isCachable() || (this.getType(managedInstance.getId()) != null)) {
+			return;
+		}
+
+		if (this.offHeap != null) {
+			this.putEntity(managedInstance.getId(), new CacheInstance(managedInstance));
+
+			this.stats.put();
+		}
+		else if (this.entities.putIfAbsent(managedInstance.getId(), new CacheInstance(managedInstance)) == null) {
+			this.stats.put();
+		}
+	}
+
+	/**
+	 * Puts the state of the instance into the off-heap tier if available and the state can be encoded, otherwise into the heap.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @param cacheInstance
+	 *            the state of the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	private void putEntity(ManagedId<?> id, CacheInstance cacheInstance) {
+		if ((this.offHeap != null) && this.offHeap.put(id, cacheInstance)) {
+			this.entities.remove(id);
+
+			return;
+		}
+
+		this.entities.put(id, cacheInstance);
+
+		if (this.offHeap != null) {
+			this.offHeap.remove(id);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> clazz) {
+		if (clazz == CacheImpl.class) {
+			return (T) this;
+		}
+
+		return null;
+	}
+}
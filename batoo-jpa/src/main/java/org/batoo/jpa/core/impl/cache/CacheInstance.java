@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.cache;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import org.batoo.jpa.core.impl.instance.ManagedId;
+import org.batoo.jpa.core.impl.instance.ManagedInstance;
+import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
+import org.batoo.jpa.core.impl.manager.SessionImpl;
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.impl.model.mapping.BasicMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.SingularAssociationMappingImpl;
+
+/**
+ * The dehydrated state of an entity kept in the second level cache.
+ * <p>
+ * The state consists of the values of the basic mappings and the ids of the associates of the singular associations that own a foreign
+ * key. The collections are not part of the state, they are loaded as usual when the instance is hydrated.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class CacheInstance {
+
+	private final EntityTypeImpl<?> type;
+	private final Object[] values;
+	private final Object[] associates;
+
+	/**
+	 * @param type
+	 *            the type of the entity
+	 * @param values
+	 *            the values of the basic mappings
+	 * @param associates
+	 *            the ids of the associates
+	 * 
+	 * @since 2.0.0
+	 */
+	CacheInstance(EntityTypeImpl<?> type, Object[] values, Object[] associates) {
+		super();
+
+		this.type = type;
+		this.values = values;
+		this.associates = associates;
+	}
+
+	/**
+	 * @param managedInstance
+	 *            the managed instance to dehydrate
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheInstance(ManagedInstance<?> managedInstance) {
+		super();
+
+		this.type = managedInstance.getType();
+
+		final Object instance = managedInstance.getInstance();
+
+		final BasicMappingImpl<?, ?>[] basicMappings = this.type.getBasicMappings();
+		this.values = new Object[basicMappings.length];
+
+		for (int i = 0; i < basicMappings.length; i++) {
+			// lazy attributes are not cached, they are loaded on first access, nor are the streams that cannot be shared by the instances
+			if (CacheInstance.isCached(basicMappings[i])) {
+				this.values[i] = CacheInstance.copy(basicMappings[i].get(instance));
+			}
+		}
+
+		final SingularAssociationMappingImpl<?, ?>[] associations = this.type.getAssociationsSingular();
+		this.associates = new Object[associations.length];
+
+		for (int i = 0; i < associations.length; i++) {
+			final SingularAssociationMappingImpl<?, ?> mapping = associations[i];
+			if (mapping.getForeignKey() == null) {
+				continue;
+			}
+
+			final Object associate = mapping.get(instance);
+			if (associate != null) {
+				final ManagedId<?> associateId = mapping.getType().getId(associate);
+
+				this.associates[i] = associateId != null ? associateId.getId() : null;
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of the value if the value is mutable.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the copy of the value or the value itself if it is immutable
+	 * 
+	 * @since 2.0.0
+	 */
+	static Object copy(Object value) {
+		if (value instanceof Date) {
+			return ((Date) value).clone();
+		}
+
+		if (value instanceof Calendar) {
+			return ((Calendar) value).clone();
+		}
+
+		if (value instanceof byte[]) {
+			return ((byte[]) value).clone();
+		}
+
+		if (value instanceof char[]) {
+			return ((char[]) value).clone();
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns the ids of the associates.
+	 * 
+	 * @return the ids of the associates
+	 * 
+	 * @since 2.0.0
+	 */
+	Object[] getAssociates() {
+		return this.associates;
+	}
+
+	/**
+	 * Returns the type of the entity.
+	 * 
+	 * @return the type of the entity
+	 * 
+	 * @since 2.0.0
+	 */
+	public EntityTypeImpl<?> getType() {
+		return this.type;
+	}
+
+	/**
+	 * Returns the values of the basic mappings.
+	 * 
+	 * @return the values of the basic mappings
+	 * 
+	 * @since 2.0.0
+	 */
+	Object[] getValues() {
+		return this.values;
+	}
+
+	/**
+	 * Hydrates the managed instance from the cached state.
+	 * <p>
+	 * The instance is marked as loading from cache so that it is not put back to the cache once the load is complete.
+	 * 
+	 * @param session
+	 *            the session
+	 * @param managedInstance
+	 *            the managed instance to hydrate
+	 * 
+	 * @since 2.0.0
+	 */
+	public void hydrate(SessionImpl session, ManagedInstance<?> managedInstance) {
+		managedInstance.setLoading(true);
+		managedInstance.setLoadingFromCache(true);
+
+		final Object instance = managedInstance.getInstance();
+
+		final BasicMappingImpl<?, ?>[] basicMappings = this.type.getBasicMappings();
+		for (int i = 0; i < basicMappings.length; i++) {
+			if (CacheInstance.isCached(basicMappings[i])) {
+				basicMappings[i].set(instance, CacheInstance.copy(this.values[i]));
+			}
+		}
+
+		managedInstance.setLazyGroupsPending();
+
+		final EntityManagerImpl entityManager = session.getEntityManager();
+
+		final SingularAssociationMappingImpl<?, ?>[] associations = this.type.getAssociationsSingular();
+		for (int i = 0; i < associations.length; i++) {
+			if (this.associates[i] != null) {
+				final SingularAssociationMappingImpl<?, ?> mapping = associations[i];
+
+				final Object reference = entityManager.getReference(mapping.getType().getJavaType(), this.associates[i]);
+				mapping.set(instance, reference);
+
+				managedInstance.setJoinLoaded(mapping);
+			}
+		}
+	}
+
+	/**
+	 * Returns if the value of the mapping is part of the cached state.
+	 * 
+	 * @param mapping
+	 *            the basic mapping
+	 * @return true if the value of the mapping is cached, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	static boolean isCached(BasicMappingImpl<?, ?> mapping) {
+		return !mapping.getAttribute().isLazy() && !mapping.getAttribute().isStream();
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The statistics of the second level cache.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class CacheStats {
+
+	private final String name;
+
+	private final AtomicLong puts = new AtomicLong();
+	private final AtomicLong evicts = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	CacheStats() {
+		this("Global");
+	}
+
+	/**
+	 * @param name
+	 *            the name of the cache region
+	 * 
+	 * @since 2.0.0
+	 */
+	CacheStats(String name) {
+		super();
+
+		this.name = name;
+	}
+
+	/**
+	 * Records the number of entries evicted.
+	 * 
+	 * @param count
+	 *            the number of entries evicted
+	 * 
+	 * @since 2.0.0
+	 */
+	void evict(int count) {
+		this.evicts.addAndGet(count);
+	}
+
+	/**
+	 * Returns the number of entries evicted.
+	 * 
+	 * @return the number of entries evicted
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getEvicts() {
+		return this.evicts.get();
+	}
+
+	/**
+	 * Returns the number of lookups served by the cache.
+	 * 
+	 * @return the number of lookups served by the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups the cache could not serve.
+	 * 
+	 * @return the number of lookups the cache could not serve
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Returns the number of entries put into the cache.
+	 * 
+	 * @return the number of entries put into the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getPuts() {
+		return this.puts.get();
+	}
+
+	/**
+	 * Records a lookup served by the cache.
+	 * 
+	 * @since 2.0.0
+	 */
+	void hit() {
+		this.hits.incrementAndGet();
+	}
+
+	/**
+	 * Records a lookup the cache could not serve.
+	 * 
+	 * @since 2.0.0
+	 */
+	void miss() {
+		this.misses.incrementAndGet();
+	}
+
+	/**
+	 * Records an entry put into the cache.
+	 * 
+	 * @since 2.0.0
+	 */
+	void put() {
+		this.puts.incrementAndGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String toString() {
+		return this.name + " | puts:" + this.puts.get() + " evicts:" + this.evicts.get() + " hits:" + this.hits.get() + ", misses:" + this.misses.get();
+	}
+}
@@ -0,0 +1,661 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.batoo.jpa.core.impl.instance.ManagedId;
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * The off-heap tier of the entity cache.
+ * <p>
+ * The encoded states of the instances are kept in the direct memory that is allocated as slabs of fixed size blocks. The state of an
+ * instance occupies as many blocks as it requires, chained through the header of the blocks, and the free blocks are chained the same way.
+ * The first block of an instance starts with the type, the length and the encoded id of the instance.
+ * <p>
+ * The store is split into segments that are locked independently, each with its own blocks and index. The index is an open addressed
+ * table in the direct memory that maps the hash of the id to the first block of the instance, so no object is kept on the heap per
+ * instance. The instances of a segment are evicted with the clock algorithm to make space for the new ones of the segment, the instances
+ * accessed since the clock hand last passed are given a second chance.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class OffHeapStore {
+
+	private static class Segment {
+
+		private final ByteBuffer[] slabs;
+		private final int blockCount;
+		private int freeHead;
+		private int freeCount;
+
+		private final ByteBuffer index;
+		private final int mask;
+		private final int maxSize;
+		private int size;
+		private int hand;
+
+		public Segment(int blockCount) {
+			super();
+
+			this.blockCount = blockCount;
+
+			this.slabs = new ByteBuffer[((blockCount + OffHeapStore.BLOCKS_PER_SLAB) - 1) / OffHeapStore.BLOCKS_PER_SLAB];
+			for (int i = 0; i < this.slabs.length; i++) {
+				final int blocks = Math.min(OffHeapStore.BLOCKS_PER_SLAB, blockCount - (i * OffHeapStore.BLOCKS_PER_SLAB));
+
+				this.slabs[i] = ByteBuffer.allocateDirect(blocks * OffHeapStore.BLOCK_SIZE);
+			}
+
+			// an instance occupies at least one block, the index is kept at most three quarters full
+			int slots = 2;
+			while (slots < blockCount) {
+				slots *= 2;
+			}
+
+			this.index = ByteBuffer.allocateDirect(slots * OffHeapStore.SLOT_SIZE);
+			this.mask = slots - 1;
+			this.maxSize = (slots / 4) * 3;
+
+			this.clear();
+		}
+
+		private void clear() {
+			// free blocks are allocated from the lowest index
+			for (int i = 0; i < this.blockCount; i++) {
+				this.setNext(i, (i + 1) < this.blockCount ? i + 1 : OffHeapStore.NIL);
+			}
+
+			this.freeHead = this.blockCount > 0 ? 0 : OffHeapStore.NIL;
+			this.freeCount = this.blockCount;
+
+			for (int slot = 0; slot <= this.mask; slot++) {
+				this.setSlot(slot, 0, OffHeapStore.NIL);
+			}
+
+			this.size = 0;
+			this.hand = 0;
+		}
+
+		private int evict() {
+			int evicted = 0;
+
+			// the clock hand clears the reference bit of the instances accessed since it last passed and evicts the first one not accessed
+			while (true) {
+				final int head = this.head(this.hand);
+				if (head != OffHeapStore.NIL) {
+					final int hash = this.index.getInt(this.hand * OffHeapStore.SLOT_SIZE);
+					if ((hash & OffHeapStore.REFERENCED) == 0) {
+						// the slot is refilled by the instances shifted back, so the hand stays
+						this.remove(this.hand);
+
+						return evicted + 1;
+					}
+
+					this.index.putInt(this.hand * OffHeapStore.SLOT_SIZE, hash & ~OffHeapStore.REFERENCED);
+				}
+
+				this.hand = (this.hand + 1) & this.mask;
+			}
+		}
+
+		private int find(int hash, int rootType, byte[] key) {
+			int slot = hash & this.mask;
+
+			while (true) {
+				final int head = this.head(slot);
+				if (head == OffHeapStore.NIL) {
+					return OffHeapStore.NIL;
+				}
+
+				if ((this.hash(slot) == hash) && this.matches(head, rootType, key)) {
+					return slot;
+				}
+
+				slot = (slot + 1) & this.mask;
+			}
+		}
+
+		private int hash(int slot) {
+			return this.index.getInt(slot * OffHeapStore.SLOT_SIZE) & ~OffHeapStore.REFERENCED;
+		}
+
+		private int head(int slot) {
+			return this.index.getInt((slot * OffHeapStore.SLOT_SIZE) + 4);
+		}
+
+		private int header(int head, int field) {
+			return this.slab(head).getInt(this.offset(head) + OffHeapStore.BLOCK_HEADER + field);
+		}
+
+		private void insert(int hash, int head) {
+			int slot = hash & this.mask;
+			while (this.head(slot) != OffHeapStore.NIL) {
+				slot = (slot + 1) & this.mask;
+			}
+
+			this.setSlot(slot, hash | OffHeapStore.REFERENCED, head);
+
+			this.size++;
+		}
+
+		private boolean matches(int head, int rootType, byte[] key) {
+			if ((this.header(head, OffHeapStore.ROOT_TYPE) != rootType) || (this.header(head, OffHeapStore.KEY_LENGTH) != key.length)) {
+				return false;
+			}
+
+			final byte[] storedKey = new byte[key.length];
+			this.read(head, OffHeapStore.ENTRY_HEADER, storedKey);
+
+			return Arrays.equals(key, storedKey);
+		}
+
+		private int next(int block) {
+			return this.slab(block).getInt(this.offset(block));
+		}
+
+		private int offset(int block) {
+			return (block % OffHeapStore.BLOCKS_PER_SLAB) * OffHeapStore.BLOCK_SIZE;
+		}
+
+		private byte[] read(int head) {
+			final byte[] data = new byte[this.header(head, OffHeapStore.DATA_LENGTH)];
+
+			this.read(head, OffHeapStore.ENTRY_HEADER + this.header(head, OffHeapStore.KEY_LENGTH), data);
+
+			return data;
+		}
+
+		private void read(int head, int start, byte[] data) {
+			int block = head;
+
+			// skip the blocks before the start
+			int skip = start;
+			while (skip >= OffHeapStore.BLOCK_PAYLOAD) {
+				block = this.next(block);
+				skip -= OffHeapStore.BLOCK_PAYLOAD;
+			}
+
+			int offset = 0;
+			while (offset < data.length) {
+				final ByteBuffer slab = this.slab(block);
+				final int length = Math.min(OffHeapStore.BLOCK_PAYLOAD - skip, data.length - offset);
+
+				slab.position(this.offset(block) + OffHeapStore.BLOCK_HEADER + skip);
+				slab.get(data, offset, length);
+
+				offset += length;
+				skip = 0;
+				block = this.next(block);
+			}
+		}
+
+		private void reference(int slot) {
+			final int position = slot * OffHeapStore.SLOT_SIZE;
+
+			this.index.putInt(position, this.index.getInt(position) | OffHeapStore.REFERENCED);
+		}
+
+		private void release(int head) {
+			final int count = OffHeapStore.blocksOf(this.header(head, OffHeapStore.KEY_LENGTH), this.header(head, OffHeapStore.DATA_LENGTH));
+
+			// splice the chain of the entry in front of the free blocks
+			int tail = head;
+			for (int i = 1; i < count; i++) {
+				tail = this.next(tail);
+			}
+
+			this.setNext(tail, this.freeHead);
+
+			this.freeHead = head;
+			this.freeCount += count;
+		}
+
+		private void remove(int slot) {
+			this.release(this.head(slot));
+
+			this.size--;
+
+			// shift back the instances that follow the slot and would otherwise become unreachable
+			int empty = slot;
+			int next = (slot + 1) & this.mask;
+			while (this.head(next) != OffHeapStore.NIL) {
+				final int home = this.hash(next) & this.mask;
+
+				final boolean movable = empty <= next ? (home <= empty) || (home > next) : (home <= empty) && (home > next);
+				if (movable) {
+					this.setSlot(empty, this.index.getInt(next * OffHeapStore.SLOT_SIZE), this.head(next));
+
+					empty = next;
+				}
+
+				next = (next + 1) & this.mask;
+			}
+
+			this.setSlot(empty, 0, OffHeapStore.NIL);
+		}
+
+		private void setNext(int block, int next) {
+			this.slab(block).putInt(this.offset(block), next);
+		}
+
+		private void setSlot(int slot, int hash, int head) {
+			final int position = slot * OffHeapStore.SLOT_SIZE;
+
+			this.index.putInt(position, hash);
+			this.index.putInt(position + 4, head);
+		}
+
+		private ByteBuffer slab(int block) {
+			return this.slabs[block / OffHeapStore.BLOCKS_PER_SLAB];
+		}
+
+		private int write(int type, int rootType, byte[] key, byte[] data, int count) {
+			final ByteBuffer entry = ByteBuffer.allocate(OffHeapStore.ENTRY_HEADER + key.length + data.length);
+
+			entry.putInt(type);
+			entry.putInt(rootType);
+			entry.putInt(key.length);
+			entry.putInt(data.length);
+			entry.put(key);
+			entry.put(data);
+
+			final byte[] bytes = entry.array();
+
+			final int head = this.freeHead;
+
+			int block = head;
+			int offset = 0;
+			for (int i = 0; i < count; i++) {
+				final ByteBuffer slab = this.slab(block);
+				final int length = Math.min(OffHeapStore.BLOCK_PAYLOAD, bytes.length - offset);
+
+				slab.position(this.offset(block) + OffHeapStore.BLOCK_HEADER);
+				slab.put(bytes, offset, length);
+
+				offset += length;
+
+				if (i < (count - 1)) {
+					block = this.next(block);
+				}
+			}
+
+			// detach the chain of the entry from the free blocks
+			this.freeHead = this.next(block);
+			this.freeCount -= count;
+
+			this.setNext(block, OffHeapStore.NIL);
+
+			return head;
+		}
+	}
+
+	private static final int NIL = -1;
+
+	private static final int BLOCK_SIZE = 128;
+	private static final int BLOCK_HEADER = 4;
+	private static final int BLOCK_PAYLOAD = OffHeapStore.BLOCK_SIZE - OffHeapStore.BLOCK_HEADER;
+	private static final int SLAB_SIZE = 64 * 1024 * 1024;
+	private static final int BLOCKS_PER_SLAB = OffHeapStore.SLAB_SIZE / OffHeapStore.BLOCK_SIZE;
+
+	// the entry header: type, root type, key length and data length
+	private static final int TYPE = 0;
+	private static final int ROOT_TYPE = 4;
+	private static final int KEY_LENGTH = 8;
+	private static final int DATA_LENGTH = 12;
+	private static final int ENTRY_HEADER = 16;
+
+	// the index slot: the hash with the reference bit and the head block
+	private static final int SLOT_SIZE = 8;
+	private static final int REFERENCED = 0x80000000;
+
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_SIZE = 256 * 1024;
+
+	private static int blocksOf(int keyLength, int dataLength) {
+		return ((OffHeapStore.ENTRY_HEADER + keyLength + dataLength + OffHeapStore.BLOCK_PAYLOAD) - 1) / OffHeapStore.BLOCK_PAYLOAD;
+	}
+
+	private static int hash(ManagedId<?> id) {
+		// hash with the root type as the ids of the subtypes are the ids of the root type
+		final int h = (31 * id.getId().hashCode()) + id.getType().getRootType().getName().hashCode();
+
+		// the top bit of the hash is the reference bit of the slot
+		return (h ^ (h >>> 16)) & ~OffHeapStore.REFERENCED;
+	}
+
+	private final CacheStats stats;
+
+	private final Segment[] segments;
+
+	private final ConcurrentMap<EntityTypeImpl<?>, CacheCodec> codecs = Maps.newConcurrentMap();
+
+	private final ConcurrentMap<EntityTypeImpl<?>, Integer> typeIndexes = Maps.newConcurrentMap();
+	private final List<EntityTypeImpl<?>> types = Lists.newArrayList();
+
+	/**
+	 * @param capacity
+	 *            the capacity in bytes
+	 * @param stats
+	 *            the statistics to record the evictions
+	 * 
+	 * @since 2.0.0
+	 */
+	public OffHeapStore(long capacity, CacheStats stats) {
+		super();
+
+		this.stats = stats;
+
+		// split the capacity into as many segments as possible without making the segments too small
+		int segmentCount = 1;
+		while ((segmentCount < OffHeapStore.MAX_SEGMENTS) && ((capacity / (segmentCount * 2)) >= OffHeapStore.MIN_SEGMENT_SIZE)) {
+			segmentCount *= 2;
+		}
+
+		// the index of the segment must fit into a single buffer
+		final long maxBlockCount = Integer.MAX_VALUE / OffHeapStore.SLOT_SIZE / 2;
+		final int blockCount = (int) Math.min(capacity / segmentCount / OffHeapStore.BLOCK_SIZE, maxBlockCount);
+
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment(blockCount);
+		}
+	}
+
+	private CacheCodec getCodec(EntityTypeImpl<?> type) {
+		CacheCodec codec = this.codecs.get(type);
+		if (codec == null) {
+			codec = new CacheCodec(type);
+
+			final CacheCodec existing = this.codecs.putIfAbsent(type, codec);
+			if (existing != null) {
+				codec = existing;
+			}
+		}
+
+		return codec;
+	}
+
+	/**
+	 * Returns the state of the instance.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @return the state of the instance or <code>null</code> if the store does not have the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheInstance get(ManagedId<?> id) {
+		final byte[] key = this.getKey(id);
+		if (key == null) {
+			return null;
+		}
+
+		final int hash = OffHeapStore.hash(id);
+		final int rootType = this.getTypeIndex(id.getType().getRootType());
+		final Segment segment = this.getSegment(hash);
+
+		final EntityTypeImpl<?> type;
+		final byte[] data;
+
+		synchronized (segment) {
+			final int slot = segment.find(hash, rootType, key);
+			if (slot == OffHeapStore.NIL) {
+				return null;
+			}
+
+			segment.reference(slot);
+
+			final int head = segment.head(slot);
+
+			type = this.getType(segment.header(head, OffHeapStore.TYPE));
+			data = segment.read(head);
+		}
+
+		return this.getCodec(type).decode(data);
+	}
+
+	private byte[] getKey(ManagedId<?> id) {
+		return this.getCodec(id.getType().getRootType()).encodeId(id.getId());
+	}
+
+	private Segment getSegment(int hash) {
+		return this.segments[(hash >>> 16) & (this.segments.length - 1)];
+	}
+
+	private synchronized EntityTypeImpl<?> getType(int typeIndex) {
+		return this.types.get(typeIndex);
+	}
+
+	/**
+	 * Returns the type of the instance.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @return the type of the instance or <code>null</code> if the store does not have the instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public EntityTypeImpl<?> getType(ManagedId<?> id) {
+		final byte[] key = this.getKey(id);
+		if (key == null) {
+			return null;
+		}
+
+		final int hash = OffHeapStore.hash(id);
+		final int rootType = this.getTypeIndex(id.getType().getRootType());
+		final Segment segment = this.getSegment(hash);
+
+		final int type;
+		synchronized (segment) {
+			final int slot = segment.find(hash, rootType, key);
+			if (slot == OffHeapStore.NIL) {
+				return null;
+			}
+
+			type = segment.header(segment.head(slot), OffHeapStore.TYPE);
+		}
+
+		return this.getType(type);
+	}
+
+	private int getTypeIndex(EntityTypeImpl<?> type) {
+		final Integer typeIndex = this.typeIndexes.get(type);
+		if (typeIndex != null) {
+			return typeIndex;
+		}
+
+		// the types are registered once and never removed, so the registry is bounded by the metamodel
+		synchronized (this) {
+			final Integer existing = this.typeIndexes.get(type);
+			if (existing != null) {
+				return existing;
+			}
+
+			this.types.add(type);
+			this.typeIndexes.put(type, this.types.size() - 1);
+
+			return this.types.size() - 1;
+		}
+	}
+
+	/**
+	 * Puts the state of the instance into the store, evicting the instances of the segment not accessed recently if necessary.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @param cacheInstance
+	 *            the state of the instance
+	 * @return true if the state is put, false if the state or the id cannot be encoded or the state is larger than a segment of the store
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean put(ManagedId<?> id, CacheInstance cacheInstance) {
+		final byte[] key = this.getKey(id);
+		if (key == null) {
+			return false;
+		}
+
+		final byte[] data = this.getCodec(cacheInstance.getType()).encode(cacheInstance);
+		if (data == null) {
+			return false;
+		}
+
+		final int hash = OffHeapStore.hash(id);
+		final int type = this.getTypeIndex(cacheInstance.getType());
+		final int rootType = this.getTypeIndex(id.getType().getRootType());
+		final Segment segment = this.getSegment(hash);
+
+		final int blockCount = OffHeapStore.blocksOf(key.length, data.length);
+		if (blockCount > segment.blockCount) {
+			return false;
+		}
+
+		synchronized (segment) {
+			final int slot = segment.find(hash, rootType, key);
+			if (slot != OffHeapStore.NIL) {
+				segment.remove(slot);
+			}
+
+			int evicted = 0;
+			while ((segment.freeCount < blockCount) || (segment.size >= segment.maxSize)) {
+				evicted += segment.evict();
+			}
+
+			this.stats.evict(evicted);
+
+			segment.insert(hash, segment.write(type, rootType, key, data, blockCount));
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes the instance from the store.
+	 * 
+	 * @param id
+	 *            the id of the instance
+	 * @return true if the store had the instance, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean remove(ManagedId<?> id) {
+		final byte[] key = this.getKey(id);
+		if (key == null) {
+			return false;
+		}
+
+		final int hash = OffHeapStore.hash(id);
+		final int rootType = this.getTypeIndex(id.getType().getRootType());
+		final Segment segment = this.getSegment(hash);
+
+		synchronized (segment) {
+			final int slot = segment.find(hash, rootType, key);
+			if (slot == OffHeapStore.NIL) {
+				return false;
+			}
+
+			segment.remove(slot);
+
+			return true;
+		}
+	}
+
+	/**
+	 * Removes all the instances from the store.
+	 * 
+	 * @return the number of instances removed
+	 * 
+	 * @since 2.0.0
+	 */
+	public int removeAll() {
+		int removed = 0;
+
+		for (final Segment segment : this.segments) {
+			synchronized (segment) {
+				removed += segment.size;
+
+				segment.clear();
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Removes the instances of the type and its subtypes from the store.
+	 * 
+	 * @param type
+	 *            the type
+	 * @return the number of instances removed
+	 * 
+	 * @since 2.0.0
+	 */
+	public int removeAll(EntityTypeImpl<?> type) {
+		int removed = 0;
+
+		for (final Segment segment : this.segments) {
+			synchronized (segment) {
+				int slot = 0;
+				while (slot <= segment.mask) {
+					final int head = segment.head(slot);
+
+					// the slot is refilled by the instances shifted back, so it is checked again
+					if ((head != OffHeapStore.NIL) && this.getType(segment.header(head, OffHeapStore.TYPE)).extendz(type)) {
+						segment.remove(slot);
+
+						removed++;
+					}
+					else {
+						slot++;
+					}
+				}
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Returns the number of instances in the store.
+	 * 
+	 * @return the number of instances in the store
+	 * 
+	 * @since 2.0.0
+	 */
+	public int size() {
+		int size = 0;
+
+		for (final Segment segment : this.segments) {
+			synchronized (segment) {
+				size += segment.size;
+			}
+		}
+
+		return size;
+	}
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * The cache of the query results.
+ * <p>
+ * The results are keyed by the SQL and the parameters of the query, including the pagination. Each table carries the timestamp of its
+ * last modification and a result is valid only if none of the tables the query reads has been modified since the query is executed. The
+ * results that read the modified tables are evicted as the tables are modified.
+ * <p>
+ * Both the results and the timestamps are bounded, the least recently used ones are evicted once the bound is reached. The tables whose
+ * timestamps are evicted are deemed modified at the latest timestamp evicted.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class QueryCache {
+
+	private static class QueryKey {
+
+		private final String sql;
+		private final Object[] parameters;
+		private final int h;
+
+		public QueryKey(String sql, Object[] parameters) {
+			super();
+
+			this.sql = sql;
+			this.parameters = parameters;
+
+			this.h = (31 * sql.hashCode()) + Arrays.deepHashCode(parameters);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof QueryKey)) {
+				return false;
+			}
+
+			final QueryKey other = (QueryKey) obj;
+
+			return this.sql.equals(other.sql) && Arrays.deepEquals(this.parameters, other.parameters);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.h;
+		}
+	}
+
+	private static class QueryResult {
+
+		private final long timestamp;
+		private final String[] tables;
+		private final Object[] contents;
+
+		public QueryResult(long timestamp, String[] tables, Object[] contents) {
+			super();
+
+			this.timestamp = timestamp;
+			this.tables = tables;
+			this.contents = contents;
+		}
+	}
+
+	/**
+	 * Returns the copy of the parameters to be used as the key of the query.
+	 * 
+	 * @param parameters
+	 *            the parameters of the query
+	 * @return the copy of the parameters
+	 * 
+	 * @since 2.0.0
+	 */
+	private static Object[] copyParameters(Object[] parameters) {
+		final Object[] copy = new Object[parameters.length];
+
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i] instanceof Collection) {
+				copy[i] = Lists.newArrayList((Collection<?>) parameters[i]);
+			}
+			else {
+				copy[i] = CacheInstance.copy(parameters[i]);
+			}
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Returns the names of the tables that may be referred by the SQL.
+	 * <p>
+	 * The names are the upper case identifiers in the SQL, which is a superset of the tables referred.
+	 * 
+	 * @param sql
+	 *            the SQL
+	 * @return the set of table names
+	 * 
+	 * @since 2.0.0
+	 */
+	public static Set<String> getTables(String sql) {
+		final Set<String> tables = Sets.newHashSet();
+
+		int start = -1;
+		for (int i = 0; i <= sql.length(); i++) {
+			final char c = i < sql.length() ? sql.charAt(i) : ' ';
+
+			if (Character.isLetterOrDigit(c) || (c == '_') || (c == '$')) {
+				if (start == -1) {
+					start = i;
+				}
+			}
+			else if (start != -1) {
+				tables.add(sql.substring(start, i).toUpperCase());
+
+				start = -1;
+			}
+		}
+
+		return tables;
+	}
+
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicLong floor = new AtomicLong();
+	private final CacheStats stats = new CacheStats("Query");
+
+	private final ConcurrentMap<QueryKey, QueryResult> results;
+	private final ConcurrentMap<String, Long> timestamps;
+
+	/**
+	 * @param maxSize
+	 *            the max number of query results and table timestamps kept
+	 * 
+	 * @since 2.0.0
+	 */
+	public QueryCache(int maxSize) {
+		super();
+
+		this.results = CacheBuilder.newBuilder().maximumSize(maxSize).removalListener(new RemovalListener<QueryKey, QueryResult>() {
+
+			@Override
+			public void onRemoval(RemovalNotification<QueryKey, QueryResult> notification) {
+				if (notification.wasEvicted()) {
+					QueryCache.this.stats.evict(1);
+				}
+			}
+		}).<QueryKey, QueryResult> build().asMap();
+
+		this.timestamps = CacheBuilder.newBuilder().maximumSize(maxSize).removalListener(new RemovalListener<String, Long>() {
+
+			@Override
+			public void onRemoval(RemovalNotification<String, Long> notification) {
+				if (notification.wasEvicted()) {
+					QueryCache.this.raiseFloor(notification.getValue());
+				}
+			}
+		}).<String, Long> build().asMap();
+	}
+
+	/**
+	 * Evicts all the query results.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evictAll() {
+		int evicted = 0;
+
+		final Iterator<QueryKey> i = this.results.keySet().iterator();
+		while (i.hasNext()) {
+			i.next();
+			i.remove();
+
+			evicted++;
+		}
+
+		this.stats.evict(evicted);
+	}
+
+	/**
+	 * Returns the cached results of the query.
+	 * 
+	 * @param sql
+	 *            the SQL of the query
+	 * @param parameters
+	 *            the parameters of the query
+	 * @return the results of the query or <code>null</code> if the cache does not have valid results for the query
+	 * 
+	 * @since 2.0.0
+	 */
+	public Object[] get(String sql, Object[] parameters) {
+		final QueryKey key = new QueryKey(sql, QueryCache.copyParameters(parameters));
+		final QueryResult result = this.results.get(key);
+
+		if (result == null) {
+			this.stats.miss();
+
+			return null;
+		}
+
+		// the result is stale if any of the tables has been modified since the query is executed
+		if (this.isModified(result.tables, result.timestamp)) {
+			if (this.results.remove(key, result)) {
+				this.stats.evict(1);
+			}
+
+			this.stats.miss();
+
+			return null;
+		}
+
+		this.stats.hit();
+
+		final Object[] copy = new Object[result.contents.length];
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = CacheInstance.copy(result.contents[i]);
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Returns the statistics of the query cache.
+	 * 
+	 * @return the statistics of the query cache
+	 * 
+	 * @since 2.0.0
+	 */
+	public CacheStats getStats() {
+		return this.stats;
+	}
+
+	/**
+	 * Returns the current timestamp of the cache.
+	 * <p>
+	 * The timestamp must be obtained before the query is executed and passed to {@link #put(String, Object[], long, Object[])} along with
+	 * the results of the query.
+	 * 
+	 * @return the current timestamp
+	 * 
+	 * @since 2.0.0
+	 */
+	public long getTimestamp() {
+		return this.clock.get();
+	}
+
+	/**
+	 * Marks the tables as modified, invalidating the results of the queries that read the tables.
+	 * 
+	 * @param tables
+	 *            the names of the tables modified
+	 * 
+	 * @since 2.0.0
+	 */
+	public void invalidate(Collection<String> tables) {
+		if (tables.isEmpty()) {
+			return;
+		}
+
+		final Long timestamp = this.clock.incrementAndGet();
+
+		final Set<String> modified = Sets.newHashSet();
+		for (final String table : tables) {
+			modified.add(table.toUpperCase());
+
+			this.timestamps.put(table.toUpperCase(), timestamp);
+		}
+
+		// evict the results that read the tables
+		int evicted = 0;
+
+		final Iterator<QueryResult> i = this.results.values().iterator();
+		while (i.hasNext()) {
+			for (final String table : i.next().tables) {
+				if (modified.contains(table)) {
+					i.remove();
+
+					evicted++;
+
+					break;
+				}
+			}
+		}
+
+		this.stats.evict(evicted);
+	}
+
+	private boolean isModified(String[] tables, long timestamp) {
+		if (this.floor.get() > timestamp) {
+			return true;
+		}
+
+		for (final String table : tables) {
+			final Long modified = this.timestamps.get(table);
+
+			if ((modified != null) && (modified > timestamp)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Puts the results of the query into the cache.
+	 * 
+	 * @param sql
+	 *            the SQL of the query
+	 * @param parameters
+	 *            the parameters of the query
+	 * @param timestamp
+	 *            the timestamp obtained before the query is executed
+	 * @param contents
+	 *            the results of the query
+	 * 
+	 * @since 2.0.0
+	 */
+	public void put(String sql, Object[] parameters, long timestamp, Object[] contents) {
+		for (int i = 0; i < contents.length; i++) {
+			contents[i] = CacheInstance.copy(contents[i]);
+		}
+
+		final Set<String> tables = QueryCache.getTables(sql);
+		final String[] tableArray = tables.toArray(new String[tables.size()]);
+
+		// the results are already stale if the tables have been modified while the query is executed
+		if (this.isModified(tableArray, timestamp)) {
+			return;
+		}
+
+		this.results.put(new QueryKey(sql, QueryCache.copyParameters(parameters)), new QueryResult(timestamp, tableArray, contents));
+
+		this.stats.put();
+	}
+
+	private void raiseFloor(long timestamp) {
+		long current = this.floor.get();
+		while ((current < timestamp) && !this.floor.compareAndSet(current, timestamp)) {
+			current = this.floor.get();
+		}
+	}
+}
@@ -80,6 +80,7 @@ public abstract class AbstractCriteriaQueryImpl<T> extends BaseQueryImpl<T> impl
 	private PredicateImpl restriction;
 	private PredicateImpl groupRestriction;
 	private boolean distinct;
+	private boolean restricted;
 	private final List<AbstractExpression<?>> groupList = Lists.newArrayList();
 
 	private final List<ParameterExpressionImpl<?>> parameterOrder = Lists.newArrayList();
@@ -171,6 +172,9 @@ public abstract class AbstractCriteriaQueryImpl<T> extends BaseQueryImpl<T> impl
 	@Override
 	public <X> RootImpl<X> from(EntityType<X> entity) {
 		final RootImpl<X> r = new RootImpl<X>((EntityTypeImpl<X>) entity);
+		if (this.internal) {
+			r.getFetchRoot().internal();
+		}
 
 		this.roots.add(r);
 
@@ -270,6 +274,7 @@ public abstract class AbstractCriteriaQueryImpl<T> extends BaseQueryImpl<T> impl
 		}
 
 		final String where = this.generateSqlRestriction();
+		this.restricted = StringUtils.isNotBlank(where);
 		final String groupBy = this.getGroupList().size() == 0 ? null : Joiner.on(", ").join(
 			Lists.transform(this.getGroupList(), new Function<Expression<?>, String>() {
 
@@ -452,6 +457,10 @@ public abstract class AbstractCriteriaQueryImpl<T> extends BaseQueryImpl<T> impl
 		this.internal = true;
 		this.distinct(true);
 
+		for (final RootImpl<?> root : this.roots) {
+			root.getFetchRoot().internal();
+		}
+
 		return this;
 	}
 
@@ -473,6 +482,17 @@ public abstract class AbstractCriteriaQueryImpl<T> extends BaseQueryImpl<T> impl
 		return this.internal;
 	}
 
+	/**
+	 * Returns if the generated SQL has a top level where clause.
+	 * 
+	 * @return true if the generated SQL has a top level where clause, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isRestricted() {
+		return this.restricted;
+	}
+
 	/**
 	 * Registers the parameter as the nex SQL parameter
 	 * 
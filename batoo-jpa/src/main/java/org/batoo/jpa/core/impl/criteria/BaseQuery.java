@@ -157,6 +157,17 @@ public interface BaseQuery<T> {
 	 */
 	String getSql();
 
+	/**
+	 * Returns the upper case names of the tables that may be read by the query.
+	 * <p>
+	 * The names are computed once from the SQL of the query, which is a superset of the tables read.
+	 * 
+	 * @return the set of table names
+	 * 
+	 * @since 2.0.0
+	 */
+	Set<String> getTables();
+
 	/**
 	 * Returns the SQL parameters of the query.
 	 * 
@@ -27,6 +27,7 @@ import javax.persistence.criteria.ParameterExpression;
 import javax.persistence.criteria.Selection;
 
 import org.batoo.common.util.FinalWrapper;
+import org.batoo.jpa.core.impl.cache.QueryCache;
 import org.batoo.jpa.core.impl.criteria.expression.AbstractParameterExpressionImpl;
 import org.batoo.jpa.core.impl.criteria.expression.ParameterExpressionImpl;
 import org.batoo.jpa.core.impl.model.MetamodelImpl;
@@ -61,6 +62,7 @@ public abstract class BaseQueryImpl<T> implements BaseQuery<T> {
 
 	private FinalWrapper<String> sql;
 	private FinalWrapper<String> jpql;
+	private FinalWrapper<Set<String>> tables;
 
 	private final List<AbstractParameterExpressionImpl<?>> sqlParameters = Lists.newArrayList();
 
@@ -269,6 +271,27 @@ public abstract class BaseQueryImpl<T> implements BaseQuery<T> {
 		return this.sqlParameters;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Set<String> getTables() {
+		FinalWrapper<Set<String>> wrapper = this.tables;
+
+		if (wrapper == null) {
+			synchronized (this) {
+				if (this.tables == null) {
+					this.tables = new FinalWrapper<Set<String>>(QueryCache.getTables(this.getSql()));
+				}
+
+				wrapper = this.tables;
+			}
+		}
+
+		return wrapper.value;
+	}
+
 	/**
 	 * Returns if the query is a select query.
 	 * 
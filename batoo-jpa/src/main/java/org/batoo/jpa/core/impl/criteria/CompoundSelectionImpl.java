@@ -18,23 +18,29 @@
  */
 package org.batoo.jpa.core.impl.criteria;
 
+import java.lang.reflect.Constructor;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
 import javax.persistence.criteria.CompoundSelection;
 import javax.persistence.criteria.Selection;
 
 import org.batoo.common.reflect.ConstructorAccessor;
 import org.batoo.common.reflect.ReflectHelper;
+import org.batoo.jpa.core.impl.instance.Instantiator;
 import org.batoo.jpa.core.impl.manager.SessionImpl;
 import org.batoo.jpa.parser.MappingException;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * The implementation of {@link CompoundSelection}.
@@ -48,7 +54,9 @@ public class CompoundSelectionImpl<X> extends AbstractSelection<X> implements Co
 
 	private final List<AbstractSelection<?>> selections = Lists.newArrayList();
 	private ConstructorAccessor constructor;
-	private List<String> aliases;
+	private Instantiator instantiator;
+	private Map<String, Integer> aliases;
+	private Map<TupleElement<?>, Integer> elements;
 
 	/**
 	 * @param javaType
@@ -72,7 +80,16 @@ public class CompoundSelectionImpl<X> extends AbstractSelection<X> implements Co
 					parameters[i] = this.selections.get(i).getJavaType();
 				}
 
-				this.constructor = ReflectHelper.createConstructor(javaType.getConstructor(parameters));
+				final Constructor<X> constructor = javaType.getConstructor(parameters);
+
+				this.constructor = ReflectHelper.createConstructor(constructor);
+
+				try {
+					this.instantiator = Instantiator.get(constructor);
+				}
+				catch (final Exception e) {
+					// fall back to the reflective constructor
+				}
 			}
 			catch (final Exception e) {
 				throw new MappingException("Embeddable type does not have a default constructor");
@@ -125,23 +142,46 @@ public class CompoundSelectionImpl<X> extends AbstractSelection<X> implements Co
 	}
 
 	/**
-	 * Returns the alias.
+	 * Returns the map of the aliases to the indexes of the selections.
 	 * 
-	 * @return the alias
+	 * @return the map of the aliases to the indexes of the selections
 	 * 
 	 * @since 2.0.0
 	 */
-	private List<String> getAliases() {
+	private Map<String, Integer> getAliases() {
 		if (this.aliases != null) {
 			return this.aliases;
 		}
 
-		this.aliases = Lists.newArrayList();
-		for (final AbstractSelection<?> selection : this.selections) {
-			this.aliases.add(selection.getAlias());
+		final Map<String, Integer> aliases = Maps.newHashMap();
+		for (int i = this.selections.size() - 1; i >= 0; i--) {
+			final String alias = this.selections.get(i).getAlias();
+			if (alias != null) {
+				aliases.put(alias, i);
+			}
 		}
 
-		return this.aliases;
+		return this.aliases = aliases;
+	}
+
+	/**
+	 * Returns the map of the selections to their indexes.
+	 * 
+	 * @return the map of the selections to their indexes
+	 * 
+	 * @since 2.0.0
+	 */
+	private Map<TupleElement<?>, Integer> getElements() {
+		if (this.elements != null) {
+			return this.elements;
+		}
+
+		final Map<TupleElement<?>, Integer> elements = new IdentityHashMap<TupleElement<?>, Integer>();
+		for (int i = this.selections.size() - 1; i >= 0; i--) {
+			elements.put(this.selections.get(i), i);
+		}
+
+		return this.elements = elements;
 	}
 
 	/**
@@ -167,10 +207,14 @@ public class CompoundSelectionImpl<X> extends AbstractSelection<X> implements Co
 		}
 
 		if (this.getJavaType() == Tuple.class) {
-			return (X) new TupleImpl(this.getAliases(), this.selections, values);
+			return (X) new TupleImpl(this.getAliases(), this.getElements(), this.selections, values);
 		}
 
 		try {
+			if (this.instantiator != null) {
+				return (X) this.instantiator.newInstance(values);
+			}
+
 			return (X) (this.constructor != null ? this.constructor.newInstance(values) : values);
 		}
 		catch (final Exception e) {
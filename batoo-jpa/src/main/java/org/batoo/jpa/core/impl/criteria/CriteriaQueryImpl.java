@@ -45,6 +45,7 @@ import com.google.common.collect.Lists;
 public class CriteriaQueryImpl<T> extends AbstractCriteriaQueryImpl<T> implements CriteriaQuery<T> {
 
 	private final ArrayList<OrderImpl> orderList = Lists.newArrayList();
+	private String[] orderSql;
 
 	/**
 	 * @param metamodel
@@ -119,17 +120,19 @@ public class CriteriaQueryImpl<T> extends AbstractCriteriaQueryImpl<T> implement
 	@Override
 	public String generateSql() {
 		if (this.orderList.size() > 0) {
-			final String orderBy = Joiner.on(", ").join(Lists.transform(this.orderList, new Function<OrderImpl, String>() {
+			final String[] orderSql = new String[this.orderList.size()];
+			final String[] orderBy = new String[this.orderList.size()];
 
-				@Override
-				public String apply(OrderImpl input) {
-					return input.isAscending() ? //
-						input.getExpression().generateSqlSelect(CriteriaQueryImpl.this, false) + " asc" : //
-						input.getExpression().generateSqlSelect(CriteriaQueryImpl.this, false) + " desc";
-				}
-			}));
+			for (int i = 0; i < orderBy.length; i++) {
+				final OrderImpl order = this.orderList.get(i);
+
+				orderSql[i] = order.getExpression().generateSqlSelect(this, false);
+				orderBy[i] = order.isAscending() ? orderSql[i] + " asc" : orderSql[i] + " desc";
+			}
+
+			this.orderSql = orderSql;
 
-			return super.generateSql() + "\nORDER BY\n\t" + orderBy;
+			return super.generateSql() + "\nORDER BY\n\t" + Joiner.on(", ").join(orderBy);
 		}
 
 		return super.generateSql();
@@ -147,6 +150,19 @@ public class CriteriaQueryImpl<T> extends AbstractCriteriaQueryImpl<T> implement
 		return orderList;
 	}
 
+	/**
+	 * Returns the SQL fragments of the order by expressions.
+	 * <p>
+	 * The fragments are available only after the SQL of the query is generated.
+	 * 
+	 * @return the SQL fragments of the order by expressions or null
+	 * 
+	 * @since 2.0.0
+	 */
+	public String[] getOrderSql() {
+		return this.orderSql;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
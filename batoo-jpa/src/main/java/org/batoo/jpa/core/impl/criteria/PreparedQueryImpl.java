@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.criteria;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.criteria.ParameterExpression;
+
+import org.apache.commons.dbutils.DbUtils;
+import org.apache.commons.lang.mutable.MutableInt;
+import org.batoo.common.log.BLogger;
+import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.core.impl.criteria.expression.AbstractParameterExpressionImpl;
+import org.batoo.jpa.core.impl.criteria.expression.EntityConstantExpression;
+import org.batoo.jpa.core.impl.criteria.expression.ParameterExpressionImpl;
+import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
+import org.batoo.jpa.core.impl.model.MetamodelImpl;
+import org.batoo.jpa.jdbc.ParameterBinder;
+
+import com.google.common.collect.Maps;
+
+/**
+ * A reusable handle of a query that keeps its statement open for the lifetime of the entity manager.
+ * <p>
+ * The parameters of the query are resolved once when the handle is prepared and bound by index into a reusable array, so that the handle
+ * can be executed repeatedly in tight loops. DML handles can also add the executions to a JDBC batch.
+ * <p>
+ * The handle executes the SQL of the query as is, so the queries with pagination, lock modes or hints cannot be prepared. The parameters
+ * that expand to lists are not supported.
+ * 
+ * @param <X>
+ *            the type of the results
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class PreparedQueryImpl<X> {
+
+	private static final BLogger LOG = BLoggerFactory.getLogger(PreparedQueryImpl.class);
+
+	private final QueryImpl<X> query;
+	private final BaseQuery<X> q;
+	private final EntityManagerImpl em;
+	private final MetamodelImpl metamodel;
+	private final String sql;
+
+	private final ParameterExpressionImpl<?>[] declared;
+	private final Map<String, Integer> names = Maps.newHashMap();
+	private final int[] positions;
+
+	private final AbstractParameterExpressionImpl<?>[] sqlParameters;
+	private final int[] slots;
+
+	private final Object[] values;
+	private final Object[] parameters;
+	private final MutableInt sqlIndex = new MutableInt(0);
+
+	private boolean pmdBroken;
+	private int[] nullTypes;
+
+	private Connection connection;
+	private PreparedStatement statement;
+	private int batchSize;
+
+	/**
+	 * @param query
+	 *            the query
+	 * @param em
+	 *            the entity manager
+	 * @param pmdBroken
+	 *            if the parameter metadata of the driver is broken
+	 * 
+	 * @since 2.0.0
+	 */
+	public PreparedQueryImpl(QueryImpl<X> query, EntityManagerImpl em, boolean pmdBroken) {
+		super();
+
+		this.query = query;
+		this.q = query.getCriteriaQuery();
+		this.em = em;
+		this.metamodel = em.getMetamodel();
+		this.sql = this.q.getSql();
+		this.pmdBroken = pmdBroken;
+
+		// resolve the declared parameters to their indexes
+		this.declared = new ParameterExpressionImpl<?>[this.q.getParameters().size()];
+
+		int maxPosition = 0;
+		int i = 0;
+		for (final ParameterExpression<?> parameter : this.q.getParameters()) {
+			final ParameterExpressionImpl<?> expression = (ParameterExpressionImpl<?>) parameter;
+
+			if (expression.getAlias() != null) {
+				this.names.put(expression.getAlias(), i);
+			}
+
+			if (expression.getPosition() != null) {
+				maxPosition = Math.max(maxPosition, expression.getPosition());
+			}
+
+			this.declared[i++] = expression;
+		}
+
+		this.positions = new int[maxPosition + 1];
+		Arrays.fill(this.positions, -1);
+		for (i = 0; i < this.declared.length; i++) {
+			if (this.declared[i].getPosition() != null) {
+				this.positions[this.declared[i].getPosition()] = i;
+			}
+		}
+
+		// resolve the SQL parameters to the indexes of the declared parameters
+		final List<AbstractParameterExpressionImpl<?>> sqlParameters = this.q.getSqlParameters();
+
+		this.sqlParameters = sqlParameters.toArray(new AbstractParameterExpressionImpl<?>[sqlParameters.size()]);
+		this.slots = new int[this.sqlParameters.length];
+
+		int parameterCount = 0;
+		for (i = 0; i < this.sqlParameters.length; i++) {
+			this.slots[i] = this.indexOf(this.sqlParameters[i]);
+
+			parameterCount += this.sqlParameters[i].getExpandedCount(this.metamodel);
+		}
+
+		this.values = new Object[this.declared.length];
+		this.parameters = new Object[parameterCount];
+	}
+
+	/**
+	 * Adds the execution of the handle with the current parameters to the batch.
+	 * 
+	 * @return the same handle instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public PreparedQueryImpl<X> addBatch() {
+		this.assertModify();
+
+		// the pending changes are flushed before the batch is started on the connection
+		if (this.batchSize == 0) {
+			this.query.flushIfNecessary(null);
+		}
+
+		try {
+			this.fillStatement().addBatch();
+
+			this.batchSize++;
+
+			return this;
+		}
+		catch (final SQLException e) {
+			throw this.failed(e);
+		}
+	}
+
+	private void assertModify() {
+		if (!(this.q instanceof CriteriaModify)) {
+			throw new IllegalStateException("Not an update or delete query: " + this.q.getJpql());
+		}
+
+		this.em.assertTransaction();
+	}
+
+	private void assertSelect() {
+		if (!(this.q instanceof CriteriaQueryImpl)) {
+			throw new IllegalStateException("Not a select query: " + this.q.getJpql());
+		}
+	}
+
+	/**
+	 * Clears the parameters bound to the handle.
+	 * 
+	 * @return the same handle instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public PreparedQueryImpl<X> clearParameters() {
+		Arrays.fill(this.values, null);
+
+		return this;
+	}
+
+	/**
+	 * Closes the statement of the handle and releases the connection held by the handle.
+	 * <p>
+	 * The handle remains usable and prepares a new statement with the next execution.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void close() {
+		this.closeStatement();
+
+		this.em.removePreparedQuery(this);
+	}
+
+	private void closeStatement() {
+		try {
+			DbUtils.close(this.statement);
+		}
+		catch (final SQLException e) {}
+
+		this.statement = null;
+		this.connection = null;
+		this.batchSize = 0;
+	}
+
+	/**
+	 * Executes the batch of the handle.
+	 * 
+	 * @return the array of update counts of the executions in the batch
+	 * 
+	 * @since 2.0.0
+	 */
+	public int[] executeBatch() {
+		this.assertModify();
+
+		if (this.batchSize == 0) {
+			return new int[0];
+		}
+
+		// the changes made since the batch is started are flushed before the batch is executed
+		this.query.flushIfNecessary(null);
+
+		try {
+			final int[] updated = this.statement.executeBatch();
+
+			this.evictCache();
+
+			return updated;
+		}
+		catch (final SQLException e) {
+			throw this.failed(e);
+		}
+		finally {
+			this.batchSize = 0;
+		}
+	}
+
+	/**
+	 * Executes the update or delete query of the handle with the current parameters.
+	 * 
+	 * @return the number of entities updated or deleted
+	 * 
+	 * @since 2.0.0
+	 */
+	public int executeUpdate() {
+		this.assertModify();
+
+		this.query.flushIfNecessary(null);
+
+		try {
+			final int updated = this.fillStatement().executeUpdate();
+
+			this.evictCache();
+
+			return updated;
+		}
+		catch (final SQLException e) {
+			throw this.failed(e);
+		}
+	}
+
+	private void evictCache() {
+		this.em.markWritten();
+
+		// the cached state of the instances of the type no longer reflects the database
+		this.em.getSession().evictCache(((CriteriaModify<X>) this.q).getRoot().getEntity());
+	}
+
+	private PersistenceException failed(SQLException e) {
+		PreparedQueryImpl.LOG.error(e, "Query failed" + PreparedQueryImpl.LOG.lazyBoxed(this.sql, this.parameters));
+
+		this.em.setRollbackOnly();
+
+		return new PersistenceException("Query failed", e);
+	}
+
+	private PreparedStatement fillStatement() throws SQLException {
+		final Connection connection = this.em.getConnection();
+
+		// prepare the statement once per connection
+		if ((this.statement == null) || (this.connection != connection)) {
+			if (this.batchSize > 0) {
+				throw new IllegalStateException("Connection changed while the batch is pending");
+			}
+
+			this.closeStatement();
+
+			this.statement = connection.prepareStatement(this.sql);
+			this.connection = connection;
+			this.nullTypes = null;
+
+			// keep the connection while the statement is open
+			this.em.addPreparedQuery(this);
+		}
+
+		this.sqlIndex.setValue(0);
+
+		for (int i = 0; i < this.sqlParameters.length; i++) {
+			final AbstractParameterExpressionImpl<?> parameter = this.sqlParameters[i];
+			if (parameter instanceof EntityConstantExpression) {
+				((EntityConstantExpression<?>) parameter).setParameter(this.metamodel, connection, this.parameters, this.sqlIndex);
+			}
+			else {
+				final Object value = this.slots[i] != -1 ? this.values[this.slots[i]] : null;
+
+				((ParameterExpressionImpl<?>) parameter).setParameter(this.metamodel, connection, this.parameters, this.sqlIndex, value);
+			}
+		}
+
+		for (int i = 0; i < this.parameters.length; i++) {
+			if (this.parameters[i] != null) {
+				ParameterBinder.forValue(this.parameters[i]).bind(this.statement, i + 1, this.parameters[i]);
+			}
+			else {
+				this.statement.setNull(i + 1, this.getNullType(i));
+			}
+		}
+
+		return this.statement;
+	}
+
+	/**
+	 * Returns the SQL type to bind the null values to the parameter.
+	 * <p>
+	 * VARCHAR works with many drivers regardless of the actual column type, the types resolved from the parameter metadata are retained
+	 * for the lifetime of the statement.
+	 */
+	private int getNullType(int index) {
+		if (this.nullTypes == null) {
+			this.nullTypes = new int[this.parameters.length];
+			Arrays.fill(this.nullTypes, Types.NULL);
+		}
+
+		if (this.nullTypes[index] == Types.NULL) {
+			int sqlType = Types.VARCHAR;
+			if (!this.pmdBroken) {
+				try {
+					final ParameterMetaData pmd = this.statement.getParameterMetaData();
+
+					sqlType = pmd.getParameterType(index + 1);
+				}
+				catch (final SQLException e) {
+					this.pmdBroken = true;
+				}
+			}
+
+			this.nullTypes[index] = sqlType;
+		}
+
+		return this.nullTypes[index];
+	}
+
+	/**
+	 * Returns the index of the parameter to bind with the position.
+	 * 
+	 * @param position
+	 *            the position of the parameter
+	 * @return the index of the parameter
+	 * @throws IllegalArgumentException
+	 *             thrown if the query does not have a parameter with the position
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getParameterIndex(int position) {
+		if ((position < 0) || (position >= this.positions.length) || (this.positions[position] == -1)) {
+			throw new IllegalArgumentException("Query does not have parameter number " + position);
+		}
+
+		return this.positions[position];
+	}
+
+	/**
+	 * Returns the index of the parameter to bind with the name.
+	 * 
+	 * @param name
+	 *            the name of the parameter
+	 * @return the index of the parameter
+	 * @throws IllegalArgumentException
+	 *             thrown if the query does not have a parameter with the name
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getParameterIndex(String name) {
+		final Integer index = this.names.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("Parameter with the name " + name + " does not exist");
+		}
+
+		return index;
+	}
+
+	/**
+	 * Returns the query of the handle.
+	 * 
+	 * @return the query of the handle
+	 * 
+	 * @since 2.0.0
+	 */
+	public QueryImpl<X> getQuery() {
+		return this.query;
+	}
+
+	/**
+	 * Executes the select query of the handle with the current parameters.
+	 * 
+	 * @return the list of results
+	 * 
+	 * @since 2.0.0
+	 */
+	public List<X> getResultList() {
+		this.assertSelect();
+
+		this.query.flushIfNecessary(this.q.getTables());
+
+		try {
+			return this.query.executePrepared(this.fillStatement(), this.parameters);
+		}
+		catch (final SQLException e) {
+			throw this.failed(e);
+		}
+		finally {
+			this.em.closeConnectionIfNecessary();
+		}
+	}
+
+	private int indexOf(AbstractParameterExpressionImpl<?> parameter) {
+		for (int i = 0; i < this.declared.length; i++) {
+			if (this.declared[i] == parameter) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Binds the value to the parameter with the index.
+	 * 
+	 * @param index
+	 *            the index of the parameter as returned by {@link #getParameterIndex(String)} or {@link #getParameterIndex(int)}
+	 * @param value
+	 *            the value to bind
+	 * @return the same handle instance
+	 * @throws IllegalArgumentException
+	 *             thrown if the value expands to a list
+	 * 
+	 * @since 2.0.0
+	 */
+	public PreparedQueryImpl<X> setParameter(int index, Object value) {
+		if ((value instanceof Collection) || (value instanceof Object[])) {
+			throw new IllegalArgumentException("Prepared queries do not support list parameters: " + this.declared[index]);
+		}
+
+		this.values[index] = value;
+
+		return this;
+	}
+
+	/**
+	 * Binds the value to the parameter with the name.
+	 * <p>
+	 * The name is resolved with each bind, in tight loops resolve the index once with {@link #getParameterIndex(String)} and use
+	 * {@link #setParameter(int, Object)} instead.
+	 * 
+	 * @param name
+	 *            the name of the parameter
+	 * @param value
+	 *            the value to bind
+	 * @return the same handle instance
+	 * @throws IllegalArgumentException
+	 *             thrown if the query does not have a parameter with the name or the value expands to a list
+	 * 
+	 * @since 2.0.0
+	 */
+	public PreparedQueryImpl<X> setParameter(String name, Object value) {
+		return this.setParameter(this.getParameterIndex(name), value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String toString() {
+		return "PreparedQueryImpl [sql=" + this.sql + "]";
+	}
+}
@@ -25,8 +25,10 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +44,7 @@ import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.Order;
 import javax.persistence.criteria.ParameterExpression;
 
 import org.apache.commons.dbutils.DbUtils;
@@ -49,18 +52,32 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.mutable.MutableInt;
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.core.impl.cache.CacheImpl;
+import org.batoo.jpa.core.impl.cache.QueryCache;
+import org.batoo.jpa.core.impl.collections.ManagedCollection;
 import org.batoo.jpa.core.impl.criteria.expression.AbstractParameterExpressionImpl;
 import org.batoo.jpa.core.impl.criteria.expression.EntityConstantExpression;
 import org.batoo.jpa.core.impl.criteria.expression.ParameterExpressionImpl;
+import org.batoo.jpa.core.impl.criteria.join.AbstractFrom;
+import org.batoo.jpa.core.impl.criteria.join.FetchImpl;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
 import org.batoo.jpa.core.impl.manager.EntityManagerFactoryImpl;
 import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
 import org.batoo.jpa.core.impl.manager.SessionImpl;
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.impl.model.FetchProfileImpl;
 import org.batoo.jpa.core.impl.model.MetamodelImpl;
+import org.batoo.jpa.core.impl.model.mapping.AbstractMapping;
+import org.batoo.jpa.core.impl.model.mapping.PluralAssociationMappingImpl;
+import org.batoo.jpa.jdbc.ParameterBinder;
 import org.batoo.jpa.jdbc.PreparedStatementProxy;
 import org.batoo.jpa.jdbc.adapter.JdbcAdaptor.PaginationParamsOrder;
+import org.batoo.jpa.jdbc.dbutils.ColumnarResult;
+import org.batoo.jpa.jdbc.dbutils.ColumnarResultHandler;
 import org.batoo.jpa.jdbc.dbutils.QueryRunner;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -81,7 +98,8 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 
 	private final EntityManagerFactoryImpl emf;
 	private final EntityManagerImpl em;
-	private final BaseQuery<X> q;
+	private final BaseQuery<X> original;
+	private BaseQuery<X> q;
 	private String sql;
 	private final Map<String, Object> hints = Maps.newHashMap();
 	private int startPosition = 0;
@@ -101,6 +119,11 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 
 	private boolean pmdBroken;
 
+	private Object[] after;
+
+	private FetchProfileImpl<X> fetchProfile;
+	private Map<ParameterExpressionImpl<?>, ParameterExpressionImpl<?>> profileParameters;
+
 	/**
 	 * @param q
 	 *            the criteria query
@@ -114,6 +137,7 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 
 		this.emf = entityManager.getEntityManagerFactory();
 		this.em = entityManager;
+		this.original = q;
 		this.q = q;
 		this.sql = this.q.getSql();
 
@@ -124,21 +148,73 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		this.pmdBroken = entityManager.getJdbcAdaptor().isPmdBroken();
 	}
 
+	/**
+	 * Applies the fetch profile hinted with {@link BJPASettings#FETCH_PROFILE} to the query.
+	 * <p>
+	 * If the profile has singular associations to join and the query selects an entity root or join, the query is replaced with the query
+	 * that fetch joins the associations and the parameters of the query are mapped to the parameters of the replacement query.
+	 * 
+	 * @param name
+	 *            the name of the fetch profile or null to remove the fetch profile
+	 * @throws IllegalArgumentException
+	 *             thrown if the query does not select entities or the entity does not have the fetch profile
+	 * 
+	 * @since 2.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	private void applyFetchProfile(Object name) {
+		this.q = this.original;
+		this.sql = this.q.getSql();
+		this.fetchProfile = null;
+		this.profileParameters = null;
+
+		if (name == null) {
+			return;
+		}
+
+		final EntityTypeImpl<X> type = this.q instanceof CriteriaQueryImpl ? (EntityTypeImpl<X>) this.getResultEntity() : null;
+		if (type == null) {
+			throw new IllegalArgumentException("Fetch profiles can only be applied to the queries selecting entities");
+		}
+
+		this.fetchProfile = type.getFetchProfile(name.toString());
+
+		final CriteriaQueryImpl<X> query = (CriteriaQueryImpl<X>) this.q;
+		if (!this.fetchProfile.hasSingularJoins() || !(query.getSelection() instanceof AbstractFrom)) {
+			return;
+		}
+
+		final CriteriaQueryImpl<X> profileQuery = this.fetchProfile.getQuery(query);
+
+		// the parameters of the profile query are matched to the parameters of the query by their aliases
+		this.profileParameters = Maps.newHashMap();
+		for (final ParameterExpression<?> p : profileQuery.getParameters()) {
+			final ParameterExpressionImpl<?> parameter = (ParameterExpressionImpl<?>) p;
+
+			for (final ParameterExpressionImpl<?> originalParameter : this.parameters.keySet()) {
+				if (originalParameter.getAlias().equals(parameter.getAlias())) {
+					this.profileParameters.put(parameter, originalParameter);
+				}
+			}
+		}
+
+		this.q = profileQuery;
+		this.sql = this.q.getSql();
+	}
+
 	private Object[] applyParameters(Connection connection) {
+		final List<Object> seekParameters = Lists.newArrayList();
+		if (this.after != null) {
+			this.sql = this.applySeek(this.sql, seekParameters);
+		}
+
 		if ((this.startPosition != 0) || (this.maxResult != Integer.MAX_VALUE)) {
 			QueryImpl.LOG.debug("Rows restricted to {0} / {1}", this.startPosition, this.maxResult);
 
 			this.sql = this.q.getMetamodel().getJdbcAdaptor().applyPagination(this.sql, this.startPosition, this.maxResult);
 		}
 
-		final MetamodelImpl metamodel = this.em.getMetamodel();
-
-		final List<AbstractParameterExpressionImpl<?>> sqlParameters = this.q.getSqlParameters();
-
-		int paramCount = 0;
-		for (int i = 0; i < sqlParameters.size(); i++) {
-			paramCount += sqlParameters.get(i).getExpandedCount(metamodel);
-		}
+		int paramCount = this.getParameterCount() + seekParameters.size();
 
 		// determine if we need to expand param count for pagination
 		if (this.q.getMetamodel().getJdbcAdaptor().parameterizedPagination() && ((this.maxResult != Integer.MAX_VALUE) || (this.startPosition != 0))) {
@@ -177,14 +253,11 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 				}
 			}
 
-			for (int i = 0; i < sqlParameters.size(); i++) {
-				final AbstractParameterExpressionImpl<?> parameter = sqlParameters.get(i);
-				if (parameter instanceof EntityConstantExpression) {
-					((EntityConstantExpression<?>) parameter).setParameter(metamodel, connection, parameters, sqlIndex);
-				}
-				else {
-					((ParameterExpressionImpl<?>) parameter).setParameter(metamodel, connection, parameters, sqlIndex, this.parameters.get(parameter));
-				}
+			this.fillParameters(connection, parameters, sqlIndex);
+
+			for (final Object seekParameter : seekParameters) {
+				parameters[sqlIndex.intValue()] = seekParameter;
+				sqlIndex.increment();
 			}
 
 			if (paginationParamsOrder.isAfterMainSql()) {
@@ -241,23 +314,80 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		final MutableInt sqlIndex = new MutableInt(0);
 		final Object[] parameters = new Object[paramCount];
 
-		for (int i = 0; i < sqlParameters.size(); i++) {
-			final AbstractParameterExpressionImpl<?> parameter = sqlParameters.get(i);
-			if (parameter instanceof EntityConstantExpression) {
-				((EntityConstantExpression<?>) parameter).setParameter(metamodel, connection, parameters, sqlIndex);
+		this.fillParameters(connection, parameters, sqlIndex);
+
+		for (final Object seekParameter : seekParameters) {
+			parameters[sqlIndex.intValue()] = seekParameter;
+			sqlIndex.increment();
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Restricts the SQL to the rows that come after the keyset set with {@link #setAfter(Object...)}.
+	 * <p>
+	 * If the database supports row value comparisons and all the orders have the same direction the predicate is
+	 * <code>(a, b) > (?, ?)</code>, otherwise it is expanded to <code>(a > ?) OR (a = ? AND b > ?)</code>.
+	 * 
+	 * @param _sql
+	 *            the SQL to restrict
+	 * @param seekParameters
+	 *            the list to add the parameters of the seek predicate
+	 * @return the restricted SQL
+	 * 
+	 * @since 2.0.0
+	 */
+	private String applySeek(String _sql, List<Object> seekParameters) {
+		final CriteriaQueryImpl<X> query = (CriteriaQueryImpl<X>) this.q;
+		final List<Order> orderList = query.getOrderList();
+		final String[] orderSql = query.getOrderSql();
+
+		boolean uniform = true;
+		for (int i = 1; i < orderList.size(); i++) {
+			if (orderList.get(i).isAscending() != orderList.get(0).isAscending()) {
+				uniform = false;
+
+				break;
 			}
-			else {
-				((ParameterExpressionImpl<?>) parameter).setParameter(metamodel, connection, parameters, sqlIndex, this.parameters.get(parameter));
+		}
+
+		final String predicate;
+		if (uniform && this.em.getJdbcAdaptor().supportsRowValueComparison()) {
+			predicate = "(" + Joiner.on(", ").join(orderSql) + ") " //
+				+ (orderList.get(0).isAscending() ? ">" : "<") //
+				+ " (" + Joiner.on(", ").join(Collections.nCopies(orderSql.length, "?")) + ")";
+
+			seekParameters.addAll(Arrays.asList(this.after));
+		}
+		else {
+			final String[] terms = new String[orderSql.length];
+			for (int i = 0; i < orderSql.length; i++) {
+				final StringBuilder term = new StringBuilder();
+
+				for (int j = 0; j < i; j++) {
+					term.append(orderSql[j]).append(" = ? AND ");
+					seekParameters.add(this.after[j]);
+				}
+
+				term.append(orderSql[i]).append(orderList.get(i).isAscending() ? " > ?" : " < ?");
+				seekParameters.add(this.after[i]);
+
+				terms[i] = term.toString();
 			}
+
+			predicate = "(" + Joiner.on(") OR (").join(terms) + ")";
 		}
 
-		return parameters;
+		return this.restrict(_sql, predicate);
 	}
 
 	private List<X> buildResultSet(Connection connection, final Object[] parameters) {
 		try {
 			this.buildResultSetImpl(connection, parameters);
 
+			this.loadSplitFetches();
+
 			return this.results;
 		}
 		catch (final SQLException e) {
@@ -270,6 +400,62 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		}
 	}
 
+	/**
+	 * Returns the results of the query from the query cache, or builds the results and puts them into the query cache.
+	 * <p>
+	 * For the queries that select entities only the ids are kept in the query cache, the entities are served from the session or the second
+	 * level cache.
+	 * 
+	 * @param connection
+	 *            the connection
+	 * @param parameters
+	 *            the parameters
+	 * @return the results of the query
+	 * 
+	 * @since 2.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	private List<X> buildResultSetCached(Connection connection, final Object[] parameters) {
+		final CacheImpl cache = this.emf.getCache();
+		final QueryCache queryCache = cache.getQueryCache();
+		final EntityTypeImpl<X> type = (EntityTypeImpl<X>) this.getResultEntity();
+
+		if (!this.em.isCacheBypassed(this.hints)) {
+			final Object[] contents = queryCache.get(this.sql, parameters);
+
+			if (contents != null) {
+				final List<X> results = type != null ? cache.findAll(this.em.getSession(), type, contents) : (List<X>) Lists.newArrayList(contents);
+
+				if (results != null) {
+					this.results = results;
+
+					return results;
+				}
+			}
+		}
+
+		// the timestamp must be obtained before the query is executed
+		final long timestamp = queryCache.getTimestamp();
+
+		final List<X> results = this.buildResultSet(connection, parameters);
+
+		final Object[] contents = new Object[results.size()];
+		for (int i = 0; i < contents.length; i++) {
+			final X result = results.get(i);
+
+			if (type == null) {
+				contents[i] = result;
+			}
+			else if (result != null) {
+				contents[i] = type.getId(result).getId();
+			}
+		}
+
+		queryCache.put(this.sql, parameters, timestamp, contents);
+
+		return results;
+	}
+
 	/**
 	 * The implementation of the result set build. Manages the statement, parameters and result set.
 	 * 
@@ -287,36 +473,35 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		ResultSet resultSet = null;
 
 		try {
-			final String _sql = this.sql;
-
-			final Map<Integer, Integer> repeat = Maps.newHashMap();
+			String _sql = this.sql;
+			Object[] _parameters = parameters;
 
-			int sqlParamNo = 0;
+			// inline the queries passed as subselects
 			for (final Object parameter : parameters) {
-				if (parameter != null) {
-					if (parameter instanceof Collection) {
-						repeat.put(sqlParamNo, ((Collection<?>) parameter).size());
-					}
-					else if (parameter.getClass().isArray()) {
-						repeat.put(sqlParamNo, ((Object[]) parameter).length);
-					}
-				}
+				if (parameter instanceof SubselectQuery) {
+					final List<Object> inlined = Lists.newArrayList();
+
+					_sql = this.inlineSubselects(_sql, parameters, inlined);
+					_parameters = inlined.toArray();
 
-				sqlParamNo++;
+					break;
+				}
 			}
 
+			final Map<Integer, Integer> repeat = this.getRepeats(_parameters);
 			if (repeat.size() > 0) {
-				statement = connection.prepareStatement(this.expandParams(_sql, repeat));
-			}
-			else {
-				statement = connection.prepareStatement(_sql);
+				_sql = this.expandParams(_sql, repeat);
 			}
 
-			this.fillStatement(statement, parameters, repeat);
+			statement = connection.prepareStatement(_sql);
+
+			this.fillStatement(statement, _parameters, repeat);
 
 			resultSet = statement.executeQuery();
 
 			this.handle(resultSet);
+
+			this.captureSubselect();
 		}
 		finally {
 			try {
@@ -328,6 +513,125 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		}
 	}
 
+	/**
+	 * Builds the result set in two phases for the paginated queries that fetch collections of the root.
+	 * <p>
+	 * As the rows of the fetched collections multiply the rows of the root, the pagination cannot be applied to the query itself. The first
+	 * phase selects the ids of the roots in the page and the second phase fetches the roots and their collections for those ids.
+	 * 
+	 * @param connection
+	 *            the connection
+	 * @return the list of distinct roots in the page
+	 * 
+	 * @since 2.0.0
+	 */
+	private List<X> buildResultSetPaginated(Connection connection) {
+		final CriteriaQueryImpl<X> query = (CriteriaQueryImpl<X>) this.q;
+		final String idField = ((RootImpl<X>) query.getSelection()).getSqlRestrictionFragments(query)[0];
+		final String sql = this.sql;
+
+		// the roots are grouped by the id, so the order by expressions over the fetched collections are aggregated to the value of the
+		// first row of the root, MIN for the ascending and MAX for the descending orders
+		final int orderBy = query.getOrderSql() != null ? sql.lastIndexOf("\nORDER BY\n\t") : sql.length();
+		final StringBuilder idSql = new StringBuilder("SELECT\n\t").append(idField) //
+			.append(sql.substring(sql.indexOf("\nFROM "), orderBy)) //
+			.append("\nGROUP BY\n\t").append(idField);
+
+		if (query.getOrderSql() != null) {
+			final String[] orderSql = query.getOrderSql();
+			final String[] aggregates = new String[orderSql.length];
+			for (int i = 0; i < orderSql.length; i++) {
+				aggregates[i] = query.getOrderList().get(i).isAscending() ? //
+					"MIN(" + orderSql[i] + ") asc" : //
+					"MAX(" + orderSql[i] + ") desc";
+			}
+
+			idSql.append("\nORDER BY\n\t").append(Joiner.on(", ").join(aggregates));
+		}
+
+		this.sql = idSql.toString();
+
+		final Object[] idParameters = this.applyParameters(connection);
+
+		final List<Object> ids;
+		try {
+			ids = this.selectIds(connection, idParameters);
+		}
+		catch (final SQLException e) {
+			QueryImpl.LOG.error(e, "Query failed{0}{1}", QueryImpl.LOG.lazyBoxed(this.getJpql(), this.parameters.entrySet().toArray()),
+				QueryImpl.LOG.lazyBoxed(this.sql, idParameters));
+
+			this.em.setRollbackOnly();
+
+			throw new PersistenceException("Query failed", e);
+		}
+
+		if (ids.isEmpty()) {
+			this.results = Lists.newArrayList();
+
+			return this.results;
+		}
+
+		this.sql = this.restrict(sql, idField + " IN (?)");
+
+		final MutableInt sqlIndex = new MutableInt(0);
+		final Object[] parameters = new Object[this.getParameterCount() + 1];
+
+		this.fillParameters(connection, parameters, sqlIndex);
+		parameters[sqlIndex.intValue()] = ids;
+
+		final List<X> results = this.buildResultSet(connection, parameters);
+
+		// the rows of the fetched collections repeat the roots
+		final Set<X> distinct = Sets.newIdentityHashSet();
+		this.results = Lists.newArrayList();
+		for (final X result : results) {
+			if (distinct.add(result)) {
+				this.results.add(result);
+			}
+		}
+
+		return this.results;
+	}
+
+	/**
+	 * Retains the instances returned by the query with each of the instances, if the root type has collections loaded with the subselect
+	 * fetch strategy.
+	 * <p>
+	 * The ids of the instances are retained rather than the SQL of the query, as the rows the query matches may change before the
+	 * collections are accessed.
+	 * 
+	 * @since 2.0.0
+	 */
+	private void captureSubselect() {
+		if (!(this.q instanceof CriteriaQueryImpl)) {
+			return;
+		}
+
+		final AbstractSelection<X> selection = ((CriteriaQueryImpl<X>) this.q).getSelection();
+		if (!(selection instanceof RootImpl)) {
+			return;
+		}
+
+		final RootImpl<X> root = (RootImpl<X>) selection;
+		if (!((EntityTypeImpl<?>) root.getModel()).hasSubselectFetches() && root.getFetchRoot().getSplitFetches().isEmpty()) {
+			return;
+		}
+
+		final SessionImpl session = this.em.getSession();
+		final List<ManagedInstance<?>> owners = Lists.newArrayList();
+		final SubselectQuery subselectQuery = new SubselectQuery(owners, this.getLockMode());
+
+		for (final X result : this.results) {
+			final ManagedInstance<X> instance = result != null ? session.get(result) : null;
+			if ((instance != null) && (instance.getSubselectQuery() != subselectQuery)) {
+				instance.setSubselectQuery(subselectQuery);
+
+				owners.add(instance);
+			}
+		}
+	}
+
 	private void dumpResultSet() throws SQLException {
 		final int[] lengths = new int[this.labels.length];
 		for (int i = 0; i < lengths.length; i++) {
@@ -400,10 +704,7 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 	@Override
 	public int executeUpdate() {
 		// flush if specified
-		if (!this.q.isInternal() && this.em.hasActiveTransaction()
-			&& ((this.flushMode == FlushModeType.AUTO) || (this.em.getFlushMode() == FlushModeType.AUTO))) {
-			this.em.flush();
-		}
+		this.flushIfNecessary(null);
 
 		final Connection connection = this.em.getConnection();
 		final Object[] parameters = this.applyParameters(connection);
@@ -411,7 +712,16 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		try {
 			this.em.assertTransaction();
 
-			return new QueryRunner(this.em.getJdbcAdaptor(), false).update(connection, this.sql, parameters);
+			final int updated = new QueryRunner(this.em.getJdbcAdaptor(), false).update(connection, this.sql, parameters);
+
+			this.em.markWritten();
+
+			// the cached state of the instances of the type no longer reflects the database
+			if (this.q instanceof CriteriaModify) {
+				this.em.getSession().evictCache(((CriteriaModify<X>) this.q).getRoot().getEntity());
+			}
+
+			return updated;
 		}
 		catch (final SQLException e) {
 			QueryImpl.LOG.error(e, "Query failed" + QueryImpl.LOG.lazyBoxed(this.sql, parameters));
@@ -422,6 +732,44 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		}
 	}
 
+	/**
+	 * Executes the statement of the prepared query handle and builds the results.
+	 * 
+	 * @param statement
+	 *            the statement filled with the parameters
+	 * @param parameters
+	 *            the SQL parameters
+	 * @return the list of results
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	List<X> executePrepared(PreparedStatement statement, Object[] parameters) throws SQLException {
+		this.em.getSession().setLoadTracker();
+
+		ResultSet resultSet = null;
+		try {
+			resultSet = statement.executeQuery();
+
+			this.handle(resultSet);
+
+			this.captureSubselect();
+
+			this.loadSplitFetches();
+
+			return this.results;
+		}
+		finally {
+			try {
+				DbUtils.close(resultSet);
+			}
+			finally {
+				this.em.getSession().releaseLoadTracker();
+			}
+		}
+	}
+
 	/**
 	 * Expands the repeated parameters.
 	 * 
@@ -482,6 +830,36 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		return outSql.toString();
 	}
 
+	/**
+	 * Fills the values of the SQL parameters of the query.
+	 * 
+	 * @param connection
+	 *            the connection
+	 * @param parameters
+	 *            the parameters array to fill
+	 * @param sqlIndex
+	 *            the index of the next parameter
+	 * 
+	 * @since 2.0.0
+	 */
+	private void fillParameters(Connection connection, Object[] parameters, MutableInt sqlIndex) {
+		final MetamodelImpl metamodel = this.em.getMetamodel();
+		final List<AbstractParameterExpressionImpl<?>> sqlParameters = this.q.getSqlParameters();
+
+		for (int i = 0; i < sqlParameters.size(); i++) {
+			final AbstractParameterExpressionImpl<?> parameter = sqlParameters.get(i);
+			if (parameter instanceof EntityConstantExpression) {
+				((EntityConstantExpression<?>) parameter).setParameter(metamodel, connection, parameters, sqlIndex);
+			}
+			else {
+				// the parameters of the query replaced by the fetch profile hold the values
+				final Object key = this.profileParameters != null ? this.profileParameters.get(parameter) : parameter;
+
+				((ParameterExpressionImpl<?>) parameter).setParameter(metamodel, connection, parameters, sqlIndex, this.parameters.get(key));
+			}
+		}
+	}
+
 	/**
 	 * Fills the statement with the parameters supplied.
 	 * 
@@ -529,18 +907,18 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 					if (paramValue instanceof Collection) {
 						final Collection<?> collection = (Collection<?>) paramValue;
 						for (final Object subParamValue : collection) {
-							statement.setObject(index++, subParamValue);
+							ParameterBinder.forValue(subParamValue).bind(statement, index++, subParamValue);
 						}
 					}
 					else {
 						final Object[] array = (Object[]) paramValue;
 						for (final Object subParamValue : array) {
-							statement.setObject(index++, subParamValue);
+							ParameterBinder.forValue(subParamValue).bind(statement, index++, subParamValue);
 						}
 					}
 				}
 				else {
-					statement.setObject(index++, parameters[i]);
+					ParameterBinder.forValue(parameters[i]).bind(statement, index++, parameters[i]);
 				}
 			}
 			else {
@@ -563,39 +941,127 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 	}
 
 	/**
-	 * Returns the criteria query of the typed query.
+	 * Flushes the entity manager if the flush mode of the query or the entity manager is {@link FlushModeType#AUTO}.
 	 * 
-	 * @return the criteria query of the typed query
+	 * @param tables
+	 *            the tables read by the query to flush only if there are pending changes to them, or <code>null</code> to flush regardless
 	 * 
 	 * @since 2.0.0
 	 */
-	public BaseQuery<X> getCriteriaQuery() {
-		return this.q;
+	void flushIfNecessary(Set<String> tables) {
+		if (!this.q.isInternal() && this.em.hasActiveTransaction()
+			&& ((this.flushMode == FlushModeType.AUTO) || (this.em.getFlushMode() == FlushModeType.AUTO))
+			&& ((tables == null) || this.em.getSession().hasPendingChanges(tables))) {
+			this.em.flush();
+		}
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Returns the results of the query read into primitive column buffers instead of the boxed result objects.
+	 * <p>
+	 * Meant for the aggregation and reporting queries, the columns of the result are the columns of the SQL of the query, the entities
+	 * are not loaded. The first result, max results, keyset and lock mode of the query are applied as they are for
+	 * {@link #getResultList()}.
 	 * 
-	 */
-	@Override
-	public int getFirstResult() {
-		return this.startPosition;
-	}
-
-	/**
-	 * {@inheritDoc}
+	 * @return the columnar result
 	 * 
+	 * @since 2.0.0
 	 */
-	@Override
-	public FlushModeType getFlushMode() {
-		return this.flushMode;
-	}
+	public ColumnarResult getColumnarResult() {
+		if (!(this.q instanceof CriteriaQueryImpl)) {
+			throw new IllegalStateException("Not a select query: " + this.getJpql());
+		}
 
-	/**
-	 * {@inheritDoc}
-	 * 
-	 */
-	@Override
+		this.flushIfNecessary(this.q.getTables());
+
+		final LockModeType lockMode = this.getLockMode();
+		final boolean hasLock = (lockMode == LockModeType.PESSIMISTIC_READ) || (lockMode == LockModeType.PESSIMISTIC_WRITE)
+			|| (lockMode == LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+
+		// locks must be obtained on the primary database
+		final Connection connection = hasLock ? this.em.getConnection() : this.em.getReadConnection(this.isReadOnly());
+
+		// the SQL of the previous execution has the pagination and keyset of that execution applied
+		this.sql = this.q.getSql();
+
+		if (hasLock) {
+			this.sql = this.em.getJdbcAdaptor().applyLock(this.sql, lockMode);
+		}
+
+		// applies the keyset and the pagination to the SQL and returns their parameters along with the parameters of the query
+		final Object[] parameters = this.applyParameters(connection);
+
+		try {
+			final Map<Integer, Integer> repeat = this.getRepeats(parameters);
+			final String _sql = repeat.size() > 0 ? this.expandParams(this.sql, repeat) : this.sql;
+
+			PreparedStatement statement = null;
+			ResultSet resultSet = null;
+			try {
+				statement = connection.prepareStatement(_sql);
+
+				this.fillStatement(statement, parameters, repeat);
+
+				resultSet = statement.executeQuery();
+
+				return new ColumnarResultHandler().handle(resultSet);
+			}
+			finally {
+				try {
+					DbUtils.close(resultSet);
+				}
+				finally {
+					DbUtils.close(statement);
+				}
+			}
+		}
+		catch (final SQLException e) {
+			QueryImpl.LOG.error(e, "Query failed{0}{1}", QueryImpl.LOG.lazyBoxed(this.getJpql(), this.parameters.entrySet().toArray()),
+				QueryImpl.LOG.lazyBoxed(this.sql, parameters));
+
+			this.em.setRollbackOnly();
+
+			throw new PersistenceException("Query failed", e);
+		}
+		finally {
+			this.em.closeConnectionIfNecessary();
+		}
+	}
+
+	/**
+	 * Returns the criteria query of the typed query.
+	 * 
+	 * @return the criteria query of the typed query
+	 * 
+	 * @since 2.0.0
+	 */
+	public BaseQuery<X> getCriteriaQuery() {
+		return this.q;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getFirstResult() {
+		return this.startPosition;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public FlushModeType getFlushMode() {
+		return this.flushMode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
 	public Map<String, Object> getHints() {
 		return Maps.newHashMap(this.hints);
 	}
@@ -679,6 +1145,25 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		return (Parameter<T>) this.getParameter(name);
 	}
 
+	/**
+	 * Returns the number of the SQL parameters of the query.
+	 * 
+	 * @return the number of the SQL parameters of the query
+	 * 
+	 * @since 2.0.0
+	 */
+	private int getParameterCount() {
+		final MetamodelImpl metamodel = this.em.getMetamodel();
+		final List<AbstractParameterExpressionImpl<?>> sqlParameters = this.q.getSqlParameters();
+
+		int paramCount = 0;
+		for (int i = 0; i < sqlParameters.size(); i++) {
+			paramCount += sqlParameters.get(i).getExpandedCount(metamodel);
+		}
+
+		return paramCount;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -687,7 +1172,7 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 	public Set<Parameter<?>> getParameters() {
 		final Set<Parameter<?>> parameters = Sets.newHashSet();
 
-		parameters.addAll(this.q.getParameters());
+		parameters.addAll(this.parameters.keySet());
 
 		return parameters;
 	}
@@ -720,41 +1205,113 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		return this.parameters.get(this.getParameter(name));
 	}
 
+	/**
+	 * Returns the number of times the collection and array parameters are repeated in the SQL.
+	 * 
+	 * @param parameters
+	 *            the parameters
+	 * @return the map of the parameter index to the repeat count
+	 * 
+	 * @since 2.0.0
+	 */
+	private Map<Integer, Integer> getRepeats(Object[] parameters) {
+		final Map<Integer, Integer> repeat = Maps.newHashMap();
+
+		int sqlParamNo = 0;
+		for (final Object parameter : parameters) {
+			if (parameter != null) {
+				if (parameter instanceof Collection) {
+					repeat.put(sqlParamNo, ((Collection<?>) parameter).size());
+				}
+				else if (parameter.getClass().isArray()) {
+					repeat.put(sqlParamNo, ((Object[]) parameter).length);
+				}
+			}
+
+			sqlParamNo++;
+		}
+
+		return repeat;
+	}
+
+	/**
+	 * Returns the entity type the query selects.
+	 * 
+	 * @return the entity type the query selects or <code>null</code> if the query does not select entities
+	 * 
+	 * @since 2.0.0
+	 */
+	private EntityTypeImpl<?> getResultEntity() {
+		final Class<?> javaType = ((CriteriaQueryImpl<X>) this.q).getSelection().getJavaType();
+
+		if ((javaType == null) || javaType.isPrimitive() || javaType.isInterface()) {
+			return null;
+		}
+
+		return this.em.getMetamodel().getEntity(javaType);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
 	 */
 	@Override
 	public List<X> getResultList() {
-		// flush if specified
-		if (!this.q.isInternal() && this.em.hasActiveTransaction()
-			&& ((this.flushMode == FlushModeType.AUTO) || (this.em.getFlushMode() == FlushModeType.AUTO))) {
-			this.em.flush();
-		}
+		// flush if specified and the pending changes may be read by the query
+		this.flushIfNecessary(this.q.getTables());
+
+		// the queries run while loading the results, such as the split fetches, must not clear the lock mode of the enclosing query
+		final LockModeType lockContext = ManagedInstance.LOCK_CONTEXT.get();
+		final Set<AbstractMapping<?, ?, ?>> lazyContext = ManagedInstance.LAZY_CONTEXT.get();
 
 		ManagedInstance.LOCK_CONTEXT.set(this.getLockMode());
+		if (this.fetchProfile != null) {
+			ManagedInstance.LAZY_CONTEXT.set(this.fetchProfile.getLazyMappings());
+		}
+
 		try {
-			return this.getResultListImpl();
+			final List<X> results = this.getResultListImpl();
+
+			// load the associations of the fetch profile that are not joined by the query
+			if ((this.fetchProfile != null) && !results.isEmpty()) {
+				this.fetchProfile.load(this.em, results);
+			}
+
+			return results;
 		}
 		finally {
-			ManagedInstance.LOCK_CONTEXT.set(null);
+			ManagedInstance.LOCK_CONTEXT.set(lockContext);
+			ManagedInstance.LAZY_CONTEXT.set(lazyContext);
 		}
 	}
 
 	private List<X> getResultListImpl() {
 		this.em.getSession().setLoadTracker();
 
-		final Connection connection = this.em.getConnection();
+		final LockModeType lockMode = this.getLockMode();
+		final boolean hasLock = (lockMode == LockModeType.PESSIMISTIC_READ) || (lockMode == LockModeType.PESSIMISTIC_WRITE)
+			|| (lockMode == LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+
+		// locks must be obtained on the primary database
+		final Connection connection = hasLock ? this.em.getConnection() : this.em.getReadConnection(this.isReadOnly());
 		try {
-			final LockModeType lockMode = this.getLockMode();
-			final boolean hasLock = (lockMode == LockModeType.PESSIMISTIC_READ) || (lockMode == LockModeType.PESSIMISTIC_WRITE)
-				|| (lockMode == LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+			// start from the original SQL so that the query can be executed with different pagination and keysets
+			this.sql = this.q.getSql();
+
 			if (hasLock) {
 				this.sql = this.em.getJdbcAdaptor().applyLock(this.sql, lockMode);
 			}
 
+			if (!hasLock && this.isPaginatedFetch()) {
+				return this.buildResultSetPaginated(connection);
+			}
+
 			final Object[] parameters = this.applyParameters(connection);
 
+			if (this.isCachable()) {
+				return this.buildResultSetCached(connection, parameters);
+			}
+
 			return this.buildResultSet(connection, parameters);
 		}
 		finally {
@@ -833,6 +1390,55 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		return this.results;
 	}
 
+	/**
+	 * Inlines the SQL of the subselect parameters in place of their parameter markers.
+	 * 
+	 * @param _sql
+	 *            the SQL
+	 * @param parameters
+	 *            the parameters
+	 * @param inlined
+	 *            the list to collect the parameters of the inlined SQL
+	 * @return the SQL with the subselects inlined
+	 * 
+	 * @since 2.0.0
+	 */
+	private String inlineSubselects(String _sql, Object[] parameters, List<Object> inlined) {
+		final StringBuilder outSql = new StringBuilder();
+
+		int sqlIndex = 0;
+		boolean inQuot = false;
+
+		for (int i = 0; i < _sql.length(); i++) {
+			final char current = _sql.charAt(i);
+
+			if (current == '\'') {
+				inQuot = !inQuot;
+
+				outSql.append(current);
+			}
+			else if (!inQuot && (current == '?')) {
+				final Object parameter = parameters[sqlIndex++];
+
+				if (parameter instanceof SubselectQuery) {
+					outSql.append(((SubselectQuery) parameter).getSql());
+
+					inlined.addAll(Arrays.asList(((SubselectQuery) parameter).getParameters()));
+				}
+				else {
+					outSql.append('?');
+
+					inlined.add(parameter);
+				}
+			}
+			else {
+				outSql.append(current);
+			}
+		}
+
+		return outSql.toString();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -842,10 +1448,169 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		return this.parameters.containsKey(param);
 	}
 
+	/**
+	 * Returns if the results of the query can be kept in the query cache.
+	 * <p>
+	 * The results are kept only if the query is hinted with {@link BJPASettings#QUERY_CACHE}, selects either cachable entities or basic
+	 * values and is not locked.
+	 * 
+	 * @return true if the results of the query can be kept in the query cache, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	private boolean isCachable() {
+		final Object hint = this.hints.get(BJPASettings.QUERY_CACHE);
+		if ((hint == null) || !Boolean.valueOf(hint.toString()) || this.q.isInternal() || !(this.q instanceof CriteriaQueryImpl)) {
+			return false;
+		}
+
+		final LockModeType lockMode = this.getLockMode();
+		if ((lockMode != null) && (lockMode != LockModeType.NONE)) {
+			return false;
+		}
+
+		final AbstractSelection<X> selection = ((CriteriaQueryImpl<X>) this.q).getSelection();
+		if (selection.isCompoundSelection()) {
+			return false;
+		}
+
+		final EntityTypeImpl<?> type = this.getResultEntity();
+		if (type != null) {
+			// the entities must be served from the second level cache
+			if (!type.isCachable()) {
+				return false;
+			}
+		}
+		// embeddables are not immutable
+		else if (this.em.getMetamodel().managedType(selection.getJavaType()) != null) {
+			return false;
+		}
+
+		return this.em.getSession().isQueryCachable(this.sql);
+	}
+
+	/**
+	 * Returns if the query is paginated and fetches collections of the root, which requires the pagination to be applied to the ids of the
+	 * roots.
+	 * 
+	 * @return true if the query is paginated and fetches collections of the root, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	private boolean isPaginatedFetch() {
+		if (((this.startPosition == 0) && (this.maxResult == Integer.MAX_VALUE)) || !(this.q instanceof CriteriaQueryImpl)) {
+			return false;
+		}
+
+		final CriteriaQueryImpl<X> query = (CriteriaQueryImpl<X>) this.q;
+		if (!(query.getSelection() instanceof RootImpl) || (query.getGroupList().size() > 0)) {
+			return false;
+		}
+
+		final RootImpl<X> root = (RootImpl<X>) query.getSelection();
+		if (!root.getFetchRoot().hasCollectionFetches() || (root.getSqlRestrictionFragments(query).length != 1)) {
+			return false;
+		}
+
+		if (query.getOrderSql() != null) {
+			for (final String orderSql : query.getOrderSql()) {
+				if (orderSql.indexOf('?') >= 0) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns if the query is hinted with {@link BJPASettings#READ_ONLY}.
+	 * 
+	 * @return true if the query is hinted as read-only, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	private boolean isReadOnly() {
+		final Object hint = this.hints.get(BJPASettings.READ_ONLY);
+
+		return (hint != null) && Boolean.valueOf(hint.toString());
+	}
+
+	/**
+	 * Loads the collection fetches split from the query with a query per collection for the roots returned.
+	 * 
+	 * @since 2.0.0
+	 */
+	private void loadSplitFetches() {
+		if (!(this.q instanceof CriteriaQueryImpl) || !(((CriteriaQueryImpl<X>) this.q).getSelection() instanceof RootImpl)) {
+			return;
+		}
+
+		final RootImpl<X> root = (RootImpl<X>) ((CriteriaQueryImpl<X>) this.q).getSelection();
+		final SessionImpl session = this.em.getSession();
+
+		for (final FetchImpl<X, ?> fetch : root.getFetchRoot().getSplitFetches()) {
+			final PluralAssociationMappingImpl<?, ?, ?> mapping = (PluralAssociationMappingImpl<?, ?, ?>) fetch.getMapping();
+
+			boolean prefetched = false;
+			for (final X result : this.results) {
+				final ManagedInstance<X> instance = result != null ? session.get(result) : null;
+				if (instance == null) {
+					continue;
+				}
+
+				final Object collection = mapping.get(result);
+				if (!(collection instanceof ManagedCollection) || ((ManagedCollection<?>) collection).isInitialized()) {
+					continue;
+				}
+
+				// the first owner loads the collections of all the owners
+				if (!prefetched) {
+					mapping.prefetchSubselect(instance);
+					prefetched = true;
+				}
+
+				((ManagedCollection<?>) collection).initialize();
+			}
+		}
+	}
+
 	private int max(int length1, int length2) {
 		return Math.min(QueryImpl.MAX_COL_LENGTH, Math.max(length1, length2));
 	}
 
+	/**
+	 * Prepares a reusable handle of the query that keeps its statement open for the lifetime of the entity manager.
+	 * <p>
+	 * The handle is meant to be executed repeatedly with different parameters, such as in tight loops, without the overhead of preparing
+	 * the statement and resolving the parameters for each execution.
+	 * 
+	 * @return the prepared query handle
+	 * @throws IllegalStateException
+	 *             thrown if the query has pagination, a lock mode or hints set, as the handle executes the SQL of the query as is
+	 * 
+	 * @since 2.0.0
+	 */
+	public PreparedQueryImpl<X> prepare() {
+		if ((this.startPosition != 0) || (this.maxResult != Integer.MAX_VALUE) || (this.after != null)) {
+			throw new IllegalStateException("Paginated queries cannot be prepared: " + this.q.getJpql());
+		}
+
+		if ((this.lockMode != null) && (this.lockMode != LockModeType.NONE)) {
+			throw new IllegalStateException("Queries with lock mode cannot be prepared: " + this.q.getJpql());
+		}
+
+		if (!this.hints.isEmpty()) {
+			throw new IllegalStateException("Queries with hints cannot be prepared: " + this.q.getJpql() + ", hints: " + this.hints.keySet());
+		}
+
+		final PreparedQueryImpl<X> prepared = new PreparedQueryImpl<X>(this, this.em, this.pmdBroken);
+
+		this.em.addPreparedQuery(prepared);
+
+		return prepared;
+	}
+
 	private void prepareLabels(final ResultSetMetaData md) throws SQLException {
 		this.labels = new String[md.getColumnCount()];
 
@@ -863,6 +1628,127 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 		return this;
 	}
 
+	/**
+	 * Adds the predicate to the top level where clause of the SQL.
+	 * 
+	 * @param _sql
+	 *            the SQL to restrict
+	 * @param predicate
+	 *            the predicate
+	 * @return the restricted SQL
+	 * 
+	 * @since 2.0.0
+	 */
+	private String restrict(String _sql, String predicate) {
+		final CriteriaQueryImpl<X> query = (CriteriaQueryImpl<X>) this.q;
+
+		// the ids of the paginated fetches are grouped
+		int end = _sql.lastIndexOf("\nGROUP BY\n\t");
+		if (end < 0) {
+			end = _sql.lastIndexOf("\nORDER BY\n\t");
+			if ((end < 0) || (query.getOrderSql() == null)) {
+				end = _sql.length();
+			}
+		}
+
+		return _sql.substring(0, end) + (query.isRestricted() ? " AND (" : "\nWHERE\n\t(") + predicate + ")" + _sql.substring(end);
+	}
+
+	/**
+	 * Returns the distinct ids selected by the SQL in the order they are returned.
+	 * 
+	 * @param connection
+	 *            the connection
+	 * @param parameters
+	 *            the parameters
+	 * @return the list of ids
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Error
+	 * 
+	 * @since 2.0.0
+	 */
+	private List<Object> selectIds(Connection connection, Object[] parameters) throws SQLException {
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+
+		try {
+			final Map<Integer, Integer> repeat = this.getRepeats(parameters);
+
+			statement = connection.prepareStatement(repeat.size() > 0 ? this.expandParams(this.sql, repeat) : this.sql);
+
+			this.fillStatement(statement, parameters, repeat);
+
+			resultSet = statement.executeQuery();
+
+			final Set<Object> ids = Sets.newLinkedHashSet();
+			while (resultSet.next()) {
+				ids.add(resultSet.getObject(1));
+			}
+
+			return Lists.newArrayList(ids);
+		}
+		finally {
+			try {
+				DbUtils.close(resultSet);
+			}
+			finally {
+				DbUtils.close(statement);
+			}
+		}
+	}
+
+	/**
+	 * Sets the keyset of the last row of the previous page so that the query seeks directly to the next page.
+	 * <p>
+	 * The keys are the values of the order by expressions of the last row read, in the order of the order by clause. Unlike
+	 * {@link #setFirstResult(int)} the database does not read and discard the rows of the previous pages. The order by expressions
+	 * should identify the rows uniquely and must not evaluate to null.
+	 * 
+	 * @param keys
+	 *            the values of the order by expressions of the last row of the previous page or none to read the first page
+	 * @return the same query instance
+	 * @throws IllegalStateException
+	 *             if the query is not an ordered select query or it has a group by clause
+	 * @throws IllegalArgumentException
+	 *             if the number of keys does not match the number of order by expressions
+	 * 
+	 * @since 2.0.0
+	 */
+	public QueryImpl<X> setAfter(Object... keys) {
+		if (!(this.q instanceof CriteriaQueryImpl)) {
+			throw new IllegalStateException("Keyset pagination is only supported for select queries");
+		}
+
+		final CriteriaQueryImpl<X> query = (CriteriaQueryImpl<X>) this.q;
+		if (query.getOrderList().size() == 0) {
+			throw new IllegalStateException("Keyset pagination requires an order by clause");
+		}
+
+		if (query.getGroupList().size() > 0) {
+			throw new IllegalStateException("Keyset pagination is not supported for queries with group by clause");
+		}
+
+		for (final String orderSql : query.getOrderSql()) {
+			if (orderSql.indexOf('?') >= 0) {
+				throw new IllegalStateException("Keyset pagination is not supported for order by expressions with parameters");
+			}
+		}
+
+		if ((keys == null) || (keys.length == 0)) {
+			this.after = null;
+
+			return this;
+		}
+
+		if (keys.length != query.getOrderList().size()) {
+			throw new IllegalArgumentException("Expected " + query.getOrderList().size() + " keys, but got " + keys.length);
+		}
+
+		this.after = keys.clone();
+
+		return this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -891,6 +1777,11 @@ public class QueryImpl<X> implements TypedQuery<X>, Query {
 	 */
 	@Override
 	public TypedQuery<X> setHint(String hintName, Object value) {
+		// fetch profiles are validated and applied when hinted
+		if (BJPASettings.FETCH_PROFILE.equals(hintName)) {
+			this.applyFetchProfile(value);
+		}
+
 		this.hints.put(hintName, value);
 
 		return this;
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.criteria;
+
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.apache.commons.lang.StringUtils;
+import org.batoo.jpa.core.impl.instance.ManagedInstance;
+
+/**
+ * The instances returned by an executed query, retained so that the collections of the instances can be loaded with a single query for the
+ * ids of the instances.
+ * <p>
+ * The ids are retained rather than the SQL of the query, as the rows the query matches may change before the collections are accessed. The
+ * collections of the instances returned by a locked query are loaded with the same lock mode.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class SubselectQuery {
+
+	private final List<ManagedInstance<?>> owners;
+	private final LockModeType lockMode;
+
+	/**
+	 * @param owners
+	 *            the instances returned by the query
+	 * @param lockMode
+	 *            the lock mode of the query or null
+	 * 
+	 * @since 2.0.0
+	 */
+	public SubselectQuery(List<ManagedInstance<?>> owners, LockModeType lockMode) {
+		super();
+
+		this.owners = owners;
+		this.lockMode = lockMode;
+	}
+
+	/**
+	 * Returns the lock mode of the query.
+	 * 
+	 * @return the lock mode of the query or null
+	 * 
+	 * @since 2.0.0
+	 */
+	public LockModeType getLockMode() {
+		return this.lockMode;
+	}
+
+	/**
+	 * Returns the instances returned by the query.
+	 * 
+	 * @return the instances returned by the query
+	 * 
+	 * @since 2.0.0
+	 */
+	public List<ManagedInstance<?>> getOwners() {
+		return this.owners;
+	}
+
+	/**
+	 * Returns the ids of the instances.
+	 * 
+	 * @return the ids of the instances
+	 * 
+	 * @since 2.0.0
+	 */
+	public Object[] getParameters() {
+		final Object[] ids = new Object[this.owners.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = this.owners.get(i).getId().getId();
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Returns the parameter markers of the ids of the instances.
+	 * 
+	 * @return the parameter markers of the ids of the instances
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getSql() {
+		return StringUtils.repeat("?, ", this.owners.size() - 1) + "?";
+	}
+}
@@ -20,6 +20,7 @@ package org.batoo.jpa.core.impl.criteria;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.Tuple;
 import javax.persistence.TupleElement;
@@ -27,33 +28,39 @@ import javax.persistence.TupleElement;
 import com.google.common.collect.Lists;
 
 /**
- * 
+ * The implementation of {@link Tuple} backed by a flat array of values.
+ * <p>
+ * The maps of the aliases and the elements to the indexes are computed once per selection and shared by the tuples of the rows.
  * 
  * @author hceylan
  * @since 2.0.0
  */
 public class TupleImpl implements Tuple {
 
-	private final List<String> aliases;
+	private final Map<String, Integer> aliases;
+	private final Map<TupleElement<?>, Integer> elements;
 	private final List<AbstractSelection<?>> selections;
 	private final Object[] values;
 
 	/**
 	 * @param aliases
-	 *            aliases
+	 *            the map of the aliases to the indexes
+	 * @param elements
+	 *            the map of the elements to the indexes
 	 * @param selections
-	 *            the seections
+	 *            the selections
 	 * @param values
-	 *            the values
+	 *            the values, owned by the tuple
 	 * 
 	 * @since 2.0.0
 	 */
-	public TupleImpl(List<String> aliases, List<AbstractSelection<?>> selections, Object[] values) {
+	public TupleImpl(Map<String, Integer> aliases, Map<TupleElement<?>, Integer> elements, List<AbstractSelection<?>> selections, Object[] values) {
 		super();
-		this.aliases = aliases;
 
+		this.aliases = aliases;
+		this.elements = elements;
 		this.selections = selections;
-		this.values = values != null ? Arrays.copyOf(values, values.length) : null;
+		this.values = values;
 	}
 
 	/**
@@ -81,12 +88,7 @@ public class TupleImpl implements Tuple {
 	 */
 	@Override
 	public Object get(String alias) {
-		final int index = this.aliases.indexOf(alias);
-		if (index == -1) {
-			throw new NullPointerException();
-		}
-
-		return this.values[index];
+		return this.values[this.indexOf(alias)];
 	}
 
 	/**
@@ -96,12 +98,7 @@ public class TupleImpl implements Tuple {
 	@Override
 	@SuppressWarnings("unchecked")
 	public <X> X get(String alias, Class<X> type) {
-		final int index = this.aliases.indexOf(alias);
-		if (index == -1) {
-			throw new NullPointerException();
-		}
-
-		return (X) this.values[index];
+		return (X) this.values[this.indexOf(alias)];
 	}
 
 	/**
@@ -111,8 +108,8 @@ public class TupleImpl implements Tuple {
 	@Override
 	@SuppressWarnings("unchecked")
 	public <X> X get(TupleElement<X> tupleElement) {
-		final int index = this.selections.indexOf(tupleElement);
-		if (index == -1) {
+		final Integer index = this.elements.get(tupleElement);
+		if (index == null) {
 			throw new NullPointerException();
 		}
 
@@ -132,6 +129,15 @@ public class TupleImpl implements Tuple {
 		return tuples;
 	}
 
+	private int indexOf(String alias) {
+		final Integer index = this.aliases.get(alias);
+		if (index == null) {
+			throw new NullPointerException();
+		}
+
+		return index;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
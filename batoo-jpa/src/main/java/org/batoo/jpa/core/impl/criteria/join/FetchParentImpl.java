@@ -55,6 +55,8 @@ import org.batoo.jpa.core.impl.model.mapping.BasicMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.ElementCollectionMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.EmbeddedMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.JoinedMapping;
+import org.batoo.jpa.core.impl.model.mapping.PluralAssociationMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.PluralMappingEx;
 import org.batoo.jpa.core.impl.model.mapping.SingularAssociationMappingImpl;
 import org.batoo.jpa.jdbc.AbstractColumn;
 import org.batoo.jpa.jdbc.AbstractTable;
@@ -94,6 +96,8 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 
 	private final HashMap<AbstractMapping<?, ?, ?>, FetchImpl<X, ?>> fetches = Maps.newHashMap();
 	private final ArrayList<FetchImpl<X, ?>> joins = Lists.newArrayList();
+	private List<FetchImpl<X, ?>> splitFetches;
+	private boolean internal;
 
 	private String alias;
 	private String primaryTableAlias;
@@ -208,6 +212,7 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 
 		final FetchImpl<X, Y> fetch = new FetchImpl<X, Y>(this, (JoinedMapping<? super X, ?, Y>) _mapping, jt);
 		this.fetches.put(_mapping, fetch);
+		this.splitFetches = null;
 
 		return fetch;
 	}
@@ -319,7 +324,9 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 
 		if (recurse) {
 			for (final FetchImpl<X, ?> fetch : this.fetches.values()) {
-				fetch.generateSqlJoins(query, joins, true);
+				if (!this.isSplit(fetch)) {
+					fetch.generateSqlJoins(query, joins, true);
+				}
 			}
 		}
 	}
@@ -365,6 +372,10 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 		}
 
 		for (final FetchImpl<X, ?> fetch : this.fetches.values()) {
+			if (this.isSplit(fetch)) {
+				continue;
+			}
+
 			final String select = fetch.generateSqlSelect(query, selected, false);
 			if (StringUtils.isNotBlank(select)) {
 				selects.add(select);
@@ -456,6 +467,10 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 				this.singularJoins.add(_mapping);
 				this.joinFields.put(column, fieldAlias);
 			}
+			// lazy basic attributes are loaded on first access
+			else if ((column.getMapping() instanceof BasicMappingImpl) && ((BasicMappingImpl<?, ?>) column.getMapping()).getAttribute().isLazy()) {
+				continue;
+			}
 			else {
 				fieldAlias = tableAlias + "_F" + query.getFieldAlias(tableAlias, column);
 
@@ -589,6 +604,26 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 		return _fetches;
 	}
 
+	/**
+	 * Returns the aliases of the id fields of the root table as selected.
+	 * 
+	 * @return the aliases of the id fields of the root table
+	 * 
+	 * @since 2.0.0
+	 */
+	public String[] getIdFields() {
+		final Collection<AbstractColumn> pkColumns = this.entity.getRootType().getPrimaryTable().getPkColumns();
+
+		final String[] idFields = new String[pkColumns.size()];
+
+		int i = 0;
+		for (final AbstractColumn column : pkColumns) {
+			idFields[i++] = this.idFields.get(column);
+		}
+
+		return idFields;
+	}
+
 	/**
 	 * Returns the managed instance based on the id.
 	 * 
@@ -701,6 +736,43 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 		return this.primaryTableAlias;
 	}
 
+	/**
+	 * Returns the collection fetches of the root that are split from the query.
+	 * <p>
+	 * Joining more than one collection returns the cartesian product of the collections. If the root of a user query left fetches more
+	 * than one association collection without further fetches, none of them are joined and each is loaded with a follow-up query for the
+	 * roots returned. Inner fetches restrict the roots returned, so they are always joined. The internal queries of the entity manager are
+	 * never split, so that loading an entity remains a single statement.
+	 * 
+	 * @return the collection fetches of the root that are split from the query
+	 * 
+	 * @since 2.0.0
+	 */
+	public List<FetchImpl<X, ?>> getSplitFetches() {
+		if (this.splitFetches != null) {
+			return this.splitFetches;
+		}
+
+		final List<FetchImpl<X, ?>> _splitFetches = Lists.newArrayList();
+
+		// only the fetches of the root can be loaded for the ids returned by the query
+		if (!this.internal && (this.mapping == null) && (this.entity != null)
+			&& (this.entity.getRootType().getPrimaryTable().getPkColumns().size() == 1)) {
+			for (final FetchImpl<X, ?> fetch : this.fetches.values()) {
+				if ((fetch.getMapping() instanceof PluralAssociationMappingImpl) && (fetch.getJoinType() == JoinType.LEFT)
+					&& fetch.getFetches().isEmpty()) {
+					_splitFetches.add(fetch);
+				}
+			}
+
+			if (_splitFetches.size() < 2) {
+				_splitFetches.clear();
+			}
+		}
+
+		return this.splitFetches = _splitFetches;
+	}
+
 	/**
 	 * Returns the SQL restriction in pairs of table alias and column.
 	 * 
@@ -952,6 +1024,10 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 
 	void handleFetches(SessionImpl session, final ResultSet row, Object instance) throws SQLException {
 		for (final FetchImpl<X, ?> fetch : this.fetches.values()) {
+			if (this.isSplit(fetch)) {
+				continue;
+			}
+
 			final MappingType mappingType = fetch.getMapping().getMappingType();
 
 			switch (mappingType) {
@@ -967,6 +1043,27 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 		}
 	}
 
+	/**
+	 * Returns if the fetch parent or any of its descendants fetch a collection.
+	 * 
+	 * @return true if the fetch parent or any of its descendants fetch a collection, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean hasCollectionFetches() {
+		for (final FetchImpl<X, ?> fetch : this.fetches.values()) {
+			if (this.isSplit(fetch)) {
+				continue;
+			}
+
+			if ((fetch.getMapping() instanceof PluralMappingEx) || fetch.hasCollectionFetches()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	/**
 	 * Returns if the join should be ignored
 	 * 
@@ -997,10 +1094,21 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 
 		final X instance = managedInstance.getInstance();
 
+		// the transaction holds the connection so the streams of the lobs remain valid
+		final boolean streamed = session.getEntityManager().hasActiveTransaction();
+
 		for (int i = 0; i < this.fields.length; i++) {
-			this.columns[i].setValue(instance, row.getObject(this.fields[i]));
+			final AbstractColumn column = this.columns[i];
+			if (streamed && column.isStream()) {
+				column.setStream(instance, row.getObject(this.fields[i]));
+			}
+			else {
+				column.setValue(instance, row.getObject(this.fields[i]));
+			}
 		}
 
+		managedInstance.setLazyGroupsPending();
+
 		// initializing the singular joins
 		for (final SingularAssociationMappingImpl<?, ?> _mapping : this.singularJoins) {
 			final EntityTypeImpl<?> _type = _mapping.getType();
@@ -1016,6 +1124,11 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 		}
 
 		for (final FetchImpl<X, ?> fetch : this.fetches.values()) {
+			// split fetches are initialized by the follow-up queries
+			if (this.isSplit(fetch)) {
+				continue;
+			}
+
 			final JoinedMapping<? super X, ?, ?> _mapping = fetch.getMapping();
 			if (!(_mapping instanceof SingularAssociationMappingImpl)) {
 				_mapping.initialize(managedInstance);
@@ -1025,6 +1138,20 @@ public class FetchParentImpl<Z, X> implements FetchParent<Z, X>, Joinable {
 		}
 	}
 
+	/**
+	 * Marks the fetch parent as the root of an internal entity query.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void internal() {
+		this.internal = true;
+		this.splitFetches = null;
+	}
+
+	private boolean isSplit(FetchImpl<X, ?> fetch) {
+		return (this.mapping == null) && this.getSplitFetches().contains(fetch);
+	}
+
 	/**
 	 * Joins instead of fetch.
 	 * 
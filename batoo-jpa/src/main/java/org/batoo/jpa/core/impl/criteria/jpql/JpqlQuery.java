@@ -818,6 +818,17 @@ public class JpqlQuery {
 		return typedQuery;
 	}
 
+	/**
+	 * Returns the criteria query constructed from the query string.
+	 * 
+	 * @return the criteria query
+	 * 
+	 * @since 2.0.0
+	 */
+	public BaseQuery<?> getCriteriaQuery() {
+		return this.q;
+	}
+
 	private AbstractFrom<?, ?> getAliased(Object q, String alias) {
 		final Map<String, AbstractFrom<?, ?>> aliasMap = this.aliasMap.get(q);
 
@@ -77,7 +77,7 @@ public class Enhanced implements EnhancedInstance {
 	}
 
 	@SuppressWarnings("unused")
-	private void __enhanced_$$__check() {
+	private void __enhanced_$$__check(String methodName) {
 		if (!this.__enhanced_$$__initialized) {
 			if (this.__enhanced_$$__session == null) {
 				throw new PersistenceException("No session to initialize the instance");
@@ -90,6 +90,7 @@ public class Enhanced implements EnhancedInstance {
 
 		if (this.__enhanced_$$__session != null) {
 			this.__enhanced__$$__managedInstance.changed();
+			this.__enhanced__$$__managedInstance.checkLazyGroup(methodName);
 		}
 
 		return;
@@ -61,17 +61,20 @@ public final class Enhancer {
 	private static final String METHOD_ENHANCED_SET_MANAGED_INSTANCE = "__enhanced__$$__setManagedInstance";
 	private static final String METHOD_FIND = "find";
 	private static final String METHOD_CHANGED = "changed";
+	private static final String METHOD_CHECK_LAZY_GROUP = "checkLazyGroup";
 
 	private static final String DESCRIPTOR_BOOLEAN = Type.getDescriptor(Boolean.TYPE);
 	private static final String DESCRIPTOR_MANAGED_INSTANCE = Type.getDescriptor(ManagedInstance.class);
 	private static final String DESCRIPTOR_OBJECT = Type.getDescriptor(Object.class);
 	private static final String DESCRIPTOR_SESSION = Type.getDescriptor(SessionImpl.class);
 	private static final String DESCRIPTOR_CLASS = Type.getDescriptor(Class.class);
+	private static final String DESCRIPTOR_STRING = Type.getDescriptor(String.class);
 
 	private static final String INTERNAL_PERSISTENCE_EXCEPTION = Type.getInternalName(PersistenceException.class);
 	private static final String INTERNAL_SESSION = Type.getInternalName(SessionImpl.class);
 	private static final String INTERNAL_ENTITY_MANAGER = Type.getInternalName(EntityManagerImpl.class);
 	private static final String INTERNAL_MANAGED_INSTANCE = Type.getInternalName(ManagedInstance.class);
+	private static final String INTERNAL_STRING = Type.getInternalName(String.class);
 
 	/**
 	 * Returns the enhanced class bytecode.
@@ -201,7 +204,7 @@ public final class Enhancer {
 
 
 	private static void createMethodCheck(final String enhancedClassName, final String descEnhancer, final ClassWriter cw) {
-		final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PRIVATE, Enhancer.METHOD_ENHANCED_CHECK, Enhancer.makeDescription(Void.TYPE), null, null);
+		final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PRIVATE, Enhancer.METHOD_ENHANCED_CHECK, Enhancer.makeDescription(Void.TYPE, String.class), null, null);
 		mv.visitCode();
 
 		final Label lCheckInitialized = new Label();
@@ -214,7 +217,7 @@ public final class Enhancer {
 
 		// if (!this.__enhanced__$$__initialized) {
 		mv.visitLabel(lCheckInitialized);
-		mv.visitFrame(Opcodes.F_NEW, 1, new Object[] { enhancedClassName }, 0, new Object[] {});
+		mv.visitFrame(Opcodes.F_NEW, 2, new Object[] { enhancedClassName, Enhancer.INTERNAL_STRING }, 0, new Object[] {});
 		mv.visitVarInsn(Opcodes.ALOAD, 0);
 		mv.visitFieldInsn(Opcodes.GETFIELD, enhancedClassName, Enhancer.FIELD_ENHANCED_INITIALIZED, Enhancer.DESCRIPTOR_BOOLEAN);
 		mv.visitJumpInsn(Opcodes.IFNE, lChanged);
@@ -233,7 +236,7 @@ public final class Enhancer {
 
 		//	    this.__enhanced_$$__session.getEntityManager().find(this.__enhanced_$$__type, this.__enhanced__$$__id);
 		mv.visitLabel(lFind);
-		mv.visitFrame(Opcodes.F_NEW, 1, new Object[] { enhancedClassName }, 0, new Object[] {});
+		mv.visitFrame(Opcodes.F_NEW, 2, new Object[] { enhancedClassName, Enhancer.INTERNAL_STRING }, 0, new Object[] {});
 		mv.visitVarInsn(Opcodes.ALOAD, 0);
 		mv.visitFieldInsn(Opcodes.GETFIELD, enhancedClassName, Enhancer.FIELD_ENHANCED_SESSION, Enhancer.DESCRIPTOR_SESSION);
 		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Enhancer.INTERNAL_SESSION, Enhancer.METHOD_GET_ENTITY_MANAGER, Enhancer.makeDescription(EntityManagerImpl.class));
@@ -246,7 +249,7 @@ public final class Enhancer {
 
 		//	this.__enhanced__$$__initialized = true;
 		mv.visitLabel(lInitialized);
-		mv.visitFrame(Opcodes.F_NEW, 1, new Object[] { enhancedClassName }, 0, new Object[] {});
+		mv.visitFrame(Opcodes.F_NEW, 2, new Object[] { enhancedClassName, Enhancer.INTERNAL_STRING }, 0, new Object[] {});
 		mv.visitVarInsn(Opcodes.ALOAD, 0);
 		mv.visitInsn(Opcodes.ICONST_1);
 		mv.visitFieldInsn(Opcodes.PUTFIELD, enhancedClassName, Enhancer.FIELD_ENHANCED_INITIALIZED, Enhancer.DESCRIPTOR_BOOLEAN);
@@ -262,13 +265,20 @@ public final class Enhancer {
 		mv.visitFieldInsn(Opcodes.GETFIELD, enhancedClassName, Enhancer.FIELD_ENHANCED_MANAGED_INSTANCE, Enhancer.DESCRIPTOR_MANAGED_INSTANCE);
 		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Enhancer.INTERNAL_MANAGED_INSTANCE, Enhancer.METHOD_CHANGED, Enhancer.makeDescription(Void.TYPE));
 
+		//     this.__enhanced__$$__managedInstance.checkLazyGroup(methodName);
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitFieldInsn(Opcodes.GETFIELD, enhancedClassName, Enhancer.FIELD_ENHANCED_MANAGED_INSTANCE, Enhancer.DESCRIPTOR_MANAGED_INSTANCE);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Enhancer.INTERNAL_MANAGED_INSTANCE, Enhancer.METHOD_CHECK_LAZY_GROUP, Enhancer.makeDescription(Void.TYPE, String.class));
+
 		// return;
 		mv.visitLabel(lReturn);
-		mv.visitFrame(Opcodes.F_NEW, 1, new Object[] { enhancedClassName }, 0, new Object[] {});
+		mv.visitFrame(Opcodes.F_NEW, 2, new Object[] { enhancedClassName, Enhancer.INTERNAL_STRING }, 0, new Object[] {});
 		mv.visitInsn(Opcodes.RETURN);
 
 		mv.visitLabel(lOut);
 		mv.visitLocalVariable(Enhancer.THIS, descEnhancer, null, lCheckInitialized, lOut, 0);
+		mv.visitLocalVariable("methodName", Enhancer.DESCRIPTOR_STRING, null, lCheckInitialized, lOut, 1);
 		mv.visitMaxs(0, 0);
 		mv.visitEnd();
 	}
@@ -387,11 +397,12 @@ public final class Enhancer {
 		final MethodVisitor mv = cw.visitMethod(method.getModifiers(), method.getName(), methodDescription, null, null);
 		mv.visitCode();
 
-		// this.__enhanced_$$__check();
+		// this.__enhanced_$$__check("method");
 		final Label lCheck = new Label();
 		mv.visitLabel(lCheck);
 		mv.visitVarInsn(Opcodes.ALOAD, 0);
-		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, enhancedClassName, Enhancer.METHOD_ENHANCED_CHECK, Enhancer.makeDescription(Void.TYPE));
+		mv.visitLdcInsn(method.getName());
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, enhancedClassName, Enhancer.METHOD_ENHANCED_CHECK, Enhancer.makeDescription(Void.TYPE, String.class));
 
 		mv.visitVarInsn(Opcodes.ALOAD, 0); // load this
 
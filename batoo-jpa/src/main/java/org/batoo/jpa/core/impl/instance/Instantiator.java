@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.instance;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+import org.apache.commons.lang.StringUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * The base class of the instantiators generated per constructor to create the results of the constructor expressions without reflection.
+ * <p>
+ * The instantiators are generated into the class loader and the package of the constructed class, so that the class loader caches them
+ * across the queries with the same constructor signature.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public abstract class Instantiator {
+
+	private static final String SUFFIX_INSTANTIATOR = "$$Instantiator$";
+
+	private static final String CONSTRUCTOR_INIT = "<init>";
+	private static final String METHOD_NEW_INSTANCE = "newInstance";
+
+	private static final String INTERNAL_INSTANTIATOR = Type.getInternalName(Instantiator.class);
+
+	private static byte[] create(String className, Constructor<?> constructor) {
+		final String instantiatorClassName = className.replace('.', '/');
+		final String constructedClassName = Type.getInternalName(constructor.getDeclaringClass());
+		final Class<?>[] parameterTypes = constructor.getParameterTypes();
+
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES + ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC + Opcodes.ACC_FINAL + Opcodes.ACC_SUPER, instantiatorClassName, null,
+			Instantiator.INTERNAL_INSTANTIATOR, null);
+
+		// public Instantiator() { super(); }
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, Instantiator.CONSTRUCTOR_INIT, "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, Instantiator.INTERNAL_INSTANTIATOR, Instantiator.CONSTRUCTOR_INIT, "()V");
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// public Object newInstance(Object[] arguments) { return new Constructed((T0) arguments[0], ...); }
+		mv = cw.visitMethod(Opcodes.ACC_PUBLIC, Instantiator.METHOD_NEW_INSTANCE, "([Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(Opcodes.NEW, constructedClassName);
+		mv.visitInsn(Opcodes.DUP);
+
+		for (int i = 0; i < parameterTypes.length; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitLdcInsn(Integer.valueOf(i));
+			mv.visitInsn(Opcodes.AALOAD);
+
+			Instantiator.unbox(mv, parameterTypes[i]);
+		}
+
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, constructedClassName, Instantiator.CONSTRUCTOR_INIT, Type.getConstructorDescriptor(constructor));
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Returns the instantiator for the constructor, generating it if necessary.
+	 * 
+	 * @param constructor
+	 *            the constructor
+	 * @return the instantiator
+	 * @throws Exception
+	 *             thrown if the instantiator cannot be generated
+	 * 
+	 * @since 2.0.0
+	 */
+	public static Instantiator get(Constructor<?> constructor) throws Exception {
+		final Class<?> constructedClass = constructor.getDeclaringClass();
+		if (!Modifier.isPublic(constructor.getModifiers()) || (constructedClass.getClassLoader() == null)) {
+			throw new IllegalArgumentException("Constructor cannot be accessed by the instantiators: " + constructor);
+		}
+
+		// the name of the instantiator is unique per constructor signature
+		final String className = constructedClass.getName() + Instantiator.SUFFIX_INSTANTIATOR
+			+ Type.getConstructorDescriptor(constructor).replaceAll("[^A-Za-z0-9]", "_");
+
+		try {
+			return (Instantiator) Instantiator.load(constructedClass.getClassLoader(), className, constructor).newInstance();
+		}
+		catch (final LinkageError e) {
+			// the class loader of the constructed class cannot see the instantiator
+			throw new IllegalArgumentException("Instantiator cannot be loaded for: " + constructor, e);
+		}
+	}
+
+	private synchronized static Class<?> load(ClassLoader classLoader, String className, Constructor<?> constructor) throws Exception {
+		try {
+			return Class.forName(className, true, classLoader);
+		}
+		catch (final ClassNotFoundException e) {
+			return Enhancer.loadClass(classLoader, Instantiator.create(className, constructor), className);
+		}
+	}
+
+	private static IllegalArgumentException mismatch(Object value, Class<?> parameterType) {
+		if (value == null) {
+			return new IllegalArgumentException("Null cannot be passed to the parameter of type " + parameterType);
+		}
+
+		return new IllegalArgumentException("Argument of type " + value.getClass().getName() + " cannot be passed to the parameter of type "
+			+ parameterType);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>boolean</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or not a {@link Boolean}
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static boolean toBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return ((Boolean) value).booleanValue();
+		}
+
+		throw Instantiator.mismatch(value, Boolean.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>byte</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or not a {@link Byte}
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static byte toByte(Object value) {
+		if (value instanceof Byte) {
+			return ((Byte) value).byteValue();
+		}
+
+		throw Instantiator.mismatch(value, Byte.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>char</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or not a {@link Character}
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static char toChar(Object value) {
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+
+		throw Instantiator.mismatch(value, Character.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>double</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or cannot be widened to <code>double</code>
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static double toDouble(Object value) {
+		if (value instanceof Double) {
+			return ((Double) value).doubleValue();
+		}
+
+		if (value instanceof Float) {
+			return ((Float) value).floatValue();
+		}
+
+		if (value instanceof Long) {
+			return ((Long) value).longValue();
+		}
+
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+
+		if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			return ((Number) value).intValue();
+		}
+
+		throw Instantiator.mismatch(value, Double.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>float</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or cannot be widened to <code>float</code>
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static float toFloat(Object value) {
+		if (value instanceof Float) {
+			return ((Float) value).floatValue();
+		}
+
+		if (value instanceof Long) {
+			return ((Long) value).longValue();
+		}
+
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+
+		if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			return ((Number) value).intValue();
+		}
+
+		throw Instantiator.mismatch(value, Float.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for an <code>int</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or cannot be widened to <code>int</code>
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static int toInt(Object value) {
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+
+		if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			return ((Number) value).intValue();
+		}
+
+		throw Instantiator.mismatch(value, Integer.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>long</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or cannot be widened to <code>long</code>
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static long toLong(Object value) {
+		if (value instanceof Long) {
+			return ((Long) value).longValue();
+		}
+
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+
+		if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			return ((Number) value).intValue();
+		}
+
+		throw Instantiator.mismatch(value, Long.TYPE);
+	}
+
+	/**
+	 * Returns the value of the argument for a <code>short</code> parameter.
+	 * 
+	 * @param value
+	 *            the argument
+	 * @return the primitive value
+	 * @throws IllegalArgumentException
+	 *             thrown if the argument is null or cannot be widened to <code>short</code>
+	 * 
+	 * @since 2.0.0
+	 */
+	protected static short toShort(Object value) {
+		if ((value instanceof Short) || (value instanceof Byte)) {
+			return ((Number) value).shortValue();
+		}
+
+		throw Instantiator.mismatch(value, Short.TYPE);
+	}
+
+	private static void unbox(MethodVisitor mv, Class<?> parameterType) {
+		if (!parameterType.isPrimitive()) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(parameterType));
+
+			return;
+		}
+
+		// the primitives are unboxed with the widening conversions of the reflection, rejecting the nulls and the narrowing conversions
+		final Type type = Type.getType(parameterType);
+
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, Instantiator.INTERNAL_INSTANTIATOR, "to" + StringUtils.capitalize(type.getClassName()),
+			"(Ljava/lang/Object;)" + type.getDescriptor());
+	}
+
+	/**
+	 * Creates a new instance with the arguments.
+	 * 
+	 * @param arguments
+	 *            the arguments of the constructor
+	 * @return the new instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public abstract Object newInstance(Object[] arguments);
+}
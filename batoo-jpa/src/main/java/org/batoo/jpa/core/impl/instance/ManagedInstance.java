@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute.PersistentAttributeType;
 import javax.persistence.metamodel.PluralAttribute.CollectionType;
 
@@ -40,6 +41,7 @@ import org.apache.commons.lang.mutable.MutableBoolean;
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
 import org.batoo.common.reflect.AbstractAccessor;
+import org.batoo.jpa.core.impl.criteria.SubselectQuery;
 import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
 import org.batoo.jpa.core.impl.manager.SessionImpl;
 import org.batoo.jpa.core.impl.model.EntityTypeImpl;
@@ -54,6 +56,7 @@ import org.batoo.jpa.core.impl.model.mapping.PluralMappingEx;
 import org.batoo.jpa.core.impl.model.mapping.SingularAssociationMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.SingularMappingEx;
 import org.batoo.jpa.core.util.Pair;
+import org.batoo.jpa.jdbc.AbstractColumn;
 import org.batoo.jpa.jdbc.mapping.SingularMapping;
 import org.batoo.jpa.parser.metadata.EntityListenerMetadata.EntityListenerType;
 
@@ -80,15 +83,18 @@ public class ManagedInstance<X> {
 	private Status status;
 	private Status oldStatus;
 	private LockModeType lockMode;
+	private final Set<AbstractMapping<?, ?, ?>> lazyMappings;
 
 	private final HashMap<AbstractMapping<?, ?, ?>, Object> snapshot = Maps.newHashMap();
 	private final HashSet<String> joinsLoaded;
+	private HashSet<String> lazyGroupsPending;
 	private final ArrayList<PluralMappingEx<?, ?, ?>> collectionsChanged;
 
 	private boolean loading;
 	private boolean loadingFromCache;
 	private boolean refreshing;
 	private boolean changed;
+	private SubselectQuery subselectQuery;
 
 	private boolean hasInitialId;
 	private ManagedId<? super X> id;
@@ -104,6 +110,11 @@ public class ManagedInstance<X> {
 	 */
 	public static ThreadLocal<LockModeType> LOCK_CONTEXT = new ThreadLocal<LockModeType>();
 
+	/**
+	 * The eager associations left lazy by the fetch profile of the current load.
+	 */
+	public static ThreadLocal<Set<AbstractMapping<?, ?, ?>>> LAZY_CONTEXT = new ThreadLocal<Set<AbstractMapping<?, ?, ?>>>();
+
 	/**
 	 * @param type
 	 *            the entity type of the instance
@@ -121,6 +132,7 @@ public class ManagedInstance<X> {
 		this.session = session;
 		this.instance = instance;
 		this.lockMode = ManagedInstance.LOCK_CONTEXT.get();
+		this.lazyMappings = ManagedInstance.LAZY_CONTEXT.get();
 
 		this.collectionsChanged = Lists.newArrayList();
 		this.joinsLoaded = Sets.newHashSet();
@@ -346,6 +358,55 @@ public class ManagedInstance<X> {
 		}
 	}
 
+	/**
+	 * Loads the lazy group of the basic attribute accessed by the method if the group has not been loaded yet.
+	 * <p>
+	 * Invoked by the enhanced instances before the method is delegated to the entity. Methods that are not accessors of the
+	 * attributes may read the lazy fields directly, so all the pending lazy groups are loaded before them.
+	 * 
+	 * @param methodName
+	 *            the name of the method invoked
+	 * 
+	 * @since 2.0.0
+	 */
+	public void checkLazyGroup(String methodName) {
+		if ((this.lazyGroupsPending == null) || this.loading) {
+			return;
+		}
+
+		final String group = this.type.getLazyGroup(methodName);
+		if (group != null) {
+			if (!this.lazyGroupsPending.contains(group)) {
+				return;
+			}
+		}
+		else if (this.type.isEagerAccessor(methodName)) {
+			return;
+		}
+
+		final EntityManagerImpl entityManager = this.session.getEntityManager();
+		if (!entityManager.isOpen()) {
+			throw new PersistenceException("No session to load the lazy attributes of the instance");
+		}
+
+		try {
+			if (group != null) {
+				this.loadLazyGroup(entityManager.getReadConnection(false), group);
+			}
+			else {
+				this.loadLazyGroups(entityManager.getReadConnection(false));
+			}
+		}
+		catch (final SQLException e) {
+			entityManager.setRollbackOnly();
+
+			throw new PersistenceException("Unable to load the lazy attributes of the instance " + this, e);
+		}
+		finally {
+			entityManager.closeConnectionIfNecessary();
+		}
+	}
+
 	/**
 	 * Checks that no association of the instance is transient
 	 * 
@@ -378,6 +439,11 @@ public class ManagedInstance<X> {
 	private boolean checkUpdatedImpl() {
 		// iterate over old values
 		for (final AbstractMapping<?, ?, ?> mapping : this.type.getMappingsSingular()) {
+			// lazy attributes not loaded yet cannot have been changed
+			if (this.isLazyPending(mapping)) {
+				continue;
+			}
+
 			final Object newValue = mapping.get(this.instance);
 			final Object oldValue = this.snapshot.get(mapping);
 
@@ -579,6 +645,45 @@ public class ManagedInstance<X> {
 		return this.session;
 	}
 
+	/**
+	 * Returns the columns to leave out of the update of the instance.
+	 * <p>
+	 * The stream attributes are written only if a new stream has been assigned, as the stream loaded may already be read by the
+	 * application. The attributes of the lazy groups not loaded yet are left out so that the update does not overwrite them with the
+	 * values never loaded.
+	 * 
+	 * @return the columns to leave out of the update or null
+	 * 
+	 * @since 2.0.0
+	 */
+	public Set<AbstractColumn> getSkippedUpdateColumns() {
+		HashSet<AbstractColumn> skippedColumns = null;
+
+		for (final AbstractMapping<?, ?, ?> mapping : this.type.getMappingsSingular()) {
+			if (!(mapping instanceof BasicMappingImpl)) {
+				continue;
+			}
+
+			if (!this.isLazyPending(mapping)) {
+				if (!((BasicMappingImpl<?, ?>) mapping).getAttribute().isStream()) {
+					continue;
+				}
+
+				if (!this.snapshot.containsKey(mapping) || (this.snapshot.get(mapping) != mapping.get(this.instance))) {
+					continue;
+				}
+			}
+
+			if (skippedColumns == null) {
+				skippedColumns = Sets.newHashSet();
+			}
+
+			skippedColumns.add(((BasicMappingImpl<?, ?>) mapping).getColumn());
+		}
+
+		return skippedColumns;
+	}
+
 	/**
 	 * Returns the status.
 	 * 
@@ -589,6 +694,17 @@ public class ManagedInstance<X> {
 		return this.status;
 	}
 
+	/**
+	 * Returns the last query that returned the instance, to be used to load the collections with the subselect fetch strategy.
+	 * 
+	 * @return the subselect query or null
+	 * 
+	 * @since 2.0.0
+	 */
+	public SubselectQuery getSubselectQuery() {
+		return this.subselectQuery;
+	}
+
 	/**
 	 * Returns the type.
 	 * 
@@ -804,17 +920,35 @@ public class ManagedInstance<X> {
 	public boolean isJoinLoaded(String attributeName) {
 		final AbstractMapping<?, ?, ?> mapping = this.type.getRootMapping().getMapping(attributeName);
 
-		if ((mapping instanceof BasicMappingImpl) || (mapping instanceof EmbeddedMappingImpl)) {
+		if (mapping instanceof BasicMappingImpl) {
+			return !this.isLazyPending(mapping);
+		}
+
+		if (mapping instanceof EmbeddedMappingImpl) {
 			return true;
 		}
 
-		if (((AssociationMappingImpl<?, ?, ?>) mapping).isEager()) {
+		if (((AssociationMappingImpl<?, ?, ?>) mapping).isEager() && !this.isLazy(mapping)) {
 			return true;
 		}
 
 		return this.joinsLoaded.contains(mapping.getPath());
 	}
 
+	private boolean isLazy(Object mapping) {
+		return (this.lazyMappings != null) && this.lazyMappings.contains(mapping);
+	}
+
+	private boolean isLazyPending(AbstractMapping<?, ?, ?> mapping) {
+		if ((this.lazyGroupsPending == null) || !(mapping instanceof BasicMappingImpl)) {
+			return false;
+		}
+
+		final String group = ((BasicMappingImpl<?, ?>) mapping).getAttribute().getLazyGroup();
+
+		return (group != null) && this.lazyGroupsPending.contains(group);
+	}
+
 	/**
 	 * Returns if the instance is loading.
 	 * 
@@ -848,6 +982,31 @@ public class ManagedInstance<X> {
 		return this.refreshing;
 	}
 
+	private void loadLazyGroup(Connection connection, String group) throws SQLException {
+		ManagedInstance.LOG.debug("Loading lazy group {0} of instance {1}", group, this);
+
+		this.type.performLoadLazyGroup(connection, this, group);
+
+		// the group remains pending if the select fails
+		this.lazyGroupsPending.remove(group);
+		if (this.lazyGroupsPending.isEmpty()) {
+			this.lazyGroupsPending = null;
+		}
+
+		// the loaded values are the base of the change detection
+		if (this.snapshot.size() > 0) {
+			for (final BasicMappingImpl<?, ?> mapping : this.type.getLazyGroups().get(group)) {
+				this.snapshot.put(mapping, mapping.get(this.instance));
+			}
+		}
+	}
+
+	private void loadLazyGroups(Connection connection) throws SQLException {
+		while (this.lazyGroupsPending != null) {
+			this.loadLazyGroup(connection, this.lazyGroupsPending.iterator().next());
+		}
+	}
+
 	/**
 	 * Merges the instance state with the <code>entity</code>.
 	 * 
@@ -868,7 +1027,14 @@ public class ManagedInstance<X> {
 		LinkedList<ManagedInstance<?>> instances) {
 		this.snapshot();
 
+		// the lazy attributes the entity has not loaded are kept as they are
+		final ManagedInstance<?> source = entity instanceof EnhancedInstance ? ((EnhancedInstance) entity).__enhanced__$$__getManagedInstance() : null;
+
 		for (final BasicMappingImpl<?, ?> mapping : this.type.getBasicMappings()) {
+			if ((source != null) && source.isLazyPending(mapping)) {
+				continue;
+			}
+
 			mapping.set(this.instance, mapping.get(entity));
 		}
 
@@ -892,7 +1058,7 @@ public class ManagedInstance<X> {
 		for (final PluralMappingEx<?, ?, ?> mapping : this.type.getMappingsPlural()) {
 			final HashSet<String> joinsLoaded2 = _joinsLoaded;
 			if (!joinsLoaded2.contains(mapping.getPath())) {
-				if (mapping.isEager()) {
+				if (mapping.isEager() && !this.isLazy(mapping)) {
 					mapping.load(this);
 				}
 				else {
@@ -907,9 +1073,13 @@ public class ManagedInstance<X> {
 		for (final SingularAssociationMappingImpl<?, ?> mapping : this.type.getAssociationsSingular()) {
 			if (mapping.isEager()) {
 				if (!_joinsLoaded.contains(mapping.getPath())) {
-					mapping.initialize(this);
+					// the associations left lazy by the fetch profile that own a foreign key are null
+					if (!this.isLazy(mapping) || (mapping.getForeignKey() == null)) {
+						mapping.initialize(this);
+					}
 				}
-				else {
+				// the associates left lazy by the fetch profile remain references
+				else if (!this.isLazy(mapping)) {
 					final Object associate = mapping.get(_instance);
 					if (associate instanceof EnhancedInstance) {
 						final EnhancedInstance enhancedInstance = (EnhancedInstance) associate;
@@ -979,6 +1149,17 @@ public class ManagedInstance<X> {
 		this.collectionsChanged.add(association);
 	}
 
+	/**
+	 * Marks the lazy groups of the instance as not loaded.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setLazyGroupsPending() {
+		final HashMap<String, BasicMappingImpl<?, ?>[]> lazyGroups = this.type.getLazyGroups();
+
+		this.lazyGroupsPending = lazyGroups.isEmpty() ? null : Sets.newHashSet(lazyGroups.keySet());
+	}
+
 	/**
 	 * Sets the association as loaded.
 	 * 
@@ -1044,6 +1225,18 @@ public class ManagedInstance<X> {
 		}
 	}
 
+	/**
+	 * Sets the last query that returned the instance.
+	 * 
+	 * @param subselectQuery
+	 *            the subselect query
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setSubselectQuery(SubselectQuery subselectQuery) {
+		this.subselectQuery = subselectQuery;
+	}
+
 	/**
 	 * Creates a snapshot of the entity.
 	 * 
@@ -1054,6 +1247,10 @@ public class ManagedInstance<X> {
 
 		if (this.snapshot.size() == 0) {
 			for (final AbstractMapping<?, ?, ?> mapping : this.type.getMappingsSingular()) {
+				if (this.isLazyPending(mapping)) {
+					continue;
+				}
+
 				this.snapshot.put(mapping, mapping.get(this.instance));
 			}
 		}
@@ -18,6 +18,7 @@
  */
 package org.batoo.jpa.core.impl.manager;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -27,17 +28,19 @@ import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
-import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.LockModeType;
 import javax.persistence.PersistenceException;
 import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
+import javax.persistence.SharedCacheMode;
 import javax.sql.DataSource;
 import javax.validation.Validation;
 import javax.validation.ValidationException;
@@ -50,6 +53,7 @@ import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
 import org.batoo.jpa.BJPASettings;
 import org.batoo.jpa.JPASettings;
+import org.batoo.jpa.core.impl.cache.CacheImpl;
 import org.batoo.jpa.core.impl.criteria.CriteriaBuilderImpl;
 import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.impl.criteria.jpql.JpqlQuery;
@@ -57,13 +61,17 @@ import org.batoo.jpa.core.impl.deployment.DdlManager;
 import org.batoo.jpa.core.impl.deployment.LinkManager;
 import org.batoo.jpa.core.impl.deployment.NamedQueriesManager;
 import org.batoo.jpa.core.impl.model.MetamodelImpl;
+import org.batoo.jpa.core.impl.nativeQuery.NativeResultPlan;
 import org.batoo.jpa.jdbc.AbstractDataSource;
+import org.batoo.jpa.jdbc.AsyncSqlLogger;
 import org.batoo.jpa.jdbc.BoneCPDataSource;
 import org.batoo.jpa.jdbc.DDLMode;
 import org.batoo.jpa.jdbc.DataSourceProxy;
 import org.batoo.jpa.jdbc.PreparedStatementProxy.SqlLoggingType;
+import org.batoo.jpa.jdbc.ReplicaDataSource;
 import org.batoo.jpa.jdbc.adapter.AbstractJdbcAdaptor;
 import org.batoo.jpa.jdbc.adapter.JdbcAdaptor;
+import org.batoo.jpa.jdbc.statistics.SqlStatistics;
 import org.batoo.jpa.parser.AbstractLocator;
 import org.batoo.jpa.parser.PersistenceParser;
 import org.batoo.jpa.parser.metadata.NamedQueryMetadata;
@@ -99,6 +107,7 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 	private final PersistenceUnitUtilImpl persistenceUtil;
 
 	private final HashMap<String, JpqlQuery> jpqlCache = Maps.newHashMap();
+	private final ConcurrentMap<String, NativeResultPlan> nativeResultPlans = Maps.newConcurrentMap();
 	private final ClassLoader classloader;
 
 	private final ValidatorFactory validationFactory;
@@ -107,10 +116,14 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 	private final Class<?>[] removeValidators;
 
 	private final int maxFetchJoinDepth;
+	private final CacheImpl cache;
 
 	private boolean open;
 
 	private AbstractDataSource dataSourcePool;
+	private DataSourceProxy replicaDataSource;
+	private final SqlStatistics sqlStatistics;
+	private AsyncSqlLogger sqlLogger;
 
 	/**
 	 * @param name
@@ -149,6 +162,41 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.SQL_LOGGING) + " for " + BJPASettings.SQL_LOGGING);
 		}
 
+		final long offHeapSize;
+		try {
+			offHeapSize = this.getProperty(BJPASettings.CACHE_OFF_HEAP_SIZE) != null ? //
+				Long.valueOf(((String) this.getProperty(BJPASettings.CACHE_OFF_HEAP_SIZE))) : //
+				BJPASettings.DEFAULT_CACHE_OFF_HEAP_SIZE;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.CACHE_OFF_HEAP_SIZE) + " for "
+				+ BJPASettings.CACHE_OFF_HEAP_SIZE);
+		}
+
+		final int cacheMaxSize;
+		try {
+			cacheMaxSize = this.getProperty(BJPASettings.CACHE_MAX_SIZE) != null ? //
+				Integer.valueOf(((String) this.getProperty(BJPASettings.CACHE_MAX_SIZE))) : //
+				BJPASettings.DEFAULT_CACHE_MAX_SIZE;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.CACHE_MAX_SIZE) + " for " + BJPASettings.CACHE_MAX_SIZE);
+		}
+
+		final int queryCacheMaxSize;
+		try {
+			queryCacheMaxSize = this.getProperty(BJPASettings.QUERY_CACHE_MAX_SIZE) != null ? //
+				Integer.valueOf(((String) this.getProperty(BJPASettings.QUERY_CACHE_MAX_SIZE))) : //
+				BJPASettings.DEFAULT_QUERY_CACHE_MAX_SIZE;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.QUERY_CACHE_MAX_SIZE) + " for "
+				+ BJPASettings.QUERY_CACHE_MAX_SIZE);
+		}
+
+		this.cache = new CacheImpl(this, this.readSharedCacheMode(parser), offHeapSize, cacheMaxSize, queryCacheMaxSize);
+
+		this.sqlStatistics = this.createSqlStatistics();
 		this.dataSource = this.createDatasource(name, parser);
 
 		this.ddlMode = this.readDdlMode();
@@ -179,6 +227,10 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 
 		this.jdbcAdaptor.importSql(this.classloader, this.dataSource, (String) this.getProperties().get(BJPASettings.IMPORT_SQL));
 
+		if (this.sqlStatistics != null) {
+			this.sqlStatistics.register(name);
+		}
+
 		this.open = true;
 	}
 
@@ -271,6 +323,18 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 
 		this.dataSource.close();
 
+		if (this.replicaDataSource != null) {
+			this.replicaDataSource.close();
+		}
+
+		if (this.sqlStatistics != null) {
+			this.sqlStatistics.unregister();
+		}
+
+		if (this.sqlLogger != null) {
+			this.sqlLogger.close();
+		}
+
 		this.open = false;
 	}
 
@@ -278,6 +342,7 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		SqlLoggingType sqlLogging;
 		long slowSqlThreshold;
 		int jdbcFetchSize;
+		int statementCacheSize;
 
 		try {
 			sqlLogging = this.getProperty(BJPASettings.SQL_LOGGING) != null ? //
@@ -298,6 +363,10 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.SLOW_SQL_THRESHOLD) + " for " + BJPASettings.SLOW_SQL_THRESHOLD);
 		}
 
+		if (sqlLogging == SqlLoggingType.ASYNC) {
+			this.sqlLogger = this.createSqlLogger(slowSqlThreshold);
+		}
+
 		try {
 			jdbcFetchSize = this.getProperty(BJPASettings.FETCH_SIZE) != null ? //
 				Integer.valueOf((String) this.getProperty(BJPASettings.FETCH_SIZE)) : //
@@ -308,34 +377,59 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.FETCH_SIZE) + " for " + BJPASettings.FETCH_SIZE);
 		}
 
+		try {
+			statementCacheSize = this.getProperty(BJPASettings.STATEMENT_CACHE_SIZE) != null ? //
+				Integer.valueOf((String) this.getProperty(BJPASettings.STATEMENT_CACHE_SIZE)) : //
+				BJPASettings.DEFAULT_STATEMENT_CACHE_SIZE;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.STATEMENT_CACHE_SIZE) + " for "
+				+ BJPASettings.STATEMENT_CACHE_SIZE);
+		}
+
 		if (this.getProperty(BJPASettings.DATASOURCE_POOL) != null) {
-			final String poolClassName = (String) this.getProperty(BJPASettings.DATASOURCE_POOL);
-			final String hintName = (String) this.getProperty(BJPASettings.DATASOURCE_NAME);
-			try {
-				final Object newInstance = this.classloader.loadClass(poolClassName).newInstance();
-				if (newInstance instanceof AbstractDataSource) {
-					this.dataSourcePool = (AbstractDataSource) newInstance;
-				}
-				else {
-					throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.DATASOURCE_POOL) + " for "
-						+ BJPASettings.DATASOURCE_POOL + " Please provide a datasource pool implementation extending org.batoo.jpa.jdbc.AbstractDataSourcePool");
-				}
-			}
-			catch (final Exception e) {
-				throw new IllegalArgumentException("Class not found: " + this.getProperty(BJPASettings.DATASOURCE_POOL));
+			this.dataSourcePool = this.createDatasourcePool(persistanceUnitName, (String) this.getProperty(JPASettings.JDBC_URL));
+		}
+
+		this.replicaDataSource = this.createReplicaDatasource(persistanceUnitName, sqlLogging, slowSqlThreshold, jdbcFetchSize, statementCacheSize);
+
+		return this.createDatasourceProxy(parser, sqlLogging, slowSqlThreshold, jdbcFetchSize, statementCacheSize);
+	}
+
+	private AbstractDataSource createDatasourcePool(String persistanceUnitName, String jdbcUrl) {
+		final String poolClassName = (String) this.getProperty(BJPASettings.DATASOURCE_POOL);
+		final String hintName = (String) this.getProperty(BJPASettings.DATASOURCE_NAME);
+
+		final AbstractDataSource dataSourcePool;
+		try {
+			final Object newInstance = this.classloader.loadClass(poolClassName).newInstance();
+			if (newInstance instanceof AbstractDataSource) {
+				dataSourcePool = (AbstractDataSource) newInstance;
 			}
-			finally {
-				this.dataSourcePool.open(persistanceUnitName, hintName);
+			else {
+				throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.DATASOURCE_POOL) + " for "
+					+ BJPASettings.DATASOURCE_POOL + " Please provide a datasource pool implementation extending org.batoo.jpa.jdbc.AbstractDataSourcePool");
 			}
 		}
-		return this.createDatasourceProxy(parser, sqlLogging, slowSqlThreshold, jdbcFetchSize);
+		catch (final IllegalArgumentException e) {
+			throw e;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Class not found: " + this.getProperty(BJPASettings.DATASOURCE_POOL));
+		}
+
+		final Map<String, Object> properties = Maps.newHashMap(this.properties);
+		properties.put(JPASettings.JDBC_URL, jdbcUrl);
+
+		dataSourcePool.open(persistanceUnitName, hintName, properties);
+
+		return dataSourcePool;
 	}
 
-	private DataSource createDatasource0(PersistenceParser parser) {
+	private DataSource createDatasource0(String jdbcUrl) {
 		try {
 			// read the properties
 			final String jdbcDriver = (String) this.getProperty(JPASettings.JDBC_DRIVER);
-			final String jdbcUrl = (String) this.getProperty(JPASettings.JDBC_URL);
 			final String jdbcUser = (String) this.getProperty(JPASettings.JDBC_USER);
 			final String jdbcPassword = (String) this.getProperty(JPASettings.JDBC_PASSWORD);
 
@@ -374,19 +468,54 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		}
 	}
 
-	private DataSourceProxy createDatasourceProxy(PersistenceParser parser, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize) {
+	private DataSourceProxy createDatasourceProxy(PersistenceParser parser, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize,
+		int statementCacheSize) {
 		final boolean external = (parser.getJtaDataSource() != null) || (parser.getNonJtaDataSource() != null);
 		if (parser.getJtaDataSource() != null) {
-			return new DataSourceProxy(parser.getJtaDataSource(), external, sqlLogging, slowSqlThreshold, jdbcFetchSize);
+			return new DataSourceProxy(parser.getJtaDataSource(), external, sqlLogging, slowSqlThreshold, jdbcFetchSize,
+				statementCacheSize, this.sqlStatistics, this.sqlLogger);
 		}
 		if (parser.getNonJtaDataSource() != null) {
-			return new DataSourceProxy(parser.getNonJtaDataSource(), external, sqlLogging, slowSqlThreshold, jdbcFetchSize);
+			return new DataSourceProxy(parser.getNonJtaDataSource(), external, sqlLogging, slowSqlThreshold, jdbcFetchSize,
+				statementCacheSize, this.sqlStatistics, this.sqlLogger);
 		}
 
 		if (this.dataSourcePool != null) {
-			return new DataSourceProxy(this.dataSourcePool, external, sqlLogging, slowSqlThreshold, jdbcFetchSize);
+			return new DataSourceProxy(this.dataSourcePool, external, sqlLogging, slowSqlThreshold, jdbcFetchSize,
+				statementCacheSize, this.sqlStatistics, this.sqlLogger);
+		}
+
+		// BoneCP caches the statements itself
+		return new DataSourceProxy(this.createDatasource0((String) this.getProperty(JPASettings.JDBC_URL)), external, sqlLogging, slowSqlThreshold,
+			jdbcFetchSize, 0, this.sqlStatistics, this.sqlLogger);
+	}
+
+	private DataSourceProxy createReplicaDatasource(String persistanceUnitName, SqlLoggingType sqlLogging, long slowSqlThreshold, int jdbcFetchSize,
+		int statementCacheSize) {
+		final String replicaUrls = (String) this.getProperty(BJPASettings.REPLICA_URLS);
+		if (StringUtils.isBlank(replicaUrls)) {
+			return null;
+		}
+
+		final List<DataSource> replicas = Lists.newArrayList();
+		for (final String jdbcUrl : Splitter.on(",").trimResults().omitEmptyStrings().split(replicaUrls)) {
+			if (this.dataSourcePool != null) {
+				replicas.add(this.createDatasourcePool(persistanceUnitName, jdbcUrl));
+			}
+			else {
+				replicas.add(this.createDatasource0(jdbcUrl));
+			}
 		}
-		return new DataSourceProxy(this.createDatasource0(parser), external, sqlLogging, slowSqlThreshold, jdbcFetchSize);
+
+		if (replicas.isEmpty()) {
+			return null;
+		}
+
+		EntityManagerFactoryImpl.LOG.info("Reads will be balanced over {0} replica(s)", replicas.size());
+
+		// BoneCP caches the statements itself
+		return new DataSourceProxy(new ReplicaDataSource(replicas), false, sqlLogging, slowSqlThreshold, jdbcFetchSize,
+			this.dataSourcePool != null ? statementCacheSize : 0, this.sqlStatistics, this.sqlLogger);
 	}
 
 	/**
@@ -429,6 +558,26 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.INSERT_BATCH_SIZE) + " for " + BJPASettings.INSERT_BATCH_SIZE);
 		}
 
+		int insertBatchSizeMin;
+		try {
+			insertBatchSizeMin = this.getProperty(BJPASettings.INSERT_BATCH_SIZE_MIN) != null ? //
+				Integer.valueOf(((String) this.getProperty(BJPASettings.INSERT_BATCH_SIZE_MIN))) : //
+				BJPASettings.DEFAULT_INSERT_BATCH_SIZE_MIN;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.INSERT_BATCH_SIZE_MIN) + " for " + BJPASettings.INSERT_BATCH_SIZE_MIN);
+		}
+
+		int insertBatchSizeMax;
+		try {
+			insertBatchSizeMax = this.getProperty(BJPASettings.INSERT_BATCH_SIZE_MAX) != null ? //
+				Integer.valueOf(((String) this.getProperty(BJPASettings.INSERT_BATCH_SIZE_MAX))) : //
+				BJPASettings.DEFAULT_INSERT_BATCH_SIZE_MAX;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.INSERT_BATCH_SIZE_MAX) + " for " + BJPASettings.INSERT_BATCH_SIZE_MAX);
+		}
+
 		int removeBatchSize;
 		try {
 			removeBatchSize = this.getProperty(BJPASettings.REMOVE_BATCH_SIZE) != null ? //
@@ -445,6 +594,8 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 				final JdbcAdaptor adapter = AbstractJdbcAdaptor.getAdapter(this.classloader, connection.getMetaData().getDatabaseProductName());
 
 				adapter.setInsertBatchSize(insertBatchSize);
+				adapter.setInsertBatchSizeMin(insertBatchSizeMin);
+				adapter.setInsertBatchSizeMax(insertBatchSizeMax);
 				adapter.setRemoveBatchSize(removeBatchSize);
 
 				return adapter;
@@ -458,6 +609,38 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		}
 	}
 
+	private AsyncSqlLogger createSqlLogger(long slowSqlThreshold) {
+		final String fileName = this.getProperty(BJPASettings.SQL_LOGGING_FILE) != null ? //
+			(String) this.getProperty(BJPASettings.SQL_LOGGING_FILE) : //
+			BJPASettings.DEFAULT_SQL_LOGGING_FILE;
+
+		final int bufferSize;
+		try {
+			bufferSize = this.getProperty(BJPASettings.SQL_LOGGING_BUFFER_SIZE) != null ? //
+				Integer.valueOf((String) this.getProperty(BJPASettings.SQL_LOGGING_BUFFER_SIZE)) : //
+				BJPASettings.DEFAULT_SQL_LOGGING_BUFFER_SIZE;
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + this.getProperty(BJPASettings.SQL_LOGGING_BUFFER_SIZE) + " for "
+				+ BJPASettings.SQL_LOGGING_BUFFER_SIZE);
+		}
+
+		try {
+			return new AsyncSqlLogger(fileName, bufferSize, slowSqlThreshold);
+		}
+		catch (final IOException e) {
+			throw new IllegalArgumentException("Illegal value " + fileName + " for " + BJPASettings.SQL_LOGGING_FILE, e);
+		}
+	}
+
+	private SqlStatistics createSqlStatistics() {
+		if ("false".equalsIgnoreCase((String) this.getProperty(BJPASettings.SQL_STATISTICS))) {
+			return null;
+		}
+
+		return new SqlStatistics();
+	}
+
 	private ValidatorFactory createValidationFactory() {
 		try {
 			return Validation.buildDefaultValidatorFactory();
@@ -480,8 +663,8 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 	 * 
 	 */
 	@Override
-	public Cache getCache() {
-		return null;
+	public CacheImpl getCache() {
+		return this.cache;
 	}
 
 	/**
@@ -517,6 +700,17 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		return this.dataSource;
 	}
 
+	/**
+	 * Returns the datasource that balances the reads over the replicas of the database.
+	 * 
+	 * @return the replica datasource or <code>null</code> if no replicas are configured
+	 * 
+	 * @since 2.0.0
+	 */
+	protected DataSource getReplicaDatasource() {
+		return this.replicaDataSource;
+	}
+
 	/**
 	 * Returns the JDBC Adaptor of the entity manager factory.
 	 * 
@@ -619,6 +813,19 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		return this.namedQueries.get(name);
 	}
 
+	/**
+	 * Returns the cached result plan of the native query.
+	 * 
+	 * @param key
+	 *            the key of the plan, composed of the SQL and the result class or the result set mapping
+	 * @return the result plan or <code>null</code> if the plan has not been resolved yet
+	 * 
+	 * @since 2.0.0
+	 */
+	public NativeResultPlan getNativeResultPlan(String key) {
+		return this.nativeResultPlans.get(key);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -672,6 +879,28 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		return this.removeValidators;
 	}
 
+	/**
+	 * Returns the asynchronous SQL logger.
+	 * 
+	 * @return the asynchronous SQL logger or null if the SQL logging is not {@link SqlLoggingType#ASYNC}
+	 * 
+	 * @since 2.0.0
+	 */
+	public AsyncSqlLogger getSqlLogger() {
+		return this.sqlLogger;
+	}
+
+	/**
+	 * Returns the execution statistics of the SQL statements.
+	 * 
+	 * @return the execution statistics of the SQL statements or null if the statistics are disabled
+	 * 
+	 * @since 2.0.0
+	 */
+	public SqlStatistics getSqlStatistics() {
+		return this.sqlStatistics;
+	}
+
 	/**
 	 * Returns the set of update validators.
 	 * 
@@ -749,6 +978,25 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		this.properties.putAll(parser.getProperties());
 	}
 
+	/**
+	 * Caches the result plan of the native query.
+	 * 
+	 * @param key
+	 *            the key of the plan, composed of the SQL and the result class or the result set mapping
+	 * @param plan
+	 *            the result plan
+	 * 
+	 * @since 2.0.0
+	 */
+	public void putNativeResultPlan(String key, NativeResultPlan plan) {
+		// clean up job
+		if (this.nativeResultPlans.size() >= EntityManagerFactoryImpl.NO_QUERIES_MAX) {
+			this.nativeResultPlans.clear();
+		}
+
+		this.nativeResultPlans.put(key, plan);
+	}
+
 	private DDLMode readDdlMode() {
 		final String ddlMode = (String) this.getProperty(BJPASettings.DDL);
 
@@ -759,6 +1007,25 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 		return DDLMode.valueOf(ddlMode.toUpperCase());
 	}
 
+	private SharedCacheMode readSharedCacheMode(PersistenceParser parser) {
+		final Object sharedCacheMode = this.getProperty(JPASettings.SHARED_CACHE_MODE);
+
+		if (sharedCacheMode == null) {
+			return parser.getSharedCacheMode();
+		}
+
+		if (sharedCacheMode instanceof SharedCacheMode) {
+			return (SharedCacheMode) sharedCacheMode;
+		}
+
+		try {
+			return SharedCacheMode.valueOf(sharedCacheMode.toString().toUpperCase(Locale.ENGLISH));
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException("Illegal value " + sharedCacheMode + " for " + JPASettings.SHARED_CACHE_MODE);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -770,6 +1037,10 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 			return (T) this;
 		}
 
+		if (clazz == DataSourceProxy.class) {
+			return (T) this.dataSource;
+		}
+
 		if ((clazz == BoneCPDataSource.class) && (this.dataSource.getDelegate() instanceof BoneCPDataSource)) {
 			return (T) this.dataSource.getDelegate();
 		}
@@ -778,6 +1049,10 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory, Serializa
 			return (T) this.dataSource.getDelegate();
 		}
 
+		if (AbstractDataSource.class.isAssignableFrom(clazz) && clazz.isInstance(this.dataSource.getDelegate())) {
+			return (T) this.dataSource.getDelegate();
+		}
+
 		return null;
 	}
 }
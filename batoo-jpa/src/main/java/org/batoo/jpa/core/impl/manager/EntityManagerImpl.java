@@ -22,12 +22,14 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.CacheRetrieveMode;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
@@ -43,12 +45,16 @@ import javax.sql.DataSource;
 import javax.validation.ConstraintViolationException;
 
 import org.apache.commons.lang.mutable.MutableBoolean;
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.JPASettings;
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.core.BatooEntityManager;
 import org.batoo.jpa.core.impl.criteria.CriteriaBuilderImpl;
 import org.batoo.jpa.core.impl.criteria.CriteriaDeleteImpl;
 import org.batoo.jpa.core.impl.criteria.CriteriaQueryImpl;
 import org.batoo.jpa.core.impl.criteria.CriteriaUpdateImpl;
+import org.batoo.jpa.core.impl.criteria.PreparedQueryImpl;
 import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.impl.criteria.jpql.JpqlQuery;
 import org.batoo.jpa.core.impl.instance.EnhancedInstance;
@@ -56,11 +62,15 @@ import org.batoo.jpa.core.impl.instance.ManagedId;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
 import org.batoo.jpa.core.impl.instance.Status;
 import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.impl.model.FetchProfileImpl;
 import org.batoo.jpa.core.impl.model.MetamodelImpl;
+import org.batoo.jpa.core.impl.model.mapping.AbstractMapping;
 import org.batoo.jpa.core.impl.model.mapping.AssociationMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.PluralAssociationMappingImpl;
 import org.batoo.jpa.core.impl.nativeQuery.NativeQuery;
 import org.batoo.jpa.jdbc.adapter.JdbcAdaptor;
+import org.batoo.jpa.jdbc.statistics.SqlStatistics;
+import org.batoo.jpa.jdbc.statistics.StatementStatisticsSnapshot;
 import org.batoo.jpa.parser.metadata.EntityListenerMetadata.EntityListenerType;
 
 import com.google.common.base.Joiner;
@@ -74,7 +84,7 @@ import com.google.common.collect.Sets;
  * @author hceylan
  * @since 2.0.0
  */
-public class EntityManagerImpl implements EntityManager {
+public class EntityManagerImpl implements BatooEntityManager {
 
 	private static final BLogger LOG = BLoggerFactory.getLogger(EntityManagerImpl.class);
 
@@ -89,6 +99,10 @@ public class EntityManagerImpl implements EntityManager {
 	private boolean open;
 
 	private Connection connection;
+	private Connection readConnection;
+	private boolean connectionPinned;
+	private boolean written;
+	private final List<PreparedQueryImpl<?>> preparedQueries = Lists.newArrayList();
 	private EntityTransactionImpl transaction;
 	private boolean rollbackOnly;
 
@@ -126,6 +140,22 @@ public class EntityManagerImpl implements EntityManager {
 		this.open = true;
 	}
 
+	/**
+	 * Adds the prepared query handle to be closed along with the connection.
+	 * 
+	 * @param preparedQuery
+	 *            the prepared query handle
+	 * 
+	 * @since 2.0.0
+	 */
+	public void addPreparedQuery(PreparedQueryImpl<?> preparedQuery) {
+		this.assertOpen();
+
+		if (!this.preparedQueries.contains(preparedQuery)) {
+			this.preparedQueries.add(preparedQuery);
+		}
+	}
+
 	/**
 	 * Checks if the entity manager is open.
 	 * 
@@ -267,6 +297,12 @@ public class EntityManagerImpl implements EntityManager {
 	 * @since 2.0.0
 	 */
 	protected void closeConnection() {
+		for (final PreparedQueryImpl<?> preparedQuery : Lists.newArrayList(this.preparedQueries)) {
+			preparedQuery.close();
+		}
+
+		this.preparedQueries.clear();
+
 		if (this.connection != null) {
 			try {
 				this.connection.close();
@@ -275,14 +311,32 @@ public class EntityManagerImpl implements EntityManager {
 		}
 
 		this.connection = null;
+		this.connectionPinned = false;
+
+		if (this.readConnection != null) {
+			try {
+				this.readConnection.close();
+			}
+			catch (final SQLException e) {}
+		}
+
+		this.readConnection = null;
 	}
 
 	/**
-	 * Closes the connection if the connections is obtained from JTA managed datasource.
+	 * Releases the connections after a statement if the entity manager is not in a transaction.
+	 * <p>
+	 * The connections are kept while the results of a query are being loaded, prepared query handles are open or the connection has been
+	 * unwrapped, they are obtained again at the next statement.
 	 * 
 	 * @since 2.0.0
 	 */
 	public void closeConnectionIfNecessary() {
+		if (this.hasActiveTransaction() || this.session.isLoading() || !this.preparedQueries.isEmpty() || this.connectionPinned) {
+			return;
+		}
+
+		this.closeConnection();
 	}
 
 	/**
@@ -449,7 +503,30 @@ public class EntityManagerImpl implements EntityManager {
 		// try to locate in the session
 		final EntityTypeImpl<T> type = this.metamodel.entity(entityClass);
 
-		return this.findImpl(primaryKey, lockMode, properties, type);
+		final Object hint = properties != null ? properties.get(BJPASettings.FETCH_PROFILE) : null;
+		final FetchProfileImpl<T> fetchProfile = hint != null ? type.getFetchProfile(hint.toString()) : null;
+
+		if (fetchProfile == null) {
+			return this.findImpl(primaryKey, lockMode, properties, type, null);
+		}
+
+		// the eager associations the profile leaves lazy must not be loaded by the instances of the find
+		final Set<AbstractMapping<?, ?, ?>> lazyContext = ManagedInstance.LAZY_CONTEXT.get();
+
+		ManagedInstance.LAZY_CONTEXT.set(fetchProfile.getLazyMappings());
+		try {
+			final T instance = this.findImpl(primaryKey, lockMode, properties, type, fetchProfile);
+
+			// load the associations that are not joined by the select
+			if (instance != null) {
+				fetchProfile.load(this, Collections.singletonList(instance));
+			}
+
+			return instance;
+		}
+		finally {
+			ManagedInstance.LAZY_CONTEXT.set(lazyContext);
+		}
 	}
 
 	/**
@@ -461,7 +538,8 @@ public class EntityManagerImpl implements EntityManager {
 		return this.find(entityClass, primaryKey, null, properties);
 	}
 
-	private <T> T findImpl(Object primaryKey, LockModeType lockMode, Map<String, Object> properties, final EntityTypeImpl<T> type) {
+	private <T> T findImpl(Object primaryKey, LockModeType lockMode, Map<String, Object> properties, final EntityTypeImpl<T> type,
+		FetchProfileImpl<T> fetchProfile) {
 		this.session.setLoadTracker();
 
 		try {
@@ -487,8 +565,22 @@ public class EntityManagerImpl implements EntityManager {
 				}
 			}
 
+			// try the second level cache
+			if ((lockMode == null) && type.isCachable() && !this.isCacheBypassed(properties)) {
+				final T cached = this.emf.getCache().find(this.session, type, primaryKey, instance);
+				if (cached != null) {
+					return cached;
+				}
+			}
+
+			// lazy instance, load along with the other lazy instances of the type
+			if ((instance != null) && (lockMode == null) && (type.getBatchFetchSize() > 1)
+				&& (type.getRootType().getPrimaryTable().getPkColumns().size() == 1)) {
+				return this.findBatch(type, instance);
+			}
+
 			try {
-				return type.performSelect(this, primaryKey, lockMode);
+				return type.performSelect(this, primaryKey, lockMode, fetchProfile);
 			}
 			catch (final NoResultException e) {
 				return null;
@@ -499,6 +591,26 @@ public class EntityManagerImpl implements EntityManager {
 		}
 	}
 
+	private <T> T findBatch(final EntityTypeImpl<T> type, ManagedInstance<? extends T> instance) {
+		final List<Object> ids = Lists.newArrayList();
+		ids.add(instance.getId().getId());
+
+		for (final ManagedInstance<?> candidate : this.session.getInstances()) {
+			if (ids.size() == type.getBatchFetchSize()) {
+				break;
+			}
+
+			if ((candidate != instance) && (candidate.getType() == type) && (candidate.getInstance() instanceof EnhancedInstance)
+				&& !((EnhancedInstance) candidate.getInstance()).__enhanced__$$__isInitialized()) {
+				ids.add(candidate.getId().getId());
+			}
+		}
+
+		type.performBatchSelect(this, ids.toArray());
+
+		return ((EnhancedInstance) instance.getInstance()).__enhanced__$$__isInitialized() ? instance.getInstance() : null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -520,7 +632,9 @@ public class EntityManagerImpl implements EntityManager {
 			this.session.cascadeRemovals(instances);
 			this.session.handleOrphans(instances);
 
-			this.session.flush(this.getConnection());
+			if (this.session.flush(this.getConnection())) {
+				this.markWritten();
+			}
 		}
 		catch (final SQLException e) {
 			EntityManagerImpl.LOG.error(e, "Flush failed");
@@ -544,6 +658,8 @@ public class EntityManagerImpl implements EntityManager {
 
 	/**
 	 * Returns the active connection.
+	 * <p>
+	 * The connection is obtained at the first statement and kept until it is released by {@link #closeConnectionIfNecessary()}.
 	 * 
 	 * @return the connection
 	 * 
@@ -683,6 +799,55 @@ public class EntityManagerImpl implements EntityManager {
 		return this.session;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public List<StatementStatisticsSnapshot> getSqlStatistics() {
+		final SqlStatistics sqlStatistics = this.emf.getSqlStatistics();
+		if (sqlStatistics == null) {
+			return Collections.emptyList();
+		}
+
+		return sqlStatistics.getSnapshot();
+	}
+
+	/**
+	 * Returns the connection to read from.
+	 * <p>
+	 * If the persistence unit has replicas, the reads outside the transactions, the reads in read-only transactions and the read-only
+	 * reads are served by a replica until the entity manager writes to the primary database. Otherwise returns the
+	 * {@link #getConnection() primary connection}.
+	 * 
+	 * @param readOnly
+	 *            if the read is hinted as read-only
+	 * @return the connection to read from
+	 * 
+	 * @since 2.0.0
+	 */
+	public Connection getReadConnection(boolean readOnly) {
+		final DataSource replicaDatasource = this.emf.getReplicaDatasource();
+		if ((replicaDatasource == null) || this.written) {
+			return this.getConnection();
+		}
+
+		if (!readOnly && this.hasActiveTransaction() && ((this.transaction == null) || !this.transaction.isReadOnly())) {
+			return this.getConnection();
+		}
+
+		if (this.readConnection != null) {
+			return this.readConnection;
+		}
+
+		try {
+			return this.readConnection = replicaDatasource.getConnection();
+		}
+		catch (final SQLException e) {
+			throw new PersistenceException("Unable to obtain connection from the replica datasource", e);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -697,7 +862,7 @@ public class EntityManagerImpl implements EntityManager {
 		this.assertOpen();
 
 		// create the new transaction and return it
-		return this.transaction = new EntityTransactionImpl(this, this.getConnection());
+		return this.transaction = new EntityTransactionImpl(this);
 	}
 
 	/**
@@ -726,6 +891,24 @@ public class EntityManagerImpl implements EntityManager {
 		return false;
 	}
 
+	/**
+	 * Returns if the second level cache should be bypassed for the retrieval.
+	 * 
+	 * @param properties
+	 *            the properties of the operation, may be <code>null</code>
+	 * @return true if the second level cache should be bypassed, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isCacheBypassed(Map<String, Object> properties) {
+		Object retrieveMode = properties != null ? properties.get(JPASettings.SHARED_CACHE_RETRIEVE_MODE) : null;
+		if (retrieveMode == null) {
+			retrieveMode = this.properties.get(JPASettings.SHARED_CACHE_RETRIEVE_MODE);
+		}
+
+		return (retrieveMode == CacheRetrieveMode.BYPASS) || CacheRetrieveMode.BYPASS.name().equals(retrieveMode);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -792,6 +975,8 @@ public class EntityManagerImpl implements EntityManager {
 					this.assertTransaction();
 
 					instance.incrementVersion(this.getConnection(), true);
+
+					this.markWritten();
 				}
 				else {
 					instance.incrementVersion(this.getConnection(), false);
@@ -821,6 +1006,15 @@ public class EntityManagerImpl implements EntityManager {
 		this.lock(this.session.get(entity), lockMode, properties);
 	}
 
+	/**
+	 * Marks the entity manager as it has written to the primary database, the subsequent reads are served by the primary database.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void markWritten() {
+		this.written = true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -1189,6 +1383,18 @@ public class EntityManagerImpl implements EntityManager {
 		}
 	}
 
+	/**
+	 * Removes the prepared query handle that has been closed.
+	 * 
+	 * @param preparedQuery
+	 *            the prepared query handle
+	 * 
+	 * @since 2.0.0
+	 */
+	public void removePreparedQuery(PreparedQueryImpl<?> preparedQuery) {
+		this.preparedQueries.remove(preparedQuery);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -1221,6 +1427,8 @@ public class EntityManagerImpl implements EntityManager {
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The connection unwrapped is pinned to the entity manager until the entity manager is closed.
 	 * 
 	 */
 	@Override
@@ -1231,7 +1439,11 @@ public class EntityManagerImpl implements EntityManager {
 		}
 
 		if (clazz == Connection.class) {
-			return (T) this.connection;
+			final Connection connection = this.getConnection();
+
+			this.connectionPinned = true;
+
+			return (T) connection;
 		}
 
 		return null;
@@ -34,23 +34,20 @@ import javax.persistence.TransactionRequiredException;
 public class EntityTransactionImpl implements EntityTransaction {
 
 	private final EntityManagerImpl em;
-	private final Connection connection;
 	private boolean active;
 	private boolean rollbackOnly;
+	private boolean readOnly;
 
 	/**
 	 * @param entityManager
 	 *            the entity manager
-	 * @param connection
-	 *            the active connection
 	 * 
 	 * @since 2.0.0
 	 */
-	public EntityTransactionImpl(EntityManagerImpl entityManager, Connection connection) {
+	public EntityTransactionImpl(EntityManagerImpl entityManager) {
 		super();
 
 		this.em = entityManager;
-		this.connection = connection;
 	}
 
 	/**
@@ -76,7 +73,7 @@ public class EntityTransactionImpl implements EntityTransaction {
 
 		try {
 			if (!this.active) {
-				this.connection.setAutoCommit(false);
+				this.em.getConnection().setAutoCommit(false);
 			}
 		}
 		catch (final SQLException e) {
@@ -105,12 +102,18 @@ public class EntityTransactionImpl implements EntityTransaction {
 		try {
 			this.em.flush();
 
-			this.connection.commit();
-			this.connection.setAutoCommit(true);
+			final Connection connection = this.em.getConnection();
+			connection.commit();
+			connection.setAutoCommit(true);
+
+			this.em.getSession().commitCache();
 
 			this.em.clearTransaction();
 
 			this.active = false;
+
+			// the connection is no longer needed until the next statement
+			this.em.closeConnectionIfNecessary();
 		}
 		catch (final SQLException e) {
 			throw new PersistenceException("Unable to commit transaction", e);
@@ -135,6 +138,17 @@ public class EntityTransactionImpl implements EntityTransaction {
 		return this.active && !this.rollbackOnly;
 	}
 
+	/**
+	 * Returns if the transaction is read-only.
+	 * 
+	 * @return true if the transaction is read-only, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isReadOnly() {
+		return this.readOnly;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -144,15 +158,37 @@ public class EntityTransactionImpl implements EntityTransaction {
 		this.assertValid();
 
 		try {
-			this.connection.rollback();
+			final Connection connection = this.em.getConnection();
+			connection.rollback();
+			connection.setAutoCommit(true);
+
+			this.em.getSession().rollbackCache();
 
 			this.em.clearTransaction();
+
+			this.active = false;
+
+			this.em.closeConnectionIfNecessary();
 		}
 		catch (final SQLException e) {
 			throw new PersistenceException("Unable to rollback transaction", e);
 		}
 	}
 
+	/**
+	 * Sets if the transaction is read-only.
+	 * <p>
+	 * The reads of the read-only transactions are served by the replicas of the database, if any.
+	 * 
+	 * @param readOnly
+	 *            true if the transaction is read-only, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
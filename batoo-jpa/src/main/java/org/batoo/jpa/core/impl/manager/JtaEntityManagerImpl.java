@@ -23,6 +23,7 @@ import java.util.Map;
 import javax.persistence.PersistenceException;
 import javax.persistence.TransactionRequiredException;
 import javax.sql.DataSource;
+import javax.transaction.Status;
 import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
@@ -167,6 +168,13 @@ public class JtaEntityManagerImpl extends EntityManagerImpl {
 
 					@Override
 					public void afterCompletion(int status) {
+						if (status == Status.STATUS_COMMITTED) {
+							JtaEntityManagerImpl.this.getSession().commitCache();
+						}
+						else {
+							JtaEntityManagerImpl.this.getSession().rollbackCache();
+						}
+
 						JtaEntityManagerImpl.this.closeConnection();
 					}
 
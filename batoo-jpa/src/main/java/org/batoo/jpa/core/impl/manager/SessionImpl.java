@@ -21,9 +21,13 @@ package org.batoo.jpa.core.impl.manager;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.persistence.PersistenceException;
@@ -32,6 +36,8 @@ import javax.validation.ConstraintViolationException;
 
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.core.impl.cache.CacheImpl;
+import org.batoo.jpa.core.impl.cache.QueryCache;
 import org.batoo.jpa.core.impl.instance.EnhancedInstance;
 import org.batoo.jpa.core.impl.instance.ManagedId;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
@@ -39,6 +45,10 @@ import org.batoo.jpa.core.impl.instance.Prioritizer;
 import org.batoo.jpa.core.impl.instance.Status;
 import org.batoo.jpa.core.impl.model.EntityTypeImpl;
 import org.batoo.jpa.core.impl.model.MetamodelImpl;
+import org.batoo.jpa.core.impl.model.mapping.PluralAssociationMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.PluralMappingEx;
+import org.batoo.jpa.jdbc.AbstractTable;
+import org.batoo.jpa.jdbc.EntityTable;
 import org.batoo.jpa.parser.metadata.EntityListenerMetadata.EntityListenerType;
 
 import com.google.common.collect.Lists;
@@ -65,14 +75,58 @@ public class SessionImpl {
 	private final ArrayList<ManagedInstance<?>> newEntities = Lists.newArrayList();
 	private final ArrayList<ManagedInstance<?>> externalEntities = Lists.newArrayList();
 	private final HashSet<ManagedInstance<?>> changedEntities = Sets.newHashSet();
+	private final HashMap<PluralMappingEx<?, ?, ?>, IdentityHashMap<ManagedInstance<?>, Collection<?>>> prefetched = Maps.newHashMap();
+
+	private final HashSet<ManagedInstance<?>> cacheUpdates = Sets.newHashSet();
+	private final HashSet<ManagedInstance<?>> cacheRemovals = Sets.newHashSet();
+	private final HashSet<EntityTypeImpl<?>> cacheEvictions = Sets.newHashSet();
+	private final HashMap<PluralMappingEx<?, ?, ?>, HashSet<ManagedInstance<?>>> cacheCollections = Maps.newHashMap();
+	private final HashSet<EntityTypeImpl<?>> cacheCollectionTypes = Sets.newHashSet();
+	private final HashSet<String> cacheTables = Sets.newHashSet();
 
 	private List<ManagedInstance<?>> entitiesLoading = Lists.newArrayList();
 
 	private int loadTracker = 0;
 
-	private final int insertBatchSize;
 	private final int removeBatchSize;
 
+	/**
+	 * Adds the names of the tables of the type to the set of tables.
+	 * 
+	 * @param type
+	 *            the type
+	 * @param tables
+	 *            the set of tables
+	 * 
+	 * @since 2.0.0
+	 */
+	private static void addTables(EntityTypeImpl<?> type, Set<String> tables) {
+		for (final EntityTable table : type.getAllTables()) {
+			tables.add(table.getName());
+		}
+	}
+
+	/**
+	 * Returns if flushing the instance may write to any of the tables.
+	 * 
+	 * @param instance
+	 *            the instance
+	 * @param tables
+	 *            the upper case names of the tables
+	 * @return true if flushing the instance may write to any of the tables, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	private static boolean writesTo(ManagedInstance<?> instance, Set<String> tables) {
+		for (final String table : instance.getType().getFlushTables()) {
+			if (tables.contains(table)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	/**
 	 * @param entityManager
 	 *            the owner entity manager
@@ -86,7 +140,6 @@ public class SessionImpl {
 
 		this.em = entityManager;
 		this.metamodel = metamodel;
-		this.insertBatchSize = this.em.getJdbcAdaptor().getInsertBatchSize();
 		this.removeBatchSize = this.em.getJdbcAdaptor().getRemoveBatchSize();
 
 		if (SessionImpl.LOG.isDebugEnabled()) {
@@ -153,6 +206,57 @@ public class SessionImpl {
 		this.repository.clear();
 		this.externalEntities.clear();
 		this.changedEntities.clear();
+		this.prefetched.clear();
+
+		// detached instances can no longer be trusted to put into the cache
+		this.cacheRemovals.addAll(this.cacheUpdates);
+		this.cacheUpdates.clear();
+	}
+
+	/**
+	 * Publishes the changes made in the transaction to the second level cache once the transaction is committed.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void commitCache() {
+		final CacheImpl cache = this.em.getEntityManagerFactory().getCache();
+
+		// evict again the state that may have been cached by others before the commit
+		for (final EntityTypeImpl<?> type : this.cacheEvictions) {
+			cache.evict(type);
+		}
+
+		for (final ManagedInstance<?> instance : this.cacheRemovals) {
+			cache.evict(instance);
+		}
+
+		for (final EntityTypeImpl<?> type : this.cacheCollectionTypes) {
+			cache.evictCollections(type);
+		}
+
+		for (final Entry<PluralMappingEx<?, ?, ?>, HashSet<ManagedInstance<?>>> entry : this.cacheCollections.entrySet()) {
+			for (final ManagedInstance<?> owner : entry.getValue()) {
+				cache.evictCollection(entry.getKey(), owner);
+			}
+		}
+
+		cache.getQueryCache().invalidate(this.cacheTables);
+
+		for (final ManagedInstance<?> instance : this.cacheUpdates) {
+			if (instance.getStatus() == Status.MANAGED) {
+				cache.put(instance);
+			}
+			else {
+				cache.evict(instance);
+			}
+		}
+
+		this.cacheEvictions.clear();
+		this.cacheRemovals.clear();
+		this.cacheUpdates.clear();
+		this.cacheCollections.clear();
+		this.cacheCollectionTypes.clear();
+		this.cacheTables.clear();
 	}
 
 	/**
@@ -204,6 +308,8 @@ public class SessionImpl {
 
 	/**
 	 * Performs the insert / update operations. Batches together the inserts on the same tables.
+	 * <p>
+	 * The size of the insert batches is tuned per type, see {@link EntityTypeImpl#getInsertBatchTuner()}.
 	 * 
 	 * @param connection
 	 *            the connection
@@ -215,17 +321,18 @@ public class SessionImpl {
 	 * @since 2.0.0
 	 */
 	private void doUpdates(Connection connection, final ManagedInstance<?>[] updates) throws SQLException {
-		final ManagedInstance<?>[] managedInstances = new ManagedInstance[this.insertBatchSize];
+		ManagedInstance<?>[] managedInstances = new ManagedInstance[1];
 
 		int i = 0;
 
 		while (i < updates.length) {
 			EntityTypeImpl<?> lastEntity = null;
+			int insertBatchSize = 1;
 			int batchSize = 0;
 
-			// group upto MAX_INSERTS and same type entities that are new into a single batch
+			// group upto the insert batch size of the type and same type entities that are new into a single batch
 			while ((i < updates.length) && //
-				(batchSize < this.insertBatchSize) && //
+				(batchSize < insertBatchSize) && //
 				(updates[i].getStatus() == Status.NEW) && //
 				((lastEntity == null) || (lastEntity == updates[i].getType()))) {
 
@@ -236,6 +343,11 @@ public class SessionImpl {
 					}
 
 					lastEntity = updates[i].getType();
+					insertBatchSize = lastEntity.getInsertBatchSize();
+
+					if (managedInstances.length < insertBatchSize) {
+						managedInstances = new ManagedInstance[insertBatchSize];
+					}
 				}
 
 				managedInstances[batchSize] = updates[i];
@@ -284,6 +396,125 @@ public class SessionImpl {
 		}
 	}
 
+	/**
+	 * Evicts the instances of the type from the second level cache due to a bulk change in the transaction.
+	 * 
+	 * @param type
+	 *            the type changed in bulk
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evictCache(EntityTypeImpl<?> type) {
+		this.em.getEntityManagerFactory().getCache().evict(type);
+
+		this.cacheEvictions.add(type);
+
+		final HashSet<String> tables = Sets.newHashSet();
+		SessionImpl.addTables(type, tables);
+
+		this.evictQueries(tables);
+	}
+
+	/**
+	 * Evicts the collection of the owner from the second level cache as it is changed in the transaction.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param owner
+	 *            the owner of the collection
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evictCache(PluralMappingEx<?, ?, ?> mapping, ManagedInstance<?> owner) {
+		this.em.getEntityManagerFactory().getCache().evictCollection(mapping, owner);
+
+		HashSet<ManagedInstance<?>> owners = this.cacheCollections.get(mapping);
+		if (owners == null) {
+			owners = Sets.newHashSet();
+			this.cacheCollections.put(mapping, owners);
+		}
+
+		owners.add(owner);
+
+		// the children are attached through either the join table or the foreign key on the table of the children
+		final HashSet<String> tables = Sets.newHashSet();
+		if (mapping.getJoinTable() != null) {
+			tables.add(((AbstractTable) mapping.getJoinTable()).getName());
+		}
+		else if (mapping instanceof PluralAssociationMappingImpl) {
+			SessionImpl.addTables(((PluralAssociationMappingImpl<?, ?, ?>) mapping).getType(), tables);
+		}
+
+		this.evictQueries(tables);
+	}
+
+	/**
+	 * Evicts the flushed instances from the second level cache until the transaction is committed.
+	 * 
+	 * @param updates
+	 *            the instances inserted or updated
+	 * @param removals
+	 *            the instances removed
+	 * 
+	 * @since 2.0.0
+	 */
+	private void evictCache(ManagedInstance<?>[] updates, ManagedInstance<?>[] removals) {
+		final CacheImpl cache = this.em.getEntityManagerFactory().getCache();
+
+		final HashSet<EntityTypeImpl<?>> types = Sets.newHashSet();
+		final HashSet<String> tables = Sets.newHashSet();
+
+		for (final ManagedInstance<?> instance : updates) {
+			SessionImpl.addTables(instance.getType(), tables);
+
+			if (instance.getType().isCachable()) {
+				cache.evict(instance);
+
+				this.cacheUpdates.add(instance);
+				types.add(instance.getType());
+			}
+		}
+
+		for (final ManagedInstance<?> instance : removals) {
+			SessionImpl.addTables(instance.getType(), tables);
+
+			if (instance.getType().isCachable()) {
+				cache.evict(instance);
+
+				this.cacheUpdates.remove(instance);
+				this.cacheRemovals.add(instance);
+				types.add(instance.getType());
+			}
+		}
+
+		// the cached collections may refer to the changed instances through the inverse side
+		for (final EntityTypeImpl<?> type : types) {
+			cache.evictCollections(type);
+		}
+
+		this.cacheCollectionTypes.addAll(types);
+
+		this.evictQueries(tables);
+	}
+
+	/**
+	 * Invalidates the cached results of the queries that read the tables modified in the transaction.
+	 * <p>
+	 * The results are invalidated again once the transaction is committed.
+	 * 
+	 * @param tables
+	 *            the names of the tables modified
+	 * 
+	 * @since 2.0.0
+	 */
+	public void evictQueries(Collection<String> tables) {
+		this.em.getEntityManagerFactory().getCache().getQueryCache().invalidate(tables);
+
+		for (final String table : tables) {
+			this.cacheTables.add(table.toUpperCase());
+		}
+	}
+
 	/**
 	 * Fires the post callbacks.
 	 * 
@@ -342,12 +573,13 @@ public class SessionImpl {
 	 * 
 	 * @param connection
 	 *            the connection to use
+	 * @return true if any changes were written to the database, false otherwise
 	 * @throws SQLException
 	 *             thrown in case of an SQL error
 	 * 
 	 * @since 2.0.0
 	 */
-	public void flush(Connection connection) throws SQLException {
+	public boolean flush(Connection connection) throws SQLException {
 		SessionImpl.LOG.debug("Flushing session {0}", this);
 
 		final ArrayList<ManagedInstance<?>> updates = Lists.newArrayList(this.newEntities);
@@ -367,9 +599,12 @@ public class SessionImpl {
 		}
 
 		if ((updates.size() == 0) && (removals.size() == 0)) {
-			return;
+			return false;
 		}
 
+		// the prefetched collections may no longer reflect the database
+		this.prefetched.clear();
+
 		final ManagedInstance<?>[] sortedUpdates = new ManagedInstance[updates.size()];
 		final ManagedInstance<?>[] sortedRemovals = new ManagedInstance[removals.size()];
 
@@ -423,6 +658,9 @@ public class SessionImpl {
 			instance.reset();
 		}
 
+		// the cached state is stale until the transaction is committed
+		this.evictCache(sortedUpdates, sortedRemovals);
+
 		// fire callbacks
 		this.firePostCallbacks(sortedUpdates, sortedRemovals, callbackAvailability);
 
@@ -441,6 +679,8 @@ public class SessionImpl {
 
 		this.changedEntities.clear();
 		this.newEntities.clear();
+
+		return true;
 	}
 
 	/**
@@ -510,6 +750,17 @@ public class SessionImpl {
 		return this.em;
 	}
 
+	/**
+	 * Returns the managed instances in the session.
+	 * 
+	 * @return the managed instances in the session
+	 * 
+	 * @since 2.0.0
+	 */
+	public Collection<ManagedInstance<?>> getInstances() {
+		return Collections.unmodifiableCollection(this.repository.values());
+	}
+
 	/**
 	 * Handles the additions to the collections.
 	 * 
@@ -559,6 +810,56 @@ public class SessionImpl {
 		}
 	}
 
+	/**
+	 * Returns if the session has pending changes that may be written to any of the tables.
+	 * <p>
+	 * Only the external entities that may write to the tables are inspected for updates.
+	 * 
+	 * @param tables
+	 *            the upper case names of the tables
+	 * @return true if the session has pending changes that may be written to any of the tables, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean hasPendingChanges(Set<String> tables) {
+		for (final ManagedInstance<?> instance : this.newEntities) {
+			if (SessionImpl.writesTo(instance, tables)) {
+				return true;
+			}
+		}
+
+		for (final ManagedInstance<?> instance : this.changedEntities) {
+			if (SessionImpl.writesTo(instance, tables)) {
+				return true;
+			}
+		}
+
+		for (int i = 0; i < this.externalEntities.size(); i++) {
+			final ManagedInstance<?> instance = this.externalEntities.get(i);
+
+			if (SessionImpl.writesTo(instance, tables)) {
+				instance.checkUpdated();
+
+				if (this.changedEntities.contains(instance)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns if the session is loading the results of a query.
+	 * 
+	 * @return true if the session is loading the results of a query, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isLoading() {
+		return this.loadTracker > 0;
+	}
+
 	/**
 	 * Notifies the session that the lazy instance is loading
 	 * 
@@ -591,6 +892,28 @@ public class SessionImpl {
 		}
 	}
 
+	/**
+	 * Puts the children of the instance that have been loaded ahead of the initialization of the lazy collection.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param instance
+	 *            the owner instance
+	 * @param children
+	 *            the children loaded
+	 * 
+	 * @since 2.0.0
+	 */
+	public void putPrefetched(PluralMappingEx<?, ?, ?> mapping, ManagedInstance<?> instance, Collection<?> children) {
+		IdentityHashMap<ManagedInstance<?>, Collection<?>> collections = this.prefetched.get(mapping);
+		if (collections == null) {
+			collections = new IdentityHashMap<ManagedInstance<?>, Collection<?>>();
+			this.prefetched.put(mapping, collections);
+		}
+
+		collections.put(instance, children);
+	}
+
 	/**
 	 * Puts the new instance into the session.
 	 * <p>
@@ -611,6 +934,96 @@ public class SessionImpl {
 		this.newEntities.add(instance);
 	}
 
+	/**
+	 * Returns if the loaded collection of the owner can be put into the second level cache.
+	 * <p>
+	 * The collections changed in the current transaction are not put into the cache as they may reflect uncommitted state.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param owner
+	 *            the owner of the collection
+	 * @return true if the loaded collection can be put into the second level cache, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isCachable(PluralMappingEx<?, ?, ?> mapping, ManagedInstance<?> owner) {
+		final HashSet<ManagedInstance<?>> owners = this.cacheCollections.get(mapping);
+		if (((owners != null) && owners.contains(owner)) || this.cacheRemovals.contains(owner)) {
+			return false;
+		}
+
+		if (mapping instanceof PluralAssociationMappingImpl) {
+			final EntityTypeImpl<?> type = ((PluralAssociationMappingImpl<?, ?, ?>) mapping).getType();
+
+			for (final EntityTypeImpl<?> changed : this.cacheCollectionTypes) {
+				if (type.extendz(changed) || changed.extendz(type)) {
+					return false;
+				}
+			}
+
+			for (final EntityTypeImpl<?> evicted : this.cacheEvictions) {
+				if (type.extendz(evicted) || evicted.extendz(type)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns if the results of the query can be served from or put into the query cache.
+	 * <p>
+	 * The results of the queries that read the tables modified in the current transaction are not cached as they may reflect
+	 * uncommitted state.
+	 * 
+	 * @param sql
+	 *            the SQL of the query
+	 * @return true if the results of the query can be cached, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isQueryCachable(String sql) {
+		if (this.cacheTables.isEmpty()) {
+			return true;
+		}
+
+		for (final String table : QueryCache.getTables(sql)) {
+			if (this.cacheTables.contains(table)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns if the state of the loaded instance can be put into the second level cache.
+	 * <p>
+	 * The instances changed in the current transaction are not put into the cache as they may reflect uncommitted state.
+	 * 
+	 * @param instance
+	 *            the loaded instance
+	 * @return true if the state of the loaded instance can be put into the second level cache, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	private boolean isCachable(ManagedInstance<?> instance) {
+		final EntityTypeImpl<?> type = instance.getType();
+		if (!type.isCachable() || this.cacheUpdates.contains(instance) || this.cacheRemovals.contains(instance)) {
+			return false;
+		}
+
+		for (final EntityTypeImpl<?> evicted : this.cacheEvictions) {
+			if (type.extendz(evicted)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Releases the load tracker, so that the entities loaded are processed for associations and <code>PostLoad</code> listeners are
 	 * invoked.
@@ -627,6 +1040,8 @@ public class SessionImpl {
 			final ManagedInstance<?>[] entitiesLoaded = this.entitiesLoading.toArray(new ManagedInstance[this.entitiesLoading.size()]);
 			this.entitiesLoading = Lists.newArrayList();
 
+			final CacheImpl cache = this.em.getEntityManagerFactory().getCache();
+
 			for (final ManagedInstance<?> instance : entitiesLoaded) {
 				// check if the transaction is marked as rollback
 				if (this.em.hasTransactionMarkedForRollback()) {
@@ -640,6 +1055,11 @@ public class SessionImpl {
 				instance.processJoinedMappings();
 				instance.sortLists();
 
+				// keep the state in the second level cache
+				if (!instance.isLoadingFromCache() && this.isCachable(instance)) {
+					cache.putIfAbsent(instance);
+				}
+
 				// mark as loaded
 				instance.setLoadingFromCache(false);
 			}
@@ -674,6 +1094,40 @@ public class SessionImpl {
 		return instance;
 	}
 
+	/**
+	 * Removes and returns the children of the instance that have been loaded ahead of the initialization of the lazy collection.
+	 * 
+	 * @param mapping
+	 *            the mapping of the collection
+	 * @param instance
+	 *            the owner instance
+	 * @param <E>
+	 *            the type of the children
+	 * @return the children prefetched or null
+	 * 
+	 * @since 2.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> Collection<E> removePrefetched(PluralMappingEx<?, ?, E> mapping, ManagedInstance<?> instance) {
+		final IdentityHashMap<ManagedInstance<?>, Collection<?>> collections = this.prefetched.get(mapping);
+
+		return collections != null ? (Collection<E>) collections.remove(instance) : null;
+	}
+
+	/**
+	 * Discards the changes made in the transaction from the second level cache once the transaction is rolled back.
+	 * 
+	 * @since 2.0.0
+	 */
+	public void rollbackCache() {
+		this.cacheEvictions.clear();
+		this.cacheRemovals.clear();
+		this.cacheUpdates.clear();
+		this.cacheCollections.clear();
+		this.cacheCollectionTypes.clear();
+		this.cacheTables.clear();
+	}
+
 	/**
 	 * Marks the instance as changed.
 	 * 
@@ -25,14 +25,17 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import javax.naming.directory.BasicAttribute;
+import javax.persistence.EntityNotFoundException;
 import javax.persistence.InheritanceType;
 import javax.persistence.LockModeType;
 import javax.persistence.PersistenceException;
@@ -40,6 +43,7 @@ import javax.persistence.criteria.Fetch;
 import javax.persistence.criteria.FetchParent;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Path;
+import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.Attribute.PersistentAttributeType;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
@@ -61,6 +65,7 @@ import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.impl.criteria.RootImpl;
 import org.batoo.jpa.core.impl.criteria.expression.ParameterExpressionImpl;
 import org.batoo.jpa.core.impl.criteria.expression.PredicateImpl;
+import org.batoo.jpa.core.impl.criteria.path.AbstractPath;
 import org.batoo.jpa.core.impl.instance.EnhancedInstance;
 import org.batoo.jpa.core.impl.instance.Enhancer;
 import org.batoo.jpa.core.impl.instance.ManagedId;
@@ -74,6 +79,7 @@ import org.batoo.jpa.core.impl.model.attribute.AttributeImpl;
 import org.batoo.jpa.core.impl.model.mapping.AbstractMapping;
 import org.batoo.jpa.core.impl.model.mapping.AssociationMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.BasicMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.ElementCollectionMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.EmbeddedMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.EntityMapping;
 import org.batoo.jpa.core.impl.model.mapping.JoinedMapping;
@@ -88,8 +94,10 @@ import org.batoo.jpa.jdbc.BasicColumn;
 import org.batoo.jpa.jdbc.DiscriminatorColumn;
 import org.batoo.jpa.jdbc.EntityTable;
 import org.batoo.jpa.jdbc.IdType;
+import org.batoo.jpa.jdbc.InsertBatchTuner;
 import org.batoo.jpa.jdbc.JoinColumn;
 import org.batoo.jpa.jdbc.SecondaryTable;
+import org.batoo.jpa.jdbc.adapter.JdbcAdaptor;
 import org.batoo.jpa.jdbc.mapping.Mapping;
 import org.batoo.jpa.jdbc.mapping.MappingType;
 import org.batoo.jpa.jdbc.mapping.SingularMapping;
@@ -98,6 +106,7 @@ import org.batoo.jpa.parser.MappingException;
 import org.batoo.jpa.parser.metadata.AssociationMetadata;
 import org.batoo.jpa.parser.metadata.AttributeOverrideMetadata;
 import org.batoo.jpa.parser.metadata.ColumnMetadata;
+import org.batoo.jpa.parser.metadata.FetchProfileMetadata;
 import org.batoo.jpa.parser.metadata.EntityListenerMetadata.EntityListenerType;
 import org.batoo.jpa.parser.metadata.IndexMetadata;
 import org.batoo.jpa.parser.metadata.SecondaryTableMetadata;
@@ -125,17 +134,23 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 	private FinalWrapper<EntityTable[]> tables;
 	private FinalWrapper<EntityTable[]> updateTables;
 	private FinalWrapper<EntityTable[]> allTables;
+	private FinalWrapper<Set<String>> flushTables;
 	private final HashMap<String, AssociatedSingularAttribute<? super X, ?>> idMap = Maps.newHashMap();
 
 	private final ConstructorAccessor constructor;
 
 	private CriteriaQueryImpl<X> selectCriteria;
+	private CriteriaQueryImpl<X> batchSelectCriteria;
 	private CriteriaQueryImpl<X> refreshCriteria;
+	private int batchFetchSize = 1;
 	private int dependencyCount;
 	private boolean canBatchRemoves;
 
 	private final HashMap<EntityTypeImpl<?>, AssociationMappingImpl<?, ?, ?>[]> dependencyMap = Maps.newHashMap();
 	private FinalWrapper<BasicMappingImpl<?, ?>[]> basicMappingImpls;
+	private FinalWrapper<HashMap<String, BasicMappingImpl<?, ?>[]>> lazyGroups;
+	private FinalWrapper<HashMap<String, String>> lazyAccessors;
+	private FinalWrapper<HashSet<String>> eagerAccessors;
 
 	private FinalWrapper<AbstractMapping<?, ?, ?>[]> singularMappings;
 	private FinalWrapper<PluralMappingEx<?, ?, ?>[]> mappingsPluralSorted;
@@ -154,6 +169,9 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 
 	private SingularMappingEx<? super X, ?> idMapping;
 	private Boolean suitableForBatchInsert;
+	private FinalWrapper<InsertBatchTuner> insertBatchTuner;
+	private Boolean subselectFetches;
+	private Boolean cachable;
 
 	private Pair<SingularMapping<?, ?>, AbstractAccessor>[] idMappings;
 	private InheritanceType inheritanceType;
@@ -166,6 +184,7 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 
 	private final List<IndexMetadata> indexes;
 	private final int maxFetchJoinDepth;
+	private final Map<String, FetchProfileImpl<X>> fetchProfiles = Maps.newHashMap();
 
 	/**
 	 * @param metamodel
@@ -195,6 +214,10 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		this.linkMappings();
 		this.initIndexes();
 
+		for (final FetchProfileMetadata fetchProfile : metadata.getFetchProfiles()) {
+			this.fetchProfiles.put(fetchProfile.getName(), new FetchProfileImpl<X>(this, fetchProfile));
+		}
+
 		if (metadata.getTableGenerator() != null) {
 			metamodel.addTableGenerator(metadata.getTableGenerator());
 		}
@@ -291,6 +314,55 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		this.fireCallbacks(true, instance, type);
 	}
 
+	/**
+	 * Generates the select criteria to find the instance by its id.
+	 * 
+	 * @param fetchProfile
+	 *            the fetch profile to prepare the joins with or <code>null</code> to prepare the eager joins
+	 * @return the select criteria
+	 * 
+	 * @since 2.0.0
+	 */
+	CriteriaQueryImpl<X> generateCriteriaSelect(FetchProfileImpl<X> fetchProfile) {
+		final CriteriaBuilderImpl cb = this.getMetamodel().getEntityManagerFactory().getCriteriaBuilder();
+		CriteriaQueryImpl<X> q = cb.createQuery(this.getJavaType());
+		q.internal();
+		final RootImpl<X> r = q.from(this);
+		q = q.select(r);
+		r.alias(BatooUtils.acronym(this.name).toLowerCase());
+
+		if (fetchProfile != null) {
+			fetchProfile.prepareJoins(r);
+		}
+		else {
+			this.prepareEagerJoins(r, 0, null);
+		}
+
+		// has single id mapping
+		if (this.getRootType().hasSingleIdAttribute()) {
+			final SingularMappingEx<? super X, ?> _idMapping = this.getRootType().getIdMapping();
+			final ParameterExpressionImpl<?> pe = cb.parameter(_idMapping.getAttribute().getJavaType());
+			final Path<?> path = r.get(_idMapping.getAttribute().getName());
+			final PredicateImpl predicate = cb.equal(path, pe);
+
+			return q.where(predicate);
+		}
+
+		// has multiple id mappings
+		final List<PredicateImpl> predicates = Lists.newArrayList();
+		for (final Pair<SingularMapping<?, ?>, AbstractAccessor> pair : this.getIdMappings()) {
+			final SingularMapping<?, ?> _idMapping = pair.getFirst();
+			final ParameterExpressionImpl<?> pe = cb.parameter(_idMapping.getJavaType());
+
+			final Path<?> path = r.get(_idMapping.getName());
+			final PredicateImpl predicate = cb.equal(path, pe);
+
+			predicates.add(predicate);
+		}
+
+		return q.where(predicates.toArray(new PredicateImpl[predicates.size()]));
+	}
+
 	/**
 	 * Returns all the tables in the inheritance chain.
 	 * 
@@ -729,6 +801,17 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		return wrapper.value;
 	}
 
+	/**
+	 * Returns the number of lazy instances of the type to load at once.
+	 * 
+	 * @return the number of lazy instances of the type to load at once
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getBatchFetchSize() {
+		return this.batchFetchSize;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -819,6 +902,21 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 				return this.selectCriteria;
 			}
 
+			return this.selectCriteria = this.generateCriteriaSelect(null);
+		}
+	}
+
+	private CriteriaQueryImpl<X> getCriteriaBatchSelect() {
+		if (this.batchSelectCriteria != null) {
+			return this.batchSelectCriteria;
+		}
+
+		synchronized (this) {
+			// other thread prepared before this one
+			if (this.batchSelectCriteria != null) {
+				return this.batchSelectCriteria;
+			}
+
 			final CriteriaBuilderImpl cb = this.getMetamodel().getEntityManagerFactory().getCriteriaBuilder();
 			CriteriaQueryImpl<X> q = cb.createQuery(this.getJavaType());
 			q.internal();
@@ -828,33 +926,15 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 
 			this.prepareEagerJoins(r, 0, null);
 
-			// has single id mapping
-			if (this.getRootType().hasSingleIdAttribute()) {
-				final SingularMappingEx<? super X, ?> _idMapping = this.getRootType().getIdMapping();
-				final ParameterExpressionImpl<?> pe = cb.parameter(_idMapping.getAttribute().getJavaType());
-				final Path<?> path = r.get(_idMapping.getAttribute().getName());
-				final PredicateImpl predicate = cb.equal(path, pe);
-
-				this.selectCriteria = q.where(predicate);
+			final SingularMappingEx<? super X, ?> _idMapping = this.getRootType().getIdMapping();
+			final AbstractPath<?> path = r.get(_idMapping.getAttribute().getName());
 
-				return this.selectCriteria;
+			final ParameterExpressionImpl<?>[] parameters = new ParameterExpressionImpl[this.batchFetchSize];
+			for (int i = 0; i < this.batchFetchSize; i++) {
+				parameters[i] = cb.parameter(_idMapping.getAttribute().getJavaType());
 			}
 
-			// has multiple id mappings
-			final List<PredicateImpl> predicates = Lists.newArrayList();
-			for (final Pair<SingularMapping<?, ?>, AbstractAccessor> pair : this.getIdMappings()) {
-				final SingularMapping<?, ?> _idMapping = pair.getFirst();
-				final ParameterExpressionImpl<?> pe = cb.parameter(_idMapping.getJavaType());
-
-				final Path<?> path = r.get(_idMapping.getName());
-				final PredicateImpl predicate = cb.equal(path, pe);
-
-				predicates.add(predicate);
-			}
-
-			this.selectCriteria = q.where(predicates.toArray(new PredicateImpl[predicates.size()]));
-
-			return this.selectCriteria;
+			return this.batchSelectCriteria = q.where(path.in(parameters));
 		}
 	}
 
@@ -915,6 +995,95 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		return this.discriminatorValue;
 	}
 
+	/**
+	 * Returns the fetch profile with the name.
+	 * 
+	 * @param name
+	 *            the name of the fetch profile
+	 * @return the fetch profile
+	 * @throws IllegalArgumentException
+	 *             thrown if the entity does not define a fetch profile with the name
+	 * 
+	 * @since 2.0.0
+	 */
+	public FetchProfileImpl<X> getFetchProfile(String name) {
+		final FetchProfileImpl<X> fetchProfile = this.fetchProfiles.get(name);
+		if (fetchProfile == null) {
+			throw new IllegalArgumentException("Entity " + this.name + " does not define the fetch profile " + name);
+		}
+
+		return fetchProfile;
+	}
+
+	/**
+	 * Returns the upper case names of the tables that flushing an instance of the type may write to.
+	 * <p>
+	 * The set contains the tables of the type hierarchy, the join and collection tables of the type, the tables of the plural associates
+	 * and the flush tables of the types the changes are cascaded to.
+	 * 
+	 * @return the set of table names
+	 * 
+	 * @since 2.0.0
+	 */
+	public Set<String> getFlushTables() {
+		FinalWrapper<Set<String>> wrapper = this.flushTables;
+
+		if (wrapper == null) {
+			synchronized (this) {
+				if (this.flushTables == null) {
+					final Set<String> _flushTables = Sets.newHashSet();
+					this.getFlushTables(Sets.<EntityTypeImpl<?>> newHashSet(), _flushTables);
+
+					this.flushTables = new FinalWrapper<Set<String>>(_flushTables);
+				}
+
+				wrapper = this.flushTables;
+			}
+		}
+
+		return wrapper.value;
+	}
+
+	private void getFlushTables(Set<EntityTypeImpl<?>> visited, Set<String> flushTables) {
+		if (!visited.add(this)) {
+			return;
+		}
+
+		for (final EntityTable table : this.getRootType().getAllTables()) {
+			flushTables.add(table.getName().toUpperCase());
+		}
+
+		// the instances may be of the subtypes
+		for (final EntityType<?> entity : this.getMetamodel().getEntities()) {
+			if ((entity != this) && ((EntityTypeImpl<?>) entity).extendz(this)) {
+				((EntityTypeImpl<?>) entity).getFlushTables(visited, flushTables);
+			}
+		}
+
+		for (final PluralMappingEx<?, ?, ?> mapping : this.getMappingsPlural()) {
+			if (mapping instanceof ElementCollectionMappingImpl) {
+				flushTables.add(((ElementCollectionMappingImpl<?, ?, ?>) mapping).getCollectionTable().getName().toUpperCase());
+			}
+		}
+
+		for (final AssociationMappingImpl<?, ?, ?> association : this.getAssociations()) {
+			if (association.getJoinTable() != null) {
+				flushTables.add(association.getJoinTable().getName().toUpperCase());
+			}
+
+			// the foreign keys of the unidirectional plural associations are maintained by the owner
+			if (association instanceof PluralAssociationMappingImpl) {
+				for (final EntityTable table : association.getType().getRootType().getAllTables()) {
+					flushTables.add(table.getName().toUpperCase());
+				}
+			}
+
+			if (association.cascadesPersist() || association.cascadesRemove() || association.removesOrphans()) {
+				association.getType().getFlushTables(visited, flushTables);
+			}
+		}
+	}
+
 	/**
 	 * Returns the id of the entity from the instance.
 	 * 
@@ -1211,6 +1380,52 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		return this.inheritanceType;
 	}
 
+	/**
+	 * Returns the current size of the insert batches of the type.
+	 * 
+	 * @return the current size of the insert batches
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getInsertBatchSize() {
+		return this.getInsertBatchTuner().getBatchSize();
+	}
+
+	/**
+	 * Returns the tuner of the insert batch size of the type.
+	 * <p>
+	 * The max batch size is bounded by the number of columns of the widest table of the type so that the batch does not overflow the
+	 * bind parameter limit of the database.
+	 * 
+	 * @return the tuner of the insert batch size
+	 * 
+	 * @since 2.0.0
+	 */
+	public InsertBatchTuner getInsertBatchTuner() {
+		FinalWrapper<InsertBatchTuner> wrapper = this.insertBatchTuner;
+
+		if (wrapper == null) {
+			synchronized (this) {
+				if (this.insertBatchTuner == null) {
+					final JdbcAdaptor jdbcAdaptor = this.getMetamodel().getJdbcAdaptor();
+
+					int max = jdbcAdaptor.getMaxInsertBatchSize(0);
+					for (final EntityTable table : this.getTables()) {
+						max = Math.min(max, jdbcAdaptor.getMaxInsertBatchSize(table.getInsertColumnCount(this)));
+					}
+
+					final InsertBatchTuner tuner = new InsertBatchTuner(jdbcAdaptor.getInsertBatchSizeMin(), jdbcAdaptor.getInsertBatchSize(), max);
+
+					this.insertBatchTuner = new FinalWrapper<InsertBatchTuner>(tuner);
+				}
+
+				wrapper = this.insertBatchTuner;
+			}
+		}
+
+		return wrapper.value;
+	}
+
 	/**
 	 * Returns the id of the instance.
 	 * 
@@ -1224,6 +1439,49 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		return this.getIdMapping().get(instance);
 	}
 
+	/**
+	 * Returns the lazy group that the accessor method belongs to.
+	 * <p>
+	 * The accessor methods of a lazy basic attribute <code>foo</code> are <code>getFoo</code>, <code>isFoo</code> and
+	 * <code>setFoo</code>.
+	 * 
+	 * @param methodName
+	 *            the name of the method
+	 * @return the name of the lazy group or <code>null</code> if the method is not an accessor of a lazy basic attribute
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getLazyGroup(String methodName) {
+		FinalWrapper<HashMap<String, String>> wrapper = this.lazyAccessors;
+
+		if (wrapper == null) {
+			this.initLazyGroups();
+
+			wrapper = this.lazyAccessors;
+		}
+
+		return wrapper.value.get(methodName);
+	}
+
+	/**
+	 * Returns the lazy groups of the type keyed by the group name.
+	 * 
+	 * @return the lazy groups of the type
+	 * 
+	 * @since 2.0.0
+	 */
+	public HashMap<String, BasicMappingImpl<?, ?>[]> getLazyGroups() {
+		FinalWrapper<HashMap<String, BasicMappingImpl<?, ?>[]>> wrapper = this.lazyGroups;
+
+		if (wrapper == null) {
+			this.initLazyGroups();
+
+			wrapper = this.lazyGroups;
+		}
+
+		return wrapper.value;
+	}
+
 	/**
 	 * Returns the managed instance for the instance.
 	 * 
@@ -1564,6 +1822,27 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		return wrapper.value;
 	}
 
+	/**
+	 * Returns if the type has collections loaded with the {@link FetchStrategyType#SUBSELECT} fetch strategy.
+	 * 
+	 * @return true if the type has collections loaded with the subselect fetch strategy, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean hasSubselectFetches() {
+		if (this.subselectFetches != null) {
+			return this.subselectFetches;
+		}
+
+		for (final PluralAssociationMappingImpl<?, ?, ?> mapping : this.getAssociationsPlural()) {
+			if (mapping.getFetchStrategy() == FetchStrategyType.SUBSELECT) {
+				return this.subselectFetches = true;
+			}
+		}
+
+		return this.subselectFetches = false;
+	}
+
 	/**
 	 * Initializes the custom indexes
 	 * 
@@ -1674,6 +1953,119 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		}
 	}
 
+	private synchronized void initLazyGroups() {
+		if (this.lazyGroups != null) {
+			return;
+		}
+
+		final HashMap<String, List<BasicMappingImpl<?, ?>>> groups = Maps.newHashMap();
+		final HashMap<String, String> accessors = Maps.newHashMap();
+
+		for (final BasicMappingImpl<?, ?> mapping : this.getBasicMappings()) {
+			final String group = mapping.getAttribute().getLazyGroup();
+			if (group == null) {
+				continue;
+			}
+
+			List<BasicMappingImpl<?, ?>> mappings = groups.get(group);
+			if (mappings == null) {
+				mappings = Lists.newArrayList();
+				groups.put(group, mappings);
+			}
+
+			mappings.add(mapping);
+
+			final String name = StringUtils.capitalize(mapping.getAttribute().getName());
+			accessors.put("get" + name, group);
+			accessors.put("is" + name, group);
+			accessors.put("set" + name, group);
+		}
+
+		final HashSet<String> _eagerAccessors = Sets.newHashSet();
+		for (final Attribute<? super X, ?> attribute : this.getAttributes()) {
+			final String name = StringUtils.capitalize(attribute.getName());
+			if (!accessors.containsKey("get" + name)) {
+				_eagerAccessors.add("get" + name);
+				_eagerAccessors.add("is" + name);
+				_eagerAccessors.add("set" + name);
+			}
+		}
+
+		final HashMap<String, BasicMappingImpl<?, ?>[]> _lazyGroups = Maps.newHashMap();
+		for (final Map.Entry<String, List<BasicMappingImpl<?, ?>>> entry : groups.entrySet()) {
+			_lazyGroups.put(entry.getKey(), entry.getValue().toArray(new BasicMappingImpl<?, ?>[entry.getValue().size()]));
+		}
+
+		this.lazyAccessors = new FinalWrapper<HashMap<String, String>>(accessors);
+		this.eagerAccessors = new FinalWrapper<HashSet<String>>(_eagerAccessors);
+		this.lazyGroups = new FinalWrapper<HashMap<String, BasicMappingImpl<?, ?>[]>>(_lazyGroups);
+	}
+
+	/**
+	 * Returns if the instances of the type are kept in the second level cache.
+	 * <p>
+	 * The {@link javax.persistence.Cacheable} setting is inherited from the parent entities. Types with singular associations over join
+	 * tables are not cached as their associates cannot be restored from the cached state. Neither are the types with eager stream
+	 * attributes, as the streams are not part of the cached state. Lazy stream attributes are loaded on first access as the other lazy
+	 * attributes.
+	 * 
+	 * @return true if the instances of the type are kept in the second level cache, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isCachable() {
+		if (this.cachable != null) {
+			return this.cachable;
+		}
+
+		Boolean cacheable = null;
+		for (EntityTypeImpl<?> type = this; (type != null) && (cacheable == null); type = type.getParent()) {
+			cacheable = type.metadata.getCacheable();
+		}
+
+		if (!this.getMetamodel().getEntityManagerFactory().getCache().isCachable(cacheable)) {
+			return this.cachable = false;
+		}
+
+		for (final SingularAssociationMappingImpl<?, ?> mapping : this.getAssociationsSingular()) {
+			if (mapping.isOwner() && (mapping.getForeignKey() == null)) {
+				return this.cachable = false;
+			}
+		}
+
+		for (final BasicMappingImpl<?, ?> mapping : this.getBasicMappings()) {
+			if (mapping.getAttribute().isStream() && !mapping.getAttribute().isLazy()) {
+				return this.cachable = false;
+			}
+		}
+
+		return this.cachable = true;
+	}
+
+	/**
+	 * Returns if the method is an accessor of an attribute that is not in a lazy group.
+	 * <p>
+	 * Intercepted methods that are neither accessors of lazy basic attributes nor of the other attributes may read the lazy fields
+	 * directly, so all the pending lazy groups are loaded before such methods.
+	 * 
+	 * @param methodName
+	 *            the name of the method
+	 * @return true if the method is an accessor of an attribute that is not in a lazy group, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isEagerAccessor(String methodName) {
+		FinalWrapper<HashSet<String>> wrapper = this.eagerAccessors;
+
+		if (wrapper == null) {
+			this.initLazyGroups();
+
+			wrapper = this.eagerAccessors;
+		}
+
+		return wrapper.value.contains(methodName);
+	}
+
 	/**
 	 * Returns if the method is an id method.
 	 * 
@@ -1765,6 +2157,8 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 
 	/**
 	 * Performs inserts to each table for the managed instance.
+	 * <p>
+	 * The time taken by the batch is recorded to tune the insert batch size of the type.
 	 * 
 	 * @param connection
 	 *            the connection to use
@@ -1783,15 +2177,69 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 			instances[i] = managedInstances[i].getInstance();
 		}
 
+		final long start = System.nanoTime();
+
 		for (final EntityTable table : this.getTables()) {
 			table.performInsert(connection, this, instances, size);
 		}
 
+		if (this.isSuitableForBatchInsert()) {
+			this.getInsertBatchTuner().record(size, System.nanoTime() - start);
+		}
+
 		for (int i = 0; i < size; i++) {
 			managedInstances[i].setStatus(Status.MANAGED);
 		}
 	}
 
+	/**
+	 * Loads the lazy basic attributes of the group for the instance.
+	 * <p>
+	 * The columns of the group are selected with a single query per table, which is a single query unless the group spans secondary
+	 * tables.
+	 * 
+	 * @param connection
+	 *            the connection to use
+	 * @param managedInstance
+	 *            the managed instance to load the group for
+	 * @param group
+	 *            the name of the lazy group
+	 * @throws SQLException
+	 *             thrown in case of an SQL Error
+	 * @throws EntityNotFoundException
+	 *             thrown if the row of the instance no longer exists
+	 * 
+	 * @since 2.0.0
+	 */
+	public void performLoadLazyGroup(Connection connection, ManagedInstance<?> managedInstance, String group) throws SQLException {
+		final BasicMappingImpl<?, ?>[] mappings = this.getLazyGroups().get(group);
+		if (mappings == null) {
+			return;
+		}
+
+		final HashMap<EntityTable, List<AbstractColumn>> tableColumns = Maps.newHashMap();
+		for (final BasicMappingImpl<?, ?> mapping : mappings) {
+			final EntityTable table = (EntityTable) mapping.getColumn().getTable();
+
+			List<AbstractColumn> columns = tableColumns.get(table);
+			if (columns == null) {
+				columns = Lists.newArrayList();
+				tableColumns.put(table, columns);
+			}
+
+			columns.add(mapping.getColumn());
+		}
+
+		for (final Map.Entry<EntityTable, List<AbstractColumn>> entry : tableColumns.entrySet()) {
+			final List<AbstractColumn> columns = entry.getValue();
+
+			if (!entry.getKey().performSelect(connection, managedInstance.getInstance(), columns.toArray(new AbstractColumn[columns.size()]))) {
+				throw new EntityNotFoundException("Unable to load the lazy group " + group + ", the instance no longer exists: "
+					+ managedInstance);
+			}
+		}
+	}
+
 	/**
 	 * Performs refresh for the instance
 	 * 
@@ -1867,6 +2315,30 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		this.primaryTable.performRemove(connection, instances, size);
 	}
 
+	/**
+	 * Performs select to load the instances with the ids at once.
+	 * <p>
+	 * The number of ids must not exceed the {@link #getBatchFetchSize()}, the unused parameters are padded with the last id so that the same
+	 * SQL is used for all the batches.
+	 * 
+	 * @param entityManager
+	 *            the entity manager to use
+	 * @param ids
+	 *            the ids of the instances to select
+	 * @return the instances found
+	 * 
+	 * @since 2.0.0
+	 */
+	public List<X> performBatchSelect(EntityManagerImpl entityManager, Object[] ids) {
+		final QueryImpl<X> q = entityManager.createQuery(this.getCriteriaBatchSelect());
+
+		for (int i = 0; i < this.batchFetchSize; i++) {
+			q.setParameter(i + 1, ids[Math.min(i, ids.length - 1)]);
+		}
+
+		return q.getResultList();
+	}
+
 	/**
 	 * Performs select to find the instance.
 	 * 
@@ -1881,7 +2353,26 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 	 * @since 2.0.0
 	 */
 	public X performSelect(EntityManagerImpl entityManager, Object id, LockModeType lockMode) {
-		final QueryImpl<X> q = entityManager.createQuery(this.getCriteriaSelect());
+		return this.performSelect(entityManager, id, lockMode, null);
+	}
+
+	/**
+	 * Performs select to find the instance with the joins of the fetch profile.
+	 * 
+	 * @param entityManager
+	 *            the entity manager to use
+	 * @param id
+	 *            the id of the instance to select
+	 * @param lockMode
+	 *            the lock mode
+	 * @param fetchProfile
+	 *            the fetch profile or <code>null</code> to use the eager joins
+	 * @return the instance found or null
+	 * 
+	 * @since 2.0.0
+	 */
+	public X performSelect(EntityManagerImpl entityManager, Object id, LockModeType lockMode, FetchProfileImpl<X> fetchProfile) {
+		final QueryImpl<X> q = entityManager.createQuery(fetchProfile != null ? fetchProfile.getCriteriaSelect() : this.getCriteriaSelect());
 
 		q.setLockMode(lockMode);
 
@@ -1916,13 +2407,14 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 
 		final Object instance = managedInstance.getInstance();
 		final Object oldVersion = managedInstance.getOldVersion();
+		final Set<AbstractColumn> skippedColumns = managedInstance.getSkippedUpdateColumns();
 
 		if (wrapper == null) {
 			synchronized (this) {
 				if (this.updateTables == null) {
 					final List<EntityTable> _updateTables = Lists.newArrayList(this.getTables());
 					for (final Iterator<EntityTable> i = _updateTables.iterator(); i.hasNext();) {
-						if (!i.next().performUpdateWithUpdatability(connection, this, managedInstance.getInstance(), oldVersion)) {
+						if (!i.next().performUpdateWithUpdatability(connection, this, managedInstance.getInstance(), oldVersion, skippedColumns)) {
 							i.remove();
 						}
 					}
@@ -1935,7 +2427,7 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		}
 		else {
 			for (final EntityTable table : wrapper.value) {
-				table.performUpdate(connection, this, instance, oldVersion);
+				table.performUpdate(connection, this, instance, oldVersion, skippedColumns);
 			}
 		}
 	}
@@ -2011,12 +2503,48 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 	 * @since 2.0.0
 	 */
 	public void prepareEagerJoins(FetchParent<?, ?> r, int depth, AssociationMappingImpl<?, ?, ?> parent) {
-		if (depth < this.maxFetchJoinDepth) {
-			this.prepareEagerJoins(r, depth, parent, this.entityMapping.getEagerMappings());
+		this.prepareEagerJoins(r, depth, parent, this.maxFetchJoinDepth);
+	}
+
+	/**
+	 * @param r
+	 *            the fetch parent
+	 * @param depth
+	 *            the depth
+	 * @param parent
+	 *            the parent
+	 * @param maxDepth
+	 *            the max depth of the fetch joins
+	 * 
+	 * @since 2.0.0
+	 */
+	public void prepareEagerJoins(FetchParent<?, ?> r, int depth, AssociationMappingImpl<?, ?, ?> parent, int maxDepth) {
+		this.prepareEagerJoins(r, depth, parent, maxDepth, Collections.<AbstractMapping<?, ?, ?>> emptySet());
+	}
+
+	/**
+	 * @param r
+	 *            the fetch parent
+	 * @param depth
+	 *            the depth
+	 * @param parent
+	 *            the parent
+	 * @param maxDepth
+	 *            the max depth of the fetch joins
+	 * @param lazyMappings
+	 *            the eager associations that are left lazy
+	 * 
+	 * @since 2.0.0
+	 */
+	public void prepareEagerJoins(FetchParent<?, ?> r, int depth, AssociationMappingImpl<?, ?, ?> parent, int maxDepth,
+		Set<AbstractMapping<?, ?, ?>> lazyMappings) {
+		if (depth < maxDepth) {
+			this.prepareEagerJoins(r, depth, parent, maxDepth, lazyMappings, this.entityMapping.getEagerMappings());
 		}
 	}
 
-	private void prepareEagerJoins(FetchParent<?, ?> r, int depth, AssociationMappingImpl<?, ?, ?> parent, JoinedMapping<?, ?, ?>[] mappings) {
+	private void prepareEagerJoins(FetchParent<?, ?> r, int depth, AssociationMappingImpl<?, ?, ?> parent, int maxDepth,
+		Set<AbstractMapping<?, ?, ?>> lazyMappings, JoinedMapping<?, ?, ?>[] mappings) {
 		for (final JoinedMapping<?, ?, ?> mapping : mappings) {
 			// Element collection
 			if (mapping.getMappingType() == MappingType.ELEMENT_COLLECTION) {
@@ -2027,7 +2555,7 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 			else if (mapping.getMappingType() == MappingType.EMBEDDABLE) {
 				final Fetch<?, Object> r2 = r.fetch(mapping.getAttribute().getName(), JoinType.LEFT);
 
-				this.prepareEagerJoins(r2, depth, parent, ((EmbeddedMappingImpl<?, ?>) mapping).getEagerMappings());
+				this.prepareEagerJoins(r2, depth, parent, maxDepth, lazyMappings, ((EmbeddedMappingImpl<?, ?>) mapping).getEagerMappings());
 
 				continue;
 			}
@@ -2041,14 +2569,15 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 					continue;
 				}
 
-				// check association's fetch strategy and max depth
-				if ((association.getMaxFetchJoinDepth() < depth) || (association.getFetchStrategy() == FetchStrategyType.SELECT)) {
+				// check association's fetch strategy, max depth and if it is left lazy
+				if ((association.getMaxFetchJoinDepth() < depth) || (association.getFetchStrategy() == FetchStrategyType.SELECT)
+					|| lazyMappings.contains(association)) {
 					continue;
 				}
 
 				final Fetch<?, Object> r2 = r.fetch(((AbstractMapping<?, ?, ?>) mapping).getAttribute().getName(), JoinType.LEFT);
 				final EntityTypeImpl<?> type = association.getType();
-				type.prepareEagerJoins(r2, depth + 1, association);
+				type.prepareEagerJoins(r2, depth + 1, association, maxDepth, lazyMappings);
 			}
 		}
 	}
@@ -2147,6 +2676,20 @@ public class EntityTypeImpl<X> extends IdentifiableTypeImpl<X> implements Entity
 		}
 	}
 
+	/**
+	 * Sets the number of lazy instances of the type to load at once, the largest batch size requested by the associations is retained.
+	 * 
+	 * @param batchFetchSize
+	 *            the number of lazy instances of the type to load at once
+	 * 
+	 * @since 2.0.0
+	 */
+	public synchronized void setBatchFetchSize(int batchFetchSize) {
+		if (batchFetchSize > this.batchFetchSize) {
+			this.batchFetchSize = batchFetchSize;
+		}
+	}
+
 	private synchronized void setInherited() {
 		if (this.inheritanceType == null) {
 			this.inheritanceType = InheritanceType.SINGLE_TABLE;
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
+
+import org.apache.commons.lang.StringUtils;
+import org.batoo.jpa.annotations.FetchStrategyType;
+import org.batoo.jpa.core.impl.criteria.CriteriaQueryImpl;
+import org.batoo.jpa.core.impl.criteria.RootImpl;
+import org.batoo.jpa.core.impl.criteria.jpql.JpqlQuery;
+import org.batoo.jpa.core.impl.instance.EnhancedInstance;
+import org.batoo.jpa.core.impl.instance.ManagedInstance;
+import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
+import org.batoo.jpa.core.impl.model.mapping.AbstractMapping;
+import org.batoo.jpa.core.impl.model.mapping.AssociationMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.PluralAssociationMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.SingularAssociationMappingImpl;
+import org.batoo.jpa.parser.metadata.FetchAttributeMetadata;
+import org.batoo.jpa.parser.metadata.FetchProfileMetadata;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A named fetch profile of an entity.
+ * <p>
+ * For find operations the attributes with {@link FetchStrategyType#JOIN} are fetch joined into the select and the eager joins are limited
+ * to the max depth of the profile. For queries that select an entity root or join, the attributes with {@link FetchStrategyType#JOIN}
+ * whose paths consist of singular associations are fetch joined into the query, the plural ones are not as they would multiply and
+ * paginate the rows of the query. The eager associations with {@link FetchStrategyType#SELECT} are left lazy. The remaining attributes are
+ * loaded for all the instances with batched queries level by level along the path of the attribute.
+ * 
+ * @param <X>
+ *            the type of the entity
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class FetchProfileImpl<X> {
+
+	private final EntityTypeImpl<X> type;
+	private final String name;
+	private final int maxDepth;
+	private final List<FetchAttributeMetadata> attributes;
+
+	private CriteriaQueryImpl<X> selectCriteria;
+	private Set<AbstractMapping<?, ?, ?>> lazyMappings;
+	private final ConcurrentMap<String, CriteriaQueryImpl<X>> queries = Maps.newConcurrentMap();
+
+	/**
+	 * @param type
+	 *            the entity type
+	 * @param metadata
+	 *            the metadata
+	 * 
+	 * @since 2.0.0
+	 */
+	public FetchProfileImpl(EntityTypeImpl<X> type, FetchProfileMetadata metadata) {
+		super();
+
+		this.type = type;
+		this.name = metadata.getName();
+		this.maxDepth = metadata.getMaxDepth();
+		this.attributes = metadata.getAttributes();
+	}
+
+	private void fetchJoins(FetchParent<?, ?> r, boolean singularOnly) {
+		for (final FetchAttributeMetadata attribute : this.attributes) {
+			if (attribute.getStrategy() != FetchStrategyType.JOIN) {
+				continue;
+			}
+
+			final String[] segments = StringUtils.split(attribute.getPath(), '.');
+			if (singularOnly && !this.isSingular(segments)) {
+				continue;
+			}
+
+			FetchParent<?, ?> parent = r;
+			for (final String segment : segments) {
+				parent = parent.fetch(segment, JoinType.LEFT);
+			}
+		}
+	}
+
+	/**
+	 * Returns the select criteria to find the instance with the joins of the profile.
+	 * 
+	 * @return the select criteria
+	 * 
+	 * @since 2.0.0
+	 */
+	public CriteriaQueryImpl<X> getCriteriaSelect() {
+		if (this.selectCriteria != null) {
+			return this.selectCriteria;
+		}
+
+		synchronized (this) {
+			// other thread prepared before this one
+			if (this.selectCriteria != null) {
+				return this.selectCriteria;
+			}
+
+			return this.selectCriteria = this.type.generateCriteriaSelect(this);
+		}
+	}
+
+	/**
+	 * Returns the name of the fetch profile.
+	 * 
+	 * @return the name of the fetch profile
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the eager associations that the profile leaves lazy with {@link FetchStrategyType#SELECT}.
+	 * <p>
+	 * Plural associations are left lazy, singular associations are left as references if they own a foreign key, as the associates of the
+	 * singular associations without a foreign key cannot be located without a select.
+	 * 
+	 * @return the eager associations that the profile leaves lazy
+	 * 
+	 * @since 2.0.0
+	 */
+	public Set<AbstractMapping<?, ?, ?>> getLazyMappings() {
+		if (this.lazyMappings != null) {
+			return this.lazyMappings;
+		}
+
+		synchronized (this) {
+			// other thread prepared before this one
+			if (this.lazyMappings != null) {
+				return this.lazyMappings;
+			}
+
+			final Set<AbstractMapping<?, ?, ?>> _lazyMappings = Sets.newHashSet();
+			for (final FetchAttributeMetadata attribute : this.attributes) {
+				if (attribute.getStrategy() == FetchStrategyType.SELECT) {
+					_lazyMappings.add(this.getMapping(StringUtils.split(attribute.getPath(), '.')));
+				}
+			}
+
+			return this.lazyMappings = _lazyMappings;
+		}
+	}
+
+	private AbstractMapping<?, ?, ?> getMapping(String[] segments) {
+		EntityTypeImpl<?> ownerType = this.type;
+		AbstractMapping<?, ?, ?> mapping = null;
+
+		for (final String segment : segments) {
+			mapping = ownerType.getRootMapping().getMapping(segment);
+			if (!(mapping instanceof AssociationMappingImpl)) {
+				throw new IllegalArgumentException("Fetch profile " + this.name + " refers to " + segment + " that is not an association of "
+					+ ownerType.getName());
+			}
+
+			ownerType = ((AssociationMappingImpl<?, ?, ?>) mapping).getType();
+		}
+
+		return mapping;
+	}
+
+	/**
+	 * Returns the query that fetch joins the singular attributes of the profile with {@link FetchStrategyType#JOIN} into the query.
+	 * <p>
+	 * The query is constructed from the JPQL of the query once and reused for the queries with the same JPQL. The selection of the query
+	 * must be an entity root or join.
+	 * 
+	 * @param q
+	 *            the query to apply the profile
+	 * @return the query with the joins of the profile
+	 * 
+	 * @since 2.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	public CriteriaQueryImpl<X> getQuery(CriteriaQueryImpl<X> q) {
+		final String jpql = q.getJpql();
+
+		final CriteriaQueryImpl<X> query = this.queries.get(jpql);
+		if (query != null) {
+			return query;
+		}
+
+		final JpqlQuery jpqlQuery = new JpqlQuery(this.type.getMetamodel().getEntityManagerFactory(), jpql);
+		final CriteriaQueryImpl<X> _query = (CriteriaQueryImpl<X>) jpqlQuery.getCriteriaQuery();
+
+		this.fetchJoins((FetchParent<?, ?>) _query.getSelection(), true);
+
+		// compile the sql before the query is shared
+		_query.getSql();
+
+		final CriteriaQueryImpl<X> existing = this.queries.putIfAbsent(jpql, _query);
+
+		return existing != null ? existing : _query;
+	}
+
+	/**
+	 * Returns if the profile has attributes with {@link FetchStrategyType#JOIN} to fetch join into the queries.
+	 * 
+	 * @return true if the profile has singular attributes to join, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean hasSingularJoins() {
+		for (final FetchAttributeMetadata attribute : this.attributes) {
+			if ((attribute.getStrategy() == FetchStrategyType.JOIN) && this.isSingular(StringUtils.split(attribute.getPath(), '.'))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean isSingular(String[] segments) {
+		EntityTypeImpl<?> ownerType = this.type;
+
+		for (final String segment : segments) {
+			final AbstractMapping<?, ?, ?> mapping = ownerType.getRootMapping().getMapping(segment);
+			if (!(mapping instanceof SingularAssociationMappingImpl)) {
+				return false;
+			}
+
+			ownerType = ((SingularAssociationMappingImpl<?, ?>) mapping).getType();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Loads the associations of the profile for the instances.
+	 * <p>
+	 * The associations that are already loaded are skipped, so the associations joined by {@link #getCriteriaSelect()} are not reloaded.
+	 * 
+	 * @param entityManager
+	 *            the entity manager
+	 * @param instances
+	 *            the instances
+	 * 
+	 * @since 2.0.0
+	 */
+	public void load(EntityManagerImpl entityManager, Collection<?> instances) {
+		for (final FetchAttributeMetadata attribute : this.attributes) {
+			if (attribute.getStrategy() != FetchStrategyType.SELECT) {
+				this.load(entityManager, instances, this.type, StringUtils.split(attribute.getPath(), '.'), 0);
+			}
+		}
+	}
+
+	private void load(EntityManagerImpl entityManager, Collection<?> owners, EntityTypeImpl<?> ownerType, String[] segments, int index) {
+		if (owners.isEmpty() || (index == segments.length)) {
+			return;
+		}
+
+		final AbstractMapping<?, ?, ?> mapping = ownerType.getRootMapping().getMapping(segments[index]);
+
+		if (mapping instanceof PluralAssociationMappingImpl) {
+			final PluralAssociationMappingImpl<?, ?, ?> association = (PluralAssociationMappingImpl<?, ?, ?>) mapping;
+			final List<?> children = association.prefetch(entityManager.getSession(), owners);
+
+			this.load(entityManager, children, association.getType(), segments, index + 1);
+		}
+		else if (mapping instanceof SingularAssociationMappingImpl) {
+			final SingularAssociationMappingImpl<?, ?> association = (SingularAssociationMappingImpl<?, ?>) mapping;
+
+			final Set<Object> children = Sets.newIdentityHashSet();
+			for (final Object owner : owners) {
+				final Object child = association.get(owner);
+				if (child == null) {
+					continue;
+				}
+
+				// initialize the lazy associates
+				if ((child instanceof EnhancedInstance) && !((EnhancedInstance) child).__enhanced__$$__isInitialized()) {
+					final ManagedInstance<?> instance = ((EnhancedInstance) child).__enhanced__$$__getManagedInstance();
+					entityManager.find(instance.getType().getJavaType(), instance.getId().getId());
+				}
+
+				children.add(child);
+			}
+
+			this.load(entityManager, children, association.getType(), segments, index + 1);
+		}
+		else {
+			throw new IllegalArgumentException("Fetch profile " + this.name + " refers to " + segments[index] + " that is not an association of "
+				+ ownerType.getName());
+		}
+	}
+
+	/**
+	 * Prepares the joins of the profile on the root.
+	 * 
+	 * @param r
+	 *            the root
+	 * 
+	 * @since 2.0.0
+	 */
+	public void prepareJoins(RootImpl<X> r) {
+		final int depth = this.maxDepth >= 0 ? this.maxDepth : this.type.getMetamodel().getEntityManagerFactory().getMaxFetchJoinDepth();
+
+		this.type.prepareEagerJoins(r, 0, null, depth, this.getLazyMappings());
+
+		this.fetchJoins(r, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String toString() {
+		return "FetchProfile [name=" + this.name + ", type=" + this.type.getName() + "]";
+	}
+}
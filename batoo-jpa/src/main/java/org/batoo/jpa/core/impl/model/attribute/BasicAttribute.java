@@ -18,12 +18,15 @@
  */
 package org.batoo.jpa.core.impl.model.attribute;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
 
 import javax.persistence.EnumType;
+import javax.persistence.FetchType;
 import javax.persistence.PersistenceException;
 import javax.persistence.TemporalType;
 import javax.persistence.metamodel.SingularAttribute;
@@ -61,6 +64,11 @@ import org.batoo.jpa.parser.metadata.attribute.VersionAttributeMetadata;
  */
 public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 
+	/**
+	 * The name of the lazy group for the lazy attributes without an explicit group
+	 */
+	public static final String DEFAULT_LAZY_GROUP = "DEFAULT";
+
 	private final BasicTypeImpl<T> type;
 	private final boolean optional;
 	private final boolean version;
@@ -71,6 +79,7 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 	private final EnumType enumType;
 	private final IndexMetadata index;
 	private final ColumnTransformerMetadata columnTransformer;
+	private final String lazyGroup;
 
 	/**
 	 * Constructor for version attributes.
@@ -93,6 +102,7 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 		this.enumType = null;
 		this.index = null;
 		this.columnTransformer = null;
+		this.lazyGroup = null;
 
 		this.type = this.getDeclaringType().getMetamodel().createBasicType(this.getJavaType());
 
@@ -160,6 +170,14 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 		}
 
 		this.lob = this.inferLobType(metadata.isLob());
+
+		// lazy basic attributes are only honoured on the entities, embeddables are loaded with their owners
+		if ((metadata.getFetchType() == FetchType.LAZY) && (declaringType instanceof IdentifiableTypeImpl)) {
+			this.lazyGroup = metadata.getLazyGroup() != null ? metadata.getLazyGroup() : BasicAttribute.DEFAULT_LAZY_GROUP;
+		}
+		else {
+			this.lazyGroup = null;
+		}
 	}
 
 	/**
@@ -181,6 +199,7 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 		this.enumType = null;
 		this.index = null;
 		this.columnTransformer = null;
+		this.lazyGroup = null;
 
 		this.type = this.getDeclaringType().getMetamodel().createBasicType(this.getJavaType());
 		this.temporalType = metadata.getTemporalType();
@@ -346,6 +365,17 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 		return this.index;
 	}
 
+	/**
+	 * Returns the name of the lazy group of the attribute.
+	 * 
+	 * @return the name of the lazy group of the attribute or <code>null</code> if the attribute is eager
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getLazyGroup() {
+		return this.lazyGroup;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -389,6 +419,11 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 			return true;
 		}
 
+		// stream typed attributes are always streamed from and to lobs
+		if (this.isStream()) {
+			return true;
+		}
+
 		try {
 			TypeFactory.getSqlType(this.getJavaType(), this.temporalType, this.enumType, false);
 		}
@@ -421,6 +456,17 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 		return this.idType != null;
 	}
 
+	/**
+	 * Returns if the attribute is lazy.
+	 * 
+	 * @return true if the attribute is lazy, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isLazy() {
+		return this.lazyGroup != null;
+	}
+
 	/**
 	 * Returns if the attribute is lob.
 	 * 
@@ -441,6 +487,17 @@ public class BasicAttribute<X, T> extends SingularAttributeImpl<X, T> {
 		return this.optional;
 	}
 
+	/**
+	 * Returns if the attribute is {@link InputStream} or {@link Reader} typed.
+	 * 
+	 * @return true if the attribute is stream typed, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isStream() {
+		return InputStream.class.isAssignableFrom(this.getJavaType()) || Reader.class.isAssignableFrom(this.getJavaType());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -20,9 +20,11 @@ package org.batoo.jpa.core.impl.model.mapping;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
@@ -37,7 +39,9 @@ import org.batoo.common.util.BatooUtils;
 import org.batoo.jpa.annotations.FetchStrategyType;
 import org.batoo.jpa.core.impl.criteria.CriteriaBuilderImpl;
 import org.batoo.jpa.core.impl.criteria.CriteriaQueryImpl;
+import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.impl.criteria.RootImpl;
+import org.batoo.jpa.core.impl.criteria.SubselectQuery;
 import org.batoo.jpa.core.impl.criteria.expression.ParameterExpressionImpl;
 import org.batoo.jpa.core.impl.criteria.expression.PredicateImpl;
 import org.batoo.jpa.core.impl.criteria.join.AbstractJoin;
@@ -59,6 +63,7 @@ import org.batoo.jpa.parser.metadata.attribute.MappableAssociationAttributeMetad
 import org.batoo.jpa.parser.metadata.attribute.OrphanableAssociationAttributeMetadata;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
 
 /**
  * AbstractMapping for associations.
@@ -75,6 +80,17 @@ import com.google.common.base.Splitter;
  */
 public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z, X, Y> implements JoinedMapping<Z, X, Y>, AssociationMapping<Z, X, Y> {
 
+	/**
+	 * The number of owners to load the association at once when prefetching.
+	 */
+	protected static final int PREFETCH_SIZE = 32;
+
+	/**
+	 * The max number of owners to load the association at once with the subselect fetch strategy, which keeps the list of ids in the
+	 * limits of the databases.
+	 */
+	protected static final int SUBSELECT_SIZE = 1000;
+
 	private final boolean eager;
 	private final boolean cascadesDetach;
 	private final boolean cascadesMerge;
@@ -87,8 +103,12 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 	private final int maxFetchDepth;
 
 	private final FetchStrategyType fetchStrategy;
+	private final int batchSize;
 
 	private CriteriaQueryImpl<Y> selectCriteria;
+	private CriteriaQueryImpl<?> batchSelectCriteria;
+	private CriteriaQueryImpl<?> prefetchSelectCriteria;
+	private CriteriaQueryImpl<?> subselectCriteria;
 	private boolean ownerSelect;
 
 	/**
@@ -116,6 +136,7 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 
 		this.maxFetchDepth = metadata.getMaxFetchDepth();
 		this.fetchStrategy = metadata.getFetchStrategy();
+		this.batchSize = metadata.getBatchSize();
 
 		if (metadata instanceof OrphanableAssociationAttributeMetadata) {
 			this.removesOrphans = ((OrphanableAssociationAttributeMetadata) metadata).removesOrphans();
@@ -264,6 +285,82 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 		return this.selectCriteria = q.where(cb.equal(r, cb.parameter(type.getJavaType())));
 	}
 
+	private CriteriaQueryImpl<?> generateBatchSelectCriteria(int size) {
+		final MetamodelImpl metamodel = ((EntityTypeImpl<?>) this.getRoot().getType()).getMetamodel();
+		final CriteriaBuilderImpl cb = metamodel.getEntityManagerFactory().getCriteriaBuilder();
+
+		final Class<Y> bindableType = this.getBindableType();
+		final EntityTypeImpl<Y> entity = metamodel.entity(bindableType);
+
+		if (this.ownerSelect) {
+			return this.generateOwnerBatchSelectCriteria(cb, entity, this.getRoot().getType().getJavaType(), size);
+		}
+
+		return this.generateMappedBatchSelectCriteria(cb, bindableType, entity, this.getInverse().getJavaType(), size);
+	}
+
+	private CriteriaQueryImpl<Y> generateMappedBatchSelectCriteria(CriteriaBuilderImpl cb, Class<Y> bindableType, EntityTypeImpl<Y> entity,
+		Class<?> parameterType, int parameterCount) {
+		final CriteriaQueryImpl<Y> q = cb.createQuery(bindableType);
+		q.internal();
+
+		final RootImpl<Y> r = q.from(entity);
+		r.alias(BatooUtils.acronym(entity.getName()).toLowerCase());
+
+		q.select(r);
+
+		final Iterator<String> pathIterator = Splitter.on(".").split(this.getInverse().getPath()).iterator();
+
+		// Drop the root part
+		pathIterator.next();
+
+		AbstractPath<?> path = null;
+		while (pathIterator.hasNext()) {
+			path = path == null ? r.get(pathIterator.next()) : path.get(pathIterator.next());
+		}
+
+		entity.prepareEagerJoins(r, 0, this);
+
+		final ParameterExpressionImpl<?>[] parameters = new ParameterExpressionImpl[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			parameters[i] = cb.parameter(parameterType);
+		}
+
+		return q.where(path.in(parameters));
+	}
+
+	private CriteriaQueryImpl<Object[]> generateOwnerBatchSelectCriteria(CriteriaBuilderImpl cb, EntityTypeImpl<Y> entity, Class<?> parameterType,
+		int parameterCount) {
+		final CriteriaQueryImpl<Object[]> q = cb.createQuery(Object[].class);
+		q.internal();
+
+		final EntityTypeImpl<?> type = (EntityTypeImpl<?>) this.getRoot().getType();
+
+		final RootImpl<?> r = q.from(type);
+		r.alias(BatooUtils.acronym(type.getName()).toLowerCase());
+
+		final Iterator<String> pathIterator = Splitter.on(".").split(this.getPath()).iterator();
+
+		// Drop the root part
+		pathIterator.next();
+
+		AbstractJoin<?, ?> join = null;
+		while (pathIterator.hasNext()) {
+			join = join == null ? r.<Y> join(pathIterator.next()) : join.join(pathIterator.next());
+		}
+
+		q.multiselect(r, join);
+
+		entity.prepareEagerJoins(join, 0, this);
+
+		final ParameterExpressionImpl<?>[] parameters = new ParameterExpressionImpl[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			parameters[i] = cb.parameter(parameterType);
+		}
+
+		return q.where(r.in(parameters));
+	}
+
 	/**
 	 * Returns the effective association metadata for the attribute checking with the parent mappings and entities.
 	 * 
@@ -316,6 +413,49 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 		return (AssociationMetadata) this.getAttribute().getMetadata();
 	}
 
+	/**
+	 * Returns the number of owners to load the association at once for batch fetches.
+	 * 
+	 * @return the number of owners to load the association at once for batch fetches
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Returns the batch select criteria that loads the association for {@link #getBatchSize()} owners at once.
+	 * 
+	 * @return the batch select criteria
+	 * 
+	 * @since 2.0.0
+	 */
+	private CriteriaQueryImpl<?> getBatchSelectCriteria() {
+		if (this.batchSelectCriteria != null) {
+			return this.batchSelectCriteria;
+		}
+
+		// ensures the owner select is resolved
+		this.getSelectCriteria();
+
+		synchronized (this) {
+			// other thread prepared before this one
+			if (this.batchSelectCriteria != null) {
+				return this.batchSelectCriteria;
+			}
+
+			return this.batchSelectCriteria = this.generateBatchSelectCriteria(this.batchSize);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Class<Y> getBindableType() {
+		return (Class<Y>) (this.getAttribute() instanceof PluralAttributeImpl
+			? ((PluralAttributeImpl<?, ?, ?>) this.getAttribute()).getBindableJavaType()
+			: ((SingularAttributeImpl<?, ?>) this.getAttribute()).getBindableJavaType());
+	}
+
 	/**
 	 * Returns the Fetching strategy of the association
 	 * 
@@ -369,6 +509,31 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 		return this.maxFetchDepth;
 	}
 
+	/**
+	 * Returns the batch select criteria that loads the association for {@link #PREFETCH_SIZE} owners at once.
+	 * 
+	 * @return the prefetch select criteria
+	 * 
+	 * @since 2.0.0
+	 */
+	private CriteriaQueryImpl<?> getPrefetchSelectCriteria() {
+		if (this.prefetchSelectCriteria != null) {
+			return this.prefetchSelectCriteria;
+		}
+
+		// ensures the owner select is resolved
+		this.getSelectCriteria();
+
+		synchronized (this) {
+			// other thread prepared before this one
+			if (this.prefetchSelectCriteria != null) {
+				return this.prefetchSelectCriteria;
+			}
+
+			return this.prefetchSelectCriteria = this.generateBatchSelectCriteria(AssociationMappingImpl.PREFETCH_SIZE);
+		}
+	}
+
 	/**
 	 * Returns the select criteria.
 	 * 
@@ -390,11 +555,7 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 			final MetamodelImpl metamodel = ((EntityTypeImpl<?>) this.getRoot().getType()).getMetamodel();
 			final CriteriaBuilderImpl cb = metamodel.getEntityManagerFactory().getCriteriaBuilder();
 
-			@SuppressWarnings("unchecked")
-			final Class<Y> bindableType = (Class<Y>) (this.getAttribute() instanceof PluralAttributeImpl
-				? ((PluralAttributeImpl<?, ?, ?>) this.getAttribute()).getBindableJavaType()
-				: ((SingularAttributeImpl<?, ?>) this.getAttribute()).getBindableJavaType());
-
+			final Class<Y> bindableType = this.getBindableType();
 			final EntityTypeImpl<Y> entity = metamodel.entity(bindableType);
 
 			this.ownerSelect = this.isOwner() || (this.getAttribute().getPersistentAttributeType() == PersistentAttributeType.MANY_TO_MANY);
@@ -407,6 +568,42 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 		}
 	}
 
+	/**
+	 * Returns the subselect criteria that loads the association for the owners returned by a {@link SubselectQuery}.
+	 * 
+	 * @return the subselect criteria
+	 * 
+	 * @since 2.0.0
+	 */
+	private CriteriaQueryImpl<?> getSubselectCriteria() {
+		if (this.subselectCriteria != null) {
+			return this.subselectCriteria;
+		}
+
+		// ensures the owner select is resolved
+		this.getSelectCriteria();
+
+		synchronized (this) {
+			// other thread prepared before this one
+			if (this.subselectCriteria != null) {
+				return this.subselectCriteria;
+			}
+
+			final MetamodelImpl metamodel = ((EntityTypeImpl<?>) this.getRoot().getType()).getMetamodel();
+			final CriteriaBuilderImpl cb = metamodel.getEntityManagerFactory().getCriteriaBuilder();
+
+			final Class<Y> bindableType = this.getBindableType();
+			final EntityTypeImpl<Y> entity = metamodel.entity(bindableType);
+
+			// the subselect is inlined in place of the parameter
+			if (this.ownerSelect) {
+				return this.subselectCriteria = this.generateOwnerBatchSelectCriteria(cb, entity, SubselectQuery.class, 1);
+			}
+
+			return this.subselectCriteria = this.generateMappedBatchSelectCriteria(cb, bindableType, entity, SubselectQuery.class, 1);
+		}
+	}
+
 	/**
 	 * Returns the associate type of the mapping.
 	 * 
@@ -489,6 +686,116 @@ public abstract class AssociationMappingImpl<Z, X, Y> extends AbstractMapping<Z,
 	 */
 	public abstract void link() throws MappingException;
 
+	/**
+	 * Loads the associates of the owners with a single query.
+	 * <p>
+	 * The number of owners must not exceed the {@link #getBatchSize()}, the unused parameters of the batch select criteria is padded with
+	 * the last owner so that the same SQL is used for all the batches.
+	 * 
+	 * @param entityManager
+	 *            the entity manager
+	 * @param owners
+	 *            the owner instances
+	 * @return the map of owners to their associates
+	 * 
+	 * @since 2.0.0
+	 */
+	protected IdentityHashMap<Object, List<Y>> loadBatch(EntityManagerImpl entityManager, Object[] owners) {
+		return this.loadBatch(entityManager, this.getBatchSelectCriteria(), this.batchSize, owners);
+	}
+
+	private IdentityHashMap<Object, List<Y>> loadBatch(EntityManagerImpl entityManager, CriteriaQueryImpl<?> criteria, int size, Object[] owners) {
+		final QueryImpl<?> q = entityManager.createQuery(criteria);
+		for (int i = 0; i < size; i++) {
+			q.setParameter(i + 1, owners[Math.min(i, owners.length - 1)]);
+		}
+
+		return this.loadAssociates(q, owners);
+	}
+
+	@SuppressWarnings("unchecked")
+	private IdentityHashMap<Object, List<Y>> loadAssociates(QueryImpl<?> q, Object[] owners) {
+		final IdentityHashMap<Object, List<Y>> associates = new IdentityHashMap<Object, List<Y>>();
+		for (final Object owner : owners) {
+			associates.put(owner, Lists.<Y> newArrayList());
+		}
+
+		if (this.ownerSelect) {
+			for (final Object row : q.getResultList()) {
+				final Object[] pair = (Object[]) row;
+
+				final List<Y> children = associates.get(pair[0]);
+				if ((children != null) && (pair[1] != null)) {
+					children.add((Y) pair[1]);
+				}
+			}
+		}
+		else {
+			for (final Object child : q.getResultList()) {
+				final List<Y> children = associates.get(this.getInverse().get(child));
+				if (children != null) {
+					children.add((Y) child);
+				}
+			}
+		}
+
+		return associates;
+	}
+
+	/**
+	 * Loads the associates of any number of owners with batched queries.
+	 * <p>
+	 * The owners are loaded in chunks of {@link #getBatchSize()} or {@link #PREFETCH_SIZE}, whichever is larger.
+	 * 
+	 * @param entityManager
+	 *            the entity manager
+	 * @param owners
+	 *            the owner instances
+	 * @return the map of owners to their associates
+	 * 
+	 * @since 2.0.0
+	 */
+	protected IdentityHashMap<Object, List<Y>> loadPrefetch(EntityManagerImpl entityManager, Object[] owners) {
+		final boolean batch = this.batchSize >= AssociationMappingImpl.PREFETCH_SIZE;
+		final CriteriaQueryImpl<?> criteria = batch ? this.getBatchSelectCriteria() : this.getPrefetchSelectCriteria();
+		final int size = batch ? this.batchSize : AssociationMappingImpl.PREFETCH_SIZE;
+
+		final IdentityHashMap<Object, List<Y>> associates = new IdentityHashMap<Object, List<Y>>();
+		for (int i = 0; i < owners.length; i += size) {
+			final Object[] chunk = Arrays.copyOfRange(owners, i, Math.min(owners.length, i + size));
+
+			associates.putAll(this.loadBatch(entityManager, criteria, size, chunk));
+		}
+
+		return associates;
+	}
+
+	/**
+	 * Loads the associates of the owners returned by the subselect query with a single query.
+	 * <p>
+	 * The associates are loaded with the lock mode of the subselect query, if any.
+	 * 
+	 * @param entityManager
+	 *            the entity manager
+	 * @param owners
+	 *            the owner instances
+	 * @param subselectQuery
+	 *            the query that returned the owners
+	 * @return the map of owners to their associates
+	 * 
+	 * @since 2.0.0
+	 */
+	protected IdentityHashMap<Object, List<Y>> loadSubselect(EntityManagerImpl entityManager, Object[] owners, SubselectQuery subselectQuery) {
+		final QueryImpl<?> q = entityManager.createQuery(this.getSubselectCriteria());
+		q.setParameter(1, subselectQuery);
+
+		if (subselectQuery.getLockMode() != null) {
+			q.setLockMode(subselectQuery.getLockMode());
+		}
+
+		return this.loadAssociates(q, owners);
+	}
+
 	/**
 	 * Merges the association of the instance with the entity.
 	 * 
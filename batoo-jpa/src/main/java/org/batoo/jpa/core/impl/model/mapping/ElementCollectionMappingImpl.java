@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.persistence.EnumType;
@@ -36,6 +37,7 @@ import javax.persistence.metamodel.Type.PersistenceType;
 import org.apache.commons.lang.StringUtils;
 import org.batoo.common.util.BatooUtils;
 import org.batoo.common.util.FinalWrapper;
+import org.batoo.jpa.core.impl.cache.CacheImpl;
 import org.batoo.jpa.core.impl.collections.ManagedCollection;
 import org.batoo.jpa.core.impl.collections.ManagedList;
 import org.batoo.jpa.core.impl.criteria.CriteriaBuilderImpl;
@@ -46,6 +48,7 @@ import org.batoo.jpa.core.impl.criteria.join.AbstractJoin;
 import org.batoo.jpa.core.impl.criteria.join.MapJoinImpl;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
 import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
+import org.batoo.jpa.core.impl.manager.SessionImpl;
 import org.batoo.jpa.core.impl.model.EmbeddableTypeImpl;
 import org.batoo.jpa.core.impl.model.EntityTypeImpl;
 import org.batoo.jpa.core.impl.model.MetamodelImpl;
@@ -63,6 +66,7 @@ import org.batoo.jpa.parser.MappingException;
 import org.batoo.jpa.parser.metadata.ColumnMetadata;
 import org.batoo.jpa.parser.metadata.attribute.ElementCollectionAttributeMetadata;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -155,6 +159,8 @@ public class ElementCollectionMappingImpl<Z, C, E> extends AbstractMapping<Z, C,
 	@Override
 	public void attach(Connection connection, ManagedInstance<?> instance, Joinable[] batch, int size) throws SQLException {
 		this.collectionTable.performInsert(connection, instance.getInstance(), batch, size);
+
+		instance.getSession().evictCache(this, instance);
 	}
 
 	/**
@@ -173,6 +179,8 @@ public class ElementCollectionMappingImpl<Z, C, E> extends AbstractMapping<Z, C,
 	@Override
 	public void detach(Connection connection, ManagedInstance<?> instance, Object key, Object child) throws SQLException {
 		this.collectionTable.performRemove(connection, instance.getInstance(), key, child);
+
+		instance.getSession().evictCache(this, instance);
 	}
 
 	/**
@@ -182,6 +190,8 @@ public class ElementCollectionMappingImpl<Z, C, E> extends AbstractMapping<Z, C,
 	@Override
 	public void detachAll(Connection connection, ManagedInstance<?> instance) throws SQLException {
 		this.collectionTable.performRemoveAll(connection, instance.getInstance());
+
+		instance.getSession().evictCache(this, instance);
 	}
 
 	/**
@@ -522,13 +532,33 @@ public class ElementCollectionMappingImpl<Z, C, E> extends AbstractMapping<Z, C,
 	 * 
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	public Collection<? extends E> loadCollection(ManagedInstance<?> instance) {
-		final EntityManagerImpl em = instance.getSession().getEntityManager();
+		final SessionImpl session = instance.getSession();
+		final EntityManagerImpl em = session.getEntityManager();
+		final CacheImpl cache = em.getEntityManagerFactory().getCache();
+
+		// only the basic elements are kept in the second level cache
+		final boolean cachable = (this.getType().getPersistenceType() == PersistenceType.BASIC) && instance.getType().isCachable();
+
+		if (cachable) {
+			final Object[] elements = cache.getCollection(this, instance);
+			if (elements != null) {
+				return Lists.newArrayList((E[]) elements);
+			}
+		}
+
 		final QueryImpl<E> q = em.createQuery(this.getSelectCriteria());
 
 		q.setParameter(1, instance.getInstance());
 
-		return q.getResultList();
+		final List<E> children = q.getResultList();
+
+		if (cachable && session.isCachable(this, instance)) {
+			cache.putCollection(this, instance, children.toArray());
+		}
+
+		return children;
 	}
 
 	/**
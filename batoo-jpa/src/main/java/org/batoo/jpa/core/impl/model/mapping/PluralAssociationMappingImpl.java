@@ -39,10 +39,14 @@ import org.apache.commons.lang.mutable.MutableBoolean;
 import org.batoo.common.reflect.AbstractAccessor;
 import org.batoo.common.util.BatooUtils;
 import org.batoo.common.util.FinalWrapper;
+import org.batoo.jpa.annotations.FetchStrategyType;
+import org.batoo.jpa.core.impl.cache.CacheImpl;
 import org.batoo.jpa.core.impl.collections.ManagedCollection;
 import org.batoo.jpa.core.impl.collections.ManagedList;
 import org.batoo.jpa.core.impl.criteria.QueryImpl;
+import org.batoo.jpa.core.impl.criteria.SubselectQuery;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
+import org.batoo.jpa.core.impl.instance.Status;
 import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
 import org.batoo.jpa.core.impl.manager.SessionImpl;
 import org.batoo.jpa.core.impl.model.EntityTypeImpl;
@@ -61,6 +65,7 @@ import org.batoo.jpa.parser.metadata.ColumnMetadata;
 import org.batoo.jpa.parser.metadata.attribute.AssociationAttributeMetadata;
 import org.batoo.jpa.parser.metadata.attribute.PluralAttributeMetadata;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -161,6 +166,8 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 		else if (this.foreignKey != null) {
 			this.foreignKey.performAttachChild(connection, instance.getInstance(), batch, batchSize);
 		}
+
+		instance.getSession().evictCache(this, instance);
 	}
 
 	/**
@@ -204,6 +211,8 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 		else if (this.foreignKey != null) {
 			this.foreignKey.performDetachChild(connection, key, child);
 		}
+
+		instance.getSession().evictCache(this, instance);
 	}
 
 	/**
@@ -218,6 +227,8 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 		else if (this.foreignKey != null) {
 			this.foreignKey.performDetachAll(connection, instance.getInstance());
 		}
+
+		instance.getSession().evictCache(this, instance);
 	}
 
 	/**
@@ -419,6 +430,19 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 		return true;
 	}
 
+	/**
+	 * Returns if the ids of the children of the owner are kept in the second level cache.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance owning the collection
+	 * @return true if the ids of the children are kept in the second level cache, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	private boolean isCachable(ManagedInstance<?> managedInstance) {
+		return managedInstance.getType().isCachable() && this.getType().isCachable();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -522,12 +546,34 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 	 */
 	@Override
 	public Collection<? extends E> loadCollection(ManagedInstance<?> managedInstance) {
-		final EntityManagerImpl em = managedInstance.getSession().getEntityManager();
-
-		List<E> children = null;
+		final SessionImpl session = managedInstance.getSession();
+		final EntityManagerImpl em = session.getEntityManager();
 
 		final Object instance = managedInstance.getInstance();
 
+		// loaded along with the batch of another owner
+		final Collection<E> prefetched = session.removePrefetched(this, managedInstance);
+		List<E> children = prefetched != null ? Lists.newArrayList(prefetched) : null;
+
+		final boolean cachable = this.isCachable(managedInstance);
+		boolean cached = false;
+
+		// load from the second level cache
+		if ((children == null) && cachable) {
+			children = this.loadCollectionFromCache(managedInstance);
+			cached = children != null;
+		}
+
+		// load for the batch of owners from the database
+		if ((children == null) && (this.getFetchStrategy() == FetchStrategyType.BATCH)) {
+			children = this.loadCollectionBatch(managedInstance);
+		}
+
+		// load for the owners returned by the same query from the database
+		if ((children == null) && (this.getFetchStrategy() == FetchStrategyType.SUBSELECT)) {
+			children = this.loadCollectionSubselect(managedInstance);
+		}
+
 		// load from the database
 		if (children == null) {
 			final QueryImpl<E> q = em.createQuery(this.getSelectCriteria());
@@ -537,6 +583,16 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 			children = q.getResultList();
 		}
 
+		// keep the ids of the children in the second level cache
+		if (cachable && !cached && session.isCachable(this, managedInstance)) {
+			final Object[] ids = new Object[children.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = this.getType().getId(children.get(i)).getId();
+			}
+
+			em.getEntityManagerFactory().getCache().putCollection(this, managedInstance, ids);
+		}
+
 		if ((this.getInverse() != null) && (this.getAttribute().getPersistentAttributeType() == PersistentAttributeType.ONE_TO_MANY)) {
 			final Object[] childrenToProcess = children.toArray(new Object[children.size()]);
 
@@ -554,6 +610,138 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 		return children;
 	}
 
+	/**
+	 * Loads the collection for the instance along with the other owners in the session whose collections are not yet initialized.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance
+	 * @return the children of the instance or null if there is no other owner to batch with
+	 * 
+	 * @since 2.0.0
+	 */
+	private List<E> loadCollectionBatch(ManagedInstance<?> managedInstance) {
+		final EntityTypeImpl<?> ownerType = (EntityTypeImpl<?>) this.getRoot().getType();
+		if ((this.getBatchSize() < 2) || (ownerType.getPrimaryTable().getPkColumns().size() != 1)) {
+			return null;
+		}
+
+		final SessionImpl session = managedInstance.getSession();
+
+		final List<ManagedInstance<?>> owners = Lists.newArrayList();
+		owners.add(managedInstance);
+
+		for (final ManagedInstance<?> candidate : session.getInstances()) {
+			if (owners.size() == this.getBatchSize()) {
+				break;
+			}
+
+			if ((candidate == managedInstance) || (candidate.getStatus() != Status.MANAGED)
+				|| !ownerType.getJavaType().isInstance(candidate.getInstance())) {
+				continue;
+			}
+
+			final Object collection = this.get(candidate.getInstance());
+			if ((collection instanceof ManagedCollection) && !((ManagedCollection<?>) collection).isInitialized()) {
+				owners.add(candidate);
+			}
+		}
+
+		if (owners.size() == 1) {
+			return null;
+		}
+
+		final Object[] instances = new Object[owners.size()];
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = owners.get(i).getInstance();
+		}
+
+		final IdentityHashMap<Object, List<E>> children = this.loadBatch(session.getEntityManager(), instances);
+
+		for (int i = 1; i < instances.length; i++) {
+			session.putPrefetched(this, owners.get(i), children.get(instances[i]));
+		}
+
+		return children.get(instances[0]);
+	}
+
+	/**
+	 * Loads the children from the second level cache.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance owning the collection
+	 * @return the children or <code>null</code> if the children cannot be served from the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	private List<E> loadCollectionFromCache(ManagedInstance<?> managedInstance) {
+		final SessionImpl session = managedInstance.getSession();
+		final CacheImpl cache = session.getEntityManager().getEntityManagerFactory().getCache();
+
+		final Object[] ids = cache.getCollection(this, managedInstance);
+
+		return ids != null ? cache.findAll(session, this.getType(), ids) : null;
+	}
+
+	/**
+	 * Loads the collection for the instance along with the other owners returned by the query that returned the instance.
+	 * <p>
+	 * The collections are loaded for the ids of the owners, up to {@link #SUBSELECT_SIZE} owners at once; the rest are loaded when they are
+	 * first accessed.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance
+	 * @return the children of the instance or null if the instance has not been returned by a query
+	 * 
+	 * @since 2.0.0
+	 */
+	private List<E> loadCollectionSubselect(ManagedInstance<?> managedInstance) {
+		final SubselectQuery subselectQuery = managedInstance.getSubselectQuery();
+		if ((subselectQuery == null) || (subselectQuery.getOwners().size() < 2)) {
+			return null;
+		}
+
+		final EntityTypeImpl<?> ownerType = (EntityTypeImpl<?>) this.getRoot().getType();
+		if (ownerType.getPrimaryTable().getPkColumns().size() != 1) {
+			return null;
+		}
+
+		final SessionImpl session = managedInstance.getSession();
+		final int size = Math.min(AssociationMappingImpl.SUBSELECT_SIZE, session.getEntityManager().getJdbcAdaptor().getMaxBindParameters());
+
+		final List<ManagedInstance<?>> owners = Lists.newArrayList();
+		owners.add(managedInstance);
+
+		for (final ManagedInstance<?> candidate : subselectQuery.getOwners()) {
+			if (owners.size() == size) {
+				break;
+			}
+
+			if ((candidate == managedInstance) || (candidate.getStatus() != Status.MANAGED) || (candidate.getSession() != session)
+				|| !ownerType.getJavaType().isInstance(candidate.getInstance())) {
+				continue;
+			}
+
+			final Object collection = this.get(candidate.getInstance());
+			if ((collection instanceof ManagedCollection) && !((ManagedCollection<?>) collection).isInitialized()) {
+				owners.add(candidate);
+			}
+		}
+
+		final Object[] instances = new Object[owners.size()];
+		for (int i = 0; i < instances.length; i++) {
+			instances[i] = owners.get(i).getInstance();
+		}
+
+		final IdentityHashMap<Object, List<E>> children = this.loadSubselect(session.getEntityManager(), instances,
+			new SubselectQuery(owners, subselectQuery.getLockMode()));
+
+		for (int i = 1; i < instances.length; i++) {
+			session.putPrefetched(this, owners.get(i), children.get(instances[i]));
+		}
+
+		return children.get(instances[0]);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -616,6 +804,81 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 		}
 	}
 
+	/**
+	 * Loads the collections of the owners that are not yet initialized with batched queries and initializes them.
+	 * 
+	 * @param session
+	 *            the session
+	 * @param owners
+	 *            the owner instances
+	 * @return the children of all the owners
+	 * 
+	 * @since 2.0.0
+	 */
+	@SuppressWarnings("unchecked")
+	public List<E> prefetch(SessionImpl session, Collection<?> owners) {
+		final EntityTypeImpl<?> ownerType = (EntityTypeImpl<?>) this.getRoot().getType();
+
+		final List<ManagedInstance<?>> pending = Lists.newArrayList();
+		for (final Object owner : owners) {
+			final ManagedInstance<?> instance = session.get(owner);
+			if (instance == null) {
+				continue;
+			}
+
+			final Object collection = this.get(owner);
+			if ((collection instanceof ManagedCollection) && !((ManagedCollection<?>) collection).isInitialized()) {
+				pending.add(instance);
+			}
+		}
+
+		// the batch select requires a single column primary key
+		if ((pending.size() > 1) && (ownerType.getPrimaryTable().getPkColumns().size() == 1)) {
+			final Object[] instances = new Object[pending.size()];
+			for (int i = 0; i < instances.length; i++) {
+				instances[i] = pending.get(i).getInstance();
+			}
+
+			final IdentityHashMap<Object, List<E>> children = this.loadPrefetch(session.getEntityManager(), instances);
+			for (int i = 0; i < instances.length; i++) {
+				session.putPrefetched(this, pending.get(i), children.get(instances[i]));
+			}
+		}
+
+		for (final ManagedInstance<?> instance : pending) {
+			((ManagedCollection<?>) this.get(instance.getInstance())).initialize();
+		}
+
+		final List<E> children = Lists.newArrayList();
+		for (final Object owner : owners) {
+			final Object collection = this.get(owner);
+			if (collection instanceof Map) {
+				children.addAll(((Map<?, E>) collection).values());
+			}
+			else if (collection != null) {
+				children.addAll((Collection<E>) collection);
+			}
+		}
+
+		return children;
+	}
+
+	/**
+	 * Loads the collections of the owners returned by the query that returned the instance with a single query and retains them to be
+	 * picked up when the collections are initialized.
+	 * 
+	 * @param managedInstance
+	 *            the managed instance
+	 * 
+	 * @since 2.0.0
+	 */
+	public void prefetchSubselect(ManagedInstance<?> managedInstance) {
+		final List<E> children = this.loadCollectionSubselect(managedInstance);
+		if (children != null) {
+			managedInstance.getSession().putPrefetched(this, managedInstance, children);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -647,6 +910,9 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 
 			final ManagedCollection<E> collection = (ManagedCollection<E>) this.get(instance.getInstance());
 
+			// refresh from the database
+			instance.getSession().getEntityManager().getEntityManagerFactory().getCache().evictCollection(this, instance);
+
 			collection.refreshChildren();
 
 			if (this.cascadesRefresh()) {
@@ -721,6 +987,9 @@ public class PluralAssociationMappingImpl<Z, C, E> extends AssociationMappingImp
 	 */
 	@Override
 	public void setLazy(ManagedInstance<?> instance) {
+		// discard the stale children that may have been prefetched
+		instance.getSession().removePrefetched(this, instance);
+
 		this.set(instance.getInstance(), this.attribute.newCollection(this, instance, true));
 	}
 
@@ -29,6 +29,7 @@ import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute.PersistentAttributeType;
 
 import org.apache.commons.lang.mutable.MutableBoolean;
+import org.batoo.jpa.annotations.FetchStrategyType;
 import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
 import org.batoo.jpa.core.impl.manager.EntityManagerImpl;
@@ -320,6 +321,11 @@ public class SingularAssociationMappingImpl<Z, X> extends AssociationMappingImpl
 			else {
 				this.foreignKey.link(this, this.type);
 			}
+
+			// lazy references are loaded in batches
+			if (!this.isEager() && (this.getFetchStrategy() == FetchStrategyType.BATCH)) {
+				this.type.setBatchFetchSize(this.getBatchSize());
+			}
 		}
 	}
 
@@ -37,11 +37,14 @@ import javax.persistence.Parameter;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
+import javax.persistence.metamodel.EntityType;
 
 import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.commons.lang.NotImplementedException;
 import org.batoo.common.log.BLogger;
 import org.batoo.common.log.BLoggerFactory;
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.core.impl.cache.QueryCache;
 import org.batoo.jpa.core.impl.instance.EnhancedInstance;
 import org.batoo.jpa.core.impl.instance.ManagedId;
 import org.batoo.jpa.core.impl.instance.ManagedInstance;
@@ -50,13 +53,13 @@ import org.batoo.jpa.core.impl.manager.SessionImpl;
 import org.batoo.jpa.core.impl.model.EntityTypeImpl;
 import org.batoo.jpa.core.impl.model.mapping.AbstractMapping;
 import org.batoo.jpa.core.impl.model.mapping.BasicMappingImpl;
-import org.batoo.jpa.core.impl.model.mapping.EmbeddedMappingImpl;
 import org.batoo.jpa.core.impl.model.mapping.SingularAssociationMappingImpl;
-import org.batoo.jpa.core.impl.model.mapping.SingularMappingEx;
+import org.batoo.jpa.core.impl.nativeQuery.NativeResultPlan.EntityPlan;
+import org.batoo.jpa.core.impl.nativeQuery.NativeResultPlan.MappingPlan;
 import org.batoo.jpa.jdbc.AbstractColumn;
-import org.batoo.jpa.jdbc.BasicColumn;
+import org.batoo.jpa.jdbc.dbutils.ColumnarResult;
+import org.batoo.jpa.jdbc.dbutils.ColumnarResultHandler;
 import org.batoo.jpa.jdbc.dbutils.QueryRunner;
-import org.batoo.jpa.parser.metadata.ColumnResultMetadata;
 import org.batoo.jpa.parser.metadata.EntityResultMetadata;
 import org.batoo.jpa.parser.metadata.FieldResultMetadata;
 import org.batoo.jpa.parser.metadata.SqlResultSetMappingMetadata;
@@ -82,7 +85,7 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 	 * @author asimarslan
 	 * @since $version
 	 */
-	private static class IdModel {
+	static class IdModel {
 
 		public static final String DEFAULT_EMBEDDED_ID = "__pk__";
 		public static final String DEFAULT_ID = "__id__";
@@ -262,25 +265,62 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 			this.em.flush();
 		}
 
+		// the tables the query touches are not known, so the cached state of all the types is stale
+		for (final EntityType<?> type : this.em.getMetamodel().getEntities()) {
+			if (((EntityTypeImpl<?>) type).isRoot()) {
+				this.em.getSession().evictCache((EntityTypeImpl<?>) type);
+			}
+		}
+
+		// the query may also touch the join and collection tables
+		this.em.getSession().evictQueries(QueryCache.getTables(this.query));
+
+		// writes always go to the primary database
+		this.em.markWritten();
+
 		try {
 			if (!this.parameters.isEmpty()) {
 				final Object[] parameters = new Object[this.parameters.size()];
 
 				for (int i = 0; i < this.parameters.size(); i++) {
-					parameters[i] = this.getParameterValue(i);
+					parameters[i] = this.getParameterValue(i + 1);
 				}
 
-				return new QueryRunner(this.em.getJdbcAdaptor(), false).update(this.query, parameters);
+				return new QueryRunner(this.em.getJdbcAdaptor(), false).update(this.em.getConnection(), this.query, parameters);
 			}
 
-			return new QueryRunner(this.em.getJdbcAdaptor(), false).update(this.query);
-
+			return new QueryRunner(this.em.getJdbcAdaptor(), false).update(this.em.getConnection(), this.query);
 		}
 		catch (final SQLException e) {
 			throw new PersistenceException("Native query execution has failed!", e);
 		}
 	}
 
+	/**
+	 * Returns the results of the query read into primitive column buffers instead of the boxed result objects.
+	 * 
+	 * @return the columnar result
+	 * 
+	 * @since 2.0.0
+	 */
+	public ColumnarResult getColumnarResult() {
+		final Object[] paramValues = new Object[this.parameters.size()];
+		for (int i = 0; i < paramValues.length; i++) {
+			paramValues[i] = this.getParameterValue(i + 1);
+		}
+
+		try {
+			return new QueryRunner(this.em.getJdbcAdaptor(), false).query(this.em.getReadConnection(this.isReadOnly()), this.query,
+				new ColumnarResultHandler(), paramValues);
+		}
+		catch (final SQLException e) {
+			throw new PersistenceException("Native query execution failed!", e);
+		}
+		finally {
+			this.em.closeConnectionIfNecessary();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -316,7 +356,7 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 	 * @param _fieldMap
 	 * @since $version
 	 */
-	private HashMap<AbstractColumn, String> getIdFieldTransformed(HashMap<AbstractColumn, String> idFields, HashMap<String, Object> fieldIdMap) {
+	static HashMap<AbstractColumn, String> getIdFieldTransformed(HashMap<AbstractColumn, String> idFields, HashMap<String, Object> fieldIdMap) {
 		if (fieldIdMap == null) {
 			return idFields;
 		}
@@ -474,7 +514,8 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 			}
 
 			try {
-				return this.results = new QueryRunner(this.em.getJdbcAdaptor(), false).query(this.em.getConnection(), this.query, this, paramValues);
+				return this.results = new QueryRunner(this.em.getJdbcAdaptor(), false).query(this.em.getReadConnection(this.isReadOnly()), this.query,
+					this, paramValues);
 			}
 			catch (final SQLException e) {
 				throw new PersistenceException("Native query execution failed!", e);
@@ -482,6 +523,8 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 		}
 		finally {
 			this.em.getSession().releaseLoadTracker();
+
+			this.em.closeConnectionIfNecessary();
 		}
 	}
 
@@ -543,12 +586,12 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 		return results;
 	}
 
-	private ManagedInstance<?> handleInstance(ResultSet row, EntityTypeImpl<?> entityType, String discriminatorColumn, HashMap<String, Object> fieldMap)
-		throws SQLException {
+	private ManagedInstance<?> handleInstance(ResultSet row, EntityPlan plan) throws SQLException {
 		final SessionImpl session = this.em.getSession();
+		final EntityTypeImpl<?> entityType = plan.getType();
 
 		// get the id of for the instance
-		final ManagedId<?> managedId = entityType.getId(session, row, this.getIdFieldTransformed(entityType.getPrimaryTable().getIdFields(), fieldMap));
+		final ManagedId<?> managedId = plan.getId(session, row);
 
 		if (managedId == null) {
 			return null;
@@ -568,7 +611,7 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 
 			// if it is a lazy instance mark as loading and initialize
 			if (!enhancedInstance.__enhanced__$$__isInitialized()) {
-				this.initializeInstance(session, row, instance, entityType, fieldMap);
+				this.initializeInstance(session, row, instance, plan);
 
 				session.lazyInstanceLoading(instance);
 				enhancedInstance.__enhanced__$$__setInitialized();
@@ -583,9 +626,7 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 		}
 		// inheritance is in place then locate the correct child type
 		else {
-			discriminatorColumn = (discriminatorColumn == null) ? entityType.getDiscriminatorColumn().getName() : discriminatorColumn;
-
-			final String discriminatorValue = row.getObject(discriminatorColumn).toString();
+			final String discriminatorValue = plan.getDiscriminatorValue(row).toString();
 
 			// check if we have a legal discriminator value
 			final EntityTypeImpl<?> effectiveType = entityType.getChildType(discriminatorValue);
@@ -597,7 +638,7 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 			instance = effectiveType.getManagedInstanceById(session, (ManagedId) managedId, false);
 		}
 
-		this.initializeInstance(session, row, instance, entityType, fieldMap);
+		this.initializeInstance(session, row, instance, plan);
 		session.put(instance);
 
 		return instance;
@@ -619,8 +660,19 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 			throw new PersistenceException("Entity Class is not managed :" + this.resultClass);
 		}
 
+		final String key = this.query + "\n" + this.resultClass.getName();
+
+		NativeResultPlan plan = this.em.getEntityManagerFactory().getNativeResultPlan(key);
+		if (plan == null) {
+			plan = new NativeResultPlan(resultSet.getMetaData(), entityType);
+
+			this.em.getEntityManagerFactory().putNativeResultPlan(key, plan);
+		}
+
+		final EntityPlan entityPlan = plan.getEntities()[0];
+
 		while (resultSet.next()) {// for each row
-			final ManagedInstance<?> managedInstance = this.handleInstance(resultSet, entityType, null, null);
+			final ManagedInstance<?> managedInstance = this.handleInstance(resultSet, entityPlan);
 
 			if (managedInstance != null) {
 				result.add(managedInstance.getInstance());
@@ -642,106 +694,90 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 	 */
 	private List<Object> handleWithSqlResultSetMapping(ResultSet resultSet) throws SQLException {
 		final ArrayList<Object> result = Lists.newArrayList();
-		final ArrayList<Object> resultRow = Lists.newArrayList();
 
-		while (resultSet.next()) {// for each row
+		final String key = this.query + "\n@" + this.sqlResultSetMapping.getName();
+
+		NativeResultPlan plan = this.em.getEntityManagerFactory().getNativeResultPlan(key);
+		if (plan == null) {
+			final EntityTypeImpl<?>[] types = new EntityTypeImpl<?>[this.sqlResultSetMapping.getEntities().size()];
+
+			int i = 0;
 			for (final EntityResultMetadata entityResultMetadata : this.sqlResultSetMapping.getEntities()) {
-				final EntityTypeImpl<?> entityType = this.em.getMetamodel().entity(entityResultMetadata.getEntityClass());
+				types[i] = this.em.getMetamodel().entity(entityResultMetadata.getEntityClass());
 
-				if (entityType == null) {
+				if (types[i++] == null) {
 					throw new PersistenceException("Entity Class is not managed :" + entityResultMetadata.getEntityClass());
 				}
+			}
 
-				final HashMap<String, Object> _fieldMap = this.fieldMap.get(entityType.getJavaType().getName());
+			plan = new NativeResultPlan(resultSet.getMetaData(), types, this.sqlResultSetMapping, this.fieldMap);
 
-				final ManagedInstance<?> managedInstance = this.handleInstance(resultSet, entityType, entityResultMetadata.getDiscriminatorColumn(), _fieldMap);
+			this.em.getEntityManagerFactory().putNativeResultPlan(key, plan);
+		}
 
-				if (managedInstance != null) {
-					resultRow.add(managedInstance.getInstance());
-				}
-				else {
-					resultRow.add(null);
-				}
+		final EntityPlan[] entityPlans = plan.getEntities();
+		final int columnCount = plan.getColumnCount();
+		final int size = entityPlans.length + columnCount;
+
+		while (resultSet.next()) {// for each row
+			final Object[] resultRow = new Object[size];
+
+			for (int i = 0; i < entityPlans.length; i++) {
+				final ManagedInstance<?> managedInstance = this.handleInstance(resultSet, entityPlans[i]);
+
+				resultRow[i] = managedInstance != null ? managedInstance.getInstance() : null;
 			}
-			for (final ColumnResultMetadata columnResultMetadata : this.sqlResultSetMapping.getColumns()) {
-				resultRow.add(resultSet.getObject(columnResultMetadata.getName()));
+
+			for (int i = 0; i < columnCount; i++) {
+				resultRow[entityPlans.length + i] = plan.getColumnValue(resultSet, i);
 			}
-			if (resultRow.size() > 1) {
-				result.add(resultRow.toArray());
+
+			if (size > 1) {
+				result.add(resultRow);
 			}
 			else {
-				result.add(resultRow.get(0));
+				result.add(resultRow[0]);
 			}
-			resultRow.clear();
 		}
 		return result;
 	}
 
 	/**
-	 * initialize the managedInstance with sql row data and fieldResult Mapping
+	 * initialize the managedInstance with sql row data and the resolved plan of the entity
 	 * 
 	 * @param session
 	 * @param row
 	 *            Sql data row
 	 * @param managedInstance
-	 * @param entityType
-	 * @param fieldMap
-	 *            fieldResult Mapping data
+	 * @param plan
+	 *            the plan of the entity
 	 * @throws SQLException
 	 * @since $version
 	 */
-	private void initializeInstance(SessionImpl session, ResultSet row, ManagedInstance<?> managedInstance, EntityTypeImpl<?> entityType,
-		HashMap<String, Object> fieldMap) throws SQLException {
+	private void initializeInstance(SessionImpl session, ResultSet row, ManagedInstance<?> managedInstance, EntityPlan plan) throws SQLException {
 		managedInstance.setLoading(true);
 
 		final Object instance = managedInstance.getInstance();
-		for (final AbstractMapping<?, ?, ?> mapping : entityType.getMappingsSingular()) {
+		for (final MappingPlan mappingPlan : plan.getMappings()) {
+			final AbstractMapping<?, ?, ?> mapping = mappingPlan.getMapping();
 
 			if (mapping instanceof BasicMappingImpl) {
-				final BasicMappingImpl<?, ?> basicMapping = (BasicMappingImpl<?, ?>) mapping;
-				final BasicColumn column = basicMapping.getColumn();
-
-				final String colName = (fieldMap != null && fieldMap.get(basicMapping.getName()) != null) ? //
-					fieldMap.get(basicMapping.getName()).toString() : column.getName();
-
-				column.setValue(instance, row.getObject(colName));
+				((BasicMappingImpl<?, ?>) mapping).getColumn().setValue(instance, mappingPlan.getValue(row));
 			}
-			else if (mapping instanceof SingularAssociationMappingImpl) {
+			else {
 				final SingularAssociationMappingImpl<?, ?> singularAssociationMapping = (SingularAssociationMappingImpl<?, ?>) mapping;
-				final EntityTypeImpl<?> singularChildType = ((SingularAssociationMappingImpl<?, ?>) mapping).getType();
-
-				final HashMap<String, Object> _parentFieldMap = this.fieldMap.get(singularAssociationMapping.getParent().getJavaType().getName());
-
-				final SingularMappingEx<?, ?> idMapping = singularChildType.getIdMapping();
-
-				if (singularChildType.hasSingleIdAttribute() && idMapping instanceof BasicMappingImpl) {
 
-					final Object colnameTemp = (_parentFieldMap != null) ? _parentFieldMap.get(singularAssociationMapping.getName()) : null;
-
-					final String colname = colnameTemp == null ? ((BasicMappingImpl) idMapping).getColumn().getName() : colnameTemp.toString();
-
-					final Object _id = row.getObject(colname);
+				if (!mappingPlan.isNested()) {
+					final Object _id = mappingPlan.getValue(row);
 
 					if (_id != null) {
-						final Object reference = session.getEntityManager().getReference(singularChildType.getJavaType(), _id);
+						final Object reference = session.getEntityManager().getReference(singularAssociationMapping.getType().getJavaType(), _id);
 						mapping.set(instance, reference);
 						managedInstance.setJoinLoaded(singularAssociationMapping);
 					}
 				}
 				else {
-					final IdModel idModel = (IdModel) _parentFieldMap.get(singularAssociationMapping.getName());
-					final HashMap<String, Object> _parentIdFieldMap = idModel.getIdMap();
-
-					if (idMapping instanceof EmbeddedMappingImpl) {
-						// TODO should we test embeddedId attr name, or just waste of cpu???
-						final String embeddedIdName = ((EmbeddedMappingImpl) idMapping).getAttribute().getName();
-						final String embeddedId = idModel.getEmbeddedId();
-						if (!embeddedIdName.equals(embeddedId)) {
-							// wrong fieldMapping conf just return
-							return;
-						}
-					}
-					final ManagedInstance<?> handleInstance = this.handleInstance(row, singularChildType, null, _parentIdFieldMap);
+					final ManagedInstance<?> handleInstance = this.handleInstance(row, mappingPlan.getChildPlan(plan));
 
 					mapping.set(instance, handleInstance.getInstance());
 					managedInstance.setJoinLoaded(singularAssociationMapping);
@@ -761,6 +797,12 @@ public class NativeQuery implements Query, ResultSetHandler<List<Object>> {
 		return this.getParameterValue(param) != null;
 	}
 
+	private boolean isReadOnly() {
+		final Object hint = this.hints.get(BJPASettings.READ_ONLY);
+
+		return (hint != null) && Boolean.valueOf(hint.toString());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.impl.nativeQuery;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.batoo.jpa.core.impl.instance.ManagedId;
+import org.batoo.jpa.core.impl.manager.SessionImpl;
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.impl.model.mapping.AbstractMapping;
+import org.batoo.jpa.core.impl.model.mapping.BasicMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.EmbeddedMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.SingularAssociationMappingImpl;
+import org.batoo.jpa.core.impl.model.mapping.SingularMappingEx;
+import org.batoo.jpa.jdbc.AbstractColumn;
+import org.batoo.jpa.jdbc.BasicColumn;
+import org.batoo.jpa.parser.metadata.ColumnResultMetadata;
+import org.batoo.jpa.parser.metadata.EntityResultMetadata;
+import org.batoo.jpa.parser.metadata.SqlResultSetMappingMetadata;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * The plan of a native query that resolves the columns of the entity and column results to the column indexes of the result set.
+ * <p>
+ * The plan is resolved once from the {@link ResultSetMetaData} of the query and cached on the entity manager factory per SQL and result
+ * class or result set mapping, so that the rows are read by the column indexes without resolving the columns by name for each row.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public final class NativeResultPlan {
+
+	/**
+	 * The plan of an entity in the result.
+	 * 
+	 * @author hceylan
+	 * @since 2.0.0
+	 */
+	static final class EntityPlan {
+
+		private final NativeResultPlan resultPlan;
+		private final EntityTypeImpl<?> type;
+
+		private final HashMap<AbstractColumn, String> idFields;
+		private final int idIndex;
+
+		private final String discriminatorColumn;
+		private final int discriminatorIndex;
+
+		private final List<MappingPlan> mappings = Lists.newArrayList();
+
+		private EntityPlan(NativeResultPlan resultPlan, EntityTypeImpl<?> type, String discriminatorColumn, HashMap<String, Object> fieldMap) {
+			super();
+
+			this.resultPlan = resultPlan;
+			this.type = type;
+
+			this.idFields = NativeQuery.getIdFieldTransformed(type.getPrimaryTable().getIdFields(), fieldMap);
+
+			// the single basic ids are read by index, the others through the id fields
+			final SingularMappingEx<?, ?> idMapping = type.hasSingleIdAttribute() ? type.getIdMapping() : null;
+			this.idIndex = idMapping instanceof BasicMappingImpl ? resultPlan.indexOf(this.idFields.get(((BasicMappingImpl<?, ?>) idMapping).getColumn())) : 0;
+
+			if (type.getInheritanceType() != null) {
+				this.discriminatorColumn = discriminatorColumn != null ? discriminatorColumn : type.getDiscriminatorColumn().getName();
+				this.discriminatorIndex = resultPlan.indexOf(this.discriminatorColumn);
+			}
+			else {
+				this.discriminatorColumn = null;
+				this.discriminatorIndex = 0;
+			}
+
+			for (final AbstractMapping<?, ?, ?> mapping : type.getMappingsSingular()) {
+				if (mapping instanceof BasicMappingImpl) {
+					final BasicMappingImpl<?, ?> basicMapping = (BasicMappingImpl<?, ?>) mapping;
+					final BasicColumn column = basicMapping.getColumn();
+
+					final String columnName = ((fieldMap != null) && (fieldMap.get(basicMapping.getName()) != null)) ? //
+						fieldMap.get(basicMapping.getName()).toString() : column.getName();
+
+					this.mappings.add(new MappingPlan(mapping, columnName, resultPlan.indexOf(columnName), null));
+				}
+				else if (mapping instanceof SingularAssociationMappingImpl) {
+					final SingularAssociationMappingImpl<?, ?> associationMapping = (SingularAssociationMappingImpl<?, ?>) mapping;
+					final EntityTypeImpl<?> childType = associationMapping.getType();
+
+					final HashMap<String, Object> parentFieldMap = resultPlan.fieldMap.get(associationMapping.getParent().getJavaType().getName());
+
+					final SingularMappingEx<?, ?> childIdMapping = childType.getIdMapping();
+
+					if (childType.hasSingleIdAttribute() && (childIdMapping instanceof BasicMappingImpl)) {
+						final Object columnName = parentFieldMap != null ? parentFieldMap.get(associationMapping.getName()) : null;
+
+						final String _columnName = columnName == null ? ((BasicMappingImpl<?, ?>) childIdMapping).getColumn().getName()
+							: columnName.toString();
+
+						this.mappings.add(new MappingPlan(mapping, _columnName, resultPlan.indexOf(_columnName), null));
+					}
+					else {
+						final NativeQuery.IdModel idModel = (NativeQuery.IdModel) parentFieldMap.get(associationMapping.getName());
+
+						if (childIdMapping instanceof EmbeddedMappingImpl) {
+							final String embeddedIdName = ((EmbeddedMappingImpl<?, ?>) childIdMapping).getAttribute().getName();
+							if (!embeddedIdName.equals(idModel.getEmbeddedId())) {
+								// wrong field mapping, the remaining mappings are not loaded
+								break;
+							}
+						}
+
+						this.mappings.add(new MappingPlan(mapping, null, 0, idModel.getIdMap()));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns the discriminator value of the row.
+		 * 
+		 * @param row
+		 *            the row
+		 * @return the discriminator value
+		 * @throws SQLException
+		 *             thrown in case of an underlying SQL Exception
+		 * 
+		 * @since 2.0.0
+		 */
+		Object getDiscriminatorValue(ResultSet row) throws SQLException {
+			return NativeResultPlan.getObject(row, this.discriminatorIndex, this.discriminatorColumn);
+		}
+
+		/**
+		 * Returns the id of the entity in the row.
+		 * 
+		 * @param session
+		 *            the session
+		 * @param row
+		 *            the row
+		 * @return the managed id or <code>null</code>
+		 * @throws SQLException
+		 *             thrown in case of an underlying SQL Exception
+		 * 
+		 * @since 2.0.0
+		 */
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		ManagedId<?> getId(SessionImpl session, ResultSet row) throws SQLException {
+			if (this.idIndex > 0) {
+				final Object id = row.getObject(this.idIndex);
+
+				return id != null ? new ManagedId(id, this.type) : null;
+			}
+
+			return this.type.getId(session, row, this.idFields);
+		}
+
+		/**
+		 * Returns the plans of the singular mappings of the entity.
+		 * 
+		 * @return the plans of the singular mappings of the entity
+		 * 
+		 * @since 2.0.0
+		 */
+		List<MappingPlan> getMappings() {
+			return this.mappings;
+		}
+
+		/**
+		 * Returns the type of the entity.
+		 * 
+		 * @return the type of the entity
+		 * 
+		 * @since 2.0.0
+		 */
+		EntityTypeImpl<?> getType() {
+			return this.type;
+		}
+	}
+
+	/**
+	 * The plan of a singular mapping of an entity in the result.
+	 * 
+	 * @author hceylan
+	 * @since 2.0.0
+	 */
+	static final class MappingPlan {
+
+		private final AbstractMapping<?, ?, ?> mapping;
+		private final String column;
+		private final int index;
+		private final HashMap<String, Object> idFieldMap;
+		private volatile EntityPlan childPlan;
+
+		private MappingPlan(AbstractMapping<?, ?, ?> mapping, String column, int index, HashMap<String, Object> idFieldMap) {
+			super();
+
+			this.mapping = mapping;
+			this.column = column;
+			this.index = index;
+			this.idFieldMap = idFieldMap;
+		}
+
+		/**
+		 * Returns the plan of the associated entity with a composite id, resolved on first use.
+		 * 
+		 * @param parent
+		 *            the plan of the entity that owns the mapping
+		 * @return the plan of the associated entity
+		 * 
+		 * @since 2.0.0
+		 */
+		EntityPlan getChildPlan(EntityPlan parent) {
+			if (this.childPlan == null) {
+				this.childPlan = new EntityPlan(parent.resultPlan, ((SingularAssociationMappingImpl<?, ?>) this.mapping).getType(), null, this.idFieldMap);
+			}
+
+			return this.childPlan;
+		}
+
+		/**
+		 * Returns the mapping.
+		 * 
+		 * @return the mapping
+		 * 
+		 * @since 2.0.0
+		 */
+		AbstractMapping<?, ?, ?> getMapping() {
+			return this.mapping;
+		}
+
+		/**
+		 * Returns the value of the column of the mapping in the row.
+		 * 
+		 * @param row
+		 *            the row
+		 * @return the value
+		 * @throws SQLException
+		 *             thrown in case of an underlying SQL Exception
+		 * 
+		 * @since 2.0.0
+		 */
+		Object getValue(ResultSet row) throws SQLException {
+			return NativeResultPlan.getObject(row, this.index, this.column);
+		}
+
+		/**
+		 * Returns if the associated entity has a composite id.
+		 * 
+		 * @return true if the associated entity has a composite id, false otherwise
+		 * 
+		 * @since 2.0.0
+		 */
+		boolean isNested() {
+			return this.idFieldMap != null;
+		}
+	}
+
+	private static Object getObject(ResultSet row, int index, String column) throws SQLException {
+		// fall back to the name so that the driver reports the missing column
+		return index > 0 ? row.getObject(index) : row.getObject(column);
+	}
+
+	private final Map<String, Integer> labels = Maps.newHashMap();
+	private final HashMap<String, HashMap<String, Object>> fieldMap;
+
+	private final EntityPlan[] entities;
+	private final String[] columns;
+	private final int[] columnIndexes;
+
+	/**
+	 * Resolves the plan for the result class.
+	 * 
+	 * @param md
+	 *            the metadata of the result set
+	 * @param type
+	 *            the type of the result class
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	NativeResultPlan(ResultSetMetaData md, EntityTypeImpl<?> type) throws SQLException {
+		super();
+
+		this.fieldMap = Maps.newHashMap();
+		this.readLabels(md);
+
+		this.entities = new EntityPlan[] { new EntityPlan(this, type, null, null) };
+		this.columns = new String[0];
+		this.columnIndexes = new int[0];
+	}
+
+	/**
+	 * Resolves the plan for the result set mapping.
+	 * 
+	 * @param md
+	 *            the metadata of the result set
+	 * @param types
+	 *            the types of the entity results of the mapping
+	 * @param mapping
+	 *            the result set mapping
+	 * @param fieldMap
+	 *            the map of the entity names to the maps of the field names to the columns
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	NativeResultPlan(ResultSetMetaData md, EntityTypeImpl<?>[] types, SqlResultSetMappingMetadata mapping,
+		HashMap<String, HashMap<String, Object>> fieldMap) throws SQLException {
+		super();
+
+		this.fieldMap = fieldMap;
+		this.readLabels(md);
+
+		this.entities = new EntityPlan[types.length];
+
+		int i = 0;
+		for (final EntityResultMetadata entityResult : mapping.getEntities()) {
+			final EntityTypeImpl<?> type = types[i];
+
+			this.entities[i++] = new EntityPlan(this, type, entityResult.getDiscriminatorColumn(), fieldMap.get(type.getJavaType().getName()));
+		}
+
+		this.columns = new String[mapping.getColumns().size()];
+		this.columnIndexes = new int[this.columns.length];
+
+		i = 0;
+		for (final ColumnResultMetadata columnResult : mapping.getColumns()) {
+			this.columns[i] = columnResult.getName();
+			this.columnIndexes[i] = this.indexOf(columnResult.getName());
+
+			i++;
+		}
+	}
+
+	/**
+	 * Returns the value of the column result in the row.
+	 * 
+	 * @param row
+	 *            the row
+	 * @param i
+	 *            the index of the column result
+	 * @return the value
+	 * @throws SQLException
+	 *             thrown in case of an underlying SQL Exception
+	 * 
+	 * @since 2.0.0
+	 */
+	Object getColumnValue(ResultSet row, int i) throws SQLException {
+		return NativeResultPlan.getObject(row, this.columnIndexes[i], this.columns[i]);
+	}
+
+	/**
+	 * Returns the number of the column results.
+	 * 
+	 * @return the number of the column results
+	 * 
+	 * @since 2.0.0
+	 */
+	int getColumnCount() {
+		return this.columns.length;
+	}
+
+	/**
+	 * Returns the plans of the entity results.
+	 * 
+	 * @return the plans of the entity results
+	 * 
+	 * @since 2.0.0
+	 */
+	EntityPlan[] getEntities() {
+		return this.entities;
+	}
+
+	private int indexOf(String column) {
+		if (column == null) {
+			return 0;
+		}
+
+		final Integer index = this.labels.get(column.toUpperCase());
+
+		return index != null ? index : 0;
+	}
+
+	private void readLabels(ResultSetMetaData md) throws SQLException {
+		// the first occurrence of a label wins as it does with the lookups by name
+		for (int i = md.getColumnCount(); i > 0; i--) {
+			this.labels.put(md.getColumnLabel(i).toUpperCase(), i);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.batchinsert;
+
+import java.util.Locale;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.impl.model.EntityTypeImpl;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.jdbc.InsertBatchTuner;
+import org.batoo.jpa.jdbc.adapter.MsSqlAdaptor;
+import org.batoo.jpa.jdbc.statistics.StatementStatisticsSnapshot;
+import org.junit.Test;
+
+/**
+ * Tests for the adaptive insert batches.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class BatchInsertTest extends BaseCoreTest {
+
+	private static final int COUNT = 250;
+	private static final int WIDE_TABLE_COLUMNS = 300;
+
+	private long getInsertCount() {
+		long inserts = 0;
+
+		for (final StatementStatisticsSnapshot statement : this.emf().getSqlStatistics().getSnapshot()) {
+			final String sql = statement.getSql().toUpperCase(Locale.ENGLISH);
+			if (sql.startsWith("INSERT") && sql.contains("FOO")) {
+				inserts += statement.getExecutions();
+			}
+		}
+
+		return inserts;
+	}
+
+	private void recordWindow(InsertBatchTuner tuner, long nanosPerRow) {
+		final int size = tuner.getBatchSize();
+
+		for (int i = 0; i < 8; i++) {
+			tuner.record(size, size * nanosPerRow);
+		}
+	}
+
+	/**
+	 * Tests that the entities are inserted in batches within the bounds.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testBatchInsert() {
+		for (int i = 0; i < BatchInsertTest.COUNT; i++) {
+			final Foo foo = new Foo();
+			foo.setValue("foo" + i);
+
+			this.persist(foo);
+		}
+
+		this.commit();
+		this.close();
+
+		// the batches are between the min size of 8 and the max size of 64
+		final long inserts = this.getInsertCount();
+		Assert.assertTrue(inserts >= (((BatchInsertTest.COUNT + 64) - 1) / 64));
+		Assert.assertTrue(inserts <= (((BatchInsertTest.COUNT + 8) - 1) / 8));
+
+		Assert.assertEquals(BatchInsertTest.COUNT, this.cq("select f from Foo f", Foo.class).getResultList().size());
+
+		final EntityTypeImpl<Foo> type = this.em().getMetamodel().entity(Foo.class);
+		final InsertBatchTuner tuner = type.getInsertBatchTuner();
+
+		Assert.assertTrue(tuner.getMax() <= 64);
+		Assert.assertTrue(tuner.getBatchSize() >= tuner.getMin());
+		Assert.assertTrue(tuner.getBatchSize() <= tuner.getMax());
+	}
+
+	/**
+	 * Tests that the max insert batch size of a wide table is bounded by the bind parameter limit of the database.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testMaxInsertBatchSize() {
+		final MsSqlAdaptor jdbcAdaptor = new MsSqlAdaptor();
+		jdbcAdaptor.setInsertBatchSize(8);
+		jdbcAdaptor.setInsertBatchSizeMax(64);
+
+		Assert.assertEquals(64, jdbcAdaptor.getMaxInsertBatchSize(0));
+		Assert.assertEquals(64, jdbcAdaptor.getMaxInsertBatchSize(10));
+
+		// 2000 parameters / 300 columns
+		final int wide = jdbcAdaptor.getMaxInsertBatchSize(BatchInsertTest.WIDE_TABLE_COLUMNS);
+		Assert.assertEquals(6, wide);
+		Assert.assertTrue((wide * BatchInsertTest.WIDE_TABLE_COLUMNS) <= jdbcAdaptor.getMaxBindParameters());
+
+		// a single row is inserted even if it overflows the limit
+		Assert.assertEquals(1, jdbcAdaptor.getMaxInsertBatchSize(2500));
+
+		jdbcAdaptor.setInsertBatchSize(1);
+		Assert.assertEquals(1, jdbcAdaptor.getMaxInsertBatchSize(BatchInsertTest.WIDE_TABLE_COLUMNS));
+	}
+
+	/**
+	 * Tests that the batch size grows while the latency per row does not get worse and steps back once it does.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testTuning() {
+		final InsertBatchTuner tuner = new InsertBatchTuner(1, 10, 40);
+
+		this.recordWindow(tuner, 1000);
+		Assert.assertEquals(20, tuner.getBatchSize());
+
+		// partial batches are not taken into account
+		tuner.record(5, 1000000);
+
+		this.recordWindow(tuner, 900);
+		Assert.assertEquals(40, tuner.getBatchSize());
+
+		this.recordWindow(tuner, 2000);
+		Assert.assertEquals(20, tuner.getBatchSize());
+
+		this.recordWindow(tuner, 900);
+		Assert.assertEquals(20, tuner.getBatchSize());
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+package org.batoo.jpa.core.test.binder;
+
+import java.util.Date;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+public class Foo {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE)
+	private Integer id;
+
+	private Integer quantity;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date modified;
+
+	/**
+	 * Returns the id of the Foo.
+	 * 
+	 * @return the id of the Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the modified of the Foo.
+	 * 
+	 * @return the modified of the Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public Date getModified() {
+		return this.modified;
+	}
+
+	/**
+	 * Returns the quantity of the Foo.
+	 * 
+	 * @return the quantity of the Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getQuantity() {
+		return this.quantity;
+	}
+
+	/**
+	 * Sets the modified of the Foo.
+	 * 
+	 * @param modified
+	 *            the modified to set for Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setModified(Date modified) {
+		this.modified = modified;
+	}
+
+	/**
+	 * Sets the quantity of the Foo.
+	 * 
+	 * @param quantity
+	 *            the quantity to set for Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+}
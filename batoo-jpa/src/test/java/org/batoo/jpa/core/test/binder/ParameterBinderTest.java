@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+package org.batoo.jpa.core.test.binder;
+
+import java.util.Date;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * Tests for the typed binding of the statement parameters.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ParameterBinderTest extends BaseCoreTest {
+
+	/**
+	 * Tests that the null values of the typed columns are inserted.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testNullInsert() {
+		final Foo foo = new Foo();
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		final Foo foo2 = this.find(Foo.class, foo.getId());
+		Assert.assertNull(foo2.getQuantity());
+		Assert.assertNull(foo2.getModified());
+	}
+
+	/**
+	 * Tests that the typed columns are updated to null values.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testNullUpdate() {
+		final Foo foo = new Foo();
+		foo.setQuantity(1);
+		foo.setModified(new Date());
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		final Foo foo2 = this.find(Foo.class, foo.getId());
+		Assert.assertEquals(Integer.valueOf(1), foo2.getQuantity());
+		Assert.assertNotNull(foo2.getModified());
+
+		foo2.setQuantity(null);
+		foo2.setModified(null);
+
+		this.begin();
+		this.commit();
+		this.close();
+
+		final Foo foo3 = this.find(Foo.class, foo.getId());
+		Assert.assertNull(foo3.getQuantity());
+		Assert.assertNull(foo3.getModified());
+	}
+}
@@ -1,177 +1,287 @@
-///*
-// * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
-// * 
-// * This copyrighted material is made available to anyone wishing to use, modify,
-// * copy, or redistribute it subject to the terms and conditions of the GNU
-// * Lesser General Public License, as published by the Free Software Foundation.
-// *
-// * This program is distributed in the hope that it will be useful,
-// * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
-// * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
-// * for more details.
-// *
-// * You should have received a copy of the GNU Lesser General Public License
-// * along with this distribution; if not, write to:
-// * Free Software Foundation, Inc.
-// * 51 Franklin Street, Fifth Floor
-// * Boston, MA  02110-1301  USA
-// */
-//package org.batoo.jpa.core.test.cache;
-//
-//import junit.framework.Assert;
-//
-//import org.batoo.jpa.core.test.BaseCoreTest;
-//import org.junit.Test;
-//
-///**
-// * @author hceylan
-// * 
-// * @since 2.0.0
-// */
-//public class CacheTest extends BaseCoreTest {
-//
-//	/**
-//	 * Tests the mix of cacheable and non-cachable puts
-//	 * 
-//	 * @since 2.0.0
-//	 */
-//	@Test
-//	public void testMany1() {
-//		final Foo foo = new Foo("value");
-//		Bar bar1 = new Bar(foo, 1);
-//		Bar bar2 = new Bar(foo, 2);
-//
-//		this.persist(foo);
-//		this.commit();
-//		this.close();
-//
-//		bar1 = this.find(Bar.class, bar1.getId());
-//		bar2 = this.find(Bar.class, bar2.getId());
-//
-//		Assert.assertEquals("Global | puts:1 evicts:0 hits:1, misses:0", this.emf().getCache().getStats().toString());
-//	}
-//
-//	/**
-//	 * Tests the one to many cachables
-//	 * 
-//	 * @since 2.0.0
-//	 */
-//	@Test
-//	public void testMany2() {
-//		final Foo foo = new Foo("value");
-//		Bar2 bar1 = new Bar2(foo, 1);
-//		Bar2 bar2 = new Bar2(foo, 2);
-//
-//		this.persist(foo);
-//		this.commit();
-//		this.close();
-//
-//		bar1 = this.find(Bar2.class, bar1.getId());
-//		bar2 = this.find(Bar2.class, bar2.getId());
-//
-//		Assert.assertEquals("Global | puts:3 evicts:0 hits:3, misses:0", this.emf().getCache().getStats().toString());
-//	}
-//
-//	/**
-//	 * Tests the one to many cachables
-//	 * 
-//	 * @since 2.0.0
-//	 */
-//	@Test
-//	public void testMany3() {
-//		final Foo foo = new Foo("value");
-//		Bar2 bar1 = new Bar2(foo, 1);
-//		Bar2 bar2 = new Bar2(foo, 2);
-//
-//		this.persist(foo);
-//		this.commit();
-//		this.close();
-//
-//		this.emf().getCache().evictAll();
-//
-//		bar1 = this.find(Bar2.class, bar1.getId());
-//		bar2 = this.find(Bar2.class, bar2.getId());
-//
-//		this.close();
-//
-//		bar1 = this.find(Bar2.class, bar1.getId());
-//		bar2 = this.find(Bar2.class, bar2.getId());
-//
-//		Assert.assertEquals("Global | puts:3 evicts:0 hits:3, misses:3", this.emf().getCache().getStats().toString());
-//	}
-//
-//	/**
-//	 * Tests the one to many cachables
-//	 * 
-//	 * @since 2.0.0
-//	 */
-//	@Test
-//	public void testMany4() {
-//		Foo foo = new Foo("value");
-//		new Bar2(foo, 1);
-//		new Bar2(foo, 2);
-//
-//		this.persist(foo);
-//		this.commit();
-//		this.close();
-//
-//		this.emf().getCache().evictAll();
-//
-//		foo = this.find(Foo.class, foo.getId());
-//		Assert.assertEquals("Global | puts:1 evicts:0 hits:0, misses:1", this.emf().getCache().getStats().toString());
-//
-//		foo.getBars2().size();
-//		Assert.assertEquals("Global | puts:4 evicts:0 hits:1, misses:3", this.emf().getCache().getStats().toString());
-//
-//		this.close();
-//		foo = this.find(Foo.class, foo.getId());
-//		Assert.assertEquals("Global | puts:4 evicts:0 hits:2, misses:3", this.emf().getCache().getStats().toString());
-//
-//		foo.getBars2().size();
-//		Assert.assertEquals("Global | puts:4 evicts:0 hits:4, misses:3", this.emf().getCache().getStats().toString());
-//	}
-//
-//	/**
-//	 * Tests the one to many cachables
-//	 * 
-//	 * @since 2.0.0
-//	 */
-//	@Test
-//	public void testRemoval() {
-//		Foo foo = new Foo("value");
-//		Bar2 bar1 = new Bar2(foo, 1);
-//		new Bar2(foo, 2);
-//
-//		this.persist(foo);
-//		this.commit();
-//		this.close();
-//
-//		bar1 = this.find(Bar2.class, bar1.getId());
-//		Assert.assertEquals("Global | puts:3 evicts:0 hits:2, misses:0", this.emf().getCache().getStats().toString());
-//		this.remove(bar1);
-//		this.commit();
-//		this.close();
-//
-//		foo = this.find(Foo.class, foo.getId());
-//		Assert.assertEquals(1, foo.getBars2().size());
-//		Assert.assertEquals("Global | puts:5 evicts:1 hits:5, misses:1", this.emf().getCache().getStats().toString());
-//	}
-//
-//	/**
-//	 * Tests the simple cache put
-//	 * 
-//	 * @since 2.0.0
-//	 */
-//	@Test
-//	public void testSimple() {
-//		Foo foo = new Foo("value");
-//
-//		this.persist(foo);
-//		this.commit();
-//		this.close();
-//
-//		foo = this.find(Foo.class, foo.getId());
-//
-//		Assert.assertEquals("Global | puts:1 evicts:0 hits:1, misses:0", this.emf().getCache().getStats().toString());
-//	}
-// }
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.cache;
+
+import javax.persistence.PersistenceContext;
+
+import junit.framework.Assert;
+
+import org.apache.commons.lang.StringUtils;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * @author hceylan
+ * 
+ * @since 2.0.0
+ */
+public class CacheTest extends BaseCoreTest {
+
+	/**
+	 * Tests the mix of cacheable and non-cachable puts
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testCacheable() {
+		final Foo foo = new Foo("value");
+		final Bar bar = new Bar(foo, 1);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		Assert.assertTrue(this.emf().getCache().contains(Foo.class, foo.getId()));
+		Assert.assertFalse(this.emf().getCache().contains(Bar.class, bar.getId()));
+		Assert.assertEquals("Global | puts:1 evicts:0 hits:0, misses:0", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the collections loaded from the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testCollection() {
+		Foo foo = new Foo("value");
+		new Bar2(foo, 1);
+		new Bar2(foo, 2);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		foo = this.find(Foo.class, foo.getId());
+		Assert.assertEquals(2, foo.getBars2().size());
+
+		this.close();
+
+		foo = this.find(Foo.class, foo.getId());
+		Assert.assertEquals(2, foo.getBars2().size());
+		Assert.assertSame(foo, foo.getBars2().get(0).getFoo());
+
+		Assert.assertEquals("Global | puts:4 evicts:0 hits:5, misses:1", this.emf().getCache().getStats().toString());
+
+		this.persist(new Bar2(foo, 3));
+		this.commit();
+		this.close();
+
+		foo = this.find(Foo.class, foo.getId());
+		Assert.assertEquals(3, foo.getBars2().size());
+	}
+
+	/**
+	 * Tests the instances loaded after the cache is evicted
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testEvictAll() {
+		final Foo foo = new Foo("value");
+		Bar2 bar1 = new Bar2(foo, 1);
+		Bar2 bar2 = new Bar2(foo, 2);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		this.emf().getCache().evictAll();
+
+		bar1 = this.find(Bar2.class, bar1.getId());
+		bar2 = this.find(Bar2.class, bar2.getId());
+
+		this.close();
+
+		bar1 = this.find(Bar2.class, bar1.getId());
+		bar2 = this.find(Bar2.class, bar2.getId());
+
+		Assert.assertEquals("Global | puts:6 evicts:3 hits:3, misses:2", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the many to one associations loaded from the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testManyToOne() {
+		final Foo foo = new Foo("value");
+		Bar2 bar1 = new Bar2(foo, 1);
+		Bar2 bar2 = new Bar2(foo, 2);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		bar1 = this.find(Bar2.class, bar1.getId());
+		bar2 = this.find(Bar2.class, bar2.getId());
+
+		Assert.assertSame(bar1.getFoo(), bar2.getFoo());
+		Assert.assertEquals("value", bar1.getFoo().getValue());
+		Assert.assertEquals("Global | puts:3 evicts:0 hits:3, misses:0", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the least recently used instances evicted once the cache is full
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@PersistenceContext(unitName = "bounded")
+	public void testMaxSize() {
+		final Foo foo1 = new Foo("value1");
+		final Foo foo2 = new Foo("value2");
+		final Foo foo3 = new Foo("value3");
+
+		this.persist(foo1);
+		this.persist(foo2);
+		this.persist(foo3);
+		this.commit();
+		this.close();
+
+		int cached = 0;
+		for (final Foo foo : new Foo[] { foo1, foo2, foo3 }) {
+			if (this.emf().getCache().contains(Foo.class, foo.getId())) {
+				cached++;
+			}
+		}
+
+		Assert.assertEquals(2, cached);
+		Assert.assertEquals("Global | puts:3 evicts:1 hits:0, misses:0", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the instances kept in the off-heap tier
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@PersistenceContext(unitName = "offheap")
+	public void testOffHeap() {
+		final Foo foo = new Foo("value");
+		Bar2 bar1 = new Bar2(foo, 1);
+		Bar2 bar2 = new Bar2(foo, 2);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		bar1 = this.find(Bar2.class, bar1.getId());
+		bar2 = this.find(Bar2.class, bar2.getId());
+
+		Assert.assertSame(bar1.getFoo(), bar2.getFoo());
+		Assert.assertEquals("value", bar1.getFoo().getValue());
+		Assert.assertEquals(Integer.valueOf(2), bar2.getValue());
+		Assert.assertEquals("Global | puts:3 evicts:0 hits:3, misses:0", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the strings longer than 64 KB kept in the off-heap tier
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@PersistenceContext(unitName = "offheap")
+	public void testOffHeapLargeString() {
+		final String text = StringUtils.repeat("\u00e7\u011f\u0131\u00f6\u015f\u00fc", 8 * 1024);
+
+		final Foo foo = new Foo("value");
+		foo.setText(text);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		Assert.assertTrue(this.emf().getCache().contains(Foo.class, foo.getId()));
+
+		final Foo foo2 = this.find(Foo.class, foo.getId());
+
+		Assert.assertEquals(text, foo2.getText());
+		Assert.assertEquals("Global | puts:1 evicts:0 hits:1, misses:0", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the removals evicted from the cache
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testRemoval() {
+		final Foo foo = new Foo("value");
+		Bar2 bar1 = new Bar2(foo, 1);
+		new Bar2(foo, 2);
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		bar1 = this.find(Bar2.class, bar1.getId());
+		final Integer id = bar1.getId();
+
+		this.remove(bar1);
+		this.commit();
+		this.close();
+
+		Assert.assertNull(this.find(Bar2.class, id));
+		Assert.assertEquals("Global | puts:3 evicts:1 hits:2, misses:1", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the simple cache put
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSimple() {
+		Foo foo = new Foo("value");
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		foo = this.find(Foo.class, foo.getId());
+
+		Assert.assertEquals("value", foo.getValue());
+		Assert.assertEquals("Global | puts:1 evicts:0 hits:1, misses:0", this.emf().getCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the updates published to the cache on commit
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testUpdate() {
+		Foo foo = new Foo("value");
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		foo = this.find(Foo.class, foo.getId());
+		foo.setValue("value2");
+		this.commit();
+		this.close();
+
+		foo = this.find(Foo.class, foo.getId());
+
+		Assert.assertEquals("value2", foo.getValue());
+		Assert.assertEquals("Global | puts:2 evicts:1 hits:2, misses:0", this.emf().getCache().getStats().toString());
+	}
+}
@@ -26,6 +26,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Lob;
 import javax.persistence.OneToMany;
 
 import com.google.common.collect.Lists;
@@ -45,6 +46,9 @@ public class Foo {
 
 	private String value;
 
+	@Lob
+	private String text;
+
 	@OneToMany(cascade = CascadeType.ALL, mappedBy = "foo")
 	private final List<Bar> bars = Lists.newArrayList();
 
@@ -103,6 +107,17 @@ public class Foo {
 		return this.id;
 	}
 
+	/**
+	 * Returns the text of the Foo.
+	 * 
+	 * @return the text of the Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getText() {
+		return this.text;
+	}
+
 	/**
 	 * Returns the value of the Foo1.
 	 * 
@@ -114,6 +129,18 @@ public class Foo {
 		return this.value;
 	}
 
+	/**
+	 * Sets the text of the Foo.
+	 * 
+	 * @param text
+	 *            the text to set for Foo
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setText(String text) {
+		this.text = text;
+	}
+
 	/**
 	 * Sets the value of the Foo1.
 	 * 
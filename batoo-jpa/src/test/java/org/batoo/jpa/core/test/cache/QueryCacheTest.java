@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.cache;
+
+import javax.persistence.PersistenceContext;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * @author hceylan
+ * 
+ * @since 2.0.0
+ */
+public class QueryCacheTest extends BaseCoreTest {
+
+	private Long count() {
+		return this.cq("select count(f) from Foo f", Long.class).setHint(BJPASettings.QUERY_CACHE, true).getSingleResult();
+	}
+
+	/**
+	 * Tests the query results invalidated by the modifications
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testInvalidation() {
+		this.persist(new Foo("value"));
+		this.commit();
+		this.close();
+
+		Assert.assertEquals(Long.valueOf(1), this.count());
+		this.close();
+
+		this.persist(new Foo("value2"));
+		this.commit();
+		this.close();
+
+		Assert.assertEquals(Long.valueOf(2), this.count());
+		Assert.assertEquals(Long.valueOf(2), this.count());
+
+		Assert.assertEquals("Query | puts:2 evicts:1 hits:1, misses:2", this.emf().getCache().getQueryCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the least recently used query results evicted once the query cache is full
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@PersistenceContext(unitName = "bounded")
+	public void testMaxSize() {
+		this.persist(new Foo("value"));
+		this.commit();
+		this.close();
+
+		for (final String value : new String[] { "value", "value2", "value3", "value" }) {
+			this.cq("select f from Foo f where f.value = :value", Foo.class) //
+				.setHint(BJPASettings.QUERY_CACHE, true) //
+				.setParameter("value", value) //
+				.getResultList();
+		}
+
+		Assert.assertEquals("Query | puts:4 evicts:2 hits:0, misses:4", this.emf().getCache().getQueryCache().getStats().toString());
+	}
+
+	/**
+	 * Tests the entities served from the query cache
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSimple() {
+		final Foo foo = new Foo("value");
+
+		this.persist(foo);
+		this.persist(new Foo("value2"));
+		this.commit();
+		this.close();
+
+		for (int i = 0; i < 2; i++) {
+			final Foo foo2 = this.cq("select f from Foo f where f.value = :value", Foo.class) //
+				.setHint(BJPASettings.QUERY_CACHE, true) //
+				.setParameter("value", "value") //
+				.getSingleResult();
+
+			Assert.assertEquals(foo.getId(), foo2.getId());
+			this.close();
+		}
+
+		Assert.assertEquals("Query | puts:1 evicts:0 hits:1, misses:1", this.emf().getCache().getQueryCache().getStats().toString());
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.datasource;
+
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.BatooPersistenceProvider;
+import org.batoo.jpa.core.impl.manager.EntityManagerFactoryImpl;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.parser.PersistenceUnitInfoImpl;
+import org.junit.Test;
+
+/**
+ * Tests for the external datasources.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ExternalDataSourceTest extends BaseCoreTest {
+
+	/**
+	 * Tests that the prepared statements are reused across the handles of the same physical connection.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStatementCache() throws SQLException {
+		final HandleDataSource dataSource = new HandleDataSource();
+
+		final PersistenceUnitInfoImpl info = new PersistenceUnitInfoImpl("default") {
+
+			@Override
+			public DataSource getNonJtaDataSource() {
+				return dataSource;
+			}
+		};
+
+		final EntityManagerFactoryImpl emf = new BatooPersistenceProvider().createContainerEntityManagerFactory(info, null);
+
+		try {
+			final Foo foo = new Foo();
+			foo.setValue("foo");
+
+			EntityManager em = emf.createEntityManager();
+			em.getTransaction().begin();
+			em.persist(foo);
+			em.getTransaction().commit();
+			em.close();
+
+			final int prepareCount = dataSource.getPrepareCount();
+
+			// each find borrows and releases a handle outside the transaction
+			for (int i = 0; i < 2; i++) {
+				em = emf.createEntityManager();
+				Assert.assertEquals("foo", em.find(Foo.class, foo.getId()).getValue());
+				em.close();
+			}
+
+			Assert.assertEquals(prepareCount + 1, dataSource.getPrepareCount());
+		}
+		finally {
+			emf.close();
+			dataSource.close();
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.datasource;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * An external datasource that hands out a new handle to the same physical connection on every borrow, as the pools of the application
+ * servers do.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class HandleDataSource implements DataSource {
+
+	private final Connection connection;
+	private final Connection physicalConnection;
+	private final AtomicInteger prepareCount = new AtomicInteger();
+
+	/**
+	 * @throws SQLException
+	 *             thrown if the physical connection cannot be opened
+	 * 
+	 * @since 2.0.0
+	 */
+	public HandleDataSource() throws SQLException {
+		super();
+
+		this.connection = DriverManager.getConnection(System.getProperty("javax.persistence.jdbc.url"),
+			System.getProperty("javax.persistence.jdbc.user"), System.getProperty("javax.persistence.jdbc.password"));
+
+		// the physical connection counts the statements prepared on it
+		this.physicalConnection = (Connection) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { Connection.class },
+			new InvocationHandler() {
+
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if ("prepareStatement".equals(method.getName())) {
+						HandleDataSource.this.prepareCount.incrementAndGet();
+					}
+
+					return HandleDataSource.this.invoke(HandleDataSource.this.connection, method, args);
+				}
+			});
+	}
+
+	/**
+	 * Closes the physical connection.
+	 * 
+	 * @throws SQLException
+	 *             thrown if the connection cannot be closed
+	 * 
+	 * @since 2.0.0
+	 */
+	public void close() throws SQLException {
+		this.connection.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		// the handle is closed on release while the physical connection stays open
+		return (Connection) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { Connection.class }, new InvocationHandler() {
+
+			private boolean closed;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("close".equals(method.getName())) {
+					this.closed = true;
+
+					return null;
+				}
+
+				if ("isClosed".equals(method.getName())) {
+					return this.closed;
+				}
+
+				if ("isWrapperFor".equals(method.getName())) {
+					return Connection.class.equals(args[0]);
+				}
+
+				if ("unwrap".equals(method.getName())) {
+					return HandleDataSource.this.physicalConnection;
+				}
+
+				return HandleDataSource.this.invoke(HandleDataSource.this.physicalConnection, method, args);
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return this.getConnection();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	/**
+	 * Returns the number of the statements prepared on the physical connection.
+	 * 
+	 * @return the number of the statements prepared on the physical connection
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getPrepareCount() {
+		return this.prepareCount.get();
+	}
+
+	private Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (final InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		// noop
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		// noop
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		throw new SQLException("Not a wrapper for " + iface);
+	}
+}
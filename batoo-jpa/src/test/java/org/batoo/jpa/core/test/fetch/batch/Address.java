@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.fetch.batch;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+public class Address {
+
+	@Id
+	@GeneratedValue
+	private Integer id;
+
+	@ManyToOne
+	private Person person;
+
+	private String street;
+
+	/**
+	 * @since 2.0.0
+	 */
+	public Address() {
+		super();
+	}
+
+	/**
+	 * @param person
+	 *            the person
+	 * @param street
+	 *            the street
+	 * 
+	 * @since 2.0.0
+	 */
+	public Address(Person person, String street) {
+		super();
+
+		this.person = person;
+		this.street = street;
+
+		person.getAddresses().add(this);
+	}
+
+	/**
+	 * Returns the id.
+	 * 
+	 * @return the id
+	 * @since 2.0.0
+	 */
+	public Integer getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the person.
+	 * 
+	 * @return the person
+	 * @since 2.0.0
+	 */
+	public Person getPerson() {
+		return this.person;
+	}
+
+	/**
+	 * Returns the street.
+	 * 
+	 * @return the street
+	 * @since 2.0.0
+	 */
+	public String getStreet() {
+		return this.street;
+	}
+}
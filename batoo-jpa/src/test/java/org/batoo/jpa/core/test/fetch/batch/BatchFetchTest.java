@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.fetch.batch;
+
+import java.util.List;
+
+import javax.persistence.TypedQuery;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * @author hceylan
+ * 
+ * @since 2.0.0
+ */
+public class BatchFetchTest extends BaseCoreTest {
+
+	private long getExecutionCount() {
+		return this.emf().getSqlStatistics().getExecutionCount();
+	}
+
+	private void prepare() {
+		final Country tr = new Country(1, "Turkey");
+		final Country uk = new Country(2, "UK");
+
+		this.persist(tr);
+		this.persist(uk);
+
+		for (int i = 0; i < 7; i++) {
+			final Person person = new Person("Person " + i, (i % 2) == 0 ? tr : uk);
+			for (int j = 0; j <= i; j++) {
+				new Phone(person, "Phone " + i + "-" + j);
+				new Address(person, "Street " + i + "-" + j);
+			}
+
+			this.persist(person);
+		}
+
+		this.commit();
+		this.close();
+	}
+
+	/**
+	 * Tests that the lazy collections are loaded for a batch of owners.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testBatchCollections() {
+		this.prepare();
+
+		final long executions = this.getExecutionCount();
+
+		final List<Person> people = this.cq("select p from Person p order by p.name", Person.class).getResultList();
+		Assert.assertEquals(7, people.size());
+
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+
+			Assert.assertEquals(i + 1, person.getPhones().size());
+			for (final Phone phone : person.getPhones()) {
+				Assert.assertSame(person, phone.getPerson());
+			}
+		}
+
+		// the query and two batches of up to five owners
+		Assert.assertEquals(3, this.getExecutionCount() - executions);
+	}
+
+	/**
+	 * Tests that the lazy references are loaded for a batch of owners.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testBatchReferences() {
+		this.prepare();
+
+		final long executions = this.getExecutionCount();
+
+		final List<Person> people = this.cq("select p from Person p order by p.name", Person.class).getResultList();
+		Assert.assertEquals(7, people.size());
+
+		for (int i = 0; i < people.size(); i++) {
+			Assert.assertEquals((i % 2) == 0 ? "Turkey" : "UK", people.get(i).getCountry().getName());
+		}
+
+		// the query and a single batch for both the countries
+		Assert.assertEquals(2, this.getExecutionCount() - executions);
+	}
+
+	/**
+	 * Tests that the lazy collections are loaded for all the owners returned by the query.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSubselectCollections() {
+		this.prepare();
+
+		final long executions = this.getExecutionCount();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p where p.name <> :name order by p.name", Person.class);
+		q.setParameter("name", "Person 0");
+		q.setMaxResults(4);
+
+		final List<Person> people = q.getResultList();
+		Assert.assertEquals(4, people.size());
+
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+
+			Assert.assertEquals(i + 2, person.getAddresses().size());
+			for (final Address address : person.getAddresses()) {
+				Assert.assertSame(person, address.getPerson());
+			}
+		}
+
+		Assert.assertEquals(2, this.getExecutionCount() - executions);
+	}
+
+	/**
+	 * Tests that the lazy collections are loaded for all the owners returned by the query even if the owners no longer match the query.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSubselectCollectionsAfterFlush() {
+		this.prepare();
+
+		this.begin();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p where p.name <> :name order by p.name", Person.class);
+		q.setParameter("name", "Person 0");
+
+		final List<Person> people = q.getResultList();
+		Assert.assertEquals(6, people.size());
+
+		// the person no longer matches the query
+		people.get(2).setName("Person 0");
+		this.em().flush();
+
+		for (int i = 0; i < people.size(); i++) {
+			Assert.assertEquals(i + 2, people.get(i).getAddresses().size());
+		}
+
+		this.commit();
+	}
+
+	/**
+	 * Tests that the lazy collections are loaded for all the owners returned by an ordered query without pagination.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSubselectCollectionsOrdered() {
+		this.prepare();
+
+		final long executions = this.getExecutionCount();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p where p.name <> :name order by p.name desc", Person.class);
+		q.setParameter("name", "Person 6");
+
+		final List<Person> people = q.getResultList();
+		Assert.assertEquals(6, people.size());
+
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+
+			Assert.assertEquals(6 - i, person.getAddresses().size());
+			for (final Address address : person.getAddresses()) {
+				Assert.assertSame(person, address.getPerson());
+			}
+		}
+
+		Assert.assertEquals(2, this.getExecutionCount() - executions);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.fetch.batch;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+public class Country {
+
+	@Id
+	private Integer id;
+
+	private String name;
+
+	/**
+	 * @since 2.0.0
+	 */
+	public Country() {
+		super();
+	}
+
+	/**
+	 * @param id
+	 *            the id
+	 * @param name
+	 *            the name
+	 * 
+	 * @since 2.0.0
+	 */
+	public Country(Integer id, String name) {
+		super();
+
+		this.id = id;
+		this.name = name;
+	}
+
+	/**
+	 * Returns the id.
+	 * 
+	 * @return the id
+	 * @since 2.0.0
+	 */
+	public Integer getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the name.
+	 * 
+	 * @return the name
+	 * @since 2.0.0
+	 */
+	public String getName() {
+		return this.name;
+	}
+}
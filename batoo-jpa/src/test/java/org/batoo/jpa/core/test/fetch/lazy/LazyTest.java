@@ -23,8 +23,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.List;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceException;
 
 import junit.framework.Assert;
@@ -239,6 +241,70 @@ public class LazyTest extends BaseCoreTest {
 		person2.getWorkPhones().size();
 	}
 
+	/**
+	 * Tests the pagination of the query that fetch joins a collection applies to the persons rather than the rows.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testPaginatedFetch() {
+		final Person person1 = this.person();
+		final Person person2 = this.person();
+		final Person person3 = this.person();
+
+		this.persist(person1);
+		this.persist(person2);
+		this.persist(person3);
+
+		this.commit();
+		this.close();
+
+		final String qlString = "select p from Person p left join fetch p.phones order by p.id";
+
+		final List<Person> page1 = this.cq(qlString, Person.class).setMaxResults(2).getResultList();
+		Assert.assertEquals(2, page1.size());
+		Assert.assertEquals(person1.getId(), page1.get(0).getId());
+		Assert.assertEquals(person2.getId(), page1.get(1).getId());
+		Assert.assertEquals(2, page1.get(1).getPhones().size());
+
+		final List<Person> page2 = this.cq(qlString, Person.class).setFirstResult(2).setMaxResults(2).getResultList();
+		Assert.assertEquals(1, page2.size());
+		Assert.assertEquals(person3.getId(), page2.get(0).getId());
+		Assert.assertEquals(2, page2.get(0).getPhones().size());
+	}
+
+	/**
+	 * Tests the pagination of the query that fetch joins a collection and is ordered by a column of the collection.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testPaginatedFetchOrderedByCollection() {
+		final Person person1 = this.person();
+		final Person person2 = this.person();
+		final Person person3 = this.person();
+		person3.getPhones().get(0).setPhoneNo("999 9999999");
+
+		this.persist(person1);
+		this.persist(person2);
+		this.persist(person3);
+
+		this.commit();
+		this.close();
+
+		final String qlString = "select p from Person p left join fetch p.phones left join p.phones ph order by ph.phoneNo desc, p.id";
+
+		final List<Person> page1 = this.cq(qlString, Person.class).setMaxResults(2).getResultList();
+		Assert.assertEquals(2, page1.size());
+		Assert.assertEquals(person3.getId(), page1.get(0).getId());
+		Assert.assertEquals(person1.getId(), page1.get(1).getId());
+		Assert.assertEquals(2, page1.get(0).getPhones().size());
+
+		final List<Person> page2 = this.cq(qlString, Person.class).setFirstResult(2).setMaxResults(2).getResultList();
+		Assert.assertEquals(1, page2.size());
+		Assert.assertEquals(person2.getId(), page2.get(0).getId());
+	}
+
 	/**
 	 * Tests to {@link EntityManager#persist(Object)} address which does not cascade to Parent. PersistenceException expected.
 	 * 
@@ -289,4 +355,114 @@ public class LazyTest extends BaseCoreTest {
 		Assert.assertTrue(this.emf().getPersistenceUnitUtil().isLoaded(person2, "addresses"));
 		Assert.assertFalse(this.emf().getPersistenceUnitUtil().isLoaded(person2, "phones"));
 	}
+
+	/**
+	 * Tests the sibling collection fetches are loaded with separate queries rather than a cartesian product.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSplitFetch() {
+		this.persist(this.person());
+		this.persist(this.person());
+
+		this.commit();
+		this.close();
+
+		long executions = this.emf().getSqlStatistics().getExecutionCount();
+		this.cq("select p from Person p", Person.class).getResultList();
+		final long plain = this.emf().getSqlStatistics().getExecutionCount() - executions;
+
+		this.close();
+
+		executions = this.emf().getSqlStatistics().getExecutionCount();
+		final List<Person> persons = this.cq("select p from Person p left join fetch p.phones left join fetch p.workPhones", Person.class).getResultList();
+
+		// one follow-up query per collection fetched
+		Assert.assertEquals(plain + 2, this.emf().getSqlStatistics().getExecutionCount() - executions);
+
+		this.close();
+
+		Assert.assertEquals(2, persons.size());
+		for (final Person person : persons) {
+			Assert.assertEquals(2, person.getPhones().size());
+			Assert.assertEquals(2, person.getWorkPhones().size());
+		}
+	}
+
+	/**
+	 * Tests the inner collection fetches are joined and still restrict the persons returned.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSplitFetchInner() {
+		final Person person = new Person("Ceylan");
+		new WorkPhone(person, "555 5555555");
+
+		this.persist(this.person());
+		this.persist(person);
+		this.persist(this.person());
+
+		this.commit();
+		this.close();
+
+		long executions = this.emf().getSqlStatistics().getExecutionCount();
+		this.cq("select p from Person p", Person.class).getResultList();
+		final long plain = this.emf().getSqlStatistics().getExecutionCount() - executions;
+
+		this.close();
+
+		executions = this.emf().getSqlStatistics().getExecutionCount();
+		final List<Person> persons = this.cq("select distinct p from Person p join fetch p.phones join fetch p.workPhones", Person.class)
+			.getResultList();
+
+		// joined in the same statement and one eager address load less for the person without phones
+		Assert.assertEquals(plain - 1, this.emf().getSqlStatistics().getExecutionCount() - executions);
+
+		this.close();
+
+		Assert.assertEquals(2, persons.size());
+		for (final Person fetched : persons) {
+			Assert.assertEquals(2, fetched.getPhones().size());
+			Assert.assertEquals(2, fetched.getWorkPhones().size());
+		}
+	}
+
+	/**
+	 * Tests the sibling collection fetches of a locked query are loaded with separate queries rather than one query per person.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testSplitFetchLocked() {
+		this.persist(this.person());
+		this.persist(this.person());
+		this.persist(this.person());
+
+		this.commit();
+		this.close();
+
+		final String qlString = "select p from Person p left join fetch p.phones left join fetch p.workPhones";
+
+		long executions = this.emf().getSqlStatistics().getExecutionCount();
+		this.cq(qlString, Person.class).getResultList();
+		final long unlocked = this.emf().getSqlStatistics().getExecutionCount() - executions;
+
+		this.close();
+		this.begin();
+
+		executions = this.emf().getSqlStatistics().getExecutionCount();
+		final List<Person> persons = this.cq(qlString, Person.class).setLockMode(LockModeType.PESSIMISTIC_READ).getResultList();
+		Assert.assertEquals(unlocked, this.emf().getSqlStatistics().getExecutionCount() - executions);
+
+		this.commit();
+		this.close();
+
+		Assert.assertEquals(3, persons.size());
+		for (final Person person : persons) {
+			Assert.assertEquals(2, person.getPhones().size());
+			Assert.assertEquals(2, person.getWorkPhones().size());
+		}
+	}
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.fetch.profile;
+
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.TypedQuery;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+/**
+ * @author hceylan
+ * 
+ * @since 2.0.0
+ */
+public class FetchProfileTest extends BaseCoreTest {
+
+	private Integer prepare() {
+		final Country tr = new Country(1, "Turkey");
+		final Country uk = new Country(2, "UK");
+
+		this.persist(tr);
+		this.persist(uk);
+
+		Integer id = null;
+		for (int i = 0; i < 5; i++) {
+			final Person person = new Person("Person " + i, (i % 2) == 0 ? tr : uk);
+			for (int j = 0; j <= i; j++) {
+				new Phone(person, "Phone " + i + "-" + j);
+				new Address(person, "Street " + i + "-" + j);
+			}
+
+			this.persist(person);
+
+			id = person.getId();
+		}
+
+		this.commit();
+		this.close();
+
+		return id;
+	}
+
+	/**
+	 * Tests that the associations of the fetch profile are loaded by find.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testFindFetchProfile() {
+		final Integer id = this.prepare();
+
+		final Map<String, Object> properties = Maps.newHashMap();
+		properties.put(BJPASettings.FETCH_PROFILE, "details");
+
+		final Person person = this.em().find(Person.class, id, properties);
+		this.close();
+
+		Assert.assertEquals(5, person.getPhones().size());
+		Assert.assertEquals(5, person.getAddresses().size());
+		Assert.assertEquals("Turkey", person.getCountry().getName());
+	}
+
+	/**
+	 * Tests that the singular associations of the fetch profile are joined into the query.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testJoinFetchProfile() {
+		this.prepare();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p where p.name <> :name order by p.name", Person.class);
+		q.setParameter("name", "Person 0");
+		q.setHint(BJPASettings.FETCH_PROFILE, "country");
+
+		final long executions = this.emf().getSqlStatistics().getExecutionCount();
+		final List<Person> people = q.getResultList();
+
+		Assert.assertEquals(1, this.emf().getSqlStatistics().getExecutionCount() - executions);
+		this.close();
+
+		Assert.assertEquals(4, people.size());
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+
+			Assert.assertTrue(this.emf().getPersistenceUnitUtil().isLoaded(person.getCountry()));
+			Assert.assertEquals((i % 2) == 0 ? "UK" : "Turkey", person.getCountry().getName());
+		}
+	}
+
+	/**
+	 * Tests that the eager associations are left lazy by the fetch profile.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testLazyFetchProfile() {
+		this.prepare();
+
+		final TypedQuery<Phone> q = this.cq("select p from Phone p", Phone.class);
+		q.setHint(BJPASettings.FETCH_PROFILE, "lazy");
+
+		final long executions = this.emf().getSqlStatistics().getExecutionCount();
+		final List<Phone> phones = q.getResultList();
+
+		Assert.assertEquals(1, this.emf().getSqlStatistics().getExecutionCount() - executions);
+		Assert.assertEquals(15, phones.size());
+		for (final Phone phone : phones) {
+			Assert.assertFalse(this.emf().getPersistenceUnitUtil().isLoaded(phone.getPerson()));
+		}
+
+		this.close();
+
+		final Map<String, Object> properties = Maps.newHashMap();
+		properties.put(BJPASettings.FETCH_PROFILE, "lazy");
+
+		final Phone phone = this.em().find(Phone.class, phones.get(0).getId(), properties);
+
+		Assert.assertFalse(this.emf().getPersistenceUnitUtil().isLoaded(phone.getPerson()));
+		Assert.assertNotNull(phone.getPerson().getName());
+	}
+
+	/**
+	 * Tests that the nested associations of the fetch profile are loaded for all the results.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testNestedFetchProfile() {
+		this.prepare();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p order by p.name", Person.class);
+		q.setHint(BJPASettings.FETCH_PROFILE, "phones");
+
+		final List<Person> people = q.getResultList();
+		this.close();
+
+		Assert.assertEquals(5, people.size());
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+
+			Assert.assertEquals(i + 1, person.getPhones().size());
+			Assert.assertEquals(i + 1, person.getAddresses().size());
+		}
+	}
+
+	/**
+	 * Tests that the associations of the fetch profile are loaded for all the results.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testQueryFetchProfile() {
+		this.prepare();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p order by p.name", Person.class);
+		q.setHint(BJPASettings.FETCH_PROFILE, "details");
+
+		final List<Person> people = q.getResultList();
+		this.close();
+
+		Assert.assertEquals(5, people.size());
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+
+			Assert.assertEquals(i + 1, person.getPhones().size());
+			Assert.assertEquals(i + 1, person.getAddresses().size());
+			Assert.assertEquals((i % 2) == 0 ? "Turkey" : "UK", person.getCountry().getName());
+
+			for (final Phone phone : person.getPhones()) {
+				Assert.assertSame(person, phone.getPerson());
+			}
+		}
+	}
+
+	/**
+	 * Tests that a fetch profile is rejected by the queries that do not select entities.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testScalarFetchProfile() {
+		final TypedQuery<String> q = this.cq("select p.name from Person p", String.class);
+		q.setHint(BJPASettings.FETCH_PROFILE, "details");
+	}
+
+	/**
+	 * Tests that an unknown fetch profile is rejected.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownFetchProfile() {
+		this.prepare();
+
+		final TypedQuery<Person> q = this.cq("select p from Person p", Person.class);
+		q.setHint(BJPASettings.FETCH_PROFILE, "unknown");
+
+		q.getResultList();
+	}
+}
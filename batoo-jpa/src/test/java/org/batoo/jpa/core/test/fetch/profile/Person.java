@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.fetch.profile;
+
+import java.util.List;
+
+import javax.persistence.CascadeType;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+
+import org.batoo.jpa.annotations.FetchAttribute;
+import org.batoo.jpa.annotations.FetchProfile;
+import org.batoo.jpa.annotations.FetchProfiles;
+import org.batoo.jpa.annotations.FetchStrategyType;
+
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+@FetchProfiles({ //
+	@FetchProfile(name = "details", attributes = { //
+		@FetchAttribute(path = "phones"), //
+		@FetchAttribute(path = "addresses", strategy = FetchStrategyType.BATCH), //
+		@FetchAttribute(path = "country", strategy = FetchStrategyType.BATCH) }),
+	@FetchProfile(name = "country", attributes = @FetchAttribute(path = "country")),
+	@FetchProfile(name = "phones", maxDepth = 0, attributes = @FetchAttribute(path = "phones.person.addresses", strategy = FetchStrategyType.BATCH)) })
+public class Person {
+
+	@Id
+	@GeneratedValue
+	private Integer id;
+
+	private String name;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	private Country country;
+
+	@OneToMany(mappedBy = "person", cascade = CascadeType.ALL)
+	private final List<Phone> phones = Lists.newArrayList();
+
+	@OneToMany(mappedBy = "person", cascade = CascadeType.ALL)
+	private final List<Address> addresses = Lists.newArrayList();
+
+	/**
+	 * @since 2.0.0
+	 */
+	public Person() {
+		super();
+	}
+
+	/**
+	 * @param name
+	 *            the name
+	 * @param country
+	 *            the country
+	 * 
+	 * @since 2.0.0
+	 */
+	public Person(String name, Country country) {
+		super();
+
+		this.name = name;
+		this.country = country;
+	}
+
+	/**
+	 * Returns the addresses.
+	 * 
+	 * @return the addresses
+	 * @since 2.0.0
+	 */
+	public List<Address> getAddresses() {
+		return this.addresses;
+	}
+
+	/**
+	 * Returns the country.
+	 * 
+	 * @return the country
+	 * @since 2.0.0
+	 */
+	public Country getCountry() {
+		return this.country;
+	}
+
+	/**
+	 * Returns the id.
+	 * 
+	 * @return the id
+	 * @since 2.0.0
+	 */
+	public Integer getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the name.
+	 * 
+	 * @return the name
+	 * @since 2.0.0
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the phones.
+	 * 
+	 * @return the phones
+	 * @since 2.0.0
+	 */
+	public List<Phone> getPhones() {
+		return this.phones;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.flush;
+
+import javax.persistence.FlushModeType;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * @author hceylan
+ * 
+ * @since 2.0.0
+ */
+public class AutoFlushTest extends BaseCoreTest {
+
+	/**
+	 * Tests that the auto flush is skipped for the queries that do not read the tables with pending changes.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testAutoFlushSkipped() {
+		final Bar bar = new Bar();
+		bar.setName("bar");
+		this.persist(bar);
+
+		Assert.assertEquals(FlushModeType.AUTO, this.em().getFlushMode());
+
+		Assert.assertEquals(0, this.cq("select f from Foo f", Foo.class).getResultList().size());
+		Assert.assertFalse(bar.isFlushed());
+
+		Assert.assertEquals(1, this.cq("select b from Bar b", Bar.class).getResultList().size());
+		Assert.assertTrue(bar.isFlushed());
+
+		this.commit();
+	}
+
+	/**
+	 * Tests that the updates are flushed before the queries that read the updated tables.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testAutoFlushUpdate() {
+		final Foo foo = new Foo();
+		foo.setValue("foo");
+		this.persist(foo);
+
+		this.commit();
+		this.close();
+
+		final Foo foo2 = this.find(Foo.class, foo.getId());
+		this.begin();
+
+		foo2.setValue("foo2");
+
+		Assert.assertEquals(1, this.cq("select f from Foo f where f.value = 'foo2'", Foo.class).getResultList().size());
+
+		this.commit();
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.flush;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+public class Bar {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE)
+	private Integer id;
+
+	private String name;
+
+	@Transient
+	private boolean flushed;
+
+	/**
+	 * Returns the id of the Bar.
+	 * 
+	 * @return the id of the Bar
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the name of the Bar.
+	 * 
+	 * @return the name of the Bar
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns if the Bar has been flushed to the database.
+	 * 
+	 * @return true if the Bar has been flushed to the database, false otherwise
+	 * 
+	 * @since 2.0.0
+	 */
+	public boolean isFlushed() {
+		return this.flushed;
+	}
+
+	@PostPersist
+	private void postPersist() {
+		this.flushed = true;
+	}
+
+	/**
+	 * Sets the name of the Bar.
+	 * 
+	 * @param name
+	 *            the name to set for Bar
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+}
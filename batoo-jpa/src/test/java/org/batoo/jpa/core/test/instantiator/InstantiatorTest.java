@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.instantiator;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.impl.criteria.CriteriaBuilderImpl;
+import org.batoo.jpa.core.impl.criteria.CriteriaQueryImpl;
+import org.batoo.jpa.core.impl.criteria.RootImpl;
+import org.batoo.jpa.core.impl.instance.Instantiator;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * Tests for the instantiators of the constructor expressions.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class InstantiatorTest extends BaseCoreTest {
+
+	private Instantiator instantiator() throws Exception {
+		return Instantiator.get(ItemSummary.class.getConstructor(String.class, Integer.TYPE, Integer.class));
+	}
+
+	/**
+	 * Tests the constructor expression with primitive and boxed parameters.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testConstructor() {
+		this.persist(new Item("Item1", 1, 10));
+		this.persist(new Item("Item2", 2, null));
+		this.commit();
+		this.close();
+
+		final CriteriaBuilderImpl cb = this.em().getCriteriaBuilder();
+
+		final CriteriaQueryImpl<ItemSummary> q = cb.createQuery(ItemSummary.class);
+		final RootImpl<Item> r = q.from(Item.class);
+		q.select(cb.construct(ItemSummary.class, r.<String> get("name"), r.<Integer> get("quantity"), r.<Integer> get("stock")));
+		q.orderBy(cb.asc(r.get("name")));
+
+		final List<ItemSummary> resultList = this.em().createQuery(q).getResultList();
+		Assert.assertEquals(2, resultList.size());
+
+		Assert.assertEquals("Item1", resultList.get(0).getName());
+		Assert.assertEquals(1, resultList.get(0).getQuantity());
+		Assert.assertEquals(Integer.valueOf(10), resultList.get(0).getStock());
+
+		Assert.assertEquals("Item2", resultList.get(1).getName());
+		Assert.assertEquals(2, resultList.get(1).getQuantity());
+		Assert.assertNull(resultList.get(1).getStock());
+	}
+
+	/**
+	 * Tests the constructor expression falls back to the reflective constructor when the instantiator cannot be generated.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testFallback() {
+		this.persist(new Item("Item1", 1, 10));
+		this.commit();
+		this.close();
+
+		final CriteriaBuilderImpl cb = this.em().getCriteriaBuilder();
+
+		// the classes of the bootstrap class loader cannot have instantiators
+		final CriteriaQueryImpl<StringBuilder> q = cb.createQuery(StringBuilder.class);
+		final RootImpl<Item> r = q.from(Item.class);
+		q.select(cb.construct(StringBuilder.class, r.<String> get("name")));
+
+		final List<StringBuilder> resultList = this.em().createQuery(q).getResultList();
+		Assert.assertEquals(1, resultList.size());
+		Assert.assertEquals("Item1", resultList.get(0).toString());
+	}
+
+	/**
+	 * Tests the instantiator rejects the classes of the bootstrap class loader.
+	 * 
+	 * @throws Exception
+	 *             thrown in case of an error
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInaccessible() throws Exception {
+		Instantiator.get(StringBuilder.class.getConstructor(String.class));
+	}
+
+	/**
+	 * Tests the instantiator rejects the narrowing of the arguments for the primitive parameters.
+	 * 
+	 * @throws Exception
+	 *             thrown in case of an error
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNarrowing() throws Exception {
+		this.instantiator().newInstance(new Object[] { "Item1", Long.valueOf(1), 10 });
+	}
+
+	/**
+	 * Tests the instantiator passes the null arguments to the boxed parameters.
+	 * 
+	 * @throws Exception
+	 *             thrown in case of an error
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testNullBoxed() throws Exception {
+		final ItemSummary summary = (ItemSummary) this.instantiator().newInstance(new Object[] { null, 1, null });
+
+		Assert.assertNull(summary.getName());
+		Assert.assertEquals(1, summary.getQuantity());
+		Assert.assertNull(summary.getStock());
+	}
+
+	/**
+	 * Tests the instantiator rejects the null arguments for the primitive parameters.
+	 * 
+	 * @throws Exception
+	 *             thrown in case of an error
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullPrimitive() throws Exception {
+		this.instantiator().newInstance(new Object[] { "Item1", null, 10 });
+	}
+
+	/**
+	 * Tests the instantiator widens the arguments for the primitive parameters.
+	 * 
+	 * @throws Exception
+	 *             thrown in case of an error
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testWidening() throws Exception {
+		final ItemSummary summary = (ItemSummary) this.instantiator().newInstance(new Object[] { "Item1", Short.valueOf((short) 1), 10 });
+
+		Assert.assertEquals(1, summary.getQuantity());
+	}
+}
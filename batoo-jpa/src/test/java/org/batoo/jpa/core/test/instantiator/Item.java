@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.instantiator;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+public class Item {
+
+	@Id
+	@GeneratedValue
+	private Integer id;
+
+	private String name;
+
+	private int quantity;
+
+	private Integer stock;
+
+	/**
+	 * @since 2.0.0
+	 */
+	public Item() {
+		super();
+	}
+
+	/**
+	 * @param name
+	 *            the name
+	 * @param quantity
+	 *            the quantity
+	 * @param stock
+	 *            the stock
+	 * 
+	 * @since 2.0.0
+	 */
+	public Item(String name, int quantity, Integer stock) {
+		super();
+
+		this.name = name;
+		this.quantity = quantity;
+		this.stock = stock;
+	}
+
+	/**
+	 * Returns the id of the Item.
+	 * 
+	 * @return the id of the Item
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getId() {
+		return this.id;
+	}
+
+	/**
+	 * Returns the name of the Item.
+	 * 
+	 * @return the name of the Item
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the quantity of the Item.
+	 * 
+	 * @return the quantity of the Item
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getQuantity() {
+		return this.quantity;
+	}
+
+	/**
+	 * Returns the stock of the Item.
+	 * 
+	 * @return the stock of the Item
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getStock() {
+		return this.stock;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.instantiator;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ItemSummary {
+
+	private final String name;
+	private final int quantity;
+	private final Integer stock;
+
+	/**
+	 * @param name
+	 *            the name
+	 * @param quantity
+	 *            the quantity
+	 * @param stock
+	 *            the stock
+	 * 
+	 * @since 2.0.0
+	 */
+	public ItemSummary(String name, int quantity, Integer stock) {
+		super();
+
+		this.name = name;
+		this.quantity = quantity;
+		this.stock = stock;
+	}
+
+	/**
+	 * Returns the name of the ItemSummary.
+	 * 
+	 * @return the name of the ItemSummary
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the quantity of the ItemSummary.
+	 * 
+	 * @return the quantity of the ItemSummary
+	 * 
+	 * @since 2.0.0
+	 */
+	public int getQuantity() {
+		return this.quantity;
+	}
+
+	/**
+	 * Returns the stock of the ItemSummary.
+	 * 
+	 * @return the stock of the ItemSummary
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getStock() {
+		return this.stock;
+	}
+}
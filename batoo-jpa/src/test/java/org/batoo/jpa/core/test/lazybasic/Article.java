@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.lazybasic;
+
+import javax.persistence.Basic;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+
+import org.batoo.jpa.annotations.LazyGroup;
+
+/**
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+@Entity
+public class Article {
+
+	@Id
+	@GeneratedValue
+	private Integer key;
+
+	private String title;
+
+	@Lob
+	@Basic(fetch = FetchType.LAZY)
+	private String body;
+
+	@Lob
+	@Basic(fetch = FetchType.LAZY)
+	@LazyGroup("media")
+	private byte[] image;
+
+	@Basic(fetch = FetchType.LAZY)
+	@LazyGroup("media")
+	private String caption;
+
+	/**
+	 * Returns the description of the Article.
+	 * 
+	 * @return the description of the Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public String describe() {
+		return this.title + ": " + this.caption;
+	}
+
+	/**
+	 * Returns the body of the Article.
+	 * 
+	 * @return the body of the Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getBody() {
+		return this.body;
+	}
+
+	/**
+	 * Returns the caption of the Article.
+	 * 
+	 * @return the caption of the Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getCaption() {
+		return this.caption;
+	}
+
+	/**
+	 * Returns the image of the Article.
+	 * 
+	 * @return the image of the Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public byte[] getImage() {
+		return this.image;
+	}
+
+	/**
+	 * Returns the key of the Article.
+	 * 
+	 * @return the key of the Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public Integer getKey() {
+		return this.key;
+	}
+
+	/**
+	 * Returns the title of the Article.
+	 * 
+	 * @return the title of the Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public String getTitle() {
+		return this.title;
+	}
+
+	/**
+	 * Sets the body of the Article.
+	 * 
+	 * @param body
+	 *            the body to set for Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	/**
+	 * Sets the caption of the Article.
+	 * 
+	 * @param caption
+	 *            the caption to set for Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setCaption(String caption) {
+		this.caption = caption;
+	}
+
+	/**
+	 * Sets the image of the Article.
+	 * 
+	 * @param image
+	 *            the image to set for Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setImage(byte[] image) {
+		this.image = image;
+	}
+
+	/**
+	 * Sets the title of the Article.
+	 * 
+	 * @param title
+	 *            the title to set for Article
+	 * 
+	 * @since 2.0.0
+	 */
+	public void setTitle(String title) {
+		this.title = title;
+	}
+}
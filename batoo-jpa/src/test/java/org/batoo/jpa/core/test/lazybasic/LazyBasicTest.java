@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.lazybasic;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceUnitUtil;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.junit.Test;
+
+/**
+ * Tests for the lazy basic attributes.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class LazyBasicTest extends BaseCoreTest {
+
+	private static final String TITLE = "Title";
+	private static final String BODY = "Body";
+	private static final String CAPTION = "Caption";
+	private static final byte[] IMAGE = "Image".getBytes();
+
+	private Article createArticle() {
+		final Article article = new Article();
+
+		article.setTitle(LazyBasicTest.TITLE);
+		article.setBody(LazyBasicTest.BODY);
+		article.setCaption(LazyBasicTest.CAPTION);
+		article.setImage(LazyBasicTest.IMAGE);
+
+		this.persist(article);
+		this.commit();
+		this.close();
+
+		return article;
+	}
+
+	/**
+	 * Tests that the lazy attributes are loaded before the methods other than the accessors.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testLazyBusinessMethod() {
+		final Article article = this.createArticle();
+		final PersistenceUnitUtil util = this.emf().getPersistenceUnitUtil();
+
+		final Article article2 = this.find(Article.class, article.getKey());
+		Assert.assertFalse(util.isLoaded(article2, "caption"));
+
+		Assert.assertEquals(LazyBasicTest.TITLE + ": " + LazyBasicTest.CAPTION, article2.describe());
+		Assert.assertTrue(util.isLoaded(article2, "body"));
+		Assert.assertTrue(util.isLoaded(article2, "image"));
+		Assert.assertTrue(util.isLoaded(article2, "caption"));
+	}
+
+	/**
+	 * Tests that the lazy attributes are loaded on first access, one group at a time.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testLazyGroups() {
+		final Article article = this.createArticle();
+		final PersistenceUnitUtil util = this.emf().getPersistenceUnitUtil();
+
+		final Article article2 = this.find(Article.class, article.getKey());
+		Assert.assertTrue(util.isLoaded(article2, "title"));
+		Assert.assertFalse(util.isLoaded(article2, "body"));
+		Assert.assertFalse(util.isLoaded(article2, "image"));
+		Assert.assertFalse(util.isLoaded(article2, "caption"));
+
+		Assert.assertEquals(LazyBasicTest.BODY, article2.getBody());
+		Assert.assertTrue(util.isLoaded(article2, "body"));
+		Assert.assertFalse(util.isLoaded(article2, "image"));
+
+		Assert.assertEquals(LazyBasicTest.CAPTION, article2.getCaption());
+		Assert.assertTrue(util.isLoaded(article2, "image"));
+		Assert.assertTrue(Arrays.equals(LazyBasicTest.IMAGE, article2.getImage()));
+	}
+
+	/**
+	 * Tests that the lazy attributes are not loaded by the queries.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testLazyQuery() {
+		this.createArticle();
+		this.createArticle();
+
+		final PersistenceUnitUtil util = this.emf().getPersistenceUnitUtil();
+
+		final List<Article> articles = this.cq("select a from Article a", Article.class).getResultList();
+		Assert.assertEquals(2, articles.size());
+
+		for (final Article article : articles) {
+			Assert.assertEquals(LazyBasicTest.TITLE, article.getTitle());
+			Assert.assertFalse(util.isLoaded(article, "body"));
+			Assert.assertEquals(LazyBasicTest.BODY, article.getBody());
+		}
+	}
+
+	/**
+	 * Tests that the lazy group of an instance removed by someone else is not loaded and remains pending.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testLazyRemoved() {
+		final Article article = this.createArticle();
+
+		final Article article2 = this.find(Article.class, article.getKey());
+
+		final EntityManager em = this.emf().createEntityManager();
+		em.getTransaction().begin();
+		em.remove(em.find(Article.class, article.getKey()));
+		em.getTransaction().commit();
+		em.close();
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				article2.getBody();
+
+				Assert.fail("EntityNotFoundException expected");
+			}
+			catch (final EntityNotFoundException e) {
+				Assert.assertFalse(this.emf().getPersistenceUnitUtil().isLoaded(article2, "body"));
+			}
+		}
+	}
+
+	/**
+	 * Tests that the update of an instance does not overwrite the lazy attributes not loaded.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testLazyUpdate() {
+		final Article article = this.createArticle();
+
+		this.begin();
+
+		final Article article2 = this.find(Article.class, article.getKey());
+		article2.setTitle(LazyBasicTest.TITLE + "2");
+
+		final long executions = this.emf().getSqlStatistics().getExecutionCount();
+
+		this.commit();
+
+		Assert.assertEquals(executions + 1, this.emf().getSqlStatistics().getExecutionCount());
+		Assert.assertFalse(this.emf().getPersistenceUnitUtil().isLoaded(article2, "body"));
+		Assert.assertFalse(this.emf().getPersistenceUnitUtil().isLoaded(article2, "caption"));
+
+		this.close();
+
+		final Article article3 = this.find(Article.class, article.getKey());
+		Assert.assertEquals(LazyBasicTest.TITLE + "2", article3.getTitle());
+		Assert.assertEquals(LazyBasicTest.BODY, article3.getBody());
+		Assert.assertEquals(LazyBasicTest.CAPTION, article3.getCaption());
+	}
+}
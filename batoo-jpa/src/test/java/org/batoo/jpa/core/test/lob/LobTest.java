@@ -18,12 +18,17 @@
  */
 package org.batoo.jpa.core.test.lob;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Arrays;
 
 import javax.persistence.EntityManager;
 
 import junit.framework.Assert;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
 import org.batoo.jpa.core.test.BaseCoreTest;
 import org.junit.Test;
 
@@ -67,4 +72,134 @@ public class LobTest extends BaseCoreTest {
 		Assert.assertEquals(Arrays.toString(LobTest.BLOB_DATA.getBytes()), Arrays.toString(foo2.getBlob()));
 		Assert.assertEquals(LobTest.CLOB_DATA, foo2.getClob());
 	}
+
+	private Document createDocument(byte[] content, String text) {
+		final Document document = new Document();
+		document.setName("Document");
+		document.setContent(new ByteArrayInputStream(content));
+		document.setText(new StringReader(text));
+
+		this.persist(document);
+		this.commit();
+		this.close();
+
+		return document;
+	}
+
+	/**
+	 * Tests that the entities with stream typed attributes are not kept in the second level cache, as the streams cannot be shared.
+	 * 
+	 * @throws IOException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStreamingLobCache() throws IOException {
+		final Document document = this.createDocument(LobTest.BLOB_DATA.getBytes(), LobTest.CLOB_DATA);
+
+		Assert.assertFalse(this.emf().getCache().contains(Document.class, document.getKey()));
+
+		for (int i = 0; i < 2; i++) {
+			final Document document2 = this.find(Document.class, document.getKey());
+			this.close();
+
+			Assert.assertTrue(Arrays.equals(LobTest.BLOB_DATA.getBytes(), IOUtils.toByteArray(document2.getContent())));
+			Assert.assertEquals(LobTest.CLOB_DATA, IOUtils.toString(document2.getText()));
+			Assert.assertFalse(this.emf().getCache().contains(Document.class, document.getKey()));
+		}
+	}
+
+	/**
+	 * Tests that the stream typed attributes can be read outside of a transaction once the connection has been released.
+	 * 
+	 * @throws IOException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStreamingLobOutsideTransaction() throws IOException {
+		final Document document = this.createDocument(LobTest.BLOB_DATA.getBytes(), LobTest.CLOB_DATA);
+
+		final Document document2 = this.find(Document.class, document.getKey());
+		this.close();
+
+		Assert.assertTrue(Arrays.equals(LobTest.BLOB_DATA.getBytes(), IOUtils.toByteArray(document2.getContent())));
+		Assert.assertEquals(LobTest.CLOB_DATA, IOUtils.toString(document2.getText()));
+	}
+
+	/**
+	 * Tests that updating the other attributes of the entity leaves the stream typed attributes intact.
+	 * 
+	 * @throws IOException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStreamingLobUpdate() throws IOException {
+		final Document document = this.createDocument(LobTest.BLOB_DATA.getBytes(), LobTest.CLOB_DATA);
+
+		this.begin();
+
+		final Document document2 = this.find(Document.class, document.getKey());
+		IOUtils.toByteArray(document2.getContent());
+		document2.setName("Renamed");
+
+		this.commit();
+		this.close();
+
+		final Document document3 = this.find(Document.class, document.getKey());
+		Assert.assertEquals("Renamed", document3.getName());
+		Assert.assertTrue(Arrays.equals(LobTest.BLOB_DATA.getBytes(), IOUtils.toByteArray(document3.getContent())));
+		Assert.assertEquals(LobTest.CLOB_DATA, IOUtils.toString(document3.getText()));
+		this.close();
+
+		this.begin();
+
+		final Document document4 = this.find(Document.class, document.getKey());
+		document4.setContent(new ByteArrayInputStream("New content".getBytes()));
+
+		this.commit();
+		this.close();
+
+		final Document document5 = this.find(Document.class, document.getKey());
+		Assert.assertEquals("New content", IOUtils.toString(document5.getContent()));
+		Assert.assertEquals(LobTest.CLOB_DATA, IOUtils.toString(document5.getText()));
+	}
+
+	/**
+	 * Tests that the stream typed attributes are streamed to and from the lobs.
+	 * 
+	 * @throws IOException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStreamingLob() throws IOException {
+		final byte[] content = new byte[256 * 1024];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+
+		final String text = StringUtils.repeat("Lob \u00e7\u011f\u0131\u00f6\u015f\u00fc ", 16 * 1024);
+
+		final Document document = new Document();
+		document.setContent(new ByteArrayInputStream(content));
+		document.setText(new StringReader(text));
+
+		this.persist(document);
+		this.commit();
+		this.close();
+
+		this.begin();
+
+		final Document document2 = this.find(Document.class, document.getKey());
+		Assert.assertTrue(Arrays.equals(content, IOUtils.toByteArray(document2.getContent())));
+		Assert.assertEquals(text, IOUtils.toString(document2.getText()));
+
+		this.commit();
+	}
 }
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.pool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.jdbc.DataSourceProxy;
+import org.batoo.jpa.jdbc.PooledDataSource;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for {@link PooledDataSource}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class PooledDataSourceTest extends BaseCoreTest {
+
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 25;
+
+	private Foo createFoo(String value) {
+		final Foo foo = new Foo();
+		foo.setValue(value);
+
+		return foo;
+	}
+
+	private PreparedStatement readFoos() throws SQLException {
+		final EntityManager em = this.emf().createEntityManager();
+		try {
+			final PreparedStatement statement = em.unwrap(Connection.class).prepareStatement("SELECT * FROM Foo");
+			try {
+				Assert.assertTrue(statement.executeQuery().next());
+			}
+			finally {
+				statement.close();
+			}
+
+			return statement;
+		}
+		finally {
+			em.close();
+		}
+	}
+
+	/**
+	 * Tests that the connections are borrowed from and released to the pool.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testBorrowRelease() {
+		final PooledDataSource dataSource = this.emf().unwrap(PooledDataSource.class);
+
+		Assert.assertNotNull(dataSource);
+
+		this.persist(this.createFoo("foo"));
+		this.commit();
+		this.close();
+
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+
+		final long borrowCount = dataSource.getBorrowCount();
+		final long affinityHitCount = dataSource.getAffinityHitCount();
+
+		for (int i = 0; i < 10; i++) {
+			final EntityManager em = this.emf().createEntityManager();
+			Assert.assertEquals(1, em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+			em.close();
+		}
+
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+		Assert.assertTrue(dataSource.getBorrowCount() >= (borrowCount + 10));
+		Assert.assertTrue(dataSource.getAffinityHitCount() > affinityHitCount);
+		Assert.assertTrue(dataSource.getTotalConnections() <= 3);
+	}
+
+	/**
+	 * Tests that the concurrent borrowers wait for the connections when the pool is exhausted.
+	 * 
+	 * @throws Exception
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testConcurrentBorrow() throws Exception {
+		final PooledDataSource dataSource = this.emf().unwrap(PooledDataSource.class);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(PooledDataSourceTest.THREADS);
+		try {
+			final List<Future<Void>> futures = Lists.newArrayList();
+			for (int i = 0; i < PooledDataSourceTest.THREADS; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws Exception {
+						for (int j = 0; j < PooledDataSourceTest.ITERATIONS; j++) {
+							final EntityManager em = PooledDataSourceTest.this.emf().createEntityManager();
+							try {
+								em.getTransaction().begin();
+								em.persist(PooledDataSourceTest.this.createFoo("foo" + j));
+								em.getTransaction().commit();
+							}
+							finally {
+								em.close();
+							}
+						}
+
+						return null;
+					}
+				}));
+			}
+
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+		Assert.assertEquals(0, dataSource.getTimeoutCount());
+		Assert.assertTrue(dataSource.getTotalConnections() <= 3);
+
+		final EntityManager em = this.emf().createEntityManager();
+		Assert.assertEquals(PooledDataSourceTest.THREADS * PooledDataSourceTest.ITERATIONS,
+			em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+		em.close();
+	}
+
+	/**
+	 * Tests that closing a connection twice does not release it again while it is borrowed by another user.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testDoubleClose() throws SQLException {
+		final PooledDataSource dataSource = this.emf().unwrap(PooledDataSource.class);
+		final DataSourceProxy dataSourceProxy = this.emf().unwrap(DataSourceProxy.class);
+
+		final Connection connection = dataSourceProxy.getConnection();
+		connection.close();
+
+		Assert.assertTrue(connection.isClosed());
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+
+		final Connection connection2 = dataSourceProxy.getConnection();
+		Assert.assertEquals(1, dataSource.getActiveConnections());
+
+		connection.close();
+		Assert.assertEquals(1, dataSource.getActiveConnections());
+
+		connection2.close();
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+	}
+
+	/**
+	 * Tests that the connection is released after the non-transactional reads and held for the duration of the transactions.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testReleaseAfterRead() {
+		final PooledDataSource dataSource = this.emf().unwrap(PooledDataSource.class);
+
+		this.persist(this.createFoo("foo"));
+		this.commit();
+		this.close();
+
+		final EntityManager em = this.emf().createEntityManager();
+		try {
+			Assert.assertEquals(0, dataSource.getActiveConnections());
+
+			Assert.assertEquals(1, em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+			Assert.assertEquals(0, dataSource.getActiveConnections());
+
+			em.getTransaction().begin();
+			em.persist(this.createFoo("foo2"));
+			em.flush();
+			Assert.assertEquals(1, dataSource.getActiveConnections());
+
+			Assert.assertEquals(2, em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+			Assert.assertEquals(1, dataSource.getActiveConnections());
+
+			em.getTransaction().commit();
+			Assert.assertEquals(0, dataSource.getActiveConnections());
+		}
+		finally {
+			em.close();
+		}
+	}
+
+	/**
+	 * Tests that the work left open on a connection is rolled back and the connection is reset before it is returned to the pool.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testResetOnRelease() throws SQLException {
+		final DataSourceProxy dataSourceProxy = this.emf().unwrap(DataSourceProxy.class);
+
+		this.persist(this.createFoo("foo"));
+		this.commit();
+		this.close();
+
+		final Connection connection = dataSourceProxy.getConnection();
+		connection.setAutoCommit(false);
+
+		final PreparedStatement statement = connection.prepareStatement("DELETE FROM Foo");
+		Assert.assertEquals(1, statement.executeUpdate());
+		statement.close();
+
+		connection.close();
+
+		final Connection connection2 = dataSourceProxy.getConnection();
+		try {
+			Assert.assertTrue(connection2.getAutoCommit());
+			Assert.assertFalse(connection2.isReadOnly());
+		}
+		finally {
+			connection2.close();
+		}
+
+		final EntityManager em = this.emf().createEntityManager();
+		Assert.assertEquals(1, em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+		em.close();
+	}
+
+	/**
+	 * Tests that the prepared statements are reused by the connection once they are closed.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStatementCache() throws SQLException {
+		final Connection connection = this.em().getConnection();
+
+		final PreparedStatement statement = connection.prepareStatement("SELECT * FROM Foo");
+		final PreparedStatement statement2 = connection.prepareStatement("SELECT * FROM Foo");
+
+		Assert.assertNotSame(statement, statement2);
+
+		statement.close();
+		statement2.close();
+
+		Assert.assertSame(statement, connection.prepareStatement("SELECT * FROM Foo"));
+		Assert.assertNotSame(statement, connection.prepareStatement("SELECT * FROM Foo", PreparedStatement.RETURN_GENERATED_KEYS));
+	}
+
+	/**
+	 * Tests that the prepared statements are reused across the entity managers borrowing the same physical connection.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStatementCacheAcrossEntityManagers() throws SQLException {
+		this.persist(this.createFoo("foo"));
+		this.commit();
+		this.close();
+
+		final PreparedStatement statement = this.readFoos();
+		final PreparedStatement statement2 = this.readFoos();
+
+		Assert.assertSame(statement, statement2);
+	}
+
+	/**
+	 * Tests that the unwrapped connection is kept by the entity manager after the non-transactional reads until it is closed.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testUnwrapConnection() throws SQLException {
+		final PooledDataSource dataSource = this.emf().unwrap(PooledDataSource.class);
+
+		this.persist(this.createFoo("foo"));
+		this.commit();
+		this.close();
+
+		final EntityManager em = this.emf().createEntityManager();
+		try {
+			final Connection connection = em.unwrap(Connection.class);
+			Assert.assertEquals(1, dataSource.getActiveConnections());
+
+			Assert.assertEquals(1, em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+			Assert.assertEquals(1, dataSource.getActiveConnections());
+			Assert.assertFalse(connection.isClosed());
+
+			final PreparedStatement statement = connection.prepareStatement("SELECT * FROM Foo");
+			try {
+				Assert.assertTrue(statement.executeQuery().next());
+			}
+			finally {
+				statement.close();
+			}
+		}
+		finally {
+			em.close();
+		}
+
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+	}
+}
@@ -24,12 +24,14 @@ import java.util.GregorianCalendar;
 
 import junit.framework.Assert;
 
+import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.test.BaseCoreTest;
 import org.batoo.jpa.core.test.q.Address;
 import org.batoo.jpa.core.test.q.Country;
 import org.batoo.jpa.core.test.q.HomePhone;
 import org.batoo.jpa.core.test.q.Person;
 import org.batoo.jpa.core.test.q.WorkPhone;
+import org.batoo.jpa.jdbc.dbutils.ColumnarResult;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -155,6 +157,73 @@ public class AggregationTest extends BaseCoreTest {
 			((Number) this.cq("select p.age, sum(p.age) from Person p group by p.age order by p.age", Object[].class).getResultList().get(0)[1]).intValue());
 	}
 
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testColumnar() {
+		this.persist(this.person(40));
+		this.persist(this.person(35));
+		this.persist(this.person(40));
+		this.commit();
+
+		this.close();
+
+		final ColumnarResult result = this.cq("select p.name, p.age, count(p) from Person p group by p.name, p.age order by p.age", Object[].class)
+			.unwrap(QueryImpl.class).getColumnarResult();
+
+		Assert.assertEquals(2, result.getRowCount());
+		Assert.assertEquals(3, result.getColumnCount());
+
+		Assert.assertEquals("Ceylan", result.getString(0, 0));
+		Assert.assertEquals(result.getStringCode(0, 0), result.getStringCode(1, 0));
+		Assert.assertEquals(1, result.getDictionary(0).length);
+
+		Assert.assertEquals(35, result.getLong(0, 1));
+		Assert.assertEquals(40, result.getLong(1, 1));
+
+		Assert.assertEquals(1, result.getLong(0, 2));
+		Assert.assertEquals(2, result.getLong(1, 2));
+	}
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testColumnarPaginated() {
+		this.persist(this.person(40));
+		this.persist(this.person(35));
+		this.persist(this.person(40));
+		this.commit();
+
+		this.close();
+
+		final QueryImpl<?> q = this.cq("select p.age, count(p) from Person p group by p.age order by p.age", Object[].class).unwrap(
+			QueryImpl.class);
+
+		ColumnarResult result = q.getColumnarResult();
+		Assert.assertEquals(2, result.getRowCount());
+
+		q.setFirstResult(1);
+		result = q.getColumnarResult();
+		Assert.assertEquals(1, result.getRowCount());
+		Assert.assertEquals(40, result.getLong(0, 0));
+		Assert.assertEquals(2, result.getLong(0, 1));
+
+		q.setFirstResult(0).setMaxResults(1);
+		result = q.getColumnarResult();
+		Assert.assertEquals(1, result.getRowCount());
+		Assert.assertEquals(35, result.getLong(0, 0));
+
+		q.setMaxResults(Integer.MAX_VALUE);
+		q.setAfter(35);
+		result = q.getColumnarResult();
+		Assert.assertEquals(1, result.getRowCount());
+		Assert.assertEquals(40, result.getLong(0, 0));
+	}
+
 	/**
 	 * 
 	 * @since 2.0.0
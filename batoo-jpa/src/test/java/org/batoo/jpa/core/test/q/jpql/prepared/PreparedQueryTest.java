@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.q.jpql.prepared;
+
+import java.sql.Connection;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.core.impl.criteria.PreparedQueryImpl;
+import org.batoo.jpa.core.impl.criteria.QueryImpl;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.core.test.q.Country;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author hceylan
+ * 
+ * @since 2.0.0
+ */
+public class PreparedQueryTest extends BaseCoreTest {
+
+	private static final String[] CODES = { "TR", "UK", "USA" };
+
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	@Before
+	public void prepareCountries() {
+		this.begin();
+
+		this.persist(new Country("TR", "Turkey"));
+		this.persist(new Country("UK", "United Kingdom"));
+		this.persist(new Country("USA", "United States of America"));
+
+		this.commit();
+	}
+
+	/**
+	 * Tests the batched execution of a prepared update.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBatch() {
+		this.begin();
+
+		final PreparedQueryImpl<Object> prepared = this.cu("update Country c set c.name = :name where c.code = :code").unwrap(QueryImpl.class).prepare();
+		final int code = prepared.getParameterIndex("code");
+		final int name = prepared.getParameterIndex("name");
+
+		final long prepares = this.emf().getSqlStatistics().getPrepareCount();
+
+		for (final String countryCode : PreparedQueryTest.CODES) {
+			prepared.setParameter(code, countryCode).setParameter(name, countryCode).addBatch();
+		}
+
+		Assert.assertEquals(3, prepared.executeBatch().length);
+
+		for (final String countryCode : PreparedQueryTest.CODES) {
+			prepared.setParameter(code, countryCode).setParameter(name, countryCode.toLowerCase()).addBatch();
+		}
+
+		final int[] updated = prepared.executeBatch();
+		Assert.assertEquals(3, updated.length);
+
+		// the statement of the handle is prepared once and reused for both the batches
+		Assert.assertEquals(prepares + 1, this.emf().getSqlStatistics().getPrepareCount());
+
+		this.commit();
+		this.close();
+
+		Assert.assertEquals("tr", this.find(Country.class, "TR").getName());
+		Assert.assertEquals("usa", this.find(Country.class, "USA").getName());
+	}
+
+	/**
+	 * Tests that the pending changes are flushed before the batch of a prepared update is executed.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBatchFlush() {
+		this.begin();
+
+		final PreparedQueryImpl<Object> prepared = this.cu("update Country c set c.name = :name where c.code = :code").unwrap(QueryImpl.class).prepare();
+		final int code = prepared.getParameterIndex("code");
+		final int name = prepared.getParameterIndex("name");
+
+		this.persist(new Country("BR", "Brazil"));
+		prepared.setParameter(code, "BR").setParameter(name, "brazil").addBatch();
+
+		this.persist(new Country("DE", "Germany"));
+		prepared.setParameter(code, "DE").setParameter(name, "germany").addBatch();
+
+		final int[] updated = prepared.executeBatch();
+		Assert.assertEquals(2, updated.length);
+
+		this.commit();
+		this.close();
+
+		Assert.assertEquals("brazil", this.find(Country.class, "BR").getName());
+		Assert.assertEquals("germany", this.find(Country.class, "DE").getName());
+	}
+
+	/**
+	 * Tests that closing the handle releases the connection held by the handle.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testClose() {
+		final PreparedQueryImpl<Country> prepared = this.cq("select c from Country c where c.code = ?1", Country.class).unwrap(QueryImpl.class).prepare();
+		final int code = prepared.getParameterIndex(1);
+
+		Assert.assertEquals(1, prepared.setParameter(code, "TR").getResultList().size());
+
+		final Connection connection = this.em().getConnection();
+
+		Assert.assertEquals(3, this.cq("select c from Country c", Country.class).getResultList().size());
+		Assert.assertSame(connection, this.em().getConnection());
+
+		prepared.close();
+
+		Assert.assertEquals(3, this.cq("select c from Country c", Country.class).getResultList().size());
+		Assert.assertNotSame(connection, this.em().getConnection());
+
+		Assert.assertEquals(1, prepared.setParameter(code, "UK").getResultList().size());
+	}
+
+	/**
+	 * Tests that the queries with hints cannot be prepared.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalStateException.class)
+	@SuppressWarnings("unchecked")
+	public void testHints() {
+		this.cq("select c from Country c", Country.class).setHint(BJPASettings.READ_ONLY, true).unwrap(QueryImpl.class).prepare();
+	}
+
+	/**
+	 * Tests that the parameters that expand to lists are rejected.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	@SuppressWarnings("unchecked")
+	public void testListParameter() {
+		final PreparedQueryImpl<Country> prepared = this.cq("select c from Country c where c.code in :codes", Country.class).unwrap(QueryImpl.class).prepare();
+
+		prepared.setParameter("codes", PreparedQueryTest.CODES);
+	}
+
+	/**
+	 * Tests that the paginated queries cannot be prepared.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test(expected = IllegalStateException.class)
+	@SuppressWarnings("unchecked")
+	public void testPaginated() {
+		this.cq("select c from Country c", Country.class).setMaxResults(2).unwrap(QueryImpl.class).prepare();
+	}
+
+	/**
+	 * Tests the repeated execution of a prepared select.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRepeatedSelect() {
+		final PreparedQueryImpl<Country> prepared = this.cq("select c from Country c where c.code = ?1", Country.class).unwrap(QueryImpl.class).prepare();
+		final int code = prepared.getParameterIndex(1);
+
+		final long prepares = this.emf().getSqlStatistics().getPrepareCount();
+
+		for (int i = 0; i < 10; i++) {
+			for (final String countryCode : PreparedQueryTest.CODES) {
+				final List<Country> countries = prepared.setParameter(code, countryCode).getResultList();
+
+				Assert.assertEquals(1, countries.size());
+				Assert.assertEquals(countryCode, countries.get(0).getCode());
+			}
+		}
+
+		Assert.assertEquals(0, prepared.setParameter(code, "BR").getResultList().size());
+
+		// the statement of the handle is prepared once and reused for all the executions
+		Assert.assertEquals(prepares + 1, this.emf().getSqlStatistics().getPrepareCount());
+	}
+}
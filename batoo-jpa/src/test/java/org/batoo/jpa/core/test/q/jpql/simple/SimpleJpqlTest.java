@@ -34,6 +34,7 @@ import javax.persistence.TypedQuery;
 
 import junit.framework.Assert;
 
+import org.batoo.jpa.core.impl.criteria.QueryImpl;
 import org.batoo.jpa.core.test.BaseCoreTest;
 import org.batoo.jpa.core.test.q.Address;
 import org.batoo.jpa.core.test.q.Country;
@@ -440,6 +441,28 @@ public class SimpleJpqlTest extends BaseCoreTest {
 		Assert.assertEquals("[0, 1]", q.getResultList().toString());
 	}
 
+	/**
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testKeysetPagination() {
+		final QueryImpl<String> q = this.cq("select c.code from Country c order by c.code", String.class).unwrap(QueryImpl.class);
+		q.setMaxResults(2);
+
+		Assert.assertEquals(Lists.newArrayList(SimpleJpqlTest.COUNTRY_CODE_BR, SimpleJpqlTest.COUNTRY_CODE_TR), q.getResultList());
+		Assert.assertEquals(Lists.newArrayList(SimpleJpqlTest.COUNTRY_CODE_UK, SimpleJpqlTest.COUNTRY_CODE_USA),
+			q.setAfter(SimpleJpqlTest.COUNTRY_CODE_TR).getResultList());
+		Assert.assertEquals(0, q.setAfter(SimpleJpqlTest.COUNTRY_CODE_USA).getResultList().size());
+
+		final QueryImpl<String> q2 = this.cq("select c.code from Country c where c.name is not null order by c.name desc, c.code asc", String.class).unwrap(
+			QueryImpl.class);
+
+		Assert.assertEquals(Lists.newArrayList(SimpleJpqlTest.COUNTRY_CODE_TR),
+			q2.setAfter(SimpleJpqlTest.COUNTRY_UK, SimpleJpqlTest.COUNTRY_CODE_UK).getResultList());
+	}
+
 	/**
 	 * 
 	 * @since 2.0.0
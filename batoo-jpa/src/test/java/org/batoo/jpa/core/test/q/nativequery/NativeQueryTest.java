@@ -22,6 +22,7 @@ import java.util.List;
 
 import javax.persistence.Query;
 
+import org.batoo.jpa.core.impl.nativeQuery.NativeQuery;
 import org.batoo.jpa.core.test.BaseCoreTest;
 import org.batoo.jpa.core.test.q.Item;
 import org.batoo.jpa.core.test.q.Item2;
@@ -29,6 +30,7 @@ import org.batoo.jpa.core.test.q.Item3;
 import org.batoo.jpa.core.test.q.Order;
 import org.batoo.jpa.core.test.q.Order2;
 import org.batoo.jpa.core.test.q.Order3;
+import org.batoo.jpa.jdbc.dbutils.ColumnarResult;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -82,6 +84,34 @@ public class NativeQueryTest extends BaseCoreTest {
 
 	}
 
+	@Test
+	public void testColumnarResult() {
+		final Item i1 = new Item("item1", "the item 1.");
+
+		this.persist(new Order(30, i1));
+		this.persist(new Order(20, i1));
+		this.persist(new Order(3, i1));
+
+		this.commit();
+		this.close();
+
+		final NativeQuery q = (NativeQuery) this.em().createNativeQuery("SELECT o.quantity, i.name " //
+			+ "FROM ORDER_T o, Item i "//
+			+ "WHERE (o.quantity > ?) AND (o.item_id = i.id) "//
+			+ "ORDER BY o.quantity").setParameter(0, 5);
+
+		final ColumnarResult result = q.getColumnarResult();
+
+		Assert.assertEquals(2, result.getRowCount());
+		Assert.assertEquals(2, result.getColumnCount());
+
+		Assert.assertEquals(20, result.getLong(0, 0));
+		Assert.assertEquals(30, result.getLong(1, 0));
+
+		Assert.assertEquals("item1", result.getString(0, 1));
+		Assert.assertEquals(result.getStringCode(0, 1), result.getStringCode(1, 1));
+	}
+
 	@Test
 	@Ignore
 	public void testDiscriminatorValue() {
@@ -220,6 +250,27 @@ public class NativeQueryTest extends BaseCoreTest {
 
 	}
 
+	@Test
+	public void testRepeatedSelectWithResultClass() {
+		final Item i1 = new Item("item1", "the item 1.");
+
+		this.persist(new Order(20, i1));
+
+		this.commit();
+		this.close();
+
+		final String sql = "SELECT o.item_id, o.quantity, o.id FROM ORDER_T o";
+
+		Assert.assertEquals(20, ((Order) this.em().createNativeQuery(sql, Order.class).getSingleResult()).getQuantity().intValue());
+		Assert.assertNotNull(this.emf().getNativeResultPlan(sql + "\n" + Order.class.getName()));
+
+		this.close();
+
+		final Order order = (Order) this.em().createNativeQuery(sql, Order.class).getSingleResult();
+		Assert.assertEquals(20, order.getQuantity().intValue());
+		Assert.assertEquals("item1", order.getItem().getName());
+	}
+
 	@Test
 	public void testSimpleMultipleSelect() {
 		final Item i1 = new Item("item1", "the item 1.");
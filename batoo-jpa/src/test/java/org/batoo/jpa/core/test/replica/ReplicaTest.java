@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.replica;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.BJPASettings;
+import org.batoo.jpa.core.impl.manager.EntityTransactionImpl;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.jdbc.dbutils.QueryRunner;
+import org.junit.Test;
+
+/**
+ * Tests for the read replicas.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class ReplicaTest extends BaseCoreTest {
+
+	private static final String[] REPLICAS = { "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1", "jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1" };
+
+	private boolean prepare() throws SQLException {
+		// the replicas are in memory H2 databases
+		if (!"h2".equals(System.getProperty("testMode"))) {
+			return false;
+		}
+
+		for (final String replica : ReplicaTest.REPLICAS) {
+			final Connection connection = DriverManager.getConnection(replica, System.getProperty("javax.persistence.jdbc.user"),
+				System.getProperty("javax.persistence.jdbc.password"));
+			try {
+				final QueryRunner runner = new QueryRunner();
+
+				runner.update(connection, "DROP TABLE IF EXISTS Foo");
+				runner.update(connection, "CREATE TABLE Foo (id INTEGER NOT NULL, value VARCHAR(255), PRIMARY KEY (id))");
+				runner.update(connection, "INSERT INTO Foo (id, value) VALUES (1000, 'replica')");
+			}
+			finally {
+				connection.close();
+			}
+		}
+
+		final Foo foo = new Foo();
+		foo.setValue("primary");
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		return true;
+	}
+
+	private String select(EntityManager em, boolean readOnly) {
+		final List<Foo> foos = em.createQuery("select f from Foo f", Foo.class) //
+			.setHint(BJPASettings.READ_ONLY, readOnly) //
+			.getResultList();
+
+		Assert.assertEquals(1, foos.size());
+
+		return foos.get(0).getValue();
+	}
+
+	/**
+	 * Tests that the queries hinted as read-only are served by the replicas within a transaction.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testReadOnlyHint() throws SQLException {
+		if (!this.prepare()) {
+			return;
+		}
+
+		final EntityManager em = this.emf().createEntityManager();
+		em.getTransaction().begin();
+
+		Assert.assertEquals("replica", this.select(em, true));
+		Assert.assertEquals("primary", this.select(em, false));
+
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * Tests that the reads in read-only transactions are served by the replicas.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testReadOnlyTransaction() throws SQLException {
+		if (!this.prepare()) {
+			return;
+		}
+
+		final EntityManager em = this.emf().createEntityManager();
+
+		final EntityTransactionImpl tx = (EntityTransactionImpl) em.getTransaction();
+		tx.setReadOnly(true);
+		tx.begin();
+
+		Assert.assertEquals("replica", this.select(em, false));
+
+		tx.commit();
+		em.close();
+	}
+
+	/**
+	 * Tests that the reads outside the transactions are served by the replicas.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testReadOutsideTransaction() throws SQLException {
+		if (!this.prepare()) {
+			return;
+		}
+
+		for (int i = 0; i < ReplicaTest.REPLICAS.length; i++) {
+			final EntityManager em = this.emf().createEntityManager();
+
+			Assert.assertEquals("replica", this.select(em, false));
+
+			em.close();
+		}
+	}
+
+	/**
+	 * Tests that the reads are served by the primary once the entity manager writes.
+	 * 
+	 * @throws SQLException
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStickyPrimary() throws SQLException {
+		if (!this.prepare()) {
+			return;
+		}
+
+		final EntityManager em = this.emf().createEntityManager();
+
+		Assert.assertEquals("replica", this.select(em, false));
+
+		em.getTransaction().begin();
+		em.createQuery("update Foo f set f.value = :value").setParameter("value", "updated").executeUpdate();
+		em.getTransaction().commit();
+
+		em.clear();
+
+		Assert.assertEquals("updated", this.select(em, false));
+		Assert.assertEquals("updated", this.select(em, true));
+
+		em.close();
+	}
+}
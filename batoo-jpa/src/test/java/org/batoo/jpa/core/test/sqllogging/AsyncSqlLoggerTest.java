@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.sqllogging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Locale;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.jdbc.AsyncSqlLogger;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AsyncSqlLogger}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class AsyncSqlLoggerTest extends BaseCoreTest {
+
+	private static final String LOG_FILE = "target/batoo-sql-test.log";
+
+	private String read(long offset) throws IOException {
+		final RandomAccessFile file = new RandomAccessFile(AsyncSqlLoggerTest.LOG_FILE, "r");
+		try {
+			final byte[] bytes = new byte[(int) (file.length() - offset)];
+
+			file.seek(offset);
+			file.readFully(bytes);
+
+			return new String(bytes, "UTF-8");
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Tests that the statements are written to the log file by the background thread.
+	 * 
+	 * @throws Exception
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testAsyncLogging() throws Exception {
+		final AsyncSqlLogger sqlLogger = this.emf().getSqlLogger();
+
+		Assert.assertNotNull(sqlLogger);
+
+		final long offset = new File(AsyncSqlLoggerTest.LOG_FILE).length();
+		final long written = sqlLogger.getWrittenCount();
+
+		final Foo foo = new Foo();
+		foo.setValue("foo");
+
+		this.persist(foo);
+		this.commit();
+		this.close();
+
+		Assert.assertEquals(1, this.cq("select f from Foo f", Foo.class).getResultList().size());
+
+		// wait for the background thread to drain the buffer
+		final long deadline = System.currentTimeMillis() + 10000;
+		while ((sqlLogger.getWrittenCount() < (written + 2)) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(10);
+		}
+
+		Assert.assertEquals(0, sqlLogger.getDroppedCount());
+
+		// the file is flushed once the buffer is drained
+		String log = this.read(offset).toUpperCase(Locale.ENGLISH);
+		while ((!log.contains("INSERT INTO FOO") || !log.contains("FROM FOO")) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(10);
+
+			log = this.read(offset).toUpperCase(Locale.ENGLISH);
+		}
+
+		Assert.assertTrue(log.contains("EXECUTEUPDATE()") || log.contains("EXECUTEBATCH()"));
+		Assert.assertTrue(log.contains("EXECUTEQUERY()"));
+		Assert.assertTrue(log.contains("INSERT INTO FOO"));
+		Assert.assertTrue(log.contains("FROM FOO"));
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.core.test.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManager;
+
+import junit.framework.Assert;
+
+import org.batoo.jpa.core.BatooEntityManager;
+import org.batoo.jpa.core.test.BaseCoreTest;
+import org.batoo.jpa.jdbc.statistics.SqlStatistics;
+import org.batoo.jpa.jdbc.statistics.StatementStatisticsSnapshot;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SqlStatistics}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class SqlStatisticsTest extends BaseCoreTest {
+
+	private static final int COUNT = 5;
+
+	private void createFoos() {
+		for (int i = 0; i < SqlStatisticsTest.COUNT; i++) {
+			final Foo foo = new Foo();
+			foo.setValue("foo" + i);
+
+			this.persist(foo);
+		}
+
+		this.commit();
+		this.close();
+	}
+
+	private StatementStatisticsSnapshot find(List<StatementStatisticsSnapshot> snapshot, String prefix) {
+		for (final StatementStatisticsSnapshot statement : snapshot) {
+			final String sql = statement.getSql().toUpperCase(Locale.ENGLISH);
+			if (sql.startsWith(prefix) && sql.contains("FOO")) {
+				return statement;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Tests that the statistics are exposed through the MBean.
+	 * 
+	 * @throws Exception
+	 *             thrown if fails
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testMBean() throws Exception {
+		this.createFoos();
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final Set<ObjectName> names = server.queryNames(new ObjectName("org.batoo.jpa:type=SqlStatistics,*"), null);
+
+		Assert.assertFalse(names.isEmpty());
+
+		long executions = 0;
+		for (final ObjectName name : names) {
+			executions += (Long) server.getAttribute(name, "ExecutionCount");
+		}
+
+		Assert.assertTrue(executions > 0);
+	}
+
+	/**
+	 * Tests the normalization of the SQL.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testNormalize() {
+		Assert.assertEquals("SELECT T0.ID FROM FOO T0 WHERE T0.ID IN (?, ...) AND T0.VALUE = ? LIMIT ?",
+			SqlStatistics.normalize("SELECT T0.ID\n  FROM FOO T0 WHERE T0.ID IN (1, 2, 3) AND T0.VALUE = 'it''s' LIMIT 10"));
+
+		Assert.assertEquals(SqlStatistics.normalize("SELECT * FROM FOO WHERE ID = 1"), SqlStatistics.normalize("SELECT * FROM FOO WHERE ID = 2"));
+	}
+
+	/**
+	 * Tests that the executions and the rows of the statements are recorded.
+	 * 
+	 * @since 2.0.0
+	 */
+	@Test
+	public void testStatistics() {
+		this.createFoos();
+
+		for (int i = 0; i < SqlStatisticsTest.COUNT; i++) {
+			final EntityManager em = this.emf().createEntityManager();
+			Assert.assertEquals(SqlStatisticsTest.COUNT, em.createQuery("select f from Foo f", Foo.class).getResultList().size());
+			em.close();
+		}
+
+		final List<StatementStatisticsSnapshot> snapshot = ((BatooEntityManager) this.em()).getSqlStatistics();
+
+		final StatementStatisticsSnapshot insert = this.find(snapshot, "INSERT");
+		Assert.assertNotNull(insert);
+		Assert.assertEquals(SqlStatisticsTest.COUNT, insert.getRows());
+
+		final StatementStatisticsSnapshot select = this.find(snapshot, "SELECT");
+		Assert.assertNotNull(select);
+		Assert.assertEquals(SqlStatisticsTest.COUNT, select.getExecutions());
+		Assert.assertEquals(SqlStatisticsTest.COUNT * SqlStatisticsTest.COUNT, select.getRows());
+		Assert.assertTrue(select.getMedianTime() <= select.getMaxTime());
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.parser.impl.metadata;
+
+import org.batoo.jpa.annotations.FetchAttribute;
+import org.batoo.jpa.annotations.FetchStrategyType;
+import org.batoo.jpa.parser.metadata.FetchAttributeMetadata;
+
+/**
+ * Implementation of {@link FetchAttributeMetadata}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class FetchAttributeMetadataImpl implements FetchAttributeMetadata {
+
+	private final String path;
+	private final FetchStrategyType strategy;
+
+	/**
+	 * @param annotation
+	 *            the annotation
+	 * 
+	 * @since 2.0.0
+	 */
+	public FetchAttributeMetadataImpl(FetchAttribute annotation) {
+		super();
+
+		this.path = annotation.path();
+		this.strategy = annotation.strategy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getPath() {
+		return this.path;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public FetchStrategyType getStrategy() {
+		return this.strategy;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.parser.impl.metadata;
+
+import java.util.List;
+
+import org.batoo.jpa.annotations.FetchAttribute;
+import org.batoo.jpa.annotations.FetchProfile;
+import org.batoo.jpa.parser.AbstractLocator;
+import org.batoo.jpa.parser.metadata.FetchAttributeMetadata;
+import org.batoo.jpa.parser.metadata.FetchProfileMetadata;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Implementation of {@link FetchProfileMetadata}.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public class FetchProfileMetadataImpl implements FetchProfileMetadata {
+
+	private final AbstractLocator locator;
+	private final String name;
+	private final int maxDepth;
+	private final List<FetchAttributeMetadata> attributes = Lists.newArrayList();
+
+	/**
+	 * @param locator
+	 *            the java locator
+	 * @param annotation
+	 *            the annotation
+	 * 
+	 * @since 2.0.0
+	 */
+	public FetchProfileMetadataImpl(AbstractLocator locator, FetchProfile annotation) {
+		super();
+
+		this.locator = locator;
+		this.name = annotation.name();
+		this.maxDepth = annotation.maxDepth();
+
+		for (final FetchAttribute attribute : annotation.attributes()) {
+			this.attributes.add(new FetchAttributeMetadataImpl(attribute));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public List<FetchAttributeMetadata> getAttributes() {
+		return this.attributes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public AbstractLocator getLocator() {
+		return this.locator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getName() {
+		return this.name;
+	}
+}
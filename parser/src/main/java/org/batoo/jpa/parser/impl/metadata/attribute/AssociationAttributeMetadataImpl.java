@@ -69,6 +69,7 @@ public class AssociationAttributeMetadataImpl extends AttributeMetadataImpl impl
 	private final int maxFetchDepth;
 
 	private final FetchStrategyType fetchStrategy;
+	private final int batchSize;
 
 	private final JoinTableMetadata joinTable;
 	private final List<JoinColumnMetadata> joinColumns = Lists.newArrayList();
@@ -91,6 +92,7 @@ public class AssociationAttributeMetadataImpl extends AttributeMetadataImpl impl
 
 		this.joinColumns.addAll(Lists.newArrayList(metadata.getJoinColumns()));
 		this.fetchStrategy = metadata.getFetchStrategy();
+		this.batchSize = metadata.getBatchSize();
 	}
 
 	/**
@@ -127,10 +129,12 @@ public class AssociationAttributeMetadataImpl extends AttributeMetadataImpl impl
 		if (fetchStrategy != null) {
 			this.maxFetchDepth = fetchStrategy.maxDepth() > 0 ? fetchStrategy.maxDepth() : Integer.MAX_VALUE;
 			this.fetchStrategy = fetchStrategy.strategy();
+			this.batchSize = fetchStrategy.batchSize() > 1 ? fetchStrategy.batchSize() : 1;
 		}
 		else {
 			this.maxFetchDepth = Integer.MAX_VALUE;
 			this.fetchStrategy = FetchStrategyType.AUTO;
+			this.batchSize = 1;
 		}
 
 		if ((joinColumns != null) && (joinColumns.value().length > 0)) {
@@ -159,6 +163,15 @@ public class AssociationAttributeMetadataImpl extends AttributeMetadataImpl impl
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
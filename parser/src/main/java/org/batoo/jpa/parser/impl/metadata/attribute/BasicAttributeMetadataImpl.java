@@ -31,6 +31,7 @@ import javax.persistence.Lob;
 import org.batoo.common.reflect.ReflectHelper;
 import org.batoo.jpa.annotations.ColumnTransformer;
 import org.batoo.jpa.annotations.Index;
+import org.batoo.jpa.annotations.LazyGroup;
 import org.batoo.jpa.parser.impl.metadata.ColumnTransformerMetadataImpl;
 import org.batoo.jpa.parser.impl.metadata.IndexMetadataImpl;
 import org.batoo.jpa.parser.metadata.ColumnTransformerMetadata;
@@ -51,6 +52,7 @@ public class BasicAttributeMetadataImpl extends PhysicalAttributeMetadataImpl im
 	private final FetchType fetchType;
 	private final IndexMetadata index;
 	private final ColumnTransformerMetadata columnTransformer;
+	private final String lazyGroup;
 
 	/**
 	 * @param member
@@ -69,6 +71,7 @@ public class BasicAttributeMetadataImpl extends PhysicalAttributeMetadataImpl im
 		this.fetchType = metadata.getFetchType();
 		this.index = metadata.getIndex();
 		this.columnTransformer = metadata.getColumnTransformer();
+		this.lazyGroup = metadata.getLazyGroup();
 	}
 
 	/**
@@ -89,6 +92,7 @@ public class BasicAttributeMetadataImpl extends PhysicalAttributeMetadataImpl im
 		final Enumerated enumerated = ReflectHelper.getAnnotation(member, Enumerated.class);
 		final Index index = ReflectHelper.getAnnotation(member, Index.class);
 		final ColumnTransformer columnTransformer = ReflectHelper.getAnnotation(member, ColumnTransformer.class);
+		final LazyGroup lazyGroup = ReflectHelper.getAnnotation(member, LazyGroup.class);
 
 		parsed.add(Lob.class);
 		parsed.add(Basic.class);
@@ -96,6 +100,7 @@ public class BasicAttributeMetadataImpl extends PhysicalAttributeMetadataImpl im
 		parsed.add(Basic.class);
 		parsed.add(Index.class);
 		parsed.add(ColumnTransformer.class);
+		parsed.add(LazyGroup.class);
 
 		this.optional = basic != null ? basic.optional() : true;
 		this.fetchType = basic != null ? basic.fetch() : FetchType.EAGER;
@@ -103,6 +108,7 @@ public class BasicAttributeMetadataImpl extends PhysicalAttributeMetadataImpl im
 		this.enumType = enumerated != null ? enumerated.value() : null;
 		this.index = index != null ? new IndexMetadataImpl(this.getLocator(), index, this.getName()) : null;
 		this.columnTransformer = columnTransformer != null ? new ColumnTransformerMetadataImpl(this.getLocator(), columnTransformer) : null;
+		this.lazyGroup = lazyGroup != null ? lazyGroup.value() : null;
 	}
 
 	/**
@@ -141,6 +147,15 @@ public class BasicAttributeMetadataImpl extends PhysicalAttributeMetadataImpl im
 		return this.index;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getLazyGroup() {
+		return this.lazyGroup;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -46,11 +46,14 @@ import javax.persistence.Table;
 import javax.persistence.TableGenerator;
 
 import org.apache.commons.lang.StringUtils;
+import org.batoo.jpa.annotations.FetchProfile;
+import org.batoo.jpa.annotations.FetchProfiles;
 import org.batoo.jpa.annotations.Index;
 import org.batoo.jpa.annotations.Indexes;
 import org.batoo.jpa.parser.impl.metadata.AssociationOverrideMetadataImpl;
 import org.batoo.jpa.parser.impl.metadata.AttributeOverrideMetadataImpl;
 import org.batoo.jpa.parser.impl.metadata.DiscriminatorColumnMetadataImpl;
+import org.batoo.jpa.parser.impl.metadata.FetchProfileMetadataImpl;
 import org.batoo.jpa.parser.impl.metadata.IndexMetadataImpl;
 import org.batoo.jpa.parser.impl.metadata.NamedNativeQueryMetadataImpl;
 import org.batoo.jpa.parser.impl.metadata.NamedQueryMetadataImpl;
@@ -62,6 +65,7 @@ import org.batoo.jpa.parser.impl.metadata.TableMetadataImpl;
 import org.batoo.jpa.parser.metadata.AssociationMetadata;
 import org.batoo.jpa.parser.metadata.AttributeOverrideMetadata;
 import org.batoo.jpa.parser.metadata.DiscriminatorColumnMetadata;
+import org.batoo.jpa.parser.metadata.FetchProfileMetadata;
 import org.batoo.jpa.parser.metadata.IndexMetadata;
 import org.batoo.jpa.parser.metadata.NamedNativeQueryMetadata;
 import org.batoo.jpa.parser.metadata.NamedQueryMetadata;
@@ -95,6 +99,7 @@ public class EntityMetadataImpl extends IdentifiableMetadataImpl implements Enti
 	private final List<NamedNativeQueryMetadata> namedNativeQueries = Lists.newArrayList();
 	private final List<SqlResultSetMappingMetadata> sqlResultSetMappings = Lists.newArrayList();
 	private final List<IndexMetadata> indexes = Lists.newArrayList();
+	private final List<FetchProfileMetadata> fetchProfiles = Lists.newArrayList();
 	private InheritanceType inheritanceType;
 	private DiscriminatorColumnMetadata discriminatorColumn;
 	private String discriminatorValue;
@@ -142,6 +147,9 @@ public class EntityMetadataImpl extends IdentifiableMetadataImpl implements Enti
 
 		// handle index
 		this.handleIndexes(metadata, parsed);
+
+		// handle fetch profiles
+		this.handleFetchProfiles(metadata, parsed);
 	}
 
 	/**
@@ -189,6 +197,15 @@ public class EntityMetadataImpl extends IdentifiableMetadataImpl implements Enti
 		return this.discriminatorValue;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public List<FetchProfileMetadata> getFetchProfiles() {
+		return this.fetchProfiles;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -389,6 +406,41 @@ public class EntityMetadataImpl extends IdentifiableMetadataImpl implements Enti
 		return null;
 	}
 
+	/**
+	 * Handles the fetch profile definitions of the entity.
+	 * 
+	 * @param metadata
+	 *            the metadata
+	 * @param parsed
+	 *            the set of annotations parsed
+	 * 
+	 * @since 2.0.0
+	 */
+	private void handleFetchProfiles(EntityMetadata metadata, Set<Class<? extends Annotation>> parsed) {
+		if ((metadata != null) && (metadata.getFetchProfiles().size() > 0)) {
+			this.fetchProfiles.addAll(metadata.getFetchProfiles());
+
+			return;
+		}
+
+		final FetchProfiles fetchProfiles = this.getClazz().getAnnotation(FetchProfiles.class);
+		if ((fetchProfiles != null) && (fetchProfiles.value().length > 0)) {
+			parsed.add(FetchProfiles.class);
+
+			for (final FetchProfile fetchProfile : fetchProfiles.value()) {
+				this.fetchProfiles.add(new FetchProfileMetadataImpl(this.getLocator(), fetchProfile));
+			}
+		}
+		else {
+			final FetchProfile fetchProfile = this.getClazz().getAnnotation(FetchProfile.class);
+			parsed.add(FetchProfile.class);
+
+			if (fetchProfile != null) {
+				this.fetchProfiles.add(new FetchProfileMetadataImpl(this.getLocator(), fetchProfile));
+			}
+		}
+	}
+
 	/**
 	 * Handles the index definitions of the entity.
 	 * 
@@ -90,6 +90,15 @@ public abstract class AssociationElement extends AttributeElement implements Ass
 		this.fetchType = FetchType.valueOf(this.getAttribute(ElementConstants.ATTR_FETCH, this.fetchType.name()));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public int getBatchSize() {
+		return 1;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
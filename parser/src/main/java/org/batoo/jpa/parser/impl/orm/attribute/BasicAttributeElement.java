@@ -109,6 +109,15 @@ public class BasicAttributeElement extends PhysicalAttributeElement implements B
 		return null;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public String getLazyGroup() {
+		return null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
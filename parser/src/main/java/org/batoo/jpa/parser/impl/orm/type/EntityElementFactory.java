@@ -43,6 +43,7 @@ import org.batoo.jpa.parser.metadata.AttributeOverrideMetadata;
 import org.batoo.jpa.parser.metadata.CallbackMetadata;
 import org.batoo.jpa.parser.metadata.DiscriminatorColumnMetadata;
 import org.batoo.jpa.parser.metadata.EntityListenerMetadata;
+import org.batoo.jpa.parser.metadata.FetchProfileMetadata;
 import org.batoo.jpa.parser.metadata.IndexMetadata;
 import org.batoo.jpa.parser.metadata.InheritanceMetadata;
 import org.batoo.jpa.parser.metadata.NamedNativeQueryMetadata;
@@ -247,6 +248,15 @@ public class EntityElementFactory extends ParentElement implements EntityMetadat
 		return this.idClass;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 */
+	@Override
+	public List<FetchProfileMetadata> getFetchProfiles() {
+		return Lists.newArrayList();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
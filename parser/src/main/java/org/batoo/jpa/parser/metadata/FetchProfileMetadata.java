@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012 - Batoo Software ve Consultancy Ltd.
+ * 
+ * This copyrighted material is made available to anyone wishing to use, modify,
+ * copy, or redistribute it subject to the terms and conditions of the GNU
+ * Lesser General Public License, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution; if not, write to:
+ * Free Software Foundation, Inc.
+ * 51 Franklin Street, Fifth Floor
+ * Boston, MA  02110-1301  USA
+ */
+package org.batoo.jpa.parser.metadata;
+
+import java.util.List;
+
+/**
+ * The definition for fetch profiles.
+ * 
+ * @author hceylan
+ * @since 2.0.0
+ */
+public interface FetchProfileMetadata extends BindableMetadata {
+
+	/**
+	 * Returns the list of attributes of the fetch profile.
+	 * 
+	 * @return the list of attributes of the fetch profile
+	 * 
+	 * @since 2.0.0
+	 */
+	List<FetchAttributeMetadata> getAttributes();
+
+	/**
+	 * Returns the maximum depth of the eager fetch joins, <code>-1</code> if not specified.
+	 * 
+	 * @return the maximum depth of the eager fetch joins
+	 * 
+	 * @since 2.0.0
+	 */
+	int getMaxDepth();
+}
@@ -43,6 +43,15 @@ public interface AssociationAttributeMetadata extends AttributeMetadata, Associa
 	 */
 	Set<CascadeType> getCascades();
 
+	/**
+	 * Returns the number of owners to load the association at once for batch fetches.
+	 * 
+	 * @return the number of owners to load the association at once for batch fetches
+	 * 
+	 * @since 2.0.0
+	 */
+	int getBatchSize();
+
 	/**
 	 * Returns the fetching strategy for eager joins.
 	 * 
@@ -68,6 +68,15 @@ public interface BasicAttributeMetadata extends PhysicalAttributeMetadata {
 	 */
 	IndexMetadata getIndex();
 
+	/**
+	 * Returns the name of the lazy group of the attribute.
+	 * 
+	 * @return the name of the lazy group of the attribute or <code>null</code> if not specified
+	 * 
+	 * @since 2.0.0
+	 */
+	String getLazyGroup();
+
 	/**
 	 * Returns if the basic attribute is lob.
 	 * 
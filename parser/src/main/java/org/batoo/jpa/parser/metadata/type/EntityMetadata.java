@@ -26,6 +26,7 @@ import org.batoo.jpa.parser.metadata.AssociationMetadata;
 import org.batoo.jpa.parser.metadata.AttributeOverrideMetadata;
 import org.batoo.jpa.parser.metadata.BindableMetadata;
 import org.batoo.jpa.parser.metadata.DiscriminatorColumnMetadata;
+import org.batoo.jpa.parser.metadata.FetchProfileMetadata;
 import org.batoo.jpa.parser.metadata.IndexMetadata;
 import org.batoo.jpa.parser.metadata.NamedNativeQueryMetadata;
 import org.batoo.jpa.parser.metadata.NamedQueryMetadata;
@@ -88,6 +89,15 @@ public interface EntityMetadata extends IdentifiableTypeMetadata, BindableMetada
 	 */
 	String getDiscriminatorValue();
 
+	/**
+	 * Returns the list of fetch profiles of the entity.
+	 * 
+	 * @return the list of fetch profiles of the entity
+	 * 
+	 * @since 2.0.0
+	 */
+	List<FetchProfileMetadata> getFetchProfiles();
+
 	/**
 	 * Returns the list of indexes of the entity.
 	 * 